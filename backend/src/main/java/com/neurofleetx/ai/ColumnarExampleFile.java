@@ -0,0 +1,112 @@
+package com.neurofleetx.ai;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only, memory-mapped view of a columnar training example file.
+ *
+ * Layout (little-endian): a 32-byte header with magic "NFXC", format version
+ * (int), feature count (int), row count (int) and column stride (int), followed
+ * by {@code featureCount} feature columns and one label column. Each column is
+ * {@code stride} float32 values; only the first {@code rows} are used.
+ */
+public final class ColumnarExampleFile implements AutoCloseable {
+
+    static final int MAGIC = 0x4358464E; // "NFXC" read little-endian
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 32;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int featureCount;
+    private final int rows;
+    private final int stride;
+
+    private ColumnarExampleFile(FileChannel channel, MappedByteBuffer buffer, int featureCount, int rows, int stride) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.featureCount = featureCount;
+        this.rows = rows;
+        this.stride = stride;
+    }
+
+    public static ColumnarExampleFile open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid example file size: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not an example file (bad magic)");
+            }
+            if (buffer.getInt(4) != FORMAT_VERSION) {
+                throw new IOException("Unsupported example file version: " + buffer.getInt(4));
+            }
+            int featureCount = buffer.getInt(8);
+            int rows = buffer.getInt(12);
+            int stride = buffer.getInt(16);
+            if (featureCount <= 0 || rows < 0 || stride < rows || fileSize(featureCount, stride) > size) {
+                throw new IOException("Corrupt example file header");
+            }
+            return new ColumnarExampleFile(channel, buffer, featureCount, rows, stride);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getFeatureCount() {
+        return featureCount;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public float feature(int row, int column) {
+        return buffer.getFloat(valueOffset(stride, column, row));
+    }
+
+    public float label(int row) {
+        return buffer.getFloat(valueOffset(stride, featureCount, row));
+    }
+
+    /**
+     * Copy the features of {@code row} into {@code out} starting at {@code offset}
+     */
+    public void readRow(int row, double[] out, int offset) {
+        for (int column = 0; column < featureCount; column++) {
+            out[offset + column] = buffer.getFloat(valueOffset(stride, column, row));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    static long fileSize(int featureCount, int stride) {
+        return HEADER_BYTES + (long) (featureCount + 1) * stride * Float.BYTES;
+    }
+
+    static int valueOffset(int stride, int column, int row) {
+        return (int) (HEADER_BYTES + ((long) column * stride + row) * Float.BYTES);
+    }
+
+    static void writeHeader(ByteBuffer buffer, int featureCount, int rows, int stride) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putInt(8, featureCount);
+        buffer.putInt(12, rows);
+        buffer.putInt(16, stride);
+    }
+}
@@ -0,0 +1,86 @@
+package com.neurofleetx.ai;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes labeled training examples in the columnar layout read by
+ * {@link ColumnarExampleFile}.
+ *
+ * The file is sized for {@code capacity} rows up front and memory-mapped, so
+ * each value is written straight into its column without buffering the
+ * examples on the heap. The header is written last; until {@link #finish()}
+ * the data lives in a temporary file.
+ */
+public final class ColumnarExampleWriter implements AutoCloseable {
+
+    private final Path target;
+    private final Path tmp;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int featureCount;
+    private final int capacity;
+    private int rows;
+    private boolean finished;
+
+    public ColumnarExampleWriter(Path target, int featureCount, int capacity) throws IOException {
+        long size = ColumnarExampleFile.fileSize(featureCount, capacity);
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Too many examples for one file: " + capacity);
+        }
+        this.target = target;
+        this.featureCount = featureCount;
+        this.capacity = capacity;
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        this.tmp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+        this.channel = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Append one example; {@code features} must hold {@code featureCount} values
+     */
+    public void add(float[] features, float label) throws IOException {
+        if (rows == capacity) {
+            throw new IOException("Example file capacity of " + capacity + " rows exceeded");
+        }
+        for (int column = 0; column < featureCount; column++) {
+            buffer.putFloat(ColumnarExampleFile.valueOffset(capacity, column, rows), features[column]);
+        }
+        buffer.putFloat(ColumnarExampleFile.valueOffset(capacity, featureCount, rows), label);
+        rows++;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Write the header, flush and move the file into place
+     */
+    public void finish() throws IOException {
+        ColumnarExampleFile.writeHeader(buffer, featureCount, rows, capacity);
+        buffer.force();
+        channel.close();
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.close();
+        }
+        if (!finished) {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
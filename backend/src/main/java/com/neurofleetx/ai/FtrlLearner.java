@@ -0,0 +1,91 @@
+package com.neurofleetx.ai;
+
+/**
+ * FTRL-Proximal logistic regression (McMahan et al.) over dense features.
+ *
+ * Per-coordinate state is two primitive arrays, so memory stays fixed no
+ * matter how many examples are seen. The last coordinate is the bias. Not
+ * thread-safe: one thread owns the learner and publishes snapshots.
+ */
+final class FtrlLearner {
+
+    private final double alpha;
+    private final double beta;
+    private final double l1;
+    private final double l2;
+
+    private final double[] z;
+    private final double[] n;
+    private final double[] w;   // weights derived from z and n, refreshed on every update
+
+    private long updates;
+
+    FtrlLearner(int featureCount, double alpha, double beta, double l1, double l2) {
+        this.alpha = alpha;
+        this.beta = beta;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.z = new double[featureCount + 1];
+        this.n = new double[featureCount + 1];
+        this.w = new double[featureCount + 1];
+    }
+
+    /**
+     * Reset the state so the learner starts from the given weights
+     */
+    void warmStart(double[] weights, double bias) {
+        for (int i = 0; i < z.length; i++) {
+            double weight = i < weights.length ? weights[i] : bias;
+            // Invert the weight formula for n = 0
+            z[i] = -weight * (beta / alpha + l2) - Math.signum(weight) * l1;
+            n[i] = 0.0;
+            w[i] = weight;
+        }
+    }
+
+    /**
+     * One online step on example {@code features[offset..]} with label in [0, 1]
+     */
+    void update(double[] features, int offset, double label) {
+        int bias = z.length - 1;
+        double score = w[bias];
+        for (int i = 0; i < bias; i++) {
+            score += w[i] * features[offset + i];
+        }
+        double gradient = 1.0 / (1.0 + Math.exp(-score)) - label;
+
+        for (int i = 0; i <= bias; i++) {
+            double x = i == bias ? 1.0 : features[offset + i];
+            if (x == 0.0) {
+                continue;
+            }
+            double g = gradient * x;
+            double sigma = (Math.sqrt(n[i] + g * g) - Math.sqrt(n[i])) / alpha;
+            z[i] += g - sigma * w[i];
+            n[i] += g * g;
+            w[i] = weight(i);
+        }
+        updates++;
+    }
+
+    private double weight(int i) {
+        if (Math.abs(z[i]) <= l1) {
+            return 0.0;
+        }
+        return -(z[i] - Math.signum(z[i]) * l1) / ((beta + Math.sqrt(n[i])) / alpha + l2);
+    }
+
+    /**
+     * Immutable model with the current weights
+     */
+    LinearModel snapshot() {
+        int bias = w.length - 1;
+        double[] weights = new double[bias];
+        System.arraycopy(w, 0, weights, 0, bias);
+        return new LinearModel(ModelType.LOGISTIC, weights, w[bias]);
+    }
+
+    long getUpdates() {
+        return updates;
+    }
+}
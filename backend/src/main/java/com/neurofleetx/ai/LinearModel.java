@@ -0,0 +1,59 @@
+package com.neurofleetx.ai;
+
+import java.util.Arrays;
+
+/**
+ * Linear or logistic model: {@code bias + sum(weights[i] * x[i])}. The link
+ * function (sigmoid for logistic models) is applied by the caller so both
+ * kinds share the same raw score.
+ */
+public final class LinearModel implements Model {
+
+    private final ModelType type;
+    private final double[] weights;
+    private final double bias;
+
+    public LinearModel(ModelType type, double[] weights, double bias) {
+        if (type != ModelType.LINEAR && type != ModelType.LOGISTIC) {
+            throw new IllegalArgumentException("Not a linear model type: " + type);
+        }
+        this.type = type;
+        this.weights = weights.clone();
+        this.bias = bias;
+    }
+
+    @Override
+    public ModelType getType() {
+        return type;
+    }
+
+    @Override
+    public int getFeatureCount() {
+        return weights.length;
+    }
+
+    @Override
+    public double score(double[] features, int offset) {
+        double score = bias;
+        for (int i = 0; i < weights.length; i++) {
+            score += weights[i] * features[offset + i];
+        }
+        return score;
+    }
+
+    /**
+     * Copy of the weights, e.g. to continue training from this model
+     */
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    public double getBias() {
+        return bias;
+    }
+
+    @Override
+    public String toString() {
+        return type + "{weights=" + Arrays.toString(weights) + ", bias=" + bias + "}";
+    }
+}
@@ -0,0 +1,35 @@
+package com.neurofleetx.ai;
+
+/**
+ * A loaded scoring model. Implementations are immutable so a reference can be
+ * swapped atomically while other threads are still scoring with the old one.
+ */
+public interface Model {
+
+    /**
+     * Kind of model, recorded in the serialized header
+     */
+    ModelType getType();
+
+    /**
+     * Number of input features each row must provide
+     */
+    int getFeatureCount();
+
+    /**
+     * Score a single row starting at {@code offset} in {@code features}.
+     * Must not allocate.
+     */
+    double score(double[] features, int offset);
+
+    /**
+     * Score {@code rows} rows laid out back to back in {@code features} and write
+     * the raw scores into {@code out}. Must not allocate.
+     */
+    default void scoreBatch(double[] features, int rows, double[] out) {
+        int featureCount = getFeatureCount();
+        for (int row = 0; row < rows; row++) {
+            out[row] = score(features, row * featureCount);
+        }
+    }
+}
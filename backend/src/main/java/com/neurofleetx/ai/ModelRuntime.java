@@ -0,0 +1,141 @@
+package com.neurofleetx.ai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+
+/**
+ * Holds the active model of a {@link ModelStore} and hot-reloads it when the
+ * store on disk changes. The bean serves the maintenance model; other kinds
+ * create their own runtime over their own store. Scoring threads read a single volatile reference, so a
+ * reload or a freshly trained model takes effect atomically without locking.
+ */
+@Component
+public class ModelRuntime {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRuntime.class);
+
+    @Autowired
+    private ModelStore modelStore;
+
+    public ModelRuntime() {
+    }
+
+    /**
+     * A runtime outside the container; the owner calls {@link #loadAtStartup()}
+     * and {@link #reloadIfChanged()} itself
+     */
+    public ModelRuntime(ModelStore modelStore) {
+        this.modelStore = modelStore;
+    }
+
+    private volatile Model model;
+
+    // Store version the current model came from, null for in-memory models
+    private volatile Integer modelVersion;
+
+    // Incremented on every install, so callers can tell whether predictions may have changed
+    private volatile long generation;
+
+    // Value of ModelStore.lastChange() when the store was last examined
+    private volatile long seenStoreChange = -1;
+
+    /**
+     * Load the latest good model so predictions survive restarts
+     */
+    @PostConstruct
+    public void loadAtStartup() {
+        reloadIfChanged();
+    }
+
+    /**
+     * Poll the model store and swap in the active model if it changed. A version
+     * that fails to load is skipped and the newest intact one is used instead.
+     */
+    @Scheduled(fixedDelayString = "${ai.model.reload-interval-ms:5000}")
+    public void reloadIfChanged() {
+        long change = modelStore.lastChange();
+        if (change == seenStoreChange) {
+            return;
+        }
+        seenStoreChange = change;
+        ModelStore.LoadedModel loaded = modelStore.loadLatestGood();
+        if (loaded == null) {
+            return;
+        }
+        if (modelVersion == null || modelVersion != loaded.getVersion()) {
+            install(loaded.getModel(), loaded.getVersion());
+            logger.info("Loaded {} model version {}: {}", modelStore.getName(), loaded.getVersion(), loaded.getModel());
+        }
+    }
+
+    /**
+     * Current model, or null if none has been loaded or installed yet
+     */
+    public Model getModel() {
+        return model;
+    }
+
+    /**
+     * Store version of the current model, or null if it was never saved
+     */
+    public Integer getModelVersion() {
+        return modelVersion;
+    }
+
+    /**
+     * Number of models installed so far, including in-memory ones
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Save {@code newModel} as a new version, activate it and make it the active
+     * model, e.g. after training
+     * @return The new version number
+     */
+    public int saveAndActivate(Model newModel) throws IOException {
+        int version = modelStore.save(newModel);
+        modelStore.activate(version);
+        install(newModel, version);
+        return version;
+    }
+
+    /**
+     * Serve {@code newModel} without saving it, e.g. a promoted online model.
+     * It stays active until a store change or another install replaces it.
+     */
+    public void promote(Model newModel) {
+        install(newModel, null);
+    }
+
+    /**
+     * Switch to an existing version without retraining
+     */
+    public void activate(int version) throws IOException {
+        ModelStore.LoadedModel loaded = modelStore.activate(version);
+        install(loaded.getModel(), loaded.getVersion());
+    }
+
+    /**
+     * Switch back to the previously active version
+     * @return The version now active
+     */
+    public int rollback() throws IOException {
+        ModelStore.LoadedModel loaded = modelStore.rollback();
+        install(loaded.getModel(), loaded.getVersion());
+        return loaded.getVersion();
+    }
+
+    private synchronized void install(Model newModel, Integer version) {
+        model = newModel;
+        modelVersion = version;
+        generation++;
+    }
+}
@@ -0,0 +1,207 @@
+package com.neurofleetx.ai;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Reads and writes models in the NeuroFleetX binary model format.
+ *
+ * Layout (big-endian): magic "NFXM", format version (short), model type code (byte),
+ * feature count (int), followed by the type-specific body and, from format
+ * version 2, a CRC32 (int) of every preceding byte:
+ * <ul>
+ *   <li>LINEAR / LOGISTIC: bias (double), weights (double[featureCount])</li>
+ *   <li>TREE_ENSEMBLE: base score (double), tree count (int), node count (int),
+ *       roots (int[trees]), split features (int[nodes]), left children (int[nodes]),
+ *       thresholds / leaf values (double[nodes])</li>
+ * </ul>
+ */
+public final class ModelSerializer {
+
+    static final int MAGIC = 0x4E46584D; // "NFXM"
+    static final short FORMAT_VERSION = 2;
+    // Version 1 files have no checksum trailer but are still readable
+    static final short FORMAT_VERSION_NO_CHECKSUM = 1;
+
+    // Guards against allocating huge arrays from a corrupt header
+    private static final int MAX_FEATURES = 1 << 16;
+    private static final int MAX_NODES = 1 << 26;
+    // Magic, format version, type code and feature count
+    private static final int HEADER_BYTES = 11;
+
+    private ModelSerializer() {
+    }
+
+    public static Model read(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return read(in, Files.size(path));
+        }
+    }
+
+    public static Model read(InputStream stream) throws IOException {
+        return read(stream, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param length Bytes in the stream, so array sizes from a corrupt header are
+     *               rejected before anything is allocated
+     */
+    public static Model read(InputStream stream, long length) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(stream, new CRC32());
+        DataInputStream in = new DataInputStream(checked);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a model file (bad magic)");
+        }
+        short version = in.readShort();
+        if (version != FORMAT_VERSION && version != FORMAT_VERSION_NO_CHECKSUM) {
+            throw new IOException("Unsupported model format version: " + version);
+        }
+        Model model = readBody(in, length - HEADER_BYTES);
+        if (version == FORMAT_VERSION) {
+            long expected = checked.getChecksum().getValue();
+            long stored = in.readInt() & 0xFFFFFFFFL;
+            if (stored != expected) {
+                throw new IOException("Model checksum mismatch");
+            }
+        }
+        return model;
+    }
+
+    /**
+     * @param remaining Bytes after the header, including the checksum trailer
+     */
+    private static Model readBody(DataInputStream in, long remaining) throws IOException {
+        int code = in.readUnsignedByte();
+        ModelType type;
+        try {
+            type = ModelType.fromCode(code);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown model type code: " + code, e);
+        }
+        int featureCount = checkedCount(in.readInt(), MAX_FEATURES, "feature count");
+
+        switch (type) {
+            case LINEAR:
+            case LOGISTIC: {
+                double bias = in.readDouble();
+                checkLength((long) featureCount * Double.BYTES, remaining - Double.BYTES);
+                double[] weights = readDoubles(in, featureCount);
+                return new LinearModel(type, weights, bias);
+            }
+            case TREE_ENSEMBLE: {
+                double baseScore = in.readDouble();
+                int treeCount = checkedCount(in.readInt(), MAX_NODES, "tree count");
+                int nodeCount = checkedCount(in.readInt(), MAX_NODES, "node count");
+                checkLength((long) treeCount * Integer.BYTES + (long) nodeCount * (2 * Integer.BYTES + Double.BYTES),
+                        remaining - Double.BYTES - 2 * Integer.BYTES);
+                int[] roots = readInts(in, treeCount);
+                int[] splitFeature = readInts(in, nodeCount);
+                int[] leftChild = readInts(in, nodeCount);
+                double[] values = readDoubles(in, nodeCount);
+                try {
+                    return new TreeEnsembleModel(featureCount, baseScore, roots, splitFeature, leftChild, values);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid tree ensemble: " + e.getMessage(), e);
+                }
+            }
+            default:
+                throw new IOException("Unsupported model type: " + type);
+        }
+    }
+
+    /**
+     * Write the model to a temporary sibling file and move it into place so a
+     * concurrent reader never sees a half-written model.
+     */
+    public static void write(Model model, Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                write(model, out);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public static void write(Model model, OutputStream stream) throws IOException {
+        CheckedOutputStream checked = new CheckedOutputStream(stream, new CRC32());
+        DataOutputStream out = new DataOutputStream(checked);
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeByte(model.getType().getCode());
+        out.writeInt(model.getFeatureCount());
+
+        if (model instanceof LinearModel linear) {
+            out.writeDouble(linear.getBias());
+            writeDoubles(out, linear.getWeights());
+        } else if (model instanceof TreeEnsembleModel trees) {
+            out.writeDouble(trees.getBaseScore());
+            out.writeInt(trees.getTreeRoots().length);
+            out.writeInt(trees.getSplitFeature().length);
+            writeInts(out, trees.getTreeRoots());
+            writeInts(out, trees.getSplitFeature());
+            writeInts(out, trees.getLeftChild());
+            writeDoubles(out, trees.getValues());
+        } else {
+            throw new IOException("Cannot serialize model of class " + model.getClass().getName());
+        }
+        out.writeInt((int) checked.getChecksum().getValue());
+        out.flush();
+    }
+
+    private static int checkedCount(int count, int max, String what) throws IOException {
+        if (count < 0 || count > max) {
+            throw new IOException("Invalid " + what + ": " + count);
+        }
+        return count;
+    }
+
+    private static void checkLength(long needed, long remaining) throws IOException {
+        if (needed > remaining) {
+            throw new IOException("Model body needs " + needed + " bytes, only " + remaining + " remain");
+        }
+    }
+
+    private static double[] readDoubles(DataInputStream in, int count) throws IOException {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readDouble();
+        }
+        return values;
+    }
+
+    private static int[] readInts(DataInputStream in, int count) throws IOException {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    private static void writeDoubles(DataOutputStream out, double[] values) throws IOException {
+        for (double value : values) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+}
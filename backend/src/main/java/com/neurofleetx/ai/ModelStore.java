@@ -0,0 +1,329 @@
+package com.neurofleetx.ai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Versioned on-disk store for models of one kind, by default maintenance models.
+ *
+ * Each saved model is written once as {@code <name>-v<N>.nfxm} and never
+ * modified. The {@code ACTIVE} file records the activation history, one version
+ * per line, with the active version last; rolling back drops the last line.
+ */
+@Component
+public class ModelStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelStore.class);
+
+    private static final String ACTIVE_FILE = "ACTIVE";
+
+    @Value("${ai.model.dir:models}")
+    private String modelDir;
+
+    // File name prefix, also used in log messages
+    private final String name;
+    private final Pattern filePattern;
+
+    // Not a monitor: file I/O under synchronized would pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * The maintenance model store in {@code ai.model.dir}
+     */
+    public ModelStore() {
+        this.name = "maintenance";
+        this.filePattern = Pattern.compile(Pattern.quote(name) + "-v(\\d+)\\.nfxm");
+    }
+
+    /**
+     * A store for another kind of model. Give each kind its own directory,
+     * since the activation history file is per directory.
+     */
+    public ModelStore(String modelDir, String name) {
+        this.modelDir = modelDir;
+        this.name = name;
+        this.filePattern = Pattern.compile(Pattern.quote(name) + "-v(\\d+)\\.nfxm");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * A model together with the version it was loaded from
+     */
+    public static class LoadedModel {
+        private final int version;
+        private final Model model;
+
+        LoadedModel(int version, Model model) {
+            this.version = version;
+            this.model = model;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public Model getModel() {
+            return model;
+        }
+    }
+
+    /**
+     * Persist {@code model} as a new version. The version is not activated.
+     * @return The new version number
+     */
+    public int save(Model model) throws IOException {
+        lock.lock();
+        try {
+            Files.createDirectories(dir());
+            int version = versions().stream().max(Integer::compare).orElse(0) + 1;
+            ModelSerializer.write(model, fileFor(version));
+            logger.info("Saved {} model version {}", name, version);
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Model load(int version) throws IOException {
+        Path path = fileFor(version);
+        if (!Files.isRegularFile(path)) {
+            throw new IOException("Model version " + version + " does not exist");
+        }
+        return ModelSerializer.read(path);
+    }
+
+    /**
+     * Make {@code version} the active model. The file is verified first so a
+     * corrupt version can never become active.
+     */
+    public LoadedModel activate(int version) throws IOException {
+        lock.lock();
+        try {
+            Model model;
+            try {
+                model = load(version);
+            } catch (RuntimeException e) {
+                throw new IOException("Model version " + version + " is not usable: " + e.getMessage(), e);
+            }
+            List<Integer> history = readHistory();
+            history.add(version);
+            writeHistory(history);
+            logger.info("Activated {} model version {}", name, version);
+            return new LoadedModel(version, model);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Re-activate the version that was active before the current one, skipping
+     * versions that no longer load.
+     */
+    public LoadedModel rollback() throws IOException {
+        lock.lock();
+        try {
+            List<Integer> history = readHistory();
+            if (!history.isEmpty()) {
+                history.remove(history.size() - 1);
+            }
+            while (!history.isEmpty()) {
+                int version = history.get(history.size() - 1);
+                try {
+                    Model model = load(version);
+                    writeHistory(history);
+                    logger.info("Rolled back {} model to version {}", name, version);
+                    return new LoadedModel(version, model);
+                } catch (IOException | RuntimeException e) {
+                    // A damaged file must not stop the rollback from reaching an intact version
+                    logger.warn("Skipping unreadable model version {} during rollback: {}", version, e.getMessage());
+                    history.remove(history.size() - 1);
+                }
+            }
+            throw new IOException("No earlier model version to roll back to");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The newest model that loads cleanly: the active version if it is intact,
+     * otherwise earlier activations, otherwise the highest saved version.
+     * @return The model, or null if no usable version exists
+     */
+    public LoadedModel loadLatestGood() {
+        lock.lock();
+        try {
+            List<Integer> candidates = new ArrayList<>();
+            List<Integer> history;
+            try {
+                history = readHistory();
+            } catch (IOException e) {
+                logger.warn("Unable to read model activation history", e);
+                history = new ArrayList<>();
+            }
+            for (int i = history.size() - 1; i >= 0; i--) {
+                candidates.add(history.get(i));
+            }
+            List<Integer> saved = versions();
+            saved.sort(Comparator.reverseOrder());
+            candidates.addAll(saved);
+
+            for (int version : candidates) {
+                try {
+                    return new LoadedModel(version, load(version));
+                } catch (IOException | RuntimeException e) {
+                    // Also reached at startup, where a damaged file must not stop the application
+                    logger.warn("Model version {} is not usable: {}", version, e.getMessage());
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The active version, or null when nothing has been activated
+     */
+    public Integer getActiveVersion() {
+        lock.lock();
+        try {
+            try {
+                List<Integer> history = readHistory();
+                return history.isEmpty() ? null : history.get(history.size() - 1);
+            } catch (IOException e) {
+                logger.warn("Unable to read model activation history", e);
+                return null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<ModelVersion> listVersions() {
+        Integer active = getActiveVersion();
+        List<Integer> saved = versions();
+        saved.sort(Comparator.reverseOrder());
+
+        List<ModelVersion> result = new ArrayList<>();
+        for (int version : saved) {
+            Path path = fileFor(version);
+            try {
+                long size = Files.size(path);
+                Instant createdAt = Files.getLastModifiedTime(path).toInstant();
+                try {
+                    Model model = ModelSerializer.read(path);
+                    result.add(new ModelVersion(version, createdAt, size, model.getType(), model.getFeatureCount(),
+                            true, active != null && active == version, null));
+                } catch (IOException | RuntimeException e) {
+                    result.add(new ModelVersion(version, createdAt, size, null, null,
+                            false, active != null && active == version, e.getMessage()));
+                }
+            } catch (IOException e) {
+                logger.warn("Unable to stat model version {}", version, e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Changes whenever a version is saved or the activation history changes,
+     * so callers can cheaply poll for external updates.
+     */
+    public long lastChange() {
+        long change = 0;
+        try {
+            if (Files.isDirectory(dir())) {
+                change = Files.getLastModifiedTime(dir()).toMillis();
+            }
+            Path active = dir().resolve(ACTIVE_FILE);
+            if (Files.isRegularFile(active)) {
+                change = Math.max(change, Files.getLastModifiedTime(active).toMillis());
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to check model directory {}", dir(), e);
+        }
+        return change;
+    }
+
+    private List<Integer> versions() {
+        List<Integer> versions = new ArrayList<>();
+        if (!Files.isDirectory(dir())) {
+            return versions;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir())) {
+            for (Path file : files) {
+                Matcher matcher = filePattern.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    versions.add(Integer.parseInt(matcher.group(1)));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to list model directory {}", dir(), e);
+        }
+        return versions;
+    }
+
+    private List<Integer> readHistory() throws IOException {
+        List<Integer> history = new ArrayList<>();
+        Path path = dir().resolve(ACTIVE_FILE);
+        if (!Files.isRegularFile(path)) {
+            return history;
+        }
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty()) {
+                try {
+                    history.add(Integer.parseInt(trimmed));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Corrupt activation history line: " + trimmed, e);
+                }
+            }
+        }
+        return history;
+    }
+
+    private void writeHistory(List<Integer> history) throws IOException {
+        Files.createDirectories(dir());
+        StringBuilder content = new StringBuilder();
+        for (int version : history) {
+            content.append(version).append('\n');
+        }
+        Path tmp = Files.createTempFile(dir(), ACTIVE_FILE, ".tmp");
+        try {
+            Files.writeString(tmp, content, StandardCharsets.UTF_8);
+            Files.move(tmp, dir().resolve(ACTIVE_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private Path fileFor(int version) {
+        return dir().resolve(name + "-v" + version + ".nfxm");
+    }
+
+    private Path dir() {
+        return Paths.get(modelDir);
+    }
+}
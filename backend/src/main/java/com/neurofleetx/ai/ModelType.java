@@ -0,0 +1,30 @@
+package com.neurofleetx.ai;
+
+/**
+ * Model families understood by {@link ModelSerializer}. The code is the byte
+ * written to the model file header, so existing values must never change.
+ */
+public enum ModelType {
+    LINEAR(1),
+    LOGISTIC(2),
+    TREE_ENSEMBLE(3);
+
+    private final int code;
+
+    ModelType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static ModelType fromCode(int code) {
+        for (ModelType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown model type code: " + code);
+    }
+}
@@ -0,0 +1,62 @@
+package com.neurofleetx.ai;
+
+import java.time.Instant;
+
+/**
+ * Metadata about one saved model version, as listed by {@link ModelStore}
+ */
+public class ModelVersion {
+
+    private final int version;
+    private final Instant createdAt;
+    private final long sizeBytes;
+    private final ModelType type;
+    private final Integer featureCount;
+    private final boolean valid;
+    private final boolean active;
+    private final String error;
+
+    public ModelVersion(int version, Instant createdAt, long sizeBytes, ModelType type, Integer featureCount,
+                        boolean valid, boolean active, String error) {
+        this.version = version;
+        this.createdAt = createdAt;
+        this.sizeBytes = sizeBytes;
+        this.type = type;
+        this.featureCount = featureCount;
+        this.valid = valid;
+        this.active = active;
+        this.error = error;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public ModelType getType() {
+        return type;
+    }
+
+    public Integer getFeatureCount() {
+        return featureCount;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
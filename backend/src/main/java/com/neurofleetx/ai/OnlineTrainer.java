@@ -0,0 +1,222 @@
+package com.neurofleetx.ai;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Incremental learning for the maintenance model.
+ *
+ * Labeled examples are queued in a bounded buffer and applied one at a time to
+ * a shadow {@link FtrlLearner} on the training executor, so the cost is
+ * proportional to new data rather than fleet size. The shadow is periodically
+ * promoted to the {@link ModelRuntime} by swapping in an immutable snapshot, and
+ * checkpointed to the model store less often.
+ */
+@Component
+public class OnlineTrainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OnlineTrainer.class);
+
+    @Value("${ai.online.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ai.online.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${ai.online.alpha:0.1}")
+    private double alpha;
+
+    @Value("${ai.online.beta:1.0}")
+    private double beta;
+
+    @Value("${ai.online.l1:0.0}")
+    private double l1;
+
+    @Value("${ai.online.l2:0.01}")
+    private double l2;
+
+    @Autowired
+    private ModelRuntime modelRuntime;
+
+    @Autowired
+    @Qualifier("trainingExecutor")
+    private ExecutorService trainingExecutor;
+
+    private BlockingQueue<double[]> pending;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Set by the owning service before any example is submitted
+    private int featureCount;
+    private Supplier<LinearModel> warmStartModel;
+
+    // Shadow state, only touched on the training executor
+    private FtrlLearner learner;
+    private Model seededFrom;
+    private long promotedUpdates;
+
+    private volatile Model lastPromoted;
+    private volatile boolean checkpointed = true;
+    private volatile long appliedUpdates;
+    private volatile Instant lastPromotedAt;
+
+    @PostConstruct
+    public void init() {
+        pending = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Set the feature layout and where the shadow model should be seeded from
+     */
+    void configure(int featureCount, Supplier<LinearModel> warmStartModel) {
+        this.featureCount = featureCount;
+        this.warmStartModel = warmStartModel;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a labeled example. When the buffer is full the example is dropped
+     * rather than blocking the caller.
+     * @param label Target in [0, 1]
+     * @return true if the example was accepted
+     */
+    public boolean submit(double[] features, double label) {
+        if (!enabled) {
+            return false;
+        }
+        double[] example = Arrays.copyOf(features, featureCount + 1);
+        example[featureCount] = label;
+        if (!pending.offer(example)) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        submitted.incrementAndGet();
+        if (drainScheduled.compareAndSet(false, true)) {
+            trainingExecutor.execute(this::drain);
+        }
+        return true;
+    }
+
+    private void drain() {
+        // Cleared first so examples submitted while draining schedule another pass
+        drainScheduled.set(false);
+        ensureSeeded();
+        double[] example;
+        long applied = 0;
+        while ((example = pending.poll()) != null) {
+            learner.update(example, 0, example[featureCount]);
+            applied++;
+        }
+        if (applied > 0) {
+            appliedUpdates = learner.getUpdates();
+        }
+    }
+
+    /**
+     * (Re)start the shadow from the serving model whenever something other than
+     * this trainer replaced it, e.g. a batch training run or a rollback
+     */
+    private void ensureSeeded() {
+        Model current = modelRuntime.getModel();
+        if (learner != null && (current == seededFrom || current == lastPromoted)) {
+            return;
+        }
+        LinearModel start = warmStartModel.get();
+        learner = new FtrlLearner(featureCount, alpha, beta, l1, l2);
+        learner.warmStart(start.getWeights(), start.getBias());
+        seededFrom = current;
+        promotedUpdates = 0;
+    }
+
+    /**
+     * Publish the shadow model if it has learned anything since the last promotion
+     */
+    @Scheduled(fixedDelayString = "${ai.online.promote-interval-ms:60000}")
+    public void scheduledPromote() {
+        if (enabled) {
+            trainingExecutor.execute(this::promote);
+        }
+    }
+
+    private void promote() {
+        if (learner == null || learner.getUpdates() == promotedUpdates) {
+            return;
+        }
+        LinearModel snapshot = learner.snapshot();
+        promotedUpdates = learner.getUpdates();
+        lastPromoted = snapshot;
+        checkpointed = false;
+        lastPromotedAt = Instant.now();
+        modelRuntime.promote(snapshot);
+    }
+
+    /**
+     * Force a promotion now instead of waiting for the next interval
+     */
+    public void promoteNow() {
+        if (enabled) {
+            trainingExecutor.execute(() -> {
+                drain();
+                promote();
+            });
+        }
+    }
+
+    /**
+     * Save the last promoted model as a new store version so it survives a restart
+     */
+    @Scheduled(fixedDelayString = "${ai.online.checkpoint-interval-ms:3600000}")
+    public void checkpoint() {
+        Model promoted = lastPromoted;
+        if (!enabled || checkpointed || promoted == null || modelRuntime.getModel() != promoted) {
+            return;
+        }
+        try {
+            int version = modelRuntime.saveAndActivate(promoted);
+            checkpointed = true;
+            logger.info("Checkpointed online model as version {}", version);
+        } catch (IOException e) {
+            logger.error("Failed to checkpoint online model", e);
+        }
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getAppliedUpdates() {
+        return appliedUpdates;
+    }
+
+    public int getPending() {
+        return pending.size();
+    }
+
+    public Instant getLastPromotedAt() {
+        return lastPromotedAt;
+    }
+}
@@ -1,10 +1,16 @@
 package com.neurofleetx.ai;
 
 import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.payload.response.MaintenancePrediction;
+import com.neurofleetx.payload.response.MaintenancePrediction.ComponentHealth;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class PredictiveMaintenanceService {
@@ -12,19 +18,37 @@ public class PredictiveMaintenanceService {
     // Machine learning model parameters
     private static final double LEARNING_RATE = 0.01;
     private static final int EPOCHS = 1000;
+    // Passes over ledger examples; the ledger can hold millions of rows
+    private static final int LEDGER_EPOCHS = 10;
     
-    // Feature weights for the linear regression model
-    private Map<String, Double> featureWeights;
+    // Feature order shared by extraction, training and the serialized models: the
+    // current snapshot followed by the windowed telemetry features
+    static final String[] SNAPSHOT_FEATURE_NAMES = {"batteryLevel", "fuelLevel", "healthScore", "mileage", "speed", "ageFactor"};
+    static final int SNAPSHOT_FEATURE_COUNT = SNAPSHOT_FEATURE_NAMES.length;
+    public static final int FEATURE_COUNT = SNAPSHOT_FEATURE_COUNT + TelemetryFeatureExtractor.FEATURE_COUNT;
     
-    public PredictiveMaintenanceService() {
-        // Initialize feature weights randomly
-        featureWeights = new HashMap<>();
-        featureWeights.put("batteryLevel", ThreadLocalRandom.current().nextDouble(-1, 1));
-        featureWeights.put("fuelLevel", ThreadLocalRandom.current().nextDouble(-1, 1));
-        featureWeights.put("healthScore", ThreadLocalRandom.current().nextDouble(-1, 1));
-        featureWeights.put("mileage", ThreadLocalRandom.current().nextDouble(-1, 1));
-        featureWeights.put("speed", ThreadLocalRandom.current().nextDouble(-1, 1));
-        featureWeights.put("ageFactor", ThreadLocalRandom.current().nextDouble(-1, 1));
+    // Deterministic fallback used until a trained model is loaded, so predictions
+    // are stable across restarts
+    private static final double[] DEFAULT_WEIGHTS = {-2.0, -1.5, -3.0, 1.5, 0.3, 1.0, 0.2, 0.5, 1.0, 0.8, 0.5};
+    private static final double DEFAULT_BIAS = 2.5;
+    private static final Model DEFAULT_MODEL = new LinearModel(ModelType.LOGISTIC, DEFAULT_WEIGHTS, DEFAULT_BIAS);
+    
+    @Autowired
+    private ModelRuntime modelRuntime;
+    
+    @Autowired
+    private TelemetryFeatureExtractor telemetryFeatureExtractor;
+    
+    @Autowired
+    private OnlineTrainer onlineTrainer;
+    
+    // Off by default: the ledger provides real labels, and the heuristic would pull the model back toward itself
+    @Value("${ai.online.heuristic-labels:false}")
+    private boolean heuristicLabels;
+    
+    @PostConstruct
+    public void init() {
+        onlineTrainer.configure(FEATURE_COUNT, this::warmStartModel);
     }
     
     /**
@@ -32,15 +56,55 @@ public class PredictiveMaintenanceService {
      * @param vehicle The vehicle to analyze
      * @return Detailed prediction results
      */
-    public Map<String, Object> predictMaintenance(Vehicle vehicle) {
-        Map<String, Object> prediction = new HashMap<>();
-        
+    public MaintenancePrediction predictMaintenance(Vehicle vehicle) {
         // Extract features
         double[] features = extractFeatures(vehicle);
         
         // Apply machine learning model
-        double maintenanceScore = predictMaintenanceScore(features);
+        double maintenanceScore = activeModel().score(features, 0);
         
+        return buildPrediction(vehicle, maintenanceScore);
+    }
+    
+    /**
+     * Predict maintenance needs for many vehicles with a single batch pass through the model
+     * @param vehicles The vehicles to analyze
+     * @return Prediction results keyed by vehicle id
+     */
+    public Map<Long, MaintenancePrediction> predictMaintenanceBatch(List<Vehicle> vehicles) {
+        int rows = vehicles.size();
+        double[] features = new double[rows * FEATURE_COUNT];
+        for (int row = 0; row < rows; row++) {
+            extractFeatures(vehicles.get(row), features, row * FEATURE_COUNT);
+        }
+        
+        double[] scores = new double[rows];
+        activeModel().scoreBatch(features, rows, scores);
+        
+        Map<Long, MaintenancePrediction> predictions = new HashMap<>();
+        for (int row = 0; row < rows; row++) {
+            Vehicle vehicle = vehicles.get(row);
+            predictions.put(vehicle.getId(), buildPrediction(vehicle, scores[row]));
+        }
+        return predictions;
+    }
+    
+    /**
+     * The model currently used for scoring. Falls back to the built-in default
+     * when nothing is loaded or the loaded model expects a different feature set.
+     */
+    private Model activeModel() {
+        Model model = modelRuntime.getModel();
+        if (model == null || model.getFeatureCount() != FEATURE_COUNT) {
+            return DEFAULT_MODEL;
+        }
+        return model;
+    }
+    
+    /**
+     * Turn a raw model score into the prediction response
+     */
+    private MaintenancePrediction buildPrediction(Vehicle vehicle, double maintenanceScore) {
         // Convert score to maintenance probability
         double maintenanceProbability = sigmoid(maintenanceScore);
         
@@ -54,7 +118,7 @@ public class PredictiveMaintenanceService {
         String maintenanceType = determineMaintenanceType(vehicle, maintenanceScore);
         
         // Component-specific predictions
-        Map<String, Object> componentPredictions = predictComponentHealth(vehicle);
+        ComponentHealth componentPredictions = predictComponentHealth(vehicle);
         
         // Recommended actions
         String[] recommendedActions = getRecommendedActions(maintenanceType);
@@ -62,22 +126,23 @@ public class PredictiveMaintenanceService {
         // Confidence score
         double confidence = Math.abs(maintenanceScore) / (Math.abs(maintenanceScore) + 1);
         
-        // Populate prediction map
-        prediction.put("needsMaintenance", needsMaintenance);
-        prediction.put("maintenanceType", maintenanceType);
-        prediction.put("predictedDays", predictedDays);
-        prediction.put("probability", maintenanceProbability);
-        prediction.put("confidence", confidence);
-        prediction.put("components", componentPredictions);
-        prediction.put("recommendedActions", recommendedActions);
-        
-        return prediction;
+        return new MaintenancePrediction(needsMaintenance, maintenanceType, predictedDays,
+                maintenanceProbability, confidence, componentPredictions, recommendedActions);
     }
     
     /**
      * Extract features from vehicle data for the ML model
      */
-    private double[] extractFeatures(Vehicle vehicle) {
+    public double[] extractFeatures(Vehicle vehicle) {
+        double[] features = new double[FEATURE_COUNT];
+        extractFeatures(vehicle, features, 0);
+        return features;
+    }
+    
+    /**
+     * Write the features of one vehicle into {@code out} starting at {@code offset}
+     */
+    private void extractFeatures(Vehicle vehicle, double[] out, int offset) {
         double batteryLevel = vehicle.getBatteryLevel() != null ? vehicle.getBatteryLevel() : 100.0;
         double fuelLevel = vehicle.getFuelLevel() != null ? vehicle.getFuelLevel() : 100.0;
         int healthScore = vehicle.getHealthScore() != null ? vehicle.getHealthScore() : 80;
@@ -87,31 +152,15 @@ public class PredictiveMaintenanceService {
         // Calculate age factor based on mileage (assuming 15,000 miles per year)
         double ageFactor = Math.min(1.0, mileage / 150000.0);
         
-        return new double[] {
-            batteryLevel / 100.0,     // Normalize to 0-1
-            fuelLevel / 100.0,        // Normalize to 0-1
-            healthScore / 100.0,      // Normalize to 0-1
-            mileage / 200000.0,       // Normalize assuming max 200k miles
-            speed / 120.0,            // Normalize assuming max 120 mph
-            ageFactor                 // Already normalized
-        };
-    }
-    
-    /**
-     * Predict maintenance score using linear regression
-     */
-    private double predictMaintenanceScore(double[] features) {
-        double score = 0.0;
-        String[] featureNames = {"batteryLevel", "fuelLevel", "healthScore", "mileage", "speed", "ageFactor"};
-        
-        for (int i = 0; i < features.length; i++) {
-            score += features[i] * featureWeights.get(featureNames[i]);
-        }
+        out[offset] = batteryLevel / 100.0;         // Normalize to 0-1
+        out[offset + 1] = fuelLevel / 100.0;        // Normalize to 0-1
+        out[offset + 2] = healthScore / 100.0;      // Normalize to 0-1
+        out[offset + 3] = mileage / 200000.0;       // Normalize assuming max 200k miles
+        out[offset + 4] = speed / 120.0;            // Normalize assuming max 120 mph
+        out[offset + 5] = ageFactor;                // Already normalized
         
-        // Add bias term
-        score += 0.1;
-        
-        return score;
+        // History-based wear signals from the vehicle's telemetry window
+        telemetryFeatureExtractor.extract(vehicle.getId(), out, offset + SNAPSHOT_FEATURE_COUNT);
     }
     
     /**
@@ -163,8 +212,11 @@ public class PredictiveMaintenanceService {
     /**
      * Predict component health
      */
-    private Map<String, Object> predictComponentHealth(Vehicle vehicle) {
-        Map<String, Object> components = new HashMap<>();
+    private ComponentHealth predictComponentHealth(Vehicle vehicle) {
+        String engine;
+        String battery;
+        String tires;
+        String brakes;
         
         // Engine health prediction
         if (vehicle.getFuelLevel() != null) {
@@ -172,36 +224,36 @@ public class PredictiveMaintenanceService {
                 (vehicle.getHealthScore() != null ? vehicle.getHealthScore() : 80) + 
                 (vehicle.getFuelLevel() > 50 ? 10 : -20) + 
                 (vehicle.getSpeed() != null && vehicle.getSpeed() < 60 ? 5 : -10)));
-            components.put("engine", engineHealth > 70 ? "Good" : engineHealth > 50 ? "Attention Needed" : "Immediate Service");
+            engine = engineHealth > 70 ? "Good" : engineHealth > 50 ? "Attention Needed" : "Immediate Service";
         } else {
-            components.put("engine", "N/A - Electric Vehicle");
+            engine = "N/A - Electric Vehicle";
         }
         
         // Battery health prediction
         if (vehicle.getBatteryLevel() != null) {
             double batteryHealth = vehicle.getBatteryLevel();
-            components.put("battery", batteryHealth > 70 ? "Good" : batteryHealth > 30 ? "Monitor" : "Replace Soon");
+            battery = batteryHealth > 70 ? "Good" : batteryHealth > 30 ? "Monitor" : "Replace Soon";
         } else {
-            components.put("battery", "N/A - Fuel Vehicle");
+            battery = "N/A - Fuel Vehicle";
         }
         
         // Tire condition prediction based on mileage
         if (vehicle.getMileage() != null) {
             double tireCondition = Math.min(100, Math.max(0, 100 - (vehicle.getMileage() / 1000)));
-            components.put("tires", tireCondition > 70 ? "Good" : tireCondition > 40 ? "Check Wear" : "Replace Soon");
+            tires = tireCondition > 70 ? "Good" : tireCondition > 40 ? "Check Wear" : "Replace Soon";
         } else {
-            components.put("tires", "Unknown");
+            tires = "Unknown";
         }
         
         // Brake system prediction based on speed
         if (vehicle.getSpeed() != null) {
             double brakeHealth = Math.min(100, Math.max(0, 100 - (vehicle.getSpeed() / 2)));
-            components.put("brakes", brakeHealth > 80 ? "Good" : brakeHealth > 60 ? "Inspect" : "Service Required");
+            brakes = brakeHealth > 80 ? "Good" : brakeHealth > 60 ? "Inspect" : "Service Required";
         } else {
-            components.put("brakes", "Unknown");
+            brakes = "Unknown";
         }
         
-        return components;
+        return new ComponentHealth(engine, battery, tires, brakes);
     }
     
     /**
@@ -255,33 +307,125 @@ public class PredictiveMaintenanceService {
     
     /**
      * Train the model with sample data (simplified for demonstration)
+     * @return The saved model version
      */
-    public void trainModel(List<Vehicle> trainingData) {
+    public int trainModel(List<Vehicle> trainingData) throws IOException {
         // In a real implementation, this would perform actual machine learning training
         // For this demonstration, we'll just adjust weights based on some heuristics
         
+        LinearModel start = warmStartModel();
+        double[] weights = start.getWeights();
+        double bias = start.getBias();
+        
+        int rows = trainingData.size();
+        double[] features = new double[rows * FEATURE_COUNT];
+        double[] targets = new double[rows];
+        for (int row = 0; row < rows; row++) {
+            Vehicle vehicle = trainingData.get(row);
+            extractFeatures(vehicle, features, row * FEATURE_COUNT);
+            // Calculate target (simplified - in reality this would come from historical data),
+            // clamped into [0, 1] since the model is logistic
+            targets[row] = Math.min(1.0, calculateTarget(vehicle));
+        }
+        
         for (int epoch = 0; epoch < EPOCHS; epoch++) {
-            for (Vehicle vehicle : trainingData) {
-                // Extract features
-                double[] features = extractFeatures(vehicle);
-                
-                // Get current prediction
-                double predicted = predictMaintenanceScore(features);
+            for (int row = 0; row < rows; row++) {
+                int offset = row * FEATURE_COUNT;
                 
-                // Calculate target (simplified - in reality this would come from historical data)
-                double target = calculateTarget(vehicle);
+                // Get current score
+                double score = bias;
+                for (int i = 0; i < FEATURE_COUNT; i++) {
+                    score += weights[i] * features[offset + i];
+                }
                 
-                // Calculate error
-                double error = target - predicted;
+                // Logistic loss gradient, matching the LOGISTIC type the model is saved as
+                double error = targets[row] - sigmoid(score);
                 
                 // Update weights using gradient descent
-                String[] featureNames = {"batteryLevel", "fuelLevel", "healthScore", "mileage", "speed", "ageFactor"};
-                for (int i = 0; i < features.length; i++) {
-                    double newWeight = featureWeights.get(featureNames[i]) + LEARNING_RATE * error * features[i];
-                    featureWeights.put(featureNames[i], newWeight);
+                for (int i = 0; i < FEATURE_COUNT; i++) {
+                    weights[i] += LEARNING_RATE * error * features[offset + i];
                 }
+                bias += LEARNING_RATE * error;
             }
         }
+        
+        // Persist as a new version so the result survives restarts and can be rolled back
+        return modelRuntime.saveAndActivate(new LinearModel(ModelType.LOGISTIC, weights, bias));
+    }
+    
+    /**
+     * Feed the current state of a vehicle to the online learner, labeled with the
+     * telemetry-derived target, if {@code ai.online.heuristic-labels} is set
+     */
+    public void learnFromTelemetry(Vehicle vehicle) {
+        if (!onlineTrainer.isEnabled() || !heuristicLabels) {
+            return;
+        }
+        // The learner is logistic, so clamp the heuristic target into [0, 1]
+        onlineTrainer.submit(extractFeatures(vehicle), Math.min(1.0, calculateTarget(vehicle)));
+    }
+    
+    public boolean isLearningOnline() {
+        return onlineTrainer.isEnabled();
+    }
+    
+    /**
+     * Feed a labeled ledger example to the online learner: a feature snapshot
+     * and whether the vehicle was serviced within the label horizon after it
+     */
+    public void learnFromOutcome(double[] features, boolean serviced) {
+        if (!onlineTrainer.isEnabled()) {
+            return;
+        }
+        onlineTrainer.submit(features, serviced ? 1.0 : 0.0);
+    }
+    
+    /**
+     * Train on labeled examples exported from the maintenance ledger. The file is
+     * memory-mapped, so the example count is not limited by the heap.
+     * @return The saved model version
+     */
+    public int trainFromExamples(Path examplesFile) throws IOException {
+        LinearModel start = warmStartModel();
+        double[] weights = start.getWeights();
+        double bias = start.getBias();
+        
+        try (ColumnarExampleFile examples = ColumnarExampleFile.open(examplesFile)) {
+            if (examples.getFeatureCount() != FEATURE_COUNT) {
+                throw new IOException("Example file has " + examples.getFeatureCount()
+                        + " features, model expects " + FEATURE_COUNT);
+            }
+            double[] features = new double[FEATURE_COUNT];
+            int rows = examples.getRows();
+            for (int epoch = 0; epoch < LEDGER_EPOCHS; epoch++) {
+                for (int row = 0; row < rows; row++) {
+                    examples.readRow(row, features, 0);
+                    
+                    double score = bias;
+                    for (int i = 0; i < FEATURE_COUNT; i++) {
+                        score += weights[i] * features[i];
+                    }
+                    
+                    // Labels are real outcomes (0 or 1), so use the logistic loss gradient
+                    double error = examples.label(row) - sigmoid(score);
+                    for (int i = 0; i < FEATURE_COUNT; i++) {
+                        weights[i] += LEARNING_RATE * error * features[i];
+                    }
+                    bias += LEARNING_RATE * error;
+                }
+            }
+        }
+        
+        return modelRuntime.saveAndActivate(new LinearModel(ModelType.LOGISTIC, weights, bias));
+    }
+    
+    /**
+     * Starting point for training: the active linear model, since tree ensembles
+     * are trained offline
+     */
+    private LinearModel warmStartModel() {
+        Model current = activeModel();
+        return current instanceof LinearModel ? (LinearModel) current : (LinearModel) DEFAULT_MODEL;
     }
     
     /**
@@ -0,0 +1,75 @@
+package com.neurofleetx.ai;
+
+import com.neurofleetx.model.Vehicle;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming feature extractor fed by vehicle telemetry updates. Keeps a
+ * fixed-size {@link TelemetryWindow} per vehicle and turns it into the
+ * history-based features of the maintenance model.
+ */
+@Component
+public class TelemetryFeatureExtractor {
+
+    static final String[] FEATURE_NAMES = {"speedEwma", "speedVariance", "harshAcceleration", "dischargeRate", "distancePerDay"};
+    static final int FEATURE_COUNT = FEATURE_NAMES.length;
+
+    @Value("${ai.features.window-size:64}")
+    private int windowSize;
+
+    private final Map<Long, TelemetryWindow> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Record the current state of a vehicle as a new telemetry sample
+     */
+    public void record(Vehicle vehicle) {
+        record(vehicle, System.currentTimeMillis());
+    }
+
+    public void record(Vehicle vehicle, long timestamp) {
+        if (vehicle.getId() == null) {
+            return;
+        }
+        double speed = vehicle.getSpeed() != null ? vehicle.getSpeed() : 0.0;
+        long mileage = vehicle.getMileage() != null ? vehicle.getMileage() : 0;
+        double energyLevel = vehicle.getBatteryLevel() != null ? vehicle.getBatteryLevel()
+                : vehicle.getFuelLevel() != null ? vehicle.getFuelLevel() : Double.NaN;
+
+        TelemetryWindow window = windows.computeIfAbsent(vehicle.getId(), id -> new TelemetryWindow(windowSize));
+        synchronized (window) {
+            window.record(timestamp, speed, mileage, energyLevel);
+        }
+    }
+
+    /**
+     * Write the normalized windowed features for a vehicle into {@code out}
+     * starting at {@code offset}. Vehicles without history get zeros.
+     */
+    public void extract(Long vehicleId, double[] out, int offset) {
+        TelemetryWindow window = vehicleId != null ? windows.get(vehicleId) : null;
+        if (window == null) {
+            for (int i = 0; i < FEATURE_COUNT; i++) {
+                out[offset + i] = 0.0;
+            }
+            return;
+        }
+        synchronized (window) {
+            out[offset] = window.speedEwma() / 120.0;                           // Normalize assuming max 120 mph
+            out[offset + 1] = Math.min(1.0, window.speedVariance() / 900.0);    // Std dev of 30 mph saturates
+            out[offset + 2] = window.harshAccelerationRate();                   // Already a fraction
+            out[offset + 3] = Math.min(1.0, window.dischargeRatePerHour() / 20.0); // 20% per hour saturates
+            out[offset + 4] = Math.min(1.0, window.distancePerDay() / 500.0);   // 500 miles per day saturates
+        }
+    }
+
+    /**
+     * Drop the history of a deleted vehicle
+     */
+    public void forget(Long vehicleId) {
+        windows.remove(vehicleId);
+    }
+}
@@ -0,0 +1,141 @@
+package com.neurofleetx.ai;
+
+/**
+ * Fixed-size rolling window of telemetry samples for one vehicle.
+ *
+ * Samples live in primitive ring buffers and every statistic is maintained
+ * incrementally, so recording a sample and reading the features are O(1)
+ * regardless of the window size. Callers must synchronize on the window.
+ */
+final class TelemetryWindow {
+
+    // Speed change (units per second) above which a sample counts as harsh acceleration or braking
+    static final double HARSH_ACCELERATION = 8.0;
+    private static final double EWMA_ALPHA = 0.2;
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+    private static final double MILLIS_PER_DAY = 86_400_000.0;
+
+    private final int capacity;
+    private final long[] timestamps;
+    private final double[] speeds;
+    private final long[] mileages;
+    private final boolean[] harsh;
+
+    private int head;   // index of the oldest sample
+    private int size;
+
+    // Running window aggregates
+    private double speedSum;
+    private double speedSumSquares;
+    private int harshCount;
+
+    // Exponentially weighted statistics over the whole history
+    private double speedEwma;
+    private double dischargeRateEwma;   // energy level lost per hour
+    private boolean hasEwma;
+
+    private double lastEnergyLevel = Double.NaN;
+
+    TelemetryWindow(int capacity) {
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.speeds = new double[capacity];
+        this.mileages = new long[capacity];
+        this.harsh = new boolean[capacity];
+    }
+
+    /**
+     * Add a sample, evicting the oldest one when the window is full
+     * @param energyLevel Battery or fuel level in percent, NaN if unknown
+     */
+    void record(long timestamp, double speed, long mileage, double energyLevel) {
+        boolean harshSample = false;
+        if (size > 0) {
+            int newest = (head + size - 1) % capacity;
+            long elapsed = timestamp - timestamps[newest];
+            if (elapsed <= 0) {
+                // Same instant as the previous sample: nothing to derive a rate from
+                return;
+            }
+            double seconds = elapsed / 1000.0;
+            harshSample = Math.abs(speed - speeds[newest]) / seconds > HARSH_ACCELERATION;
+
+            if (!Double.isNaN(energyLevel) && !Double.isNaN(lastEnergyLevel)) {
+                double rate = (lastEnergyLevel - energyLevel) / (elapsed / MILLIS_PER_HOUR);
+                // Recharging or refuelling is not discharge
+                dischargeRateEwma += EWMA_ALPHA * (Math.max(0.0, rate) - dischargeRateEwma);
+            }
+        }
+
+        if (size == capacity) {
+            speedSum -= speeds[head];
+            speedSumSquares -= speeds[head] * speeds[head];
+            if (harsh[head]) {
+                harshCount--;
+            }
+            head = (head + 1) % capacity;
+            size--;
+            // The new oldest sample's flag described the transition from the evicted one
+            if (size > 0 && harsh[head]) {
+                harsh[head] = false;
+                harshCount--;
+            }
+        }
+
+        int slot = (head + size) % capacity;
+        timestamps[slot] = timestamp;
+        speeds[slot] = speed;
+        mileages[slot] = mileage;
+        harsh[slot] = harshSample;
+        size++;
+
+        speedSum += speed;
+        speedSumSquares += speed * speed;
+        if (harshSample) {
+            harshCount++;
+        }
+        if (hasEwma) {
+            speedEwma += EWMA_ALPHA * (speed - speedEwma);
+        } else {
+            speedEwma = speed;
+            hasEwma = true;
+        }
+        if (!Double.isNaN(energyLevel)) {
+            lastEnergyLevel = energyLevel;
+        }
+    }
+
+    double speedEwma() {
+        return speedEwma;
+    }
+
+    double speedVariance() {
+        if (size < 2) {
+            return 0.0;
+        }
+        double mean = speedSum / size;
+        // Clamp tiny negatives caused by floating point cancellation
+        return Math.max(0.0, speedSumSquares / size - mean * mean);
+    }
+
+    /**
+     * Fraction of window samples with harsh acceleration or braking
+     */
+    double harshAccelerationRate() {
+        return size < 2 ? 0.0 : Math.min(1.0, Math.max(0.0, (double) harshCount / (size - 1)));
+    }
+
+    double dischargeRatePerHour() {
+        return dischargeRateEwma;
+    }
+
+    double distancePerDay() {
+        if (size < 2) {
+            return 0.0;
+        }
+        int newest = (head + size - 1) % capacity;
+        long elapsed = timestamps[newest] - timestamps[head];
+        long distance = mileages[newest] - mileages[head];
+        return elapsed <= 0 || distance < 0 ? 0.0 : distance / (elapsed / MILLIS_PER_DAY);
+    }
+}
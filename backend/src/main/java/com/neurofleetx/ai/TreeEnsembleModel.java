@@ -0,0 +1,158 @@
+package com.neurofleetx.ai;
+
+/**
+ * Gradient-boosted tree ensemble stored as flat parallel arrays.
+ *
+ * All trees share one node table. For an internal node {@code n},
+ * {@code splitFeature[n]} is the feature index, {@code values[n]} the split
+ * threshold and the children sit next to each other at {@code leftChild[n]} and
+ * {@code leftChild[n] + 1}. Rows with {@code x < threshold} go left; NaN goes right.
+ * Leaves have {@code splitFeature[n] == -1} and {@code values[n]} holds the leaf output.
+ */
+public final class TreeEnsembleModel implements Model {
+
+    private static final int BLOCK_ROWS = 256;
+
+    private final int featureCount;
+    private final double baseScore;
+    private final int[] treeRoots;
+    private final int[] splitFeature;
+    private final int[] leftChild;
+    private final double[] values;
+
+    public TreeEnsembleModel(int featureCount, double baseScore, int[] treeRoots,
+                             int[] splitFeature, int[] leftChild, double[] values) {
+        int nodeCount = splitFeature.length;
+        if (leftChild.length != nodeCount || values.length != nodeCount) {
+            throw new IllegalArgumentException("Node arrays must have the same length");
+        }
+        for (int root : treeRoots) {
+            if (root < 0 || root >= nodeCount) {
+                throw new IllegalArgumentException("Tree root out of range: " + root);
+            }
+        }
+        for (int n = 0; n < nodeCount; n++) {
+            if (splitFeature[n] >= featureCount) {
+                throw new IllegalArgumentException("Node " + n + " splits on unknown feature " + splitFeature[n]);
+            }
+            if (splitFeature[n] >= 0 && (leftChild[n] <= n || leftChild[n] + 1 >= nodeCount)) {
+                // Children must come after their parent, which also rules out cycles
+                throw new IllegalArgumentException("Node " + n + " has invalid children");
+            }
+        }
+        this.featureCount = featureCount;
+        this.baseScore = baseScore;
+        this.treeRoots = treeRoots.clone();
+        this.splitFeature = splitFeature.clone();
+        this.leftChild = leftChild.clone();
+        this.values = values.clone();
+    }
+
+    @Override
+    public ModelType getType() {
+        return ModelType.TREE_ENSEMBLE;
+    }
+
+    @Override
+    public int getFeatureCount() {
+        return featureCount;
+    }
+
+    @Override
+    public double score(double[] features, int offset) {
+        double score = baseScore;
+        for (int root : treeRoots) {
+            score += leafValue(root, features, offset);
+        }
+        return score;
+    }
+
+    /**
+     * Scores the batch in blocks of rows small enough to stay in L1 cache, walking
+     * every tree over one block before moving on, so neither the feature rows nor
+     * the node table are streamed from memory once per tree.
+     */
+    @Override
+    public void scoreBatch(double[] features, int rows, double[] out) {
+        for (int blockStart = 0; blockStart < rows; blockStart += BLOCK_ROWS) {
+            int blockEnd = Math.min(rows, blockStart + BLOCK_ROWS);
+            for (int row = blockStart; row < blockEnd; row++) {
+                out[row] = baseScore;
+            }
+            for (int root : treeRoots) {
+                int row = blockStart;
+                // Four independent walks at once let the CPU overlap their node loads
+                for (; row + 3 < blockEnd; row += 4) {
+                    int offset = row * featureCount;
+                    int n0 = root, n1 = root, n2 = root, n3 = root;
+                    boolean done;
+                    do {
+                        done = true;
+                        int f0 = splitFeature[n0];
+                        if (f0 >= 0) {
+                            n0 = leftChild[n0] + (features[offset + f0] < values[n0] ? 0 : 1);
+                            done = false;
+                        }
+                        int f1 = splitFeature[n1];
+                        if (f1 >= 0) {
+                            n1 = leftChild[n1] + (features[offset + featureCount + f1] < values[n1] ? 0 : 1);
+                            done = false;
+                        }
+                        int f2 = splitFeature[n2];
+                        if (f2 >= 0) {
+                            n2 = leftChild[n2] + (features[offset + 2 * featureCount + f2] < values[n2] ? 0 : 1);
+                            done = false;
+                        }
+                        int f3 = splitFeature[n3];
+                        if (f3 >= 0) {
+                            n3 = leftChild[n3] + (features[offset + 3 * featureCount + f3] < values[n3] ? 0 : 1);
+                            done = false;
+                        }
+                    } while (!done);
+                    out[row] += values[n0];
+                    out[row + 1] += values[n1];
+                    out[row + 2] += values[n2];
+                    out[row + 3] += values[n3];
+                }
+                for (; row < blockEnd; row++) {
+                    out[row] += leafValue(root, features, row * featureCount);
+                }
+            }
+        }
+    }
+
+    private double leafValue(int node, double[] features, int offset) {
+        int feature = splitFeature[node];
+        while (feature >= 0) {
+            // Branch-free child selection: random splits defeat the branch predictor
+            node = leftChild[node] + (features[offset + feature] < values[node] ? 0 : 1);
+            feature = splitFeature[node];
+        }
+        return values[node];
+    }
+
+    double getBaseScore() {
+        return baseScore;
+    }
+
+    int[] getTreeRoots() {
+        return treeRoots;
+    }
+
+    int[] getSplitFeature() {
+        return splitFeature;
+    }
+
+    int[] getLeftChild() {
+        return leftChild;
+    }
+
+    double[] getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "TREE_ENSEMBLE{trees=" + treeRoots.length + ", nodes=" + splitFeature.length + "}";
+    }
+}
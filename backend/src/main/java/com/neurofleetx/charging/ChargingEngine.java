@@ -0,0 +1,313 @@
+package com.neurofleetx.charging;
+
+import com.neurofleetx.model.ChargingStation;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.range.ConsumptionTracker;
+import com.neurofleetx.range.RangeEngine;
+import com.neurofleetx.range.RangeEstimator;
+import com.neurofleetx.repository.ChargingStationRepository;
+import com.neurofleetx.road.EdgeIndex;
+import com.neurofleetx.util.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plans when and where vehicles low on battery or fuel recharge.
+ *
+ * Position updates of vehicles below their threshold, and of vehicles
+ * already planned, are collected (only the latest per vehicle) and applied to
+ * the {@link ChargingPlanner} every {@code charging.repair-interval-ms}, so
+ * the telemetry path never waits for planning. Distances to the stations come
+ * from a backward road search per station, settled when the stations are
+ * loaded. Reads get the plan published after the last repair.
+ */
+@Component
+public class ChargingEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChargingEngine.class);
+
+    @Value("${charging.zone:}")
+    private String zoneId;
+
+    @Value("${charging.battery-threshold-percent:25}")
+    private double batteryThreshold;
+
+    @Value("${charging.fuel-threshold-percent:20}")
+    private double fuelThreshold;
+
+    @Value("${charging.battery-target-percent:80}")
+    private double batteryTarget;
+
+    @Value("${charging.fuel-target-percent:95}")
+    private double fuelTarget;
+
+    @Value("${charging.release-margin-percent:5}")
+    private double releaseMargin;
+
+    @Value("${charging.default-charge-percent-per-minute:1.0}")
+    private double defaultChargeRate;
+
+    @Value("${charging.default-fuel-percent-per-minute:20}")
+    private double defaultFuelRate;
+
+    @Value("${charging.average-speed-kmh:25}")
+    private double averageSpeedKmh;
+
+    @Value("${charging.arrival-reserve-percent:2}")
+    private double arrivalReservePercent;
+
+    @Value("${charging.arrival-radius-meters:100}")
+    private double arrivalRadiusMeters;
+
+    @Value("${charging.grace-minutes:10}")
+    private long graceMinutes;
+
+    @Value("${charging.max-ejection-candidates:20}")
+    private int maxEjectionCandidates;
+
+    @Autowired
+    private ChargingStationRepository stationRepository;
+
+    @Autowired
+    private RangeEngine rangeEngine;
+
+    private ZoneId zone;
+    private ChargingPlanner planner;
+    // Only used under the engine's lock
+    private final EdgeIndex.Candidates scratch = new EdgeIndex.Candidates();
+
+    /**
+     * Latest reported state of a vehicle
+     */
+    private static final class Update {
+        final String energyType;
+        final double latitude;
+        final double longitude;
+        final double level;
+        final double rate;
+
+        Update(String energyType, double latitude, double longitude, double level, double rate) {
+            this.energyType = energyType;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.level = level;
+            this.rate = rate;
+        }
+    }
+
+    private final Map<Long, Update> pending = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Long> forgotten = new ConcurrentLinkedQueue<>();
+    // Vehicles the planner follows, as of the last repair
+    private final Set<Long> tracked = ConcurrentHashMap.newKeySet();
+
+    private volatile Map<String, Object> plan = Map.of();
+    private volatile Map<Long, Map<String, Object>> vehiclePlans = Map.of();
+
+    private final LatencyHistogram repairLatency = new LatencyHistogram();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong repairs = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        zone = zoneId.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zoneId);
+        planner = new ChargingPlanner(averageSpeedKmh, arrivalReservePercent, arrivalRadiusMeters,
+                graceMinutes * 60_000, maxEjectionCandidates);
+        reload();
+    }
+
+    /**
+     * Load the active stations, after any of them changed, and repair the plan around them
+     */
+    public synchronized void reload() {
+        List<Station> stations = new ArrayList<>();
+        List<RangeEstimator.Destination> destinations = new ArrayList<>();
+        for (ChargingStation station : stationRepository.findByActiveTrue()) {
+            stations.add(Station.of(station, defaultChargeRate, defaultFuelRate, zone));
+            destinations.add(rangeEngine.destination(station.getLatitude(), station.getLongitude()));
+        }
+        planner.setStations(stations, (s, latitude, longitude) ->
+                rangeEngine.distanceMeters(destinations.get(s), latitude, longitude, scratch), System.currentTimeMillis());
+        publish(System.currentTimeMillis());
+        logger.info("Planning charging at {} stations", stations.size());
+    }
+
+    public void onPosition(Vehicle vehicle) {
+        if (vehicle.getId() == null || vehicle.getLatitude() == null || vehicle.getLongitude() == null) {
+            return;
+        }
+        String energyType = ConsumptionTracker.energyType(vehicle.getBatteryLevel(), vehicle.getFuelLevel());
+        if (energyType == null) {
+            return;
+        }
+        double level = ConsumptionTracker.level(vehicle.getBatteryLevel(), vehicle.getFuelLevel());
+        if (level >= threshold(energyType) && !tracked.contains(vehicle.getId())) {
+            return;
+        }
+        pending.put(vehicle.getId(), new Update(energyType, vehicle.getLatitude(), vehicle.getLongitude(), level,
+                rangeEngine.rate(vehicle)));
+        updates.incrementAndGet();
+    }
+
+    public void forget(Long vehicleId) {
+        pending.remove(vehicleId);
+        forgotten.add(vehicleId);
+    }
+
+    /**
+     * Apply the updates since the last repair and publish the repaired plan
+     */
+    @Scheduled(fixedDelayString = "${charging.repair-interval-ms:2000}")
+    public synchronized void repair() {
+        long started = System.nanoTime();
+        long now = System.currentTimeMillis();
+        Long forget;
+        while ((forget = forgotten.poll()) != null) {
+            planner.release(forget);
+        }
+        for (Long vehicleId : new ArrayList<>(pending.keySet())) {
+            Update update = pending.remove(vehicleId);
+            if (update != null) {
+                planner.request(vehicleId, update.energyType, update.latitude, update.longitude, update.level,
+                        update.rate, target(update.energyType), threshold(update.energyType) + releaseMargin, now);
+            }
+        }
+        planner.repair(now);
+        tracked.retainAll(planner.getRequestedVehicles());
+        tracked.addAll(planner.getRequestedVehicles());
+        publish(now);
+        repairLatency.record(System.nanoTime() - started);
+        repairs.incrementAndGet();
+    }
+
+    private double threshold(String energyType) {
+        return ConsumptionTracker.FUEL.equals(energyType) ? fuelThreshold : batteryThreshold;
+    }
+
+    private double target(String energyType) {
+        return ConsumptionTracker.FUEL.equals(energyType) ? fuelTarget : batteryTarget;
+    }
+
+    private void publish(long now) {
+        List<ChargingPlanner.Booking> bookings = new ArrayList<>(planner.getBookings());
+        bookings.sort(Comparator.comparingLong(ChargingPlanner.Booking::getStart));
+        Map<Long, Map<String, Object>> byVehicle = new HashMap<>();
+        List<Map<String, Object>> assignments = new ArrayList<>(bookings.size());
+        Map<Long, Integer> booked = new HashMap<>();
+        long downtime = 0;
+        long wait = 0;
+        int charging = 0;
+        for (ChargingPlanner.Booking booking : bookings) {
+            Station station = planner.getStation(booking);
+            Map<String, Object> assignment = new HashMap<>();
+            assignment.put("vehicleId", booking.getRequest().getVehicleId());
+            assignment.put("stationId", station.getId());
+            assignment.put("stationName", station.getName());
+            assignment.put("bay", booking.getBay());
+            assignment.put("status", booking.isStarted() ? "CHARGING" : "PLANNED");
+            assignment.put("energyType", booking.getRequest().getEnergyType());
+            assignment.put("level", booking.getRequest().getLevel());
+            assignment.put("levelAtArrival", Math.round(booking.getArrivalLevel() * 10) / 10.0);
+            assignment.put("driveKm", Math.round(booking.getMeters()) / 1000.0);
+            assignment.put("requestedAt", Instant.ofEpochMilli(booking.getRequest().getRequestedAt()));
+            assignment.put("arrival", Instant.ofEpochMilli(booking.getArrival()));
+            assignment.put("slotStart", Instant.ofEpochMilli(booking.getStart()));
+            assignment.put("slotEnd", Instant.ofEpochMilli(booking.getEnd()));
+            assignment.put("waitMinutes", minutes(booking.getStart() - booking.getArrival()));
+            assignment.put("chargeMinutes", minutes(booking.getEnd() - booking.getStart()));
+            // Until the vehicle is back in service
+            assignment.put("downtimeMinutes", minutes(Math.max(0, booking.getEnd() - now)));
+            assignments.add(assignment);
+            byVehicle.put(booking.getRequest().getVehicleId(), assignment);
+            booked.merge(station.getId(), 1, Integer::sum);
+            downtime += Math.max(0, booking.getEnd() - now);
+            wait += booking.getStart() - booking.getArrival();
+            if (booking.isStarted()) {
+                charging++;
+            }
+        }
+        List<Map<String, Object>> unserved = new ArrayList<>();
+        for (ChargingPlanner.Request request : planner.getUnserved()) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("vehicleId", request.getVehicleId());
+            entry.put("status", "UNSERVED");
+            entry.put("energyType", request.getEnergyType());
+            entry.put("level", request.getLevel());
+            entry.put("requestedAt", Instant.ofEpochMilli(request.getRequestedAt()));
+            unserved.add(entry);
+            byVehicle.put(request.getVehicleId(), entry);
+        }
+        List<Map<String, Object>> stations = new ArrayList<>();
+        for (Station station : planner.getStations()) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("stationId", station.getId());
+            entry.put("name", station.getName());
+            entry.put("energyType", station.energyType);
+            entry.put("bays", station.capacity);
+            entry.put("booked", booked.getOrDefault(station.getId(), 0));
+            stations.add(entry);
+        }
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("generatedAt", Instant.ofEpochMilli(now));
+        snapshot.put("assignments", assignments);
+        snapshot.put("unserved", unserved);
+        snapshot.put("stations", stations);
+        snapshot.put("planned", assignments.size() - charging);
+        snapshot.put("charging", charging);
+        snapshot.put("totalDowntimeMinutes", minutes(downtime));
+        snapshot.put("meanWaitMinutes", assignments.isEmpty() ? 0.0 : minutes(wait / assignments.size()));
+        plan = snapshot;
+        vehiclePlans = byVehicle;
+    }
+
+    private static double minutes(long millis) {
+        return Math.round(millis / 6_000.0) / 10.0;
+    }
+
+    /**
+     * The plan as of the last repair
+     */
+    public Map<String, Object> getPlan() {
+        return plan;
+    }
+
+    /**
+     * A vehicle's assignment as of the last repair, or null if it needs none
+     */
+    public Map<String, Object> getVehiclePlan(long vehicleId) {
+        return vehiclePlans.get(vehicleId);
+    }
+
+    // Planner counters are only consistent under the lock
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("stations", planner.getStations().size());
+        stats.put("trackedVehicles", tracked.size());
+        stats.put("updates", updates.get());
+        stats.put("updatesPending", pending.size());
+        stats.put("repairs", repairs.get());
+        stats.put("repairLatency", repairLatency.toMap());
+        stats.put("insertions", planner.getInsertions());
+        stats.put("ejections", planner.getEjections());
+        stats.put("relocations", planner.getRelocations());
+        stats.put("rebookings", planner.getRebookings());
+        stats.put("completions", planner.getCompletions());
+        return stats;
+    }
+}
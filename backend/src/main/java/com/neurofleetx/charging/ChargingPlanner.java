@@ -0,0 +1,559 @@
+package com.neurofleetx.charging;
+
+import com.neurofleetx.road.RoadGraph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Station assignments and charging slots for the vehicles that need energy,
+ * kept up to date by repair rather than solved again from scratch.
+ *
+ * The objective is fleet downtime: the sum over vehicles of the time until
+ * they are charged, which is driving to the station, waiting for a bay and
+ * charging. Each bay of a station has a timeline of non-overlapping slots
+ * inside the opening hours.
+ *
+ * A vehicle that crosses its threshold is inserted at the slot that finishes
+ * it soonest. When a vehicle that has not arrived yet could move elsewhere,
+ * it may be bumped from its slot if that lowers the total (a one-level
+ * ejection chain). Late vehicles are rebooked, and after every change the
+ * slots not started at the affected stations are relocated when another
+ * slot would finish them sooner. Only the affected part of the plan is
+ * touched.
+ *
+ * Not thread-safe: owned by one thread.
+ */
+public class ChargingPlanner {
+
+    private static final long MINUTE_MS = 60_000;
+
+    /**
+     * Road distances from positions to the stations
+     */
+    public interface Distances {
+        // Meters from a position to the station at an index of the station list
+        double meters(int station, double latitude, double longitude);
+    }
+
+    /**
+     * A vehicle that needs charging, as last reported
+     */
+    public static final class Request {
+        final long vehicleId;
+        final long requestedAt;
+        String energyType;
+        double latitude;
+        double longitude;
+        double level;
+        // Percent used per km
+        double rate;
+        double target;
+
+        Request(long vehicleId, long requestedAt) {
+            this.vehicleId = vehicleId;
+            this.requestedAt = requestedAt;
+        }
+
+        public long getVehicleId() {
+            return vehicleId;
+        }
+
+        public long getRequestedAt() {
+            return requestedAt;
+        }
+
+        public String getEnergyType() {
+            return energyType;
+        }
+
+        public double getLevel() {
+            return level;
+        }
+    }
+
+    /**
+     * A slot in one bay of a station
+     */
+    public static final class Booking {
+        final Request request;
+        final int station;
+        final int bay;
+        final long arrival;
+        final long start;
+        final long end;
+        final double meters;
+        final double arrivalLevel;
+        boolean started;
+
+        Booking(Request request, int station, int bay, long arrival, long start, long end, double meters,
+                double arrivalLevel) {
+            this.request = request;
+            this.station = station;
+            this.bay = bay;
+            this.arrival = arrival;
+            this.start = start;
+            this.end = end;
+            this.meters = meters;
+            this.arrivalLevel = arrivalLevel;
+        }
+
+        public Request getRequest() {
+            return request;
+        }
+
+        public int getBay() {
+            return bay;
+        }
+
+        public long getArrival() {
+            return arrival;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public double getMeters() {
+            return meters;
+        }
+
+        public double getArrivalLevel() {
+            return arrivalLevel;
+        }
+
+        // Whether the vehicle is at the station
+        public boolean isStarted() {
+            return started;
+        }
+    }
+
+    private final double speedKmh;
+    private final double arrivalReservePercent;
+    private final double arrivalRadiusMeters;
+    private final long graceMs;
+    private final int maxEjectionCandidates;
+
+    private List<Station> stations = new ArrayList<>();
+    private Distances distances;
+    // Bay timelines sorted by start; station s owns firstBay[s] to firstBay[s + 1]
+    private final List<List<Booking>> timelines = new ArrayList<>();
+    private int[] firstBay = {0};
+
+    private final Map<Long, Request> requests = new HashMap<>();
+    private final Map<Long, Booking> bookings = new HashMap<>();
+    private final Set<Long> unserved = new LinkedHashSet<>();
+    private final Set<Integer> dirtyStations = new HashSet<>();
+
+    private long insertions;
+    private long ejections;
+    private long relocations;
+    private long rebookings;
+    private long completions;
+
+    /**
+     * @param speedKmh              Average speed on the way to a station
+     * @param arrivalReservePercent Level a vehicle must still have when it reaches the station
+     * @param arrivalRadiusMeters   Within this of its station a vehicle has arrived
+     * @param graceMs               How late a vehicle may be for its slot before it is rebooked
+     * @param maxEjectionCandidates Slots considered for bumping per insertion
+     */
+    public ChargingPlanner(double speedKmh, double arrivalReservePercent, double arrivalRadiusMeters, long graceMs,
+                           int maxEjectionCandidates) {
+        this.speedKmh = speedKmh;
+        this.arrivalReservePercent = arrivalReservePercent;
+        this.arrivalRadiusMeters = arrivalRadiusMeters;
+        this.graceMs = graceMs;
+        this.maxEjectionCandidates = maxEjectionCandidates;
+    }
+
+    /**
+     * Replace the stations. Bookings at stations that still exist with the
+     * bay are kept; the others are planned again.
+     */
+    public void setStations(List<Station> stations, Distances distances, long now) {
+        Map<Long, Integer> indexes = new HashMap<>();
+        for (int s = 0; s < stations.size(); s++) {
+            indexes.put(stations.get(s).id, s);
+        }
+        List<Station> previous = this.stations;
+        this.stations = new ArrayList<>(stations);
+        this.distances = distances;
+        timelines.clear();
+        firstBay = new int[stations.size() + 1];
+        for (int s = 0; s < stations.size(); s++) {
+            firstBay[s + 1] = firstBay[s] + stations.get(s).capacity;
+            for (int b = 0; b < stations.get(s).capacity; b++) {
+                timelines.add(new ArrayList<>());
+            }
+        }
+        dirtyStations.clear();
+        List<Request> replan = new ArrayList<>();
+        List<Booking> kept = new ArrayList<>(bookings.values());
+        bookings.clear();
+        for (Booking booking : kept) {
+            Integer index = indexes.get(previous.get(booking.station).id);
+            if (index != null && booking.bay < this.stations.get(index).capacity
+                    && this.stations.get(index).energyType.equals(booking.request.energyType)) {
+                Booking moved = new Booking(booking.request, index, booking.bay, booking.arrival, booking.start,
+                        booking.end, booking.meters, booking.arrivalLevel);
+                moved.started = booking.started;
+                add(moved);
+            } else {
+                replan.add(booking.request);
+            }
+            if (index != null) {
+                dirtyStations.add(index);
+            }
+        }
+        for (Request request : replan) {
+            insert(request, now);
+        }
+        repair(now);
+    }
+
+    /**
+     * A vehicle below its threshold, or already planned, reported its state:
+     * plan it if it is new, otherwise follow it to its station and rebook it
+     * if it runs late
+     * @param target       Level to charge to
+     * @param releaseLevel A vehicle not at its station yet that reports this level was charged elsewhere
+     */
+    public void request(long vehicleId, String energyType, double latitude, double longitude, double level,
+                        double rate, double target, double releaseLevel, long now) {
+        Request request = requests.get(vehicleId);
+        Booking current = bookings.get(vehicleId);
+        if (level >= releaseLevel && (current == null || !current.started)) {
+            if (request != null) {
+                release(vehicleId);
+            }
+            return;
+        }
+        boolean changedType = request != null && !energyType.equals(request.energyType);
+        if (changedType) {
+            release(vehicleId);
+            request = null;
+        }
+        if (request == null) {
+            request = new Request(vehicleId, now);
+            requests.put(vehicleId, request);
+        }
+        request.energyType = energyType;
+        request.latitude = latitude;
+        request.longitude = longitude;
+        request.level = level;
+        request.rate = rate;
+        request.target = target;
+
+        Booking booking = bookings.get(vehicleId);
+        if (booking == null) {
+            if (!unserved.contains(vehicleId)) {
+                insert(request, now);
+            }
+            return;
+        }
+        Station station = stations.get(booking.station);
+        double away = RoadGraph.distanceMeters(latitude, longitude, station.latitude, station.longitude);
+        if (booking.started) {
+            // Charged, or it left the station
+            if (level >= target || away > 2 * arrivalRadiusMeters) {
+                completions++;
+                release(vehicleId);
+            }
+            return;
+        }
+        if (away <= arrivalRadiusMeters) {
+            booking.started = true;
+            return;
+        }
+        double meters = distances.meters(booking.station, latitude, longitude);
+        long arrival = now + travelMs(meters);
+        double arrivalLevel = level - meters / 1000 * rate;
+        if (arrival > booking.start + graceMs || arrivalLevel < arrivalReservePercent
+                || station.earliestOpen(booking.start, booking.end - booking.start) != booking.start) {
+            unbook(booking);
+            rebookings++;
+            insert(request, now);
+        }
+    }
+
+    /**
+     * A vehicle no longer needs a slot: it was charged, charged elsewhere or is gone
+     */
+    public void release(long vehicleId) {
+        requests.remove(vehicleId);
+        unserved.remove(vehicleId);
+        Booking booking = bookings.get(vehicleId);
+        if (booking != null) {
+            unbook(booking);
+        }
+    }
+
+    /**
+     * Settle what time alone changes, retry the vehicles without a slot and
+     * improve the slots at the stations touched since the last repair
+     */
+    public void repair(long now) {
+        for (Booking booking : new ArrayList<>(bookings.values())) {
+            if (booking.started && now > booking.end + graceMs) {
+                // Should be done by now even if the level was not reported
+                completions++;
+                release(booking.request.vehicleId);
+            } else if (!booking.started && now > booking.start + graceMs) {
+                // No-show
+                unbook(booking);
+                rebookings++;
+                insert(booking.request, now);
+            }
+        }
+        for (Long vehicleId : new ArrayList<>(unserved)) {
+            unserved.remove(vehicleId);
+            insert(requests.get(vehicleId), now);
+        }
+        relocate(now);
+    }
+
+    // Move slots that have not started to wherever finishes them at least a minute sooner
+    private void relocate(long now) {
+        while (!dirtyStations.isEmpty()) {
+            List<Booking> candidates = new ArrayList<>();
+            for (int s : dirtyStations) {
+                for (int b = firstBay[s]; b < firstBay[s + 1]; b++) {
+                    for (Booking booking : timelines.get(b)) {
+                        if (!booking.started) {
+                            candidates.add(booking);
+                        }
+                    }
+                }
+            }
+            dirtyStations.clear();
+            candidates.sort(Comparator.comparingLong(booking -> booking.start));
+            for (Booking booking : candidates) {
+                if (bookings.get(booking.request.vehicleId) != booking) {
+                    continue;
+                }
+                remove(booking);
+                Booking better = best(booking.request, now);
+                if (better != null && better.end < booking.end - MINUTE_MS) {
+                    book(better);
+                    dirtyStations.add(booking.station);
+                    relocations++;
+                } else {
+                    add(booking);
+                }
+            }
+        }
+    }
+
+    /**
+     * Plan a vehicle at the slot that lowers total downtime the most, bumping
+     * a vehicle that has not arrived yet to another slot if that is better
+     */
+    private void insert(Request request, long now) {
+        Booking direct = best(request, now);
+        long bestScore = direct != null ? direct.end : Long.MAX_VALUE;
+        Booking victim = null;
+        Booking own = null;
+        Booking moved = null;
+
+        for (Booking candidate : ejectionCandidates(request, direct, now)) {
+            remove(candidate);
+            Booking tryOwn = best(request, now);
+            if (tryOwn != null) {
+                add(tryOwn);
+                Booking tryMoved = best(candidate.request, now);
+                remove(tryOwn);
+                // Both must still be served, finishing sooner in total
+                if (tryMoved != null) {
+                    long score = tryOwn.end + tryMoved.end - candidate.end;
+                    if (score < bestScore - MINUTE_MS) {
+                        bestScore = score;
+                        victim = candidate;
+                        own = tryOwn;
+                        moved = tryMoved;
+                    }
+                }
+            }
+            add(candidate);
+        }
+        if (victim != null) {
+            unbook(victim);
+            book(own);
+            book(moved);
+            ejections++;
+        } else if (direct != null) {
+            book(direct);
+        } else {
+            unserved.add(request.vehicleId);
+            return;
+        }
+        insertions++;
+    }
+
+    // Slots not started at stations the vehicle could use, that start before its own best slot would
+    private List<Booking> ejectionCandidates(Request request, Booking direct, long now) {
+        List<Booking> candidates = new ArrayList<>();
+        if (maxEjectionCandidates <= 0) {
+            return candidates;
+        }
+        for (int s = 0; s < stations.size(); s++) {
+            if (!stations.get(s).energyType.equals(request.energyType)) {
+                continue;
+            }
+            for (int b = firstBay[s]; b < firstBay[s + 1]; b++) {
+                for (Booking booking : timelines.get(b)) {
+                    if (!booking.started && booking.start > now && (direct == null || booking.start < direct.start)) {
+                        candidates.add(booking);
+                    }
+                }
+            }
+        }
+        if (candidates.size() > maxEjectionCandidates) {
+            // The earliest slots free the most time
+            candidates.sort(Comparator.comparingLong(booking -> booking.start));
+            return new ArrayList<>(candidates.subList(0, maxEjectionCandidates));
+        }
+        return candidates;
+    }
+
+    /**
+     * The slot that would finish a vehicle soonest given the current plan, or
+     * null if no station it can reach has one
+     */
+    private Booking best(Request request, long now) {
+        Booking best = null;
+        for (int s = 0; s < stations.size(); s++) {
+            Station station = stations.get(s);
+            if (!station.energyType.equals(request.energyType)) {
+                continue;
+            }
+            double meters = distances.meters(s, request.latitude, request.longitude);
+            double arrivalLevel = request.level - meters / 1000 * request.rate;
+            if (arrivalLevel < arrivalReservePercent) {
+                continue;
+            }
+            long arrival = now + travelMs(meters);
+            // At least a minute at the pump, however full the vehicle is
+            long duration = Math.max(MINUTE_MS,
+                    Math.round(Math.max(0, request.target - arrivalLevel) / station.percentPerMinute * MINUTE_MS));
+            for (int b = firstBay[s]; b < firstBay[s + 1]; b++) {
+                long start = earliestSlot(timelines.get(b), station, arrival, duration);
+                if (start >= 0 && (best == null || start + duration < best.end)) {
+                    best = new Booking(request, s, b - firstBay[s], arrival, start, start + duration, meters, arrivalLevel);
+                }
+            }
+        }
+        return best;
+    }
+
+    // Earliest start in a bay's timeline, or -1 if the opening hours never leave room
+    private static long earliestSlot(List<Booking> timeline, Station station, long from, long duration) {
+        long start = from;
+        int i = 0;
+        while (true) {
+            start = station.earliestOpen(start, duration);
+            if (start < 0) {
+                return -1;
+            }
+            while (i < timeline.size() && timeline.get(i).end <= start) {
+                i++;
+            }
+            if (i == timeline.size() || timeline.get(i).start >= start + duration) {
+                return start;
+            }
+            start = timeline.get(i).end;
+        }
+    }
+
+    private long travelMs(double meters) {
+        return Math.round(meters / 1000 / speedKmh * 3_600_000);
+    }
+
+    // Change the plan; the station's other slots may improve after it
+    private void book(Booking booking) {
+        add(booking);
+        unserved.remove(booking.request.vehicleId);
+        dirtyStations.add(booking.station);
+    }
+
+    private void unbook(Booking booking) {
+        remove(booking);
+        dirtyStations.add(booking.station);
+    }
+
+    // Trial moves and putting back leave the dirty stations alone
+    private void add(Booking booking) {
+        List<Booking> timeline = timelines.get(firstBay[booking.station] + booking.bay);
+        int i = timeline.size();
+        while (i > 0 && timeline.get(i - 1).start > booking.start) {
+            i--;
+        }
+        timeline.add(i, booking);
+        bookings.put(booking.request.vehicleId, booking);
+    }
+
+    private void remove(Booking booking) {
+        timelines.get(firstBay[booking.station] + booking.bay).remove(booking);
+        bookings.remove(booking.request.vehicleId, booking);
+    }
+
+    public List<Station> getStations() {
+        return stations;
+    }
+
+    public Station getStation(Booking booking) {
+        return stations.get(booking.station);
+    }
+
+    public Collection<Booking> getBookings() {
+        return bookings.values();
+    }
+
+    public List<Request> getUnserved() {
+        List<Request> result = new ArrayList<>();
+        for (Long vehicleId : unserved) {
+            result.add(requests.get(vehicleId));
+        }
+        return result;
+    }
+
+    // Vehicles planned or waiting for a slot
+    public Set<Long> getRequestedVehicles() {
+        return requests.keySet();
+    }
+
+    public int getRequestCount() {
+        return requests.size();
+    }
+
+    public long getInsertions() {
+        return insertions;
+    }
+
+    public long getEjections() {
+        return ejections;
+    }
+
+    public long getRelocations() {
+        return relocations;
+    }
+
+    public long getRebookings() {
+        return rebookings;
+    }
+
+    public long getCompletions() {
+        return completions;
+    }
+}
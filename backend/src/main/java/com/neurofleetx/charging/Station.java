@@ -0,0 +1,88 @@
+package com.neurofleetx.charging;
+
+import com.neurofleetx.model.ChargingStation;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+/**
+ * A charging or fuel station compiled for planning: its position, bays,
+ * charge rate and opening hours as minutes of the day.
+ */
+public final class Station {
+
+    private static final long MINUTE_MS = 60_000;
+
+    final long id;
+    final String name;
+    final String energyType;
+    final double latitude;
+    final double longitude;
+    final int capacity;
+    final double percentPerMinute;
+    // Minutes of the day, both -1 when always open; a window may span midnight
+    private final int opensMinute;
+    private final int closesMinute;
+    private final ZoneId zone;
+
+    public Station(long id, String name, String energyType, double latitude, double longitude, int capacity,
+                   double percentPerMinute, LocalTime opensAt, LocalTime closesAt, ZoneId zone) {
+        this.id = id;
+        this.name = name;
+        this.energyType = energyType;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.capacity = capacity;
+        this.percentPerMinute = percentPerMinute;
+        boolean alwaysOpen = opensAt == null || closesAt == null || opensAt.equals(closesAt);
+        this.opensMinute = alwaysOpen ? -1 : opensAt.toSecondOfDay() / 60;
+        this.closesMinute = alwaysOpen ? -1 : closesAt.toSecondOfDay() / 60;
+        this.zone = zone;
+    }
+
+    /**
+     * @param defaultBatteryRate Percent per minute of a charger without a rate of its own
+     * @param defaultFuelRate    Percent per minute of a fuel pump without a rate of its own
+     */
+    public static Station of(ChargingStation station, double defaultBatteryRate, double defaultFuelRate, ZoneId zone) {
+        double rate = station.getPercentPerMinute() != null ? station.getPercentPerMinute()
+                : "FUEL".equals(station.getEnergyType()) ? defaultFuelRate : defaultBatteryRate;
+        return new Station(station.getId(), station.getName(), station.getEnergyType(), station.getLatitude(),
+                station.getLongitude(), station.getCapacity(), rate, station.getOpensAt(), station.getClosesAt(), zone);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Earliest start at or after {@code from} at which a session of
+     * {@code durationMs} fits inside the opening hours, or -1 if it never does
+     */
+    long earliestOpen(long from, long durationMs) {
+        if (opensMinute < 0) {
+            return from;
+        }
+        int windowMinutes = Math.floorMod(closesMinute - opensMinute, 24 * 60);
+        long windowMs = windowMinutes * MINUTE_MS;
+        if (durationMs > windowMs) {
+            return -1;
+        }
+        // The window that opened the day before may still be open
+        LocalDate day = Instant.ofEpochMilli(from).atZone(zone).toLocalDate().minusDays(1);
+        for (int i = 0; i < 9; i++, day = day.plusDays(1)) {
+            long opens = day.atStartOfDay(zone).toInstant().toEpochMilli() + opensMinute * MINUTE_MS;
+            long start = Math.max(from, opens);
+            if (start + durationMs <= opens + windowMs) {
+                return start;
+            }
+        }
+        return -1;
+    }
+}
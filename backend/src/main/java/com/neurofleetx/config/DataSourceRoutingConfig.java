@@ -0,0 +1,141 @@
+package com.neurofleetx.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primary/replica datasource routing, enabled with {@code datasource.routing.enabled=true}.
+ *
+ * The primary pool is configured by the usual {@code spring.datasource.*} properties.
+ * Each URL in {@code datasource.routing.replica-urls} gets its own pool with the same
+ * credentials. {@code @Transactional(readOnly = true)} work goes to the replicas, all
+ * other connections to the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourceRoutingConfig.class);
+
+    @Value("${datasource.routing.replica-urls:}")
+    private List<String> replicaUrls;
+
+    @Value("${datasource.routing.replica-pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${datasource.routing.pin-after-write-ms:2000}")
+    private long pinAfterWriteMs;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryPool(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("primary");
+        return pool;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryPool,
+                                                             DataSourceProperties properties) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        if (replicas.isEmpty()) {
+            logger.warn("Datasource routing is enabled without replicas, all reads go to the primary");
+        }
+        return new ReplicaRoutingDataSource(primaryPool, replicas, new ReadAfterWriteTracker(pinAfterWriteMs));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadAfterWriteFilter> readAfterWriteFilter() {
+        FilterRegistrationBean<ReadAfterWriteFilter> registration = new FilterRegistrationBean<>(new ReadAfterWriteFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Containerless stand-in for replication (local profile): every table of the embedded
+     * primary is exposed in the embedded replica as a read-only H2 linked table.
+     */
+    @Bean
+    @DependsOn("entityManagerFactory")
+    @ConditionalOnProperty(name = "datasource.routing.link-replicas-to-primary", havingValue = "true")
+    public ReplicaTableLinks replicaTableLinks(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                    DataSourceProperties properties) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Connection connection = replicaRoutingDataSource.getPrimary().getConnection();
+             ResultSet result = connection.getMetaData().getTables(null, "PUBLIC", null, new String[]{"TABLE"})) {
+            while (result.next()) {
+                tables.add(result.getString("TABLE_NAME"));
+            }
+        }
+        String primaryUrl = properties.determineUrl();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            try (Connection connection = DriverManager.getConnection(url.trim(),
+                    properties.determineUsername(), properties.determinePassword());
+                 Statement statement = connection.createStatement()) {
+                for (String table : tables) {
+                    statement.execute("CREATE LINKED TABLE IF NOT EXISTS " + table + "('', '" + primaryUrl + "', '"
+                            + properties.determineUsername() + "', '" + properties.determinePassword() + "', 'PUBLIC', '"
+                            + table + "') READONLY");
+                }
+            }
+        }
+        logger.info("Linked {} primary tables into {} local replicas", tables.size(), replicaUrls.size());
+        return new ReplicaTableLinks(tables);
+    }
+
+    public static class ReplicaTableLinks {
+        private final List<String> tables;
+
+        ReplicaTableLinks(List<String> tables) {
+            this.tables = tables;
+        }
+
+        public List<String> getTables() {
+            return tables;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.neurofleetx.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Background executors shared by the AI and ingestion components.
+ *
+ * With {@code spring.threads.virtual.enabled=true} on Java 21 (build with the
+ * {@code java21} profile) Spring Boot runs servlet requests and scheduled tasks
+ * on virtual threads, and these executors follow the same mode. On older JVMs
+ * the setting falls back to platform threads.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorConfig.class);
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+
+    // Single thread so the online learner state is only ever touched by one thread
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService trainingExecutor() {
+        return Executors.newSingleThreadExecutor(threadFactory("model-training"));
+    }
+
+    // Single thread so batches from the telemetry gateway are applied in arrival order
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService telemetryIngestExecutor() {
+        return Executors.newSingleThreadExecutor(threadFactory("telemetry-ingest"));
+    }
+
+    // One thread per core for CPU-bound batch jobs such as matching historical traces
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService mapMatchingExecutor() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), threadFactory("map-matching"));
+    }
+
+    // One thread per core for scoring the fleet's range against a destination in chunks
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService rangeExecutor() {
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), threadFactory("range"));
+    }
+
+    /**
+     * Whether background work runs on virtual threads
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreadsRequested && Runtime.version().feature() >= 21;
+    }
+
+    /**
+     * Thread factory for a background executor in the configured execution mode
+     */
+    public ThreadFactory threadFactory(String name) {
+        if (virtualThreadsRequested) {
+            if (Runtime.version().feature() >= 21) {
+                return new VirtualThreadTaskExecutor(name + "-").getVirtualThreadFactory();
+            }
+            logger.warn("Virtual threads need Java 21, running {} on platform threads", name);
+        }
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package com.neurofleetx.config;
 
 import com.neurofleetx.util.JwtUtil;
+import com.neurofleetx.util.TokenDenylist;
 import com.neurofleetx.service.UserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -29,13 +30,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
 
         // Skip authentication for login and register endpoints
-        String requestURI = request.getRequestURI();
-        if (isPublicEndpoint(requestURI)) {
+        if (isPublicEndpoint(request)) {
             chain.doFilter(request, response);
             return;
         }
@@ -57,17 +60,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String username = null;
+        String tokenId = null;
         String jwtToken = requestTokenHeader.substring(7);
 
-        // Extract username from token
+        // Extract username and token id from token
         try {
             username = jwtUtil.extractUsername(jwtToken);
+            tokenId = jwtUtil.extractId(jwtToken);
         } catch (Exception e) {
             logger.error("Unable to extract username from JWT Token", e);
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT Token");
             return;
         }
 
+        // Reject tokens revoked by logout before doing any user lookup
+        if (tokenId != null && tokenDenylist.isRevoked(tokenId)) {
+            logger.warn("JWT Token has been revoked");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "JWT Token has been revoked");
+            return;
+        }
+
         // Validate token only if username was extracted
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
@@ -95,7 +107,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         chain.doFilter(request, response);
     }
     
-    private boolean isPublicEndpoint(String requestURI) {
+    // Streamed responses complete on an async dispatch, which starts with an empty security
+    // context; authenticate it from the same header so it passes the same rules as the request
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+    
+    private boolean isPublicEndpoint(HttpServletRequest request) {
+        String requestURI = request.getRequestURI();
+        if (requestURI.startsWith("/api/vehicles") && "PATCH".equals(request.getMethod())) {
+            // Vehicle reads are public, patches are not
+            return false;
+        }
         return requestURI.startsWith("/api/auth/") || 
                requestURI.equals("/") || 
                requestURI.equals("/health") ||
@@ -0,0 +1,111 @@
+package com.neurofleetx.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neurofleetx.controller.ReactiveVehicleHandler;
+import com.neurofleetx.util.JwtUtil;
+import com.neurofleetx.util.TokenDenylist;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsWebFilter;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.util.Arrays;
+
+/**
+ * Optional non-blocking read API for polling dashboards. Runs on its own
+ * Reactor Netty event loop next to the servlet stack, so the two can be
+ * compared on the same data. Writes stay on the servlet {@code VehicleController}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reactive.server.enabled", havingValue = "true")
+public class ReactiveServerConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveServerConfig.class);
+
+    @Value("${reactive.server.port:8084}")
+    private int port;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveRoutes(ReactiveVehicleHandler handler) {
+        RouterFunction<ServerResponse> vehicles = RouterFunctions.route()
+                .GET("/api/reactive/vehicles", handler::getAllVehicles)
+                .GET("/api/reactive/vehicles/status/{status}", handler::getVehiclesByStatus)
+                .GET("/api/reactive/vehicles/{id}", handler::getVehicleById)
+                .build();
+        // Predictions are protected on the servlet side too
+        RouterFunction<ServerResponse> predictions = RouterFunctions.route()
+                .GET("/api/reactive/predictions", handler::getAllPredictions)
+                .GET("/api/reactive/predictions/{id}", handler::getPrediction)
+                .filter(bearerTokenFilter())
+                .build();
+        return vehicles.and(predictions);
+    }
+
+    @Bean(destroyMethod = "disposeNow")
+    public DisposableServer reactiveServer(RouterFunction<ServerResponse> reactiveRoutes, ObjectMapper objectMapper) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper)))
+                .webFilter(corsWebFilter())
+                .build();
+        ReactorHttpHandlerAdapter adapter =
+                new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(reactiveRoutes, strategies));
+        DisposableServer server = HttpServer.create().port(port).handle(adapter).bindNow();
+        logger.info("Reactive read API listening on port {}", server.port());
+        return server;
+    }
+
+    // Validates signature, expiry and revocation only; there is no blocking user lookup
+    private HandlerFilterFunction<ServerResponse, ServerResponse> bearerTokenFilter() {
+        return (request, next) -> {
+            String header = request.headers().firstHeader("Authorization");
+            if (header == null || !header.startsWith("Bearer ")) {
+                return ServerResponse.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            String token = header.substring(7);
+            try {
+                jwtUtil.extractUsername(token);
+                String tokenId = jwtUtil.extractId(token);
+                if (tokenId != null && tokenDenylist.isRevoked(tokenId)) {
+                    return ServerResponse.status(HttpStatus.UNAUTHORIZED).build();
+                }
+            } catch (Exception e) {
+                return ServerResponse.status(HttpStatus.UNAUTHORIZED).build();
+            }
+            return next.handle(request);
+        };
+    }
+
+    private CorsWebFilter corsWebFilter() {
+        CorsConfiguration configuration = new CorsConfiguration();
+        configuration.setAllowedOriginPatterns(Arrays.asList("*"));
+        configuration.setAllowedMethods(Arrays.asList("GET", "OPTIONS"));
+        configuration.setAllowedHeaders(Arrays.asList("*"));
+        configuration.setAllowCredentials(true);
+
+        UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", configuration);
+        return new CorsWebFilter(source);
+    }
+}
@@ -0,0 +1,30 @@
+package com.neurofleetx.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Identifies the client of each request for {@link ReadAfterWriteTracker}.
+ * Requests carrying the same bearer token from the same address count as one client.
+ */
+public class ReadAfterWriteFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String authorization = request.getHeader("Authorization");
+        // Only a hash of the token is kept, collisions merely pin another client too
+        String client = request.getRemoteAddr() + "|" + (authorization != null ? authorization.hashCode() : 0);
+        ReadAfterWriteTracker.setCurrentClient(client);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadAfterWriteTracker.clearCurrentClient();
+        }
+    }
+}
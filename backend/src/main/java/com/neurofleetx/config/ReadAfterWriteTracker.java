@@ -0,0 +1,84 @@
+package com.neurofleetx.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers which clients wrote recently, so their reads stay on the primary
+ * until the replicas have had time to catch up with those writes.
+ *
+ * The client of the current thread is set per request by {@link ReadAfterWriteFilter};
+ * background threads have no client and are never pinned.
+ */
+public class ReadAfterWriteTracker {
+
+    private static final int PURGE_EVERY_WRITES = 4096;
+
+    private static final ThreadLocal<String> currentClient = new ThreadLocal<>();
+
+    private final long pinNanos;
+
+    // Client key -> System.nanoTime() until which its reads go to the primary
+    private final Map<String, Long> pinnedUntil = new ConcurrentHashMap<>();
+
+    private final AtomicLong writes = new AtomicLong();
+
+    public ReadAfterWriteTracker(long pinMillis) {
+        this.pinNanos = TimeUnit.MILLISECONDS.toNanos(pinMillis);
+    }
+
+    public static void setCurrentClient(String client) {
+        currentClient.set(client);
+    }
+
+    public static void clearCurrentClient() {
+        currentClient.remove();
+    }
+
+    /**
+     * Record that the current client is writing to the primary
+     */
+    public void markWrite() {
+        String client = currentClient.get();
+        if (client != null && pinNanos > 0) {
+            pinnedUntil.put(client, System.nanoTime() + pinNanos);
+            // Clients that never read again would otherwise stay in the map
+            if (writes.incrementAndGet() % PURGE_EVERY_WRITES == 0) {
+                purgeExpired();
+            }
+        }
+    }
+
+    /**
+     * Whether the current client wrote within the pin window
+     */
+    public boolean isPinned() {
+        String client = currentClient.get();
+        if (client == null) {
+            return false;
+        }
+        Long until = pinnedUntil.get(client);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() > 0) {
+            return true;
+        }
+        pinnedUntil.remove(client, until);
+        return false;
+    }
+
+    /**
+     * Drop pins of clients that have not read since their window ended
+     */
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        pinnedUntil.entrySet().removeIf(entry -> entry.getValue() - now <= 0);
+    }
+
+    public int getPinnedClients() {
+        return pinnedUntil.size();
+    }
+}
@@ -0,0 +1,125 @@
+package com.neurofleetx.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends connections of read-only transactions to the replica pools (round robin)
+ * and everything else to the primary pool. A read-write transaction also pins its
+ * client to the primary for a while, so writes outside a transaction do not count.
+ *
+ * The routing decision reads the transaction state, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which
+ * only asks for a connection once the transaction has been set up.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final HikariDataSource primary;
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+    private final Map<String, LongAdder> routed = new HashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ReadAfterWriteTracker readAfterWrite;
+    private final LongAdder pinnedReads = new LongAdder();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    ReadAfterWriteTracker readAfterWrite) {
+        this.primary = primary;
+        this.readAfterWrite = readAfterWrite;
+        pools.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + (i + 1);
+            replicaKeys.add(key);
+            pools.put(key, replicas.get(i));
+        }
+        for (String key : pools.keySet()) {
+            routed.put(key, new LongAdder());
+        }
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = route();
+        routed.get(key).increment();
+        return key;
+    }
+
+    private String route() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Plain autocommit work (e.g. repository finders outside a service transaction)
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readAfterWrite.markWrite();
+            return PRIMARY;
+        }
+        if (replicaKeys.isEmpty()) {
+            return PRIMARY;
+        }
+        if (readAfterWrite.isPinned()) {
+            pinnedReads.increment();
+            return PRIMARY;
+        }
+        return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+    }
+
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * Per pool: connections handed out by the router and the Hikari pool gauges
+     */
+    public List<Map<String, Object>> getPoolStats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (Map.Entry<String, HikariDataSource> entry : pools.entrySet()) {
+            HikariDataSource pool = entry.getValue();
+            Map<String, Object> poolStats = new HashMap<>();
+            poolStats.put("name", entry.getKey());
+            poolStats.put("role", PRIMARY.equals(entry.getKey()) ? "PRIMARY" : "REPLICA");
+            poolStats.put("routedConnections", routed.get(entry.getKey()).sum());
+            poolStats.put("maxPoolSize", pool.getMaximumPoolSize());
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            if (mxBean != null) {
+                poolStats.put("activeConnections", mxBean.getActiveConnections());
+                poolStats.put("idleConnections", mxBean.getIdleConnections());
+                poolStats.put("totalConnections", mxBean.getTotalConnections());
+                poolStats.put("threadsAwaitingConnection", mxBean.getThreadsAwaitingConnection());
+            }
+            stats.add(poolStats);
+        }
+        return stats;
+    }
+
+    /**
+     * Read-only transactions sent to the primary because their client wrote recently
+     */
+    public long getPinnedReads() {
+        return pinnedReads.sum();
+    }
+
+    public ReadAfterWriteTracker getReadAfterWrite() {
+        return readAfterWrite;
+    }
+
+    public void close() {
+        for (HikariDataSource pool : pools.values()) {
+            pool.close();
+        }
+    }
+}
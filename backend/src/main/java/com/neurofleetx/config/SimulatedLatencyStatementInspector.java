@@ -0,0 +1,27 @@
+package com.neurofleetx.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Adds a fixed delay before every SQL statement Hibernate prepares, to
+ * reproduce slow-database conditions when comparing execution modes. Enabled
+ * by registering it as {@code hibernate.session_factory.statement_inspector}
+ * and setting the {@code neurofleetx.simulated-db-latency-ms} system property.
+ */
+public class SimulatedLatencyStatementInspector implements StatementInspector {
+
+    private final long latencyNanos =
+            TimeUnit.MILLISECONDS.toNanos(Long.getLong("neurofleetx.simulated-db-latency-ms", 0L));
+
+    @Override
+    public String inspect(String sql) {
+        if (latencyNanos > 0) {
+            // Parks rather than spins, so a virtual thread unmounts while waiting
+            LockSupport.parkNanos(latencyNanos);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,43 @@
+package com.neurofleetx.config;
+
+import com.neurofleetx.wal.WalDurability;
+import com.neurofleetx.wal.WriteAheadLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+/**
+ * Write-ahead log for telemetry buffered by the ingestor. It is opened, and
+ * replayed into the vehicles table, by {@code TelemetryIngestor} at startup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "telemetry.wal.enabled", havingValue = "true")
+public class WalConfig {
+
+    @Value("${telemetry.wal.dir:data/wal}")
+    private String directory;
+
+    @Value("${telemetry.wal.durability:GROUP}")
+    private WalDurability durability;
+
+    @Value("${telemetry.wal.group-commit-ms:5}")
+    private long groupCommitMs;
+
+    @Value("${telemetry.wal.group-commit-bytes:1048576}")
+    private int groupCommitBytes;
+
+    @Value("${telemetry.wal.segment-bytes:67108864}")
+    private long segmentBytes;
+
+    @Value("${telemetry.wal.checkpoint-interval-ms:1000}")
+    private long checkpointIntervalMs;
+
+    @Bean(destroyMethod = "close")
+    public WriteAheadLog telemetryWal() {
+        return new WriteAheadLog(Paths.get(directory), durability, groupCommitMs, groupCommitBytes,
+                segmentBytes, checkpointIntervalMs);
+    }
+}
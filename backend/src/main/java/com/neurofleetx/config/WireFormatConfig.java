@@ -0,0 +1,17 @@
+package com.neurofleetx.config;
+
+import com.neurofleetx.wire.FleetFrameHttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the binary fleet format with Spring MVC's content negotiation
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public FleetFrameHttpMessageConverter fleetFrameHttpMessageConverter() {
+        return new FleetFrameHttpMessageConverter();
+    }
+}
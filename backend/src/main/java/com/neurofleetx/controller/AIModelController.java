@@ -1,12 +1,26 @@
 package com.neurofleetx.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.payload.response.MaintenancePrediction;
+import com.neurofleetx.service.FleetJsonCache;
+import com.neurofleetx.service.MaintenanceLedgerService;
 import com.neurofleetx.service.VehicleService;
+import com.neurofleetx.ai.ModelRuntime;
+import com.neurofleetx.ai.ModelStore;
+import com.neurofleetx.ai.OnlineTrainer;
 import com.neurofleetx.ai.PredictiveMaintenanceService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +35,27 @@ public class AIModelController {
     
     @Autowired
     private PredictiveMaintenanceService predictiveMaintenanceService;
+    
+    @Autowired
+    private ModelRuntime modelRuntime;
+    
+    @Autowired
+    private ModelStore modelStore;
+    
+    @Autowired
+    private OnlineTrainer onlineTrainer;
+    
+    @Autowired
+    private MaintenanceLedgerService maintenanceLedgerService;
+    
+    @Autowired
+    private FleetJsonCache fleetJsonCache;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${maintenance.export.path:data/maintenance-examples.nfxc}")
+    private String exportPath;
 
     // Predictive maintenance model using machine learning
     @PostMapping("/predict/maintenance")
@@ -38,7 +73,7 @@ public class AIModelController {
             }
             
             // Use advanced AI prediction algorithm based on vehicle metrics
-            Map<String, Object> prediction = predictiveMaintenanceService.predictMaintenance(vehicle);
+            MaintenancePrediction prediction = predictiveMaintenanceService.predictMaintenance(vehicle);
             
             response.put("vehicleId", vehicleId);
             response.put("prediction", prediction);
@@ -50,27 +85,35 @@ public class AIModelController {
         }
     }
 
-    // Batch prediction for all vehicles using advanced ML model
+    // Batch prediction for all vehicles using advanced ML model. Predictions only
+    // change with the fleet or the model, so the ETag combines both versions and
+    // a matching If-None-Match is answered with 304 without scoring anything.
     @GetMapping("/predict/maintenance/all")
-    public ResponseEntity<Map<String, Object>> predictAllVehicles() {
+    public ResponseEntity<StreamingResponseBody> predictAllVehicles(WebRequest request) {
         Map<String, Object> response = new HashMap<>();
         
+        long fleetVersion = vehicleService.getFleetVersion();
+        String etag = "\"" + fleetVersion + "-" + modelRuntime.getGeneration() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        
         try {
-            List<Vehicle> vehicles = vehicleService.getAllVehicles();
-            Map<Long, Map<String, Object>> predictions = new HashMap<>();
+            // Only vehicles that changed since their prediction was cached are scored
+            List<Vehicle> vehicles = vehicleService.getCurrentVehicles();
+            StreamingResponseBody body = fleetJsonCache.predictionList(vehicles, fleetVersion);
             
-            for (Vehicle vehicle : vehicles) {
-                Map<String, Object> prediction = predictiveMaintenanceService.predictMaintenance(vehicle);
-                predictions.put(vehicle.getId(), prediction);
-            }
-            
-            response.put("predictions", predictions);
-            response.put("count", vehicles.size());
-            
-            return ResponseEntity.ok(response);
+            // The ETag header was already set by checkNotModified
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .cacheControl(CacheControl.noCache())
+                    .header(VehicleController.FLEET_VERSION_HEADER, Long.toString(fleetVersion))
+                    .body(body);
         } catch (Exception e) {
             response.put("error", "Batch prediction failed: " + e.getMessage());
-            return ResponseEntity.internalServerError().body(response);
+            return ResponseEntity.internalServerError()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, response));
         }
     }
     
@@ -81,10 +124,36 @@ public class AIModelController {
         
         try {
             List<Vehicle> vehicles = vehicleService.getAllVehicles();
-            predictiveMaintenanceService.trainModel(vehicles);
+            int version = predictiveMaintenanceService.trainModel(vehicles);
             
             response.put("message", "AI model trained successfully with " + vehicles.size() + " vehicles");
             response.put("vehicleCount", vehicles.size());
+            response.put("modelVersion", version);
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("error", "Model training failed: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+    
+    // Train the AI model on real maintenance outcomes from the ledger
+    @PostMapping("/train/ledger")
+    public ResponseEntity<Map<String, Object>> trainModelFromLedger() {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            MaintenanceLedgerService.ExportResult examples = maintenanceLedgerService.exportTrainingExamples(Paths.get(exportPath));
+            if (examples.getRows() == 0) {
+                response.put("error", "No labeled maintenance examples available yet");
+                return ResponseEntity.badRequest().body(response);
+            }
+            int version = predictiveMaintenanceService.trainFromExamples(examples.getPath());
+            
+            response.put("message", "AI model trained successfully with " + examples.getRows() + " labeled examples");
+            response.put("exampleCount", examples.getRows());
+            response.put("positiveCount", examples.getPositives());
+            response.put("modelVersion", version);
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -92,4 +161,78 @@ public class AIModelController {
             return ResponseEntity.internalServerError().body(response);
         }
     }
-}
\ No newline at end of file
+    
+    // List saved model versions
+    @GetMapping("/models")
+    public ResponseEntity<Map<String, Object>> listModels() {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            response.put("activeVersion", modelRuntime.getModelVersion());
+            response.put("versions", modelStore.listVersions());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("error", "Listing models failed: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+    
+    // Activate a saved model version without retraining
+    @PostMapping("/models/{version}/activate")
+    public ResponseEntity<Map<String, Object>> activateModel(@PathVariable int version) {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            modelRuntime.activate(version);
+            response.put("message", "Model version " + version + " activated");
+            response.put("activeVersion", version);
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            response.put("error", "Model activation failed: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    // Roll back to the previously active model version
+    @PostMapping("/models/rollback")
+    public ResponseEntity<Map<String, Object>> rollbackModel() {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            int version = modelRuntime.rollback();
+            response.put("message", "Rolled back to model version " + version);
+            response.put("activeVersion", version);
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            response.put("error", "Model rollback failed: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    // Online learning progress
+    @GetMapping("/online/status")
+    public ResponseEntity<Map<String, Object>> onlineStatus() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("enabled", onlineTrainer.isEnabled());
+        response.put("submitted", onlineTrainer.getSubmitted());
+        response.put("dropped", onlineTrainer.getDropped());
+        response.put("pending", onlineTrainer.getPending());
+        response.put("appliedUpdates", onlineTrainer.getAppliedUpdates());
+        response.put("lastPromotedAt", onlineTrainer.getLastPromotedAt());
+        return ResponseEntity.ok(response);
+    }
+    
+    // Promote the online shadow model immediately
+    @PostMapping("/online/promote")
+    public ResponseEntity<Map<String, Object>> promoteOnlineModel() {
+        Map<String, Object> response = new HashMap<>();
+        
+        if (!onlineTrainer.isEnabled()) {
+            response.put("error", "Online learning is disabled");
+            return ResponseEntity.badRequest().body(response);
+        }
+        onlineTrainer.promoteNow();
+        response.put("message", "Online model promotion scheduled");
+        return ResponseEntity.accepted().body(response);
+    }
+}
@@ -0,0 +1,79 @@
+package com.neurofleetx.controller;
+
+import com.neurofleetx.charging.ChargingEngine;
+import com.neurofleetx.model.ChargingStation;
+import com.neurofleetx.payload.response.MessageResponse;
+import com.neurofleetx.service.ChargingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/charging")
+@CrossOrigin(origins = "http://localhost:5507")
+public class ChargingController {
+
+    @Autowired
+    private ChargingService chargingService;
+    
+    @Autowired
+    private ChargingEngine chargingEngine;
+
+    @GetMapping("/stations")
+    public List<ChargingStation> getAllStations() {
+        return chargingService.getAllStations();
+    }
+    
+    @GetMapping("/stations/{id}")
+    public ResponseEntity<ChargingStation> getStationById(@PathVariable Long id) {
+        return chargingService.getStationById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @PostMapping("/stations")
+    public ResponseEntity<?> createStation(@RequestBody ChargingStation station) {
+        try {
+            return ResponseEntity.ok(chargingService.createStation(station));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    @PutMapping("/stations/{id}")
+    public ResponseEntity<?> updateStation(@PathVariable Long id, @RequestBody ChargingStation station) {
+        try {
+            return ResponseEntity.ok(chargingService.updateStation(id, station));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @DeleteMapping("/stations/{id}")
+    public ResponseEntity<Void> deleteStation(@PathVariable Long id) {
+        chargingService.deleteStation(id);
+        return ResponseEntity.noContent().build();
+    }
+    
+    // Station assignments and slots of every vehicle that needs charging, as of the last repair
+    @GetMapping("/plan")
+    public Map<String, Object> getPlan() {
+        return chargingEngine.getPlan();
+    }
+    
+    @GetMapping("/plan/vehicles/{vehicleId}")
+    public ResponseEntity<Map<String, Object>> getVehiclePlan(@PathVariable Long vehicleId) {
+        Map<String, Object> plan = chargingEngine.getVehiclePlan(vehicleId);
+        return plan != null ? ResponseEntity.ok(plan) : ResponseEntity.notFound().build();
+    }
+    
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return chargingEngine.getStats();
+    }
+}
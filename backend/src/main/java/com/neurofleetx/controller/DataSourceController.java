@@ -0,0 +1,32 @@
+package com.neurofleetx.controller;
+
+import com.neurofleetx.config.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/datasource")
+@CrossOrigin(origins = "http://localhost:5507")
+public class DataSourceController {
+
+    // Only present when datasource routing is enabled
+    @Autowired(required = false)
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    // Per-pool connection metrics of the primary/replica routing
+    @GetMapping("/pools")
+    public ResponseEntity<Map<String, Object>> getPools() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("routingEnabled", replicaRoutingDataSource != null);
+        if (replicaRoutingDataSource != null) {
+            response.put("pools", replicaRoutingDataSource.getPoolStats());
+            response.put("pinnedReads", replicaRoutingDataSource.getPinnedReads());
+            response.put("pinnedClients", replicaRoutingDataSource.getReadAfterWrite().getPinnedClients());
+        }
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,49 @@
+package com.neurofleetx.controller;
+
+import com.neurofleetx.eta.EtaEngine;
+import com.neurofleetx.payload.response.MessageResponse;
+import com.neurofleetx.service.EtaService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/eta")
+@CrossOrigin(origins = "http://localhost:5507")
+public class EtaController {
+
+    @Autowired
+    private EtaService etaService;
+    
+    @Autowired
+    private EtaEngine etaEngine;
+
+    // Predict candidate routes: {"departure", "routes": [{"id", "waypoints": [[lat, lon], ...]}]}
+    @SuppressWarnings("unchecked")
+    @PostMapping("/routes")
+    public ResponseEntity<?> predictRoutes(@RequestBody Map<String, Object> request) {
+        try {
+            Object routes = request.get("routes");
+            if (!(routes instanceof List)) {
+                throw new IllegalArgumentException("Expected a routes array");
+            }
+            return ResponseEntity.ok(etaService.predict((List<Map<String, Object>>) routes, request.get("departure")));
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    // Serving model weights and online training progress
+    @GetMapping("/model")
+    public Map<String, Object> getModel() {
+        return etaEngine.getModelInfo();
+    }
+    
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return etaEngine.getStats();
+    }
+}
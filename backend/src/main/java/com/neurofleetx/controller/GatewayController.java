@@ -0,0 +1,35 @@
+package com.neurofleetx.controller;
+
+import com.neurofleetx.gateway.TelemetryGateway;
+import com.neurofleetx.gateway.TelemetryIngestor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/gateway")
+@CrossOrigin(origins = "http://localhost:5507")
+public class GatewayController {
+
+    // Only present when the TCP/UDP gateway is enabled
+    @Autowired(required = false)
+    private TelemetryGateway telemetryGateway;
+
+    @Autowired
+    private TelemetryIngestor telemetryIngestor;
+
+    // Connection and ingest counters of the device telemetry gateway
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("gatewayEnabled", telemetryGateway != null);
+        if (telemetryGateway != null) {
+            response.put("gateway", telemetryGateway.getStats());
+        }
+        response.put("ingest", telemetryIngestor.getStats());
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,100 @@
+package com.neurofleetx.controller;
+
+import com.neurofleetx.geofence.GeofenceEngine;
+import com.neurofleetx.model.Geofence;
+import com.neurofleetx.model.GeofenceEvent;
+import com.neurofleetx.payload.response.MessageResponse;
+import com.neurofleetx.service.GeofenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/geofences")
+@CrossOrigin(origins = "http://localhost:5507")
+public class GeofenceController {
+
+    @Autowired
+    private GeofenceService geofenceService;
+    
+    @Autowired
+    private GeofenceEngine geofenceEngine;
+
+    @GetMapping
+    public List<Geofence> getAllGeofences() {
+        return geofenceService.getAllGeofences();
+    }
+    
+    @GetMapping("/{id}")
+    public ResponseEntity<Geofence> getGeofenceById(@PathVariable Long id) {
+        return geofenceService.getGeofenceById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @PostMapping
+    public ResponseEntity<?> createGeofence(@RequestBody Geofence geofence) {
+        try {
+            return ResponseEntity.ok(geofenceService.createGeofence(geofence));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateGeofence(@PathVariable Long id, @RequestBody Geofence geofence) {
+        try {
+            return ResponseEntity.ok(geofenceService.updateGeofence(id, geofence));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteGeofence(@PathVariable Long id) {
+        geofenceService.deleteGeofence(id);
+        return ResponseEntity.noContent().build();
+    }
+    
+    // Enter, exit and dwell events, newest first
+    @GetMapping("/events")
+    public List<GeofenceEvent> getEvents(@RequestParam(required = false) Long vehicleId,
+                                         @RequestParam(required = false) Long geofenceId,
+                                         @RequestParam(defaultValue = "100") int limit) {
+        return geofenceService.getEvents(vehicleId, geofenceId, limit);
+    }
+    
+    // Geofences a vehicle is currently in
+    @GetMapping("/vehicles/{vehicleId}")
+    public Map<String, Object> getZonesOfVehicle(@PathVariable Long vehicleId) {
+        List<Long> geofenceIds = new ArrayList<>();
+        for (long id : geofenceEngine.zonesOf(vehicleId)) {
+            geofenceIds.add(id);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("vehicleId", vehicleId);
+        response.put("geofenceIds", geofenceIds);
+        return response;
+    }
+    
+    // Vehicles currently inside a geofence
+    @GetMapping("/{id}/vehicles")
+    public Map<String, Object> getVehiclesInZone(@PathVariable Long id) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("geofenceId", id);
+        response.put("vehicleIds", geofenceEngine.vehiclesIn(id));
+        return response;
+    }
+    
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return geofenceEngine.getStats();
+    }
+}
@@ -0,0 +1,64 @@
+package com.neurofleetx.controller;
+
+import com.neurofleetx.model.MaintenanceEvent;
+import com.neurofleetx.service.MaintenanceLedgerService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/maintenance")
+@CrossOrigin(origins = "http://localhost:5507")
+public class MaintenanceController {
+
+    @Autowired
+    private MaintenanceLedgerService maintenanceLedgerService;
+    
+    @Value("${maintenance.export.path:data/maintenance-examples.nfxc}")
+    private String exportPath;
+
+    // Record a performed service
+    @PostMapping("/events")
+    public ResponseEntity<?> recordEvent(@RequestBody MaintenanceEvent event) {
+        if (event.getVehicleId() == null || event.getComponent() == null || event.getComponent().isBlank()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "vehicleId and component are required");
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            return ResponseEntity.ok(maintenanceLedgerService.recordEvent(event));
+        } catch (RuntimeException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    @GetMapping("/events")
+    public List<MaintenanceEvent> getEvents(@RequestParam(required = false) Long vehicleId) {
+        return maintenanceLedgerService.getEvents(vehicleId);
+    }
+    
+    // Export labeled training examples as a columnar file
+    @PostMapping("/export")
+    public ResponseEntity<Map<String, Object>> exportExamples() {
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            MaintenanceLedgerService.ExportResult result = maintenanceLedgerService.exportTrainingExamples(Paths.get(exportPath));
+            response.put("path", result.getPath().toString());
+            response.put("rows", result.getRows());
+            response.put("positives", result.getPositives());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("error", "Export failed: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.neurofleetx.controller;
+
+import com.neurofleetx.mapmatch.MapMatchingEngine;
+import com.neurofleetx.payload.response.MessageResponse;
+import com.neurofleetx.service.MapMatchingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/mapmatch")
+@CrossOrigin(origins = "http://localhost:5507")
+public class MapMatchingController {
+
+    @Autowired
+    private MapMatchingService mapMatchingService;
+    
+    @Autowired
+    private MapMatchingEngine mapMatchingEngine;
+
+    // A vehicle's current road match and distance driven along matched roads
+    @GetMapping("/vehicles/{vehicleId}")
+    public ResponseEntity<Map<String, Object>> getVehicleMatch(@PathVariable Long vehicleId) {
+        Map<String, Object> match = mapMatchingEngine.getVehicleMatch(vehicleId);
+        return match != null ? ResponseEntity.ok(match) : ResponseEntity.notFound().build();
+    }
+    
+    // Match traces sent as {"traces": [{"vehicleId", "time": [], "latitude": [], "longitude": []}]}
+    @SuppressWarnings("unchecked")
+    @PostMapping("/batch")
+    public ResponseEntity<?> matchTraces(@RequestBody Map<String, Object> request) {
+        try {
+            Object traces = request.get("traces");
+            if (!(traces instanceof List)) {
+                throw new IllegalArgumentException("Expected a traces array");
+            }
+            return ResponseEntity.ok(mapMatchingService.matchTraces((List<Map<String, Object>>) traces));
+        } catch (IllegalArgumentException | ClassCastException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    // Match stored tracks: {"vehicleIds": [], "from", "to"}; the window defaults to the last hour
+    @PostMapping("/history")
+    public ResponseEntity<?> matchHistory(@RequestBody Map<String, Object> request) {
+        try {
+            List<Long> vehicleIds = new ArrayList<>();
+            if (request.get("vehicleIds") instanceof List) {
+                for (Object id : (List<?>) request.get("vehicleIds")) {
+                    vehicleIds.add(((Number) id).longValue());
+                }
+            }
+            LocalDateTime from = request.get("from") != null ? LocalDateTime.parse(request.get("from").toString()) : null;
+            LocalDateTime to = request.get("to") != null ? LocalDateTime.parse(request.get("to").toString()) : null;
+            return ResponseEntity.ok(mapMatchingService.matchHistory(vehicleIds, from, to));
+        } catch (IllegalArgumentException | ClassCastException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return mapMatchingEngine.getStats();
+    }
+}
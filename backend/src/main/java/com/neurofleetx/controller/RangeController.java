@@ -0,0 +1,70 @@
+package com.neurofleetx.controller;
+
+import com.neurofleetx.payload.response.MessageResponse;
+import com.neurofleetx.range.RangeEngine;
+import com.neurofleetx.service.RangeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/range")
+@CrossOrigin(origins = "http://localhost:5507")
+public class RangeController {
+
+    @Autowired
+    private RangeService rangeService;
+
+    @Autowired
+    private RangeEngine rangeEngine;
+
+    @GetMapping("/vehicles/{id}")
+    public ResponseEntity<?> getVehicleRange(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(rangeService.getVehicleRange(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Energy for a route from the vehicle's position: {"waypoints": [[lat, lon], ...]}
+    @PostMapping("/vehicles/{id}/route")
+    public ResponseEntity<?> estimateRoute(@PathVariable Long id, @RequestBody Map<String, Object> request) {
+        try {
+            return ResponseEntity.ok(rangeService.estimateRoute(id, request.get("waypoints")));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    // Which available vehicles can reach a destination: {"latitude", "longitude", "limit", "reachableOnly"}
+    @PostMapping("/available")
+    public ResponseEntity<?> scoreAvailable(@RequestBody Map<String, Object> request) {
+        try {
+            if (!(request.get("latitude") instanceof Number) || !(request.get("longitude") instanceof Number)) {
+                throw new IllegalArgumentException("Expected a numeric latitude and longitude");
+            }
+            int limit = request.get("limit") instanceof Number ? ((Number) request.get("limit")).intValue() : 50;
+            boolean reachableOnly = Boolean.TRUE.equals(request.get("reachableOnly"));
+            return ResponseEntity.ok(rangeService.scoreAvailable(((Number) request.get("latitude")).doubleValue(),
+                    ((Number) request.get("longitude")).doubleValue(), limit, reachableOnly));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    // Learned consumption per vehicle type
+    @GetMapping("/rates")
+    public Map<String, Map<String, Object>> getRates() {
+        return rangeEngine.getTypeRates();
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return rangeEngine.getStats();
+    }
+}
@@ -0,0 +1,97 @@
+package com.neurofleetx.controller;
+
+import com.neurofleetx.ai.PredictiveMaintenanceService;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.service.FleetState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Non-blocking read handlers for the reactive server. Everything is served
+ * from {@link FleetState}, so no handler ever waits on the database; list
+ * responses are streamed element by element and follow the client's demand.
+ */
+@Component
+public class ReactiveVehicleHandler {
+
+    private static final ParameterizedTypeReference<Vehicle> VEHICLE = new ParameterizedTypeReference<>() { };
+    private static final ParameterizedTypeReference<Map<String, Object>> PREDICTION =
+            new ParameterizedTypeReference<>() { };
+
+    @Autowired
+    private FleetState fleetState;
+    
+    @Autowired
+    private PredictiveMaintenanceService predictiveMaintenanceService;
+
+    public Mono<ServerResponse> getAllVehicles(ServerRequest request) {
+        return stream(request, Flux.fromIterable(fleetState.getAll()), VEHICLE);
+    }
+    
+    public Mono<ServerResponse> getVehicleById(ServerRequest request) {
+        Vehicle vehicle = fleetState.get(pathId(request));
+        if (vehicle == null) {
+            return ServerResponse.notFound().build();
+        }
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(vehicle);
+    }
+    
+    public Mono<ServerResponse> getVehiclesByStatus(ServerRequest request) {
+        String status = request.pathVariable("status");
+        return stream(request, Flux.fromIterable(fleetState.getAll())
+                .filter(vehicle -> status.equals(vehicle.getStatus())), VEHICLE);
+    }
+    
+    // Predictions are computed lazily per element as the client requests more,
+    // on the parallel scheduler so scoring never occupies an event loop thread
+    public Mono<ServerResponse> getAllPredictions(ServerRequest request) {
+        Flux<Map<String, Object>> predictions = Flux.fromIterable(fleetState.getAll())
+                .publishOn(Schedulers.parallel())
+                .map(this::predictionEntry);
+        return stream(request, predictions, PREDICTION);
+    }
+    
+    public Mono<ServerResponse> getPrediction(ServerRequest request) {
+        Vehicle vehicle = fleetState.get(pathId(request));
+        if (vehicle == null) {
+            return ServerResponse.notFound().build();
+        }
+        return Mono.fromCallable(() -> predictionEntry(vehicle))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(entry -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(entry));
+    }
+    
+    private Map<String, Object> predictionEntry(Vehicle vehicle) {
+        Map<String, Object> entry = new HashMap<>();
+        entry.put("vehicleId", vehicle.getId());
+        entry.put("prediction", predictiveMaintenanceService.predictMaintenance(vehicle));
+        return entry;
+    }
+    
+    // NDJSON when asked for, so clients can process elements as they arrive;
+    // a streamed JSON array otherwise
+    private <T> Mono<ServerResponse> stream(ServerRequest request, Flux<T> body,
+                                            ParameterizedTypeReference<T> elementType) {
+        boolean ndjson = request.headers().accept().contains(MediaType.APPLICATION_NDJSON);
+        MediaType contentType = ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+        return ServerResponse.ok().contentType(contentType).body(body, elementType);
+    }
+    
+    private static Long pathId(ServerRequest request) {
+        try {
+            return Long.valueOf(request.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+}
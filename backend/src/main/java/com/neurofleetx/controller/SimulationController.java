@@ -0,0 +1,52 @@
+package com.neurofleetx.controller;
+
+import com.neurofleetx.payload.response.MessageResponse;
+import com.neurofleetx.simulation.FleetSimulator;
+import com.neurofleetx.simulation.SimulationPlan;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/simulation")
+@CrossOrigin(origins = "http://localhost:5507")
+public class SimulationController {
+
+    @Autowired
+    private FleetSimulator fleetSimulator;
+
+    // Start a simulation run; the body holds the plan settings, all optional
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestBody(required = false) Map<String, Object> settings,
+                                   @RequestHeader(value = "Authorization", required = false) String authorization) {
+        try {
+            // HTTP sinks patch vehicles, which needs a token; default to the caller's
+            if (authorization != null && authorization.startsWith("Bearer ")
+                    && (settings == null || !settings.containsKey("token"))) {
+                settings = settings == null ? new HashMap<>() : new HashMap<>(settings);
+                settings.put("token", authorization.substring(7));
+            }
+            SimulationPlan plan = SimulationPlan.from(settings, fleetSimulator.getLocalBaseUrl());
+            return ResponseEntity.ok(fleetSimulator.start(plan));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new MessageResponse(e.getMessage()));
+        }
+    }
+
+    @PostMapping("/stop")
+    public ResponseEntity<Map<String, Object>> stop() {
+        return ResponseEntity.ok(fleetSimulator.stop());
+    }
+
+    // Progress, achieved throughput and latency of the current or last run
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> status() {
+        return ResponseEntity.ok(fleetSimulator.getStatus());
+    }
+}
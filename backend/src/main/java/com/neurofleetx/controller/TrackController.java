@@ -0,0 +1,56 @@
+package com.neurofleetx.controller;
+
+import com.neurofleetx.payload.response.MessageResponse;
+import com.neurofleetx.service.TrackService;
+import com.neurofleetx.track.TrackStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/tracks")
+@CrossOrigin(origins = "http://localhost:5507")
+public class TrackController {
+
+    @Autowired
+    private TrackService trackService;
+    
+    @Autowired
+    private TrackStore trackStore;
+
+    // Position history as columns, downsampled for drawing; the window defaults to the last hour
+    @GetMapping("/{vehicleId}")
+    public ResponseEntity<?> getTrack(@PathVariable Long vehicleId,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                      @RequestParam(defaultValue = "500") int points) {
+        try {
+            return ResponseEntity.ok(trackService.getTrack(vehicleId, from, to, points));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    // Speed or energy level over time, downsampled for charting
+    @GetMapping("/{vehicleId}/series")
+    public ResponseEntity<?> getSeries(@PathVariable Long vehicleId,
+                                       @RequestParam(defaultValue = "speed") String metric,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                       @RequestParam(defaultValue = "500") int points) {
+        try {
+            return ResponseEntity.ok(trackService.getSeries(vehicleId, metric, from, to, points));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return trackStore.getStats();
+    }
+}
@@ -0,0 +1,68 @@
+package com.neurofleetx.controller;
+
+import com.neurofleetx.model.Trip;
+import com.neurofleetx.payload.response.MessageResponse;
+import com.neurofleetx.service.TripService;
+import com.neurofleetx.trip.TripEngine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/trips")
+@CrossOrigin(origins = "http://localhost:5507")
+public class TripController {
+
+    @Autowired
+    private TripService tripService;
+    
+    @Autowired
+    private TripEngine tripEngine;
+
+    // Completed trips, newest first; the window defaults to the last 7 days
+    @GetMapping
+    public ResponseEntity<?> getTrips(@RequestParam(required = false) Long vehicleId,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                      @RequestParam(defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(tripService.getTrips(vehicleId, from, to, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    // Trips in progress
+    @GetMapping("/active")
+    public List<Trip> getActiveTrips() {
+        return tripEngine.active();
+    }
+    
+    @GetMapping("/vehicles/{vehicleId}/current")
+    public ResponseEntity<Trip> getCurrentTrip(@PathVariable Long vehicleId) {
+        Trip trip = tripEngine.current(vehicleId);
+        return trip != null ? ResponseEntity.ok(trip) : ResponseEntity.notFound().build();
+    }
+    
+    // Distance, time, idle share and energy over a vehicle's trips
+    @GetMapping("/vehicles/{vehicleId}/summary")
+    public ResponseEntity<?> getSummary(@PathVariable Long vehicleId,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(tripService.getSummary(vehicleId, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        return tripEngine.getStats();
+    }
+}
@@ -4,6 +4,8 @@ import com.neurofleetx.model.User;
 import com.neurofleetx.payload.request.SignupRequest;
 import com.neurofleetx.payload.response.MessageResponse;
 import com.neurofleetx.service.UserService;
+import com.neurofleetx.util.JwtUtil;
+import com.neurofleetx.util.TokenDenylist;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -22,6 +24,12 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @GetMapping
     public List<User> getAllUsers() {
         return userService.getAllUsers();
@@ -127,9 +135,20 @@ public class UserController {
     }
     
     @PostMapping("/logout")
-    public ResponseEntity<?> logoutUser() {
-        // In a stateless JWT implementation, logout is handled on the client side
-        // by removing the token. Here we just return a success message.
+    public ResponseEntity<?> logoutUser(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        // Revoke the token server-side so it stops working before it expires;
+        // the client still discards its copy
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            String token = authorization.substring(7);
+            try {
+                String tokenId = jwtUtil.extractId(token);
+                if (tokenId != null) {
+                    tokenDenylist.revoke(tokenId, jwtUtil.extractExpiration(token).getTime());
+                }
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid token!"));
+            }
+        }
         return ResponseEntity.ok(new MessageResponse("Logged out successfully!"));
     }
 }
\ No newline at end of file
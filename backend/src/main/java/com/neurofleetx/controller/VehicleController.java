@@ -1,12 +1,29 @@
 package com.neurofleetx.controller;
 
 import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.payload.response.MessageResponse;
+import com.neurofleetx.service.FleetJsonCache;
+import com.neurofleetx.service.FleetState;
 import com.neurofleetx.service.VehicleService;
+import com.neurofleetx.wire.FleetFrame;
+import com.neurofleetx.wire.FleetFrameCodec;
+import com.neurofleetx.wire.VehicleRecord;
+import com.neurofleetx.wire.WireFormat;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -17,16 +34,53 @@ public class VehicleController {
     @Autowired
     private VehicleService vehicleService;
     
+    @Autowired
+    private FleetJsonCache fleetJsonCache;
+    
+    public static final String FLEET_VERSION_HEADER = "X-Fleet-Version";
+    
+    // Read endpoints carry the fleet version as a strong ETag. A poller sending it
+    // back in If-None-Match gets a 304 while nothing changed, without any vehicle
+    // being read or serialized. With ?since=<fleet version> only the vehicles
+    // changed after that version are returned, plus the ids deleted since.
+    // Bodies are assembled from the per-vehicle JSON kept by FleetJsonCache, or
+    // encoded as a binary fleet frame for clients that accept WireFormat.
     @GetMapping
-    public List<Vehicle> getAllVehicles() {
-        return vehicleService.getAllVehicles();
+    public ResponseEntity<StreamingResponseBody> getAllVehicles(@RequestParam(required = false) Long since,
+                                                                @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                                WebRequest request) {
+        long version = vehicleService.getFleetVersion();
+        boolean binary = WireFormat.isAccepted(accept);
+        // Each representation needs its own strong ETag
+        String etag = "\"" + version + (binary ? "-frame" : "") + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        if (binary) {
+            byte[] frame = FleetFrameCodec.encode(since != null
+                    ? changesFrame(vehicleService.getVehiclesSince(since), since)
+                    : snapshotFrame(version, vehicleService.getCurrentVehicles()));
+            return ok(version, WireFormat.MEDIA_TYPE).body(out -> out.write(frame));
+        }
+        ResponseEntity.BodyBuilder response = ok(version);
+        if (since != null) {
+            return response.body(fleetJsonCache.vehicleChanges(vehicleService.getVehiclesSince(since)));
+        }
+        return response.body(fleetJsonCache.vehicleList(vehicleService.getCurrentVehicles()));
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Vehicle> getVehicleById(@PathVariable Long id) {
-        Optional<Vehicle> vehicle = vehicleService.getVehicleById(id);
+    public ResponseEntity<byte[]> getVehicleById(@PathVariable Long id, WebRequest request) {
+        long version = vehicleService.getVehicleVersion(id);
+        String etag = "\"" + version + "\"";
+        if (version >= 0 && request.checkNotModified(etag)) {
+            return null;
+        }
+        Optional<Vehicle> vehicle = vehicleService.getCurrentVehicle(id);
         if (vehicle.isPresent()) {
-            return ResponseEntity.ok(vehicle.get());
+            byte[] json = fleetJsonCache.vehicleJson(vehicle.get());
+            return version >= 0 ? ok(version).body(json)
+                    : ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -42,11 +96,68 @@ public class VehicleController {
         try {
             Vehicle updatedVehicle = vehicleService.updateVehicle(id, vehicleDetails);
             return ResponseEntity.ok(updatedVehicle);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    // Partial update: only the fields in the body are written. The expected
+    // version may be given as "version" in the body or as an If-Match header.
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchVehicle(@PathVariable Long id,
+                                          @RequestHeader(value = "If-Match", required = false) String ifMatch,
+                                          @RequestBody Map<String, Object> fields) {
+        Map<String, Object> changes = new HashMap<>(fields);
+        Object version = changes.remove("version");
+        changes.remove("id");
+        try {
+            Long expectedVersion = version != null ? Long.valueOf(version.toString())
+                    : ifMatch != null ? Long.valueOf(ifMatch.replace("\"", "").trim()) : null;
+            Vehicle patched = vehicleService.patchVehicle(id, expectedVersion, changes);
+            if (patched == null) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(patched);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new MessageResponse("Vehicle " + id + " was modified concurrently"));
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
     
+    // Batch partial update: a list of {"id", optional "version", changed fields...}
+    @PatchMapping
+    public ResponseEntity<?> patchVehicles(@RequestBody List<Map<String, Object>> patches) {
+        try {
+            return ResponseEntity.ok(vehicleService.patchVehicles(patches));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
+    // Binary telemetry ingest: a TELEMETRY fleet frame whose records carry the
+    // changed fields (and optionally the expected version) of each vehicle
+    @PatchMapping(consumes = WireFormat.MEDIA_TYPE_VALUE)
+    public ResponseEntity<?> ingestTelemetry(@RequestBody FleetFrame frame) {
+        if (frame.getKind() != FleetFrame.Kind.TELEMETRY) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Expected a TELEMETRY frame, got " + frame.getKind()));
+        }
+        List<Map<String, Object>> patches = new ArrayList<>(frame.getRecords().size());
+        for (VehicleRecord record : frame.getRecords()) {
+            patches.add(record.toPatch());
+        }
+        try {
+            return ResponseEntity.ok(vehicleService.patchVehicles(patches));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+        }
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteVehicle(@PathVariable Long id) {
         vehicleService.deleteVehicle(id);
@@ -54,7 +165,47 @@ public class VehicleController {
     }
     
     @GetMapping("/status/{status}")
-    public List<Vehicle> getVehiclesByStatus(@PathVariable String status) {
-        return vehicleService.getVehiclesByStatus(status);
+    public ResponseEntity<StreamingResponseBody> getVehiclesByStatus(@PathVariable String status, WebRequest request) {
+        long version = vehicleService.getFleetVersion();
+        String etag = "\"" + version + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ok(version).body(fleetJsonCache.vehicleList(vehicleService.getCurrentVehiclesByStatus(status)));
+    }
+    
+    // checkNotModified has already set the ETag header. no-cache: clients may
+    // keep the response but must revalidate it on every use
+    private static ResponseEntity.BodyBuilder ok(long version) {
+        return ok(version, MediaType.APPLICATION_JSON);
+    }
+    
+    private static ResponseEntity.BodyBuilder ok(long version, MediaType contentType) {
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .header(FLEET_VERSION_HEADER, Long.toString(version));
+    }
+    
+    private static FleetFrame snapshotFrame(long version, List<Vehicle> vehicles) {
+        List<VehicleRecord> records = new ArrayList<>(vehicles.size());
+        for (Vehicle vehicle : vehicles) {
+            records.add(VehicleRecord.of(vehicle));
+        }
+        return new FleetFrame(FleetFrame.Kind.SNAPSHOT, version, 0, records, new ArrayList<>());
+    }
+    
+    // Only the fields changed since then; a version too old to answer with changes gets a full snapshot instead
+    private FleetFrame changesFrame(FleetState.Changes changes, long since) {
+        if (changes.isFull()) {
+            return snapshotFrame(changes.getVersion(), changes.getVehicles());
+        }
+        List<VehicleRecord> records = new ArrayList<>(changes.getVehicles().size());
+        for (Vehicle vehicle : changes.getVehicles()) {
+            records.add(VehicleRecord.changes(vehicle,
+                    field -> vehicleService.isFieldChangedSince(vehicle.getId(), field, since)));
+        }
+        return new FleetFrame(FleetFrame.Kind.CHANGES, changes.getVersion(), since, records, changes.getDeleted());
     }
 }
\ No newline at end of file
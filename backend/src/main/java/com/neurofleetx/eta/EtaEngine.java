@@ -0,0 +1,313 @@
+package com.neurofleetx.eta;
+
+import com.neurofleetx.ai.LinearModel;
+import com.neurofleetx.ai.Model;
+import com.neurofleetx.ai.ModelRuntime;
+import com.neurofleetx.ai.ModelStore;
+import com.neurofleetx.ai.ModelType;
+import com.neurofleetx.mapmatch.MapMatchingEngine;
+import com.neurofleetx.mapmatch.MatchedPoint;
+import com.neurofleetx.road.RoadGraph;
+import com.neurofleetx.road.RoadNetwork;
+import com.neurofleetx.util.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Learns travel times from the matched telemetry and serves route ETAs.
+ *
+ * Consecutive final map-matched points of a vehicle become pieces of road
+ * driven in a known time. Pieces are queued and, every
+ * {@code eta.profile-refresh-ms}, folded into per-edge, per-hour speed profiles
+ * and applied to the ETA model as training examples. Queries read the
+ * published profiles and model through volatile references, so they never wait
+ * for a refresh. The model lives in its own {@link ModelStore} and is
+ * checkpointed there like the maintenance model.
+ */
+@Component
+public class EtaEngine implements MapMatchingEngine.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(EtaEngine.class);
+
+    private static final LinearModel DEFAULT_MODEL = new LinearModel(ModelType.LINEAR, EtaFeatures.DEFAULT_WEIGHTS, 0.0);
+
+    @Value("${eta.zone:}")
+    private String zoneId;
+
+    @Value("${eta.snap-radius-meters:200}")
+    private double snapRadiusMeters;
+
+    @Value("${eta.prior-meters:500}")
+    private double priorMeters;
+
+    @Value("${eta.profile-half-life-hours:168}")
+    private double halfLifeHours;
+
+    @Value("${eta.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${eta.max-piece-seconds:60}")
+    private int maxPieceSeconds;
+
+    @Value("${eta.learning.enabled:true}")
+    private boolean learningEnabled;
+
+    @Value("${eta.learning.rate:0.01}")
+    private double learningRate;
+
+    @Value("${eta.learning.huber-seconds:30}")
+    private double huberSeconds;
+
+    @Value("${eta.model.dir:models/eta}")
+    private String modelDir;
+
+    @Autowired
+    private RoadNetwork roadNetwork;
+
+    private RoadGraph graph;
+    private ZoneId zone;
+    private EtaPredictor predictor;
+    private ModelRuntime modelRuntime;
+
+    // Last final matched point of each vehicle, only touched under that vehicle's match lock
+    private final Map<Long, MatchedPoint> lastPoints = new ConcurrentHashMap<>();
+    // Pieces as {edge, meters, seconds, end time}
+    private BlockingQueue<double[]> pendingPieces;
+    private final AtomicLong pieces = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    // Owned by the refresh
+    private SpeedProfileAccumulator accumulator;
+    private EtaLearner learner;
+    private Model seededFrom;
+    private long promotedUpdates;
+    private long lastRefresh;
+
+    private volatile SpeedProfiles profiles;
+    private volatile Model lastPromoted;
+    private volatile boolean checkpointed = true;
+    private volatile double meanAbsoluteError;
+    private volatile long trainedPieces;
+
+    private final LatencyHistogram queryLatency = new LatencyHistogram();
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong routesPredicted = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        graph = roadNetwork.getGraph();
+        zone = zoneId.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zoneId);
+        predictor = new EtaPredictor(graph, roadNetwork.getIndex(), snapRadiusMeters, zone);
+        pendingPieces = new ArrayBlockingQueue<>(queueCapacity);
+        accumulator = new SpeedProfileAccumulator(graph, priorMeters);
+        profiles = accumulator.build();
+        lastRefresh = System.currentTimeMillis();
+
+        modelRuntime = new ModelRuntime(new ModelStore(modelDir, "eta"));
+        modelRuntime.loadAtStartup();
+        if (modelRuntime.getModel() == null) {
+            modelRuntime.promote(DEFAULT_MODEL);
+        }
+    }
+
+    @Override
+    public void onMatched(long vehicleId, MatchedPoint point) {
+        MatchedPoint previous = lastPoints.put(vehicleId, point);
+        // NaN route distance marks the first point after a break in matching
+        if (previous == null || Double.isNaN(point.getRouteMeters())) {
+            return;
+        }
+        double seconds = (point.getTime() - previous.getTime()) / 1000.0;
+        double meters = point.getRouteMeters();
+        // Standing still says nothing about road speed
+        if (seconds <= 0 || seconds > maxPieceSeconds || meters < 1) {
+            return;
+        }
+        int from = previous.getEdge();
+        int to = point.getEdge();
+        if (from == to) {
+            offer(from, meters, seconds, point.getTime());
+        } else if (graph.edgeTo(from) == graph.edgeFrom(to)) {
+            // Split across the shared node when the route went straight from one edge onto the next
+            double before = graph.edgeLength(from) - previous.getOffsetMeters();
+            double after = point.getOffsetMeters();
+            if (Math.abs(before + after - meters) < 1) {
+                offer(from, before, seconds * before / meters, point.getTime());
+                offer(to, after, seconds * after / meters, point.getTime());
+            }
+        }
+    }
+
+    private void offer(int edge, double meters, double seconds, long time) {
+        if (meters < 1 || graph.edgeLength(edge) <= 0) {
+            return;
+        }
+        if (pendingPieces.offer(new double[] {edge, meters, seconds, time})) {
+            pieces.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void forget(long vehicleId) {
+        lastPoints.remove(vehicleId);
+    }
+
+    /**
+     * Fold the queued pieces into the speed profiles and the model, then
+     * publish fresh profiles and promote the model if it learned anything
+     */
+    @Scheduled(fixedDelayString = "${eta.profile-refresh-ms:30000}")
+    public synchronized void refresh() {
+        modelRuntime.reloadIfChanged();
+        ensureSeeded();
+        SpeedProfiles current = profiles;
+        double[] row = new double[EtaFeatures.FEATURE_COUNT];
+        double[] piece;
+        while ((piece = pendingPieces.poll()) != null) {
+            int edge = (int) piece[0];
+            double meters = piece[1];
+            double seconds = piece[2];
+            long time = (long) piece[3];
+            double hour = EtaFeatures.hourOfDay(time - Math.round(seconds * 1000), zone);
+            if (learningEnabled) {
+                Arrays.fill(row, 0);
+                EtaFeatures.addPiece(graph, current, edge, meters / graph.edgeLength(edge), hour, row, 0);
+                learner.update(row, 0, seconds);
+            }
+            accumulator.add(edge, (int) hour, meters, seconds);
+        }
+
+        long now = System.currentTimeMillis();
+        if (halfLifeHours > 0) {
+            accumulator.decay(Math.pow(0.5, (now - lastRefresh) / (halfLifeHours * 3_600_000)));
+        }
+        lastRefresh = now;
+        profiles = accumulator.build();
+        promote();
+    }
+
+    /**
+     * (Re)start the learner from the serving model whenever something other
+     * than this engine replaced it, e.g. an activation or a rollback in the store
+     */
+    private void ensureSeeded() {
+        Model serving = modelRuntime.getModel();
+        if (learner != null && (serving == seededFrom || serving == lastPromoted)) {
+            return;
+        }
+        double[] weights = serving instanceof LinearModel && serving.getFeatureCount() == EtaFeatures.FEATURE_COUNT
+                ? ((LinearModel) serving).getWeights() : EtaFeatures.DEFAULT_WEIGHTS;
+        learner = new EtaLearner(weights, learningRate, huberSeconds);
+        seededFrom = serving;
+        promotedUpdates = 0;
+    }
+
+    private void promote() {
+        if (!learningEnabled || learner.getUpdates() == promotedUpdates) {
+            return;
+        }
+        LinearModel snapshot = learner.snapshot();
+        promotedUpdates = learner.getUpdates();
+        trainedPieces = learner.getUpdates();
+        meanAbsoluteError = learner.getMeanAbsoluteError();
+        lastPromoted = snapshot;
+        checkpointed = false;
+        modelRuntime.promote(snapshot);
+    }
+
+    /**
+     * Save the last promoted model as a new version so it survives a restart
+     */
+    @Scheduled(fixedDelayString = "${eta.checkpoint-interval-ms:3600000}")
+    public void checkpoint() {
+        Model promoted = lastPromoted;
+        if (checkpointed || promoted == null || modelRuntime.getModel() != promoted) {
+            return;
+        }
+        try {
+            int version = modelRuntime.saveAndActivate(promoted);
+            checkpointed = true;
+            logger.info("Checkpointed ETA model as version {}", version);
+        } catch (IOException e) {
+            logger.error("Failed to checkpoint ETA model", e);
+        }
+    }
+
+    /**
+     * Predict many routes leaving at the same time in one batch
+     * @param routes Waypoints of each route as [latitude, longitude] pairs
+     */
+    public List<EtaPredictor.RouteEta> predict(List<double[][]> routes, long departure) {
+        long started = System.nanoTime();
+        List<EtaPredictor.RouteEta> result = predictor.predict(routes, departure, profiles, modelRuntime.getModel());
+        queryLatency.record(System.nanoTime() - started);
+        queries.incrementAndGet();
+        routesPredicted.addAndGet(routes.size());
+        return result;
+    }
+
+    /**
+     * Time zone of the hours of the day in the profiles
+     */
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public Map<String, Object> getModelInfo() {
+        Model model = modelRuntime.getModel();
+        Map<String, Object> info = new HashMap<>();
+        info.put("version", modelRuntime.getModelVersion());
+        info.put("generation", modelRuntime.getGeneration());
+        info.put("type", model.getType());
+        if (model instanceof LinearModel && model.getFeatureCount() == EtaFeatures.FEATURE_COUNT) {
+            double[] weights = ((LinearModel) model).getWeights();
+            Map<String, Double> named = new LinkedHashMap<>();
+            for (int i = 0; i < weights.length; i++) {
+                named.put(EtaFeatures.FEATURE_NAMES[i], weights[i]);
+            }
+            info.put("weights", named);
+        }
+        info.put("learningEnabled", learningEnabled);
+        info.put("trainedPieces", trainedPieces);
+        info.put("meanAbsoluteErrorSeconds", meanAbsoluteError);
+        info.put("checkpointed", checkpointed);
+        return info;
+    }
+
+    public Map<String, Object> getStats() {
+        SpeedProfiles current = profiles;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("zone", zone.getId());
+        stats.put("edges", graph.edgeCount());
+        stats.put("profiledEdges", current.getObservedEdges());
+        stats.put("profileObservations", current.getObservations());
+        stats.put("profilesBuiltAt", current.getBuiltAt());
+        stats.put("piecesQueued", pendingPieces.size());
+        stats.put("pieces", pieces.get());
+        stats.put("piecesDropped", dropped.get());
+        stats.put("trackedVehicles", lastPoints.size());
+        stats.put("queries", queries.get());
+        stats.put("routesPredicted", routesPredicted.get());
+        stats.put("queryLatency", queryLatency.toMap());
+        return stats;
+    }
+}
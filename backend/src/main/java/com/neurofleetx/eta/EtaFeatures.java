@@ -0,0 +1,68 @@
+package com.neurofleetx.eta;
+
+import com.neurofleetx.road.RoadGraph;
+
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Feature layout of the ETA model. Every feature is a sum over the pieces of
+ * road driven, so a route's row is the sum of its pieces' rows and a model
+ * trained on short pieces scores whole routes without a bias term. Apart from
+ * the edge count, features are in seconds, so every weight is a plain factor
+ * and the learner needs no feature scaling.
+ */
+public final class EtaFeatures {
+
+    // Free-flow seconds split by road class, and free-flow seconds times the hour on the unit circle
+    public static final String[] FEATURE_NAMES = {"profileSeconds", "localSeconds", "arterialSeconds",
+            "highwaySeconds", "sinHourSeconds", "cosHourSeconds", "edges"};
+    public static final int FEATURE_COUNT = FEATURE_NAMES.length;
+
+    static final int PROFILE_SECONDS = 0;
+    static final int LOCAL_SECONDS = 1;
+    static final int ARTERIAL_SECONDS = 2;
+    static final int HIGHWAY_SECONDS = 3;
+    static final int SIN_HOUR_SECONDS = 4;
+    static final int COS_HOUR_SECONDS = 5;
+    static final int EDGES = 6;
+
+    // Start from the speed profiles alone
+    static final double[] DEFAULT_WEIGHTS = {1, 0, 0, 0, 0, 0, 0};
+
+    // Road class from the speed limit, in km/h
+    static final double ARTERIAL_SPEED = 40;
+    static final double HIGHWAY_SPEED = 70;
+
+    private EtaFeatures() {
+    }
+
+    /**
+     * Hour of the day with fraction, in [0, 24)
+     */
+    public static double hourOfDay(long timeMillis, ZoneId zone) {
+        int offsetSeconds = zone.getRules().getOffset(Instant.ofEpochMilli(timeMillis)).getTotalSeconds();
+        long secondOfDay = Math.floorMod(timeMillis / 1000 + offsetSeconds, 86_400L);
+        return secondOfDay / 3600.0;
+    }
+
+    /**
+     * Add a fraction of an edge driven at an hour of the day to the row at
+     * {@code offset}
+     * @return The piece's travel time by the speed profile, in seconds
+     */
+    static double addPiece(RoadGraph graph, SpeedProfiles profiles, int edge, double fraction, double hour,
+                           double[] out, int offset) {
+        double speed = graph.edgeSpeed(edge);
+        double freeFlowSeconds = fraction * graph.edgeLength(edge) * 3.6 / speed;
+        double profileSeconds = fraction * profiles.seconds((int) hour)[edge];
+        out[offset + PROFILE_SECONDS] += profileSeconds;
+        out[offset + (speed < ARTERIAL_SPEED ? LOCAL_SECONDS : speed < HIGHWAY_SPEED ? ARTERIAL_SECONDS
+                : HIGHWAY_SECONDS)] += freeFlowSeconds;
+        double angle = hour * (2 * Math.PI / 24);
+        out[offset + SIN_HOUR_SECONDS] += freeFlowSeconds * Math.sin(angle);
+        out[offset + COS_HOUR_SECONDS] += freeFlowSeconds * Math.cos(angle);
+        out[offset + EDGES] += fraction;
+        return profileSeconds;
+    }
+}
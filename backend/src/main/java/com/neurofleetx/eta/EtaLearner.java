@@ -0,0 +1,71 @@
+package com.neurofleetx.eta;
+
+import com.neurofleetx.ai.LinearModel;
+import com.neurofleetx.ai.ModelType;
+
+/**
+ * Online least-squares regression of travel seconds with per-coordinate
+ * AdaGrad steps. Residuals are clipped (a Huber loss), so a vehicle waiting at
+ * a depot cannot drag the weights far in one step. There is no bias: the
+ * features add up along a route and so must the score. Not thread-safe.
+ */
+final class EtaLearner {
+
+    private final double learningRate;
+    private final double huberSeconds;
+
+    private final double[] w;
+    private final double[] g2;
+
+    private long updates;
+    private double absoluteError;
+
+    EtaLearner(double[] weights, double learningRate, double huberSeconds) {
+        this.w = weights.clone();
+        this.g2 = new double[weights.length];
+        this.learningRate = learningRate;
+        this.huberSeconds = huberSeconds;
+    }
+
+    /**
+     * One step on example {@code features[offset..]} with its observed seconds
+     * @return The prediction before the step
+     */
+    double update(double[] features, int offset, double seconds) {
+        double prediction = 0;
+        for (int i = 0; i < w.length; i++) {
+            prediction += w[i] * features[offset + i];
+        }
+        double residual = Math.max(-huberSeconds, Math.min(huberSeconds, prediction - seconds));
+        for (int i = 0; i < w.length; i++) {
+            double x = features[offset + i];
+            if (x == 0.0) {
+                continue;
+            }
+            double g = residual * x;
+            g2[i] += g * g;
+            w[i] -= learningRate * g / Math.sqrt(g2[i]);
+        }
+        updates++;
+        absoluteError += Math.abs(prediction - seconds);
+        return prediction;
+    }
+
+    /**
+     * Immutable model with the current weights
+     */
+    LinearModel snapshot() {
+        return new LinearModel(ModelType.LINEAR, w, 0.0);
+    }
+
+    long getUpdates() {
+        return updates;
+    }
+
+    /**
+     * Mean absolute error of the predictions made before each step, in seconds
+     */
+    double getMeanAbsoluteError() {
+        return updates == 0 ? 0 : absoluteError / updates;
+    }
+}
@@ -0,0 +1,280 @@
+package com.neurofleetx.eta;
+
+import com.neurofleetx.ai.Model;
+import com.neurofleetx.road.EdgeIndex;
+import com.neurofleetx.road.RoadGraph;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Predicts travel times of routes given as waypoints. Each leg between two
+ * waypoints is snapped to the road graph and routed by A* over the speed
+ * profile of its start hour; the legs of all routes in a request become the
+ * rows of one batch scored by the ETA model. Thread-safe; search state is
+ * reused per thread.
+ */
+public class EtaPredictor {
+
+    /**
+     * Predicted travel of one route
+     */
+    public static final class RouteEta {
+        private final String status;
+        private final double seconds;
+        private final double meters;
+        private final double profileSeconds;
+        private final double[] legSeconds;
+        private final double[] legMeters;
+
+        RouteEta(String status, double seconds, double meters, double profileSeconds, double[] legSeconds,
+                 double[] legMeters) {
+            this.status = status;
+            this.seconds = seconds;
+            this.meters = meters;
+            this.profileSeconds = profileSeconds;
+            this.legSeconds = legSeconds;
+            this.legMeters = legMeters;
+        }
+
+        // OK, OFF_ROAD if a waypoint is not near a road, or UNREACHABLE
+        public String getStatus() {
+            return status;
+        }
+
+        public double getSeconds() {
+            return seconds;
+        }
+
+        public double getMeters() {
+            return meters;
+        }
+
+        // What the speed profiles alone predict
+        public double getProfileSeconds() {
+            return profileSeconds;
+        }
+
+        public double[] getLegSeconds() {
+            return legSeconds;
+        }
+
+        public double[] getLegMeters() {
+            return legMeters;
+        }
+    }
+
+    private static final int FEATURE_COUNT = EtaFeatures.FEATURE_COUNT;
+
+    /**
+     * Reusable search state of one thread
+     */
+    private final class Scratch {
+        final RoadGraph.Workspace workspace = graph.newWorkspace();
+        final RoadGraph.Ends sources = new RoadGraph.Ends();
+        final RoadGraph.Ends targets = new RoadGraph.Ends();
+        final EdgeIndex.Candidates from = new EdgeIndex.Candidates();
+        final EdgeIndex.Candidates to = new EdgeIndex.Candidates();
+        int[] path = new int[256];
+        // Meters of the leg routed last
+        double legMeters;
+    }
+
+    private final RoadGraph graph;
+    private final EdgeIndex index;
+    private final double snapRadiusMeters;
+    private final ZoneId zone;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    public EtaPredictor(RoadGraph graph, EdgeIndex index, double snapRadiusMeters, ZoneId zone) {
+        this.graph = graph;
+        this.index = index;
+        this.snapRadiusMeters = snapRadiusMeters;
+        this.zone = zone;
+    }
+
+    /**
+     * @param routes Waypoints of each route as [latitude, longitude] pairs, at least two per route
+     * @param model  ETA model over {@link EtaFeatures}, or null to use the speed profiles alone
+     */
+    public List<RouteEta> predict(List<double[][]> routes, long departure, SpeedProfiles profiles, Model model) {
+        int legs = 0;
+        for (double[][] waypoints : routes) {
+            if (waypoints.length < 2) {
+                throw new IllegalArgumentException("Each route needs at least two waypoints");
+            }
+            legs += waypoints.length - 1;
+        }
+        double[] features = new double[legs * FEATURE_COUNT];
+        double[] legProfileSeconds = new double[legs];
+        double[] legMeters = new double[legs];
+        String[] status = new String[routes.size()];
+
+        Scratch state = scratch.get();
+        int row = 0;
+        for (int r = 0; r < routes.size(); r++) {
+            double[][] waypoints = routes.get(r);
+            status[r] = "OK";
+            long legStart = departure;
+            for (int i = 0; i + 1 < waypoints.length; i++, row++) {
+                String legStatus = leg(waypoints[i], waypoints[i + 1], legStart, profiles, state, features,
+                        row * FEATURE_COUNT);
+                if (legStatus != null) {
+                    status[r] = legStatus;
+                    continue;
+                }
+                legProfileSeconds[row] = features[row * FEATURE_COUNT + EtaFeatures.PROFILE_SECONDS];
+                legMeters[row] = state.legMeters;
+                legStart += Math.round(legProfileSeconds[row] * 1000);
+            }
+        }
+
+        double[] scores = new double[legs];
+        if (model != null && model.getFeatureCount() == FEATURE_COUNT) {
+            model.scoreBatch(features, legs, scores);
+        } else {
+            System.arraycopy(legProfileSeconds, 0, scores, 0, legs);
+        }
+
+        List<RouteEta> result = new ArrayList<>(routes.size());
+        row = 0;
+        for (int r = 0; r < routes.size(); r++) {
+            int count = routes.get(r).length - 1;
+            double[] seconds = new double[count];
+            double[] meters = Arrays.copyOfRange(legMeters, row, row + count);
+            double total = 0;
+            double totalMeters = 0;
+            double totalProfile = 0;
+            for (int i = 0; i < count; i++, row++) {
+                // A leg never takes less than half its profile time, however the weights drift
+                seconds[i] = Math.max(scores[row], 0.5 * legProfileSeconds[row]);
+                total += seconds[i];
+                totalMeters += meters[i];
+                totalProfile += legProfileSeconds[row];
+            }
+            boolean ok = "OK".equals(status[r]);
+            result.add(new RouteEta(status[r], ok ? total : Double.NaN, ok ? totalMeters : Double.NaN,
+                    ok ? totalProfile : Double.NaN, seconds, meters));
+        }
+        return result;
+    }
+
+    /**
+     * Route one leg and add its pieces to the row at {@code offset}
+     * @return null on success, otherwise the failure status
+     */
+    private String leg(double[] from, double[] to, long start, SpeedProfiles profiles, Scratch state,
+                       double[] features, int offset) {
+        index.nearest(from[0], from[1], snapRadiusMeters, 1, state.from);
+        index.nearest(to[0], to[1], snapRadiusMeters, 1, state.to);
+        if (state.from.size == 0 || state.to.size == 0) {
+            return "OFF_ROAD";
+        }
+        double startHour = EtaFeatures.hourOfDay(start, zone);
+        double[] costs = profiles.seconds((int) startHour);
+
+        int sourceEdge = state.from.edges[0];
+        double sourceOffset = state.from.offsets[0];
+        int sourceReverse = graph.reverseEdge(sourceEdge);
+        int targetEdge = state.to.edges[0];
+        double targetOffset = state.to.offsets[0];
+        int targetReverse = graph.reverseEdge(targetEdge);
+        // Put the target on the source's edge if they share a road, to drive along it directly
+        if (targetEdge == sourceReverse) {
+            targetEdge = sourceEdge;
+            targetOffset = graph.edgeLength(sourceEdge) - targetOffset;
+            targetReverse = sourceReverse;
+        }
+
+        // Start driving either way along the source road, and arrive from either end of the target road
+        double sourceLength = graph.edgeLength(sourceEdge);
+        double targetLength = graph.edgeLength(targetEdge);
+        state.sources.clear();
+        state.sources.add(graph.edgeTo(sourceEdge), fraction(sourceLength - sourceOffset, sourceLength) * costs[sourceEdge]);
+        if (sourceReverse >= 0) {
+            state.sources.add(graph.edgeFrom(sourceEdge), fraction(sourceOffset, sourceLength) * costs[sourceReverse]);
+        }
+        state.targets.clear();
+        state.targets.add(graph.edgeFrom(targetEdge), fraction(targetOffset, targetLength) * costs[targetEdge]);
+        if (targetReverse >= 0) {
+            state.targets.add(graph.edgeTo(targetEdge), fraction(targetLength - targetOffset, targetLength) * costs[targetReverse]);
+        }
+        int best = graph.search(state.sources, state.targets, state.to.latitudes[0], state.to.longitudes[0],
+                profiles.metersPerSecond((int) startHour), Double.MAX_VALUE, costs, state.workspace);
+
+        // Driving straight along a shared road can beat any route through the graph
+        double directCost = Double.POSITIVE_INFINITY;
+        int directEdge = -1;
+        double directFraction = 0;
+        if (targetEdge == sourceEdge) {
+            if (targetOffset >= sourceOffset) {
+                directEdge = sourceEdge;
+                directFraction = fraction(targetOffset - sourceOffset, sourceLength);
+            } else if (sourceReverse >= 0) {
+                directEdge = sourceReverse;
+                directFraction = fraction(sourceOffset - targetOffset, sourceLength);
+            }
+            if (directEdge >= 0) {
+                directCost = directFraction * costs[directEdge];
+            }
+        }
+        double searchCost = best < 0 ? Double.POSITIVE_INFINITY
+                : state.workspace.cost(state.targets.node(best)) + state.targets.cost(best);
+        if (best < 0 && directEdge < 0) {
+            return "UNREACHABLE";
+        }
+
+        if (directCost <= searchCost) {
+            EtaFeatures.addPiece(graph, profiles, directEdge, directFraction, startHour, features, offset);
+            state.legMeters = directFraction * graph.edgeLength(directEdge);
+            return null;
+        }
+
+        // Path edges from the target back to the source node where the search started
+        int end = state.targets.node(best);
+        int count = 0;
+        for (int edge = state.workspace.previousEdge(end); edge >= 0;
+             edge = state.workspace.previousEdge(graph.edgeFrom(edge))) {
+            if (count == state.path.length) {
+                state.path = Arrays.copyOf(state.path, count * 2);
+            }
+            state.path[count++] = edge;
+        }
+        int start0 = count == 0 ? end : graph.edgeFrom(state.path[count - 1]);
+
+        double elapsed = 0;
+        double meters = 0;
+        // First piece: the rest of the source edge, or back along its reverse
+        int firstEdge = start0 == graph.edgeTo(sourceEdge) ? sourceEdge : sourceReverse;
+        double firstFraction = firstEdge == sourceEdge ? fraction(sourceLength - sourceOffset, sourceLength)
+                : fraction(sourceOffset, sourceLength);
+        elapsed += EtaFeatures.addPiece(graph, profiles, firstEdge, firstFraction, hour(startHour, elapsed),
+                features, offset);
+        meters += firstFraction * sourceLength;
+        for (int i = count - 1; i >= 0; i--) {
+            int edge = state.path[i];
+            elapsed += EtaFeatures.addPiece(graph, profiles, edge, 1, hour(startHour, elapsed), features, offset);
+            meters += graph.edgeLength(edge);
+        }
+        // Last piece: into the target edge from its start, or from its end along the reverse
+        int lastEdge = best == 0 ? targetEdge : targetReverse;
+        double lastFraction = best == 0 ? fraction(targetOffset, targetLength)
+                : fraction(targetLength - targetOffset, targetLength);
+        EtaFeatures.addPiece(graph, profiles, lastEdge, lastFraction, hour(startHour, elapsed), features, offset);
+        meters += lastFraction * targetLength;
+        state.legMeters = meters;
+        return null;
+    }
+
+    private static double fraction(double meters, double length) {
+        return length > 0 ? meters / length : 0;
+    }
+
+    // Hour of the day after some seconds of driving
+    private static double hour(double startHour, double elapsedSeconds) {
+        double hour = startHour + elapsedSeconds / 3600;
+        return hour >= 24 ? hour % 24 : hour;
+    }
+}
@@ -0,0 +1,117 @@
+package com.neurofleetx.eta;
+
+import com.neurofleetx.road.RoadGraph;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Meters and seconds driven on each edge per hour of the day, kept only for
+ * edges that have been driven. Not thread-safe: one thread owns it and
+ * publishes {@link SpeedProfiles} snapshots.
+ */
+final class SpeedProfileAccumulator {
+
+    // Slot BUCKETS holds the all-day totals
+    private static final int ALL_DAY = SpeedProfiles.BUCKETS;
+
+    private final RoadGraph graph;
+    private final double priorMeters;
+
+    // Per edge: meters and seconds for each bucket and then all day, interleaved
+    private final Map<Integer, double[]> sums = new HashMap<>();
+    private long observations;
+
+    /**
+     * @param priorMeters How many meters of observations weigh as much as the
+     *                    fallback speed when blending the two
+     */
+    SpeedProfileAccumulator(RoadGraph graph, double priorMeters) {
+        this.graph = graph;
+        this.priorMeters = priorMeters;
+    }
+
+    void add(int edge, int bucket, double meters, double seconds) {
+        double[] edgeSums = sums.computeIfAbsent(edge, e -> new double[2 * (ALL_DAY + 1)]);
+        edgeSums[2 * bucket] += meters;
+        edgeSums[2 * bucket + 1] += seconds;
+        edgeSums[2 * ALL_DAY] += meters;
+        edgeSums[2 * ALL_DAY + 1] += seconds;
+        observations++;
+    }
+
+    /**
+     * Scale all totals down so older traffic counts less; edges left with
+     * almost nothing are dropped
+     */
+    void decay(double factor) {
+        sums.values().removeIf(edgeSums -> {
+            for (int i = 0; i < edgeSums.length; i++) {
+                edgeSums[i] *= factor;
+            }
+            return edgeSums[2 * ALL_DAY] < 1;
+        });
+    }
+
+    SpeedProfiles build() {
+        SpeedProfiles freeFlow = SpeedProfiles.freeFlow(graph);
+        if (sums.isEmpty()) {
+            return freeFlow;
+        }
+        double[] allDay = freeFlow.seconds(0).clone();
+        double allDayTop = freeFlow.metersPerSecond(0);
+        // Per-edge all-day pace in s/m, the fallback for the hours
+        Map<Integer, Double> allDayPace = new HashMap<>();
+        boolean[] hourObserved = new boolean[ALL_DAY];
+        for (Map.Entry<Integer, double[]> entry : sums.entrySet()) {
+            int edge = entry.getKey();
+            double[] edgeSums = entry.getValue();
+            double length = graph.edgeLength(edge);
+            if (length <= 0) {
+                continue;
+            }
+            double freePace = SpeedProfiles.freeFlowSeconds(graph, edge) / length;
+            double pace = blend(edgeSums, ALL_DAY, freePace);
+            allDayPace.put(edge, pace);
+            allDay[edge] = length * pace;
+            allDayTop = Math.max(allDayTop, 1 / pace);
+            for (int b = 0; b < ALL_DAY; b++) {
+                hourObserved[b] |= edgeSums[2 * b] > 0;
+            }
+        }
+
+        double[][] seconds = new double[ALL_DAY][];
+        double[] metersPerSecond = new double[ALL_DAY];
+        for (int b = 0; b < ALL_DAY; b++) {
+            if (!hourObserved[b]) {
+                seconds[b] = allDay;
+                metersPerSecond[b] = allDayTop;
+                continue;
+            }
+            double[] hour = Arrays.copyOf(allDay, allDay.length);
+            double top = allDayTop;
+            for (Map.Entry<Integer, double[]> entry : sums.entrySet()) {
+                double[] edgeSums = entry.getValue();
+                if (edgeSums[2 * b] > 0) {
+                    int edge = entry.getKey();
+                    double pace = blend(edgeSums, b, allDayPace.get(edge));
+                    hour[edge] = graph.edgeLength(edge) * pace;
+                    top = Math.max(top, 1 / pace);
+                }
+            }
+            seconds[b] = hour;
+            metersPerSecond[b] = top;
+        }
+        return new SpeedProfiles(seconds, metersPerSecond, sums.size(), observations);
+    }
+
+    // Observed pace shrunk toward the fallback pace, weighted by meters observed
+    private double blend(double[] edgeSums, int bucket, double fallbackPace) {
+        return (edgeSums[2 * bucket + 1] + priorMeters * fallbackPace) / (edgeSums[2 * bucket] + priorMeters);
+    }
+
+    int getObservedEdges() {
+        return sums.size();
+    }
+}
@@ -0,0 +1,81 @@
+package com.neurofleetx.eta;
+
+import com.neurofleetx.road.RoadGraph;
+
+import java.time.Instant;
+
+/**
+ * Immutable per-edge travel times for each hour of the day, built from the
+ * observed speeds on matched roads. Edges and hours without observations fall
+ * back to the edge's all-day profile and then to its speed limit, so every
+ * entry is usable as a search cost. Hours that add nothing over the all-day
+ * profile share its array.
+ */
+public final class SpeedProfiles {
+
+    public static final int BUCKETS = 24;
+
+    private final double[][] seconds;
+    private final double[] metersPerSecond;
+    private final int observedEdges;
+    private final long observations;
+    private final Instant builtAt;
+
+    SpeedProfiles(double[][] seconds, double[] metersPerSecond, int observedEdges, long observations) {
+        this.seconds = seconds;
+        this.metersPerSecond = metersPerSecond;
+        this.observedEdges = observedEdges;
+        this.observations = observations;
+        this.builtAt = Instant.now();
+    }
+
+    /**
+     * Travel times at the speed limits only
+     */
+    public static SpeedProfiles freeFlow(RoadGraph graph) {
+        double[] freeFlow = new double[graph.edgeCount()];
+        double top = 0;
+        for (int e = 0; e < freeFlow.length; e++) {
+            freeFlow[e] = freeFlowSeconds(graph, e);
+            top = Math.max(top, graph.edgeSpeed(e) / 3.6);
+        }
+        double[][] seconds = new double[BUCKETS][];
+        double[] metersPerSecond = new double[BUCKETS];
+        for (int b = 0; b < BUCKETS; b++) {
+            seconds[b] = freeFlow;
+            metersPerSecond[b] = top;
+        }
+        return new SpeedProfiles(seconds, metersPerSecond, 0, 0);
+    }
+
+    static double freeFlowSeconds(RoadGraph graph, int edge) {
+        return graph.edgeLength(edge) / (graph.edgeSpeed(edge) / 3.6);
+    }
+
+    /**
+     * Seconds to drive each whole edge in an hour of the day, as search costs;
+     * not to be modified
+     */
+    public double[] seconds(int bucket) {
+        return seconds[bucket];
+    }
+
+    /**
+     * Fastest speed of any edge in an hour of the day, as the A* bound
+     */
+    public double metersPerSecond(int bucket) {
+        return metersPerSecond[bucket];
+    }
+
+    public int getObservedEdges() {
+        return observedEdges;
+    }
+
+    public long getObservations() {
+        return observations;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+}
@@ -0,0 +1,119 @@
+package com.neurofleetx.gateway;
+
+import com.neurofleetx.util.JwtUtil;
+import com.neurofleetx.util.TokenDenylist;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Authenticated gateway devices. A device presents its JWT once and gets a
+ * random session id that stays valid until the token expires or is revoked.
+ */
+@Component
+public class DeviceSessions {
+
+    private static final int PURGE_EVERY_SESSIONS = 1024;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong created = new AtomicLong();
+
+    public static final class Session {
+        private final long id;
+        private final String username;
+        private final String tokenId;
+        private final long expiresAt;
+
+        Session(long id, String username, String tokenId, long expiresAt) {
+            this.id = id;
+            this.username = username;
+            this.tokenId = tokenId;
+            this.expiresAt = expiresAt;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+    }
+
+    /**
+     * Validate signature, expiry and revocation of a token and open a session for it.
+     * Like the reactive API, there is no blocking user lookup.
+     * @throws IllegalArgumentException if the token is not accepted
+     */
+    public Session authenticate(String token) {
+        String username;
+        String tokenId;
+        long expiresAt;
+        try {
+            username = jwtUtil.extractUsername(token);
+            tokenId = jwtUtil.extractId(token);
+            expiresAt = jwtUtil.extractExpiration(token).getTime();
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid JWT Token");
+        }
+        if (tokenId != null && tokenDenylist.isRevoked(tokenId)) {
+            throw new IllegalArgumentException("JWT Token has been revoked");
+        }
+
+        Session session;
+        do {
+            session = new Session(random.nextLong(), username, tokenId, expiresAt);
+        } while (sessions.putIfAbsent(session.id, session) != null);
+
+        // Devices that never come back would otherwise stay in the map
+        if (created.incrementAndGet() % PURGE_EVERY_SESSIONS == 0) {
+            purgeExpired();
+        }
+        return session;
+    }
+
+    /**
+     * The session if it is still valid, otherwise null
+     */
+    public Session get(long id) {
+        Session session = sessions.get(id);
+        if (session == null) {
+            return null;
+        }
+        if (!isValid(session)) {
+            sessions.remove(id, session);
+            return null;
+        }
+        return session;
+    }
+
+    public boolean isValid(Session session) {
+        return session.expiresAt > System.currentTimeMillis()
+                && (session.tokenId == null || !tokenDenylist.isRevoked(session.tokenId));
+    }
+
+    public void close(Session session) {
+        sessions.remove(session.id, session);
+    }
+
+    public void purgeExpired() {
+        sessions.values().removeIf(session -> !isValid(session));
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,39 @@
+package com.neurofleetx.gateway;
+
+/**
+ * Messages of the device telemetry gateway.
+ *
+ * <pre>
+ * TCP frame    = length (int, big endian, excluding itself), type (byte), payload
+ * UDP datagram = type (byte), payload
+ *
+ * AUTH       device -> gateway  JWT as UTF-8
+ * AUTH_OK    gateway -> device  session id (long)
+ * TELEMETRY  device -> gateway  TCP: fleet frame of kind TELEMETRY ({@code wire.FleetFrameCodec})
+ *                               UDP: session id (long), then the fleet frame
+ * ACK        gateway -> device  number of records accepted from one TELEMETRY frame (int), TCP only
+ * ERROR      gateway -> device  message as UTF-8
+ * </pre>
+ *
+ * A TCP connection authenticates once and then only sends TELEMETRY; ACKs come
+ * back in the order the frames were sent. A frame is acknowledged once it is
+ * committed to the write-ahead log, or without one, written to the database,
+ * and counts the records logged or the vehicles updated respectively. UDP devices authenticate with an AUTH
+ * datagram and put the returned session id in front of every frame, which must
+ * fit in a single datagram (65507 bytes). UDP telemetry is not acknowledged and
+ * is dropped while the gateway is saturated.
+ */
+public final class GatewayProtocol {
+
+    public static final byte AUTH = 1;
+    public static final byte AUTH_OK = 2;
+    public static final byte TELEMETRY = 3;
+    public static final byte ACK = 4;
+    public static final byte ERROR = 5;
+
+    // Length prefix of a TCP frame
+    public static final int LENGTH_BYTES = 4;
+
+    private GatewayProtocol() {
+    }
+}
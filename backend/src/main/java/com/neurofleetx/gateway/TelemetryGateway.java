@@ -0,0 +1,379 @@
+package com.neurofleetx.gateway;
+
+import com.neurofleetx.wire.FleetFrame;
+import com.neurofleetx.wire.FleetFrameCodec;
+import com.neurofleetx.wire.VehicleRecord;
+import com.neurofleetx.wire.WireFormatException;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.handler.codec.TooLongFrameException;
+import io.netty.handler.timeout.IdleStateEvent;
+import io.netty.handler.timeout.IdleStateHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Device-side telemetry ingestion over persistent TCP connections and UDP,
+ * speaking {@link GatewayProtocol} with {@link FleetFrame} payloads.
+ *
+ * Each TCP connection authenticates once. Its frames are handed to the
+ * {@link TelemetryIngestor} and acknowledged once safe; once
+ * {@code telemetry.gateway.max-pending-frames} frames of a connection are
+ * unacknowledged, or the ingest buffer is full, the gateway stops reading from
+ * that socket until it catches up, so a fast device fills its own TCP window
+ * instead of the server's memory.
+ */
+@Component
+@ConditionalOnProperty(name = "telemetry.gateway.enabled", havingValue = "true")
+public class TelemetryGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryGateway.class);
+
+    // How long a connection waits before retrying a frame the full ingest buffer refused
+    private static final long RETRY_DELAY_MS = 20;
+
+    // Largest UDP payload; a UDP telemetry frame must fit in one datagram
+    private static final int MAX_DATAGRAM_BYTES = 65507;
+
+    @Value("${telemetry.gateway.tcp-port:9090}")
+    private int tcpPort;
+
+    @Value("${telemetry.gateway.udp-port:9091}")
+    private int udpPort;
+
+    @Value("${telemetry.gateway.max-frame-bytes:1048576}")
+    private int maxFrameBytes;
+
+    @Value("${telemetry.gateway.max-pending-frames:8}")
+    private int maxPendingFrames;
+
+    @Value("${telemetry.gateway.auth-timeout-ms:10000}")
+    private long authTimeoutMs;
+
+    @Value("${telemetry.gateway.idle-timeout-ms:120000}")
+    private long idleTimeoutMs;
+
+    @Autowired
+    private DeviceSessions deviceSessions;
+
+    @Autowired
+    private TelemetryIngestor ingestor;
+
+    private EventLoopGroup bossGroup;
+    private EventLoopGroup workerGroup;
+    private Channel tcpChannel;
+    private Channel udpChannel;
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger pausedConnections = new AtomicInteger();
+    private final AtomicLong tcpFrames = new AtomicLong();
+    private final AtomicLong udpFrames = new AtomicLong();
+    private final AtomicLong udpDropped = new AtomicLong();
+    private final AtomicLong badFrames = new AtomicLong();
+    private final AtomicLong authFailures = new AtomicLong();
+
+    @PostConstruct
+    public void start() throws InterruptedException {
+        bossGroup = new NioEventLoopGroup(1);
+        workerGroup = new NioEventLoopGroup();
+
+        tcpChannel = new ServerBootstrap()
+                .group(bossGroup, workerGroup)
+                .channel(NioServerSocketChannel.class)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel channel) {
+                        channel.pipeline()
+                                .addLast(new IdleStateHandler(idleTimeoutMs, 0, 0, TimeUnit.MILLISECONDS))
+                                .addLast(new LengthFieldBasedFrameDecoder(maxFrameBytes, 0, GatewayProtocol.LENGTH_BYTES,
+                                        0, GatewayProtocol.LENGTH_BYTES))
+                                .addLast(new LengthFieldPrepender(GatewayProtocol.LENGTH_BYTES))
+                                .addLast(new ConnectionHandler());
+                    }
+                })
+                .bind(tcpPort).sync().channel();
+
+        udpChannel = new Bootstrap()
+                .group(workerGroup)
+                .channel(NioDatagramChannel.class)
+                // The default 2 KB buffer would truncate larger datagrams
+                .option(ChannelOption.RCVBUF_ALLOCATOR, new FixedRecvByteBufAllocator(MAX_DATAGRAM_BYTES))
+                .option(ChannelOption.SO_RCVBUF, 4 * 1024 * 1024)
+                .handler(new DatagramHandler())
+                .bind(udpPort).sync().channel();
+
+        logger.info("Telemetry gateway listening on TCP {} and UDP {}", tcpPort, udpPort);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (tcpChannel != null) {
+            tcpChannel.close().syncUninterruptibly();
+        }
+        if (udpChannel != null) {
+            udpChannel.close().syncUninterruptibly();
+        }
+        bossGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+        workerGroup.shutdownGracefully(0, 2, TimeUnit.SECONDS);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("tcpPort", tcpPort);
+        stats.put("udpPort", udpPort);
+        stats.put("connections", connections.get());
+        stats.put("pausedConnections", pausedConnections.get());
+        stats.put("sessions", deviceSessions.size());
+        stats.put("tcpFrames", tcpFrames.get());
+        stats.put("udpFrames", udpFrames.get());
+        stats.put("udpDropped", udpDropped.get());
+        stats.put("badFrames", badFrames.get());
+        stats.put("authFailures", authFailures.get());
+        return stats;
+    }
+
+    private static List<VehicleRecord> decodeTelemetry(byte[] bytes) {
+        FleetFrame frame = FleetFrameCodec.decode(bytes);
+        if (frame.getKind() != FleetFrame.Kind.TELEMETRY) {
+            throw new WireFormatException("Expected a TELEMETRY frame, got " + frame.getKind());
+        }
+        return frame.getRecords();
+    }
+
+    private static ByteBuf message(ChannelHandlerContext ctx, byte type, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return ctx.alloc().buffer(1 + bytes.length).writeByte(type).writeBytes(bytes);
+    }
+
+    /**
+     * One TCP connection. All methods run on the connection's event loop, so the
+     * state needs no locking; ingest completions are posted back to that loop.
+     */
+    private class ConnectionHandler extends SimpleChannelInboundHandler<ByteBuf> {
+
+        private DeviceSessions.Session session;
+
+        // Frames handed to the ingestor and not yet acknowledged
+        private int inFlight;
+
+        // Frames waiting for room in the ingest buffer, in arrival order
+        private final Queue<List<VehicleRecord>> waiting = new ArrayDeque<>();
+
+        private boolean paused;
+        private boolean retryScheduled;
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) {
+            connections.incrementAndGet();
+            // A device has a short window to authenticate before it is dropped
+            ctx.executor().schedule(() -> {
+                if (session == null && ctx.channel().isActive()) {
+                    ctx.writeAndFlush(message(ctx, GatewayProtocol.ERROR, "Authentication timeout"))
+                            .addListener(ChannelFutureListener.CLOSE);
+                }
+            }, authTimeoutMs, TimeUnit.MILLISECONDS);
+            ctx.fireChannelActive();
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            connections.decrementAndGet();
+            if (paused) {
+                pausedConnections.decrementAndGet();
+            }
+            if (session != null) {
+                deviceSessions.close(session);
+            }
+            ctx.fireChannelInactive();
+        }
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, ByteBuf frame) {
+            if (!frame.isReadable()) {
+                badFrames.incrementAndGet();
+                return;
+            }
+            byte type = frame.readByte();
+            if (type == GatewayProtocol.AUTH) {
+                authenticate(ctx, frame.toString(StandardCharsets.UTF_8));
+            } else if (type == GatewayProtocol.TELEMETRY) {
+                if (session == null || !deviceSessions.isValid(session)) {
+                    closeWithError(ctx, "Not authenticated");
+                    return;
+                }
+                List<VehicleRecord> records;
+                try {
+                    records = decodeTelemetry(ByteBufUtil.getBytes(frame));
+                } catch (WireFormatException e) {
+                    // The length prefix still delimits frames, so the connection stays usable
+                    badFrames.incrementAndGet();
+                    ctx.writeAndFlush(message(ctx, GatewayProtocol.ERROR, e.getMessage()));
+                    return;
+                }
+                tcpFrames.incrementAndGet();
+                waiting.add(records);
+                submitWaiting(ctx);
+            } else {
+                badFrames.incrementAndGet();
+                closeWithError(ctx, "Unknown message type " + type);
+            }
+        }
+
+        private void authenticate(ChannelHandlerContext ctx, String token) {
+            try {
+                if (session != null) {
+                    deviceSessions.close(session);
+                }
+                session = deviceSessions.authenticate(token);
+            } catch (IllegalArgumentException e) {
+                authFailures.incrementAndGet();
+                session = null;
+                closeWithError(ctx, e.getMessage());
+                return;
+            }
+            ctx.writeAndFlush(ctx.alloc().buffer(9).writeByte(GatewayProtocol.AUTH_OK).writeLong(session.getId()));
+        }
+
+        private void submitWaiting(ChannelHandlerContext ctx) {
+            while (!waiting.isEmpty() && inFlight < maxPendingFrames) {
+                List<VehicleRecord> records = waiting.peek();
+                if (!ingestor.offer(records, applied -> ctx.executor().execute(() -> acknowledge(ctx, applied)))) {
+                    // Ingest buffer full: stop reading and retry shortly
+                    if (!retryScheduled) {
+                        retryScheduled = true;
+                        ctx.executor().schedule(() -> {
+                            retryScheduled = false;
+                            submitWaiting(ctx);
+                        }, RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+                    }
+                    break;
+                }
+                waiting.poll();
+                inFlight++;
+            }
+            setPaused(ctx, !waiting.isEmpty() || inFlight >= maxPendingFrames);
+        }
+
+        private void acknowledge(ChannelHandlerContext ctx, int applied) {
+            inFlight--;
+            if (ctx.channel().isActive()) {
+                ctx.writeAndFlush(ctx.alloc().buffer(5).writeByte(GatewayProtocol.ACK).writeInt(applied));
+                submitWaiting(ctx);
+            }
+        }
+
+        private void setPaused(ChannelHandlerContext ctx, boolean pause) {
+            if (pause == paused) {
+                return;
+            }
+            paused = pause;
+            pausedConnections.addAndGet(pause ? 1 : -1);
+            ctx.channel().config().setAutoRead(!pause);
+        }
+
+        private void closeWithError(ChannelHandlerContext ctx, String error) {
+            ctx.writeAndFlush(message(ctx, GatewayProtocol.ERROR, error)).addListener(ChannelFutureListener.CLOSE);
+        }
+
+        @Override
+        public void userEventTriggered(ChannelHandlerContext ctx, Object event) {
+            if (event instanceof IdleStateEvent) {
+                ctx.close();
+            } else {
+                ctx.fireUserEventTriggered(event);
+            }
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            if (cause instanceof TooLongFrameException) {
+                badFrames.incrementAndGet();
+                closeWithError(ctx, "Frame exceeds " + maxFrameBytes + " bytes");
+                return;
+            }
+            logger.debug("Telemetry connection {} failed", ctx.channel().remoteAddress(), cause);
+            ctx.close();
+        }
+    }
+
+    /**
+     * UDP devices: AUTH datagrams open a session, TELEMETRY datagrams name it.
+     * There is no connection to slow down, so frames are dropped while the
+     * ingest buffer is full.
+     */
+    private class DatagramHandler extends SimpleChannelInboundHandler<DatagramPacket> {
+
+        @Override
+        protected void channelRead0(ChannelHandlerContext ctx, DatagramPacket packet) {
+            ByteBuf datagram = packet.content();
+            if (!datagram.isReadable()) {
+                badFrames.incrementAndGet();
+                return;
+            }
+            byte type = datagram.readByte();
+            if (type == GatewayProtocol.AUTH) {
+                ByteBuf reply;
+                try {
+                    DeviceSessions.Session session = deviceSessions.authenticate(datagram.toString(StandardCharsets.UTF_8));
+                    reply = ctx.alloc().buffer(9).writeByte(GatewayProtocol.AUTH_OK).writeLong(session.getId());
+                } catch (IllegalArgumentException e) {
+                    authFailures.incrementAndGet();
+                    reply = message(ctx, GatewayProtocol.ERROR, e.getMessage());
+                }
+                ctx.writeAndFlush(new DatagramPacket(reply, packet.sender()));
+            } else if (type == GatewayProtocol.TELEMETRY && datagram.readableBytes() >= Long.BYTES) {
+                if (deviceSessions.get(datagram.readLong()) == null) {
+                    authFailures.incrementAndGet();
+                    return;
+                }
+                List<VehicleRecord> records;
+                try {
+                    records = decodeTelemetry(ByteBufUtil.getBytes(datagram));
+                } catch (WireFormatException e) {
+                    badFrames.incrementAndGet();
+                    return;
+                }
+                udpFrames.incrementAndGet();
+                if (!ingestor.offer(records, null)) {
+                    udpDropped.incrementAndGet();
+                }
+            } else {
+                badFrames.incrementAndGet();
+            }
+        }
+    }
+}
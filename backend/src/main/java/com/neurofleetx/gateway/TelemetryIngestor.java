@@ -0,0 +1,352 @@
+package com.neurofleetx.gateway;
+
+import com.neurofleetx.service.VehicleService;
+import com.neurofleetx.wal.WriteAheadLog;
+import com.neurofleetx.wire.FleetFrame;
+import com.neurofleetx.wire.FleetFrameCodec;
+import com.neurofleetx.wire.VehicleRecord;
+import com.neurofleetx.wire.WireFormatException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies device telemetry to the fleet through {@link VehicleService#patchVehicles},
+ * the same batched path as {@code PATCH /api/vehicles}.
+ *
+ * Frames from all gateway connections are queued in a bounded buffer and
+ * coalesced on a single ingest thread into batches of up to
+ * {@code telemetry.ingest.max-batch-records}, so the database sees a few large
+ * statement batches instead of one request per sample. A full buffer is
+ * reported to the caller, which decides whether to wait (TCP) or drop (UDP).
+ *
+ * With the {@link WriteAheadLog} enabled every frame is logged before it is
+ * queued, and is complete as soon as the log has committed it. The log is
+ * replayed into the database at startup and checkpointed as batches are written.
+ */
+@Component
+public class TelemetryIngestor {
+
+    private static final Logger logger = LoggerFactory.getLogger(TelemetryIngestor.class);
+
+    @Value("${telemetry.ingest.queue-capacity:1024}")
+    private int queueCapacity;
+
+    @Value("${telemetry.ingest.max-batch-records:2000}")
+    private int maxBatchRecords;
+
+    @Value("${telemetry.ingest.retry-interval-ms:1000}")
+    private long retryIntervalMs;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    @Qualifier("telemetryIngestExecutor")
+    private ExecutorService ingestExecutor;
+
+    // Only present when the write-ahead log is enabled
+    @Autowired(required = false)
+    private WriteAheadLog wal;
+
+    private BlockingQueue<Submission> pending;
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    // Makes log order and queue order the same, so a replay ends in the same state
+    private final Object walOrder = new Object();
+
+    // With the log, a batch the database rejected. It is retried before anything
+    // newer is written, so the checkpoint only waits until it succeeds and patches
+    // still reach the database in log order. Only touched on the ingest thread.
+    private final List<Submission> unwritten = new ArrayList<>();
+    private long retryAt;
+    private volatile boolean holding;
+
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong records = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong notFound = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * Records of one telemetry frame and what to run once they are safe
+     */
+    private static final class Submission {
+        final List<VehicleRecord> records;
+        final Completion completion;
+        final AtomicBoolean completed = new AtomicBoolean();
+        long sequence;
+        int applied;
+
+        Submission(List<VehicleRecord> records, Completion completion) {
+            this.records = records;
+            this.completion = completion;
+        }
+
+        // Runs the completion once, whichever of log commit and database write comes first
+        void complete(int count) {
+            if (completion != null && completed.compareAndSet(false, true)) {
+                try {
+                    completion.completed(count);
+                } catch (RuntimeException e) {
+                    logger.warn("Telemetry completion failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Called once a submitted frame is safe: committed to the write-ahead log,
+     * or without one, written to the database
+     */
+    public interface Completion {
+        /**
+         * @param accepted Records of the frame that were logged, or without a log,
+         *                 that updated a vehicle
+         */
+        void completed(int accepted);
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        pending = new ArrayBlockingQueue<>(queueCapacity);
+        if (wal != null) {
+            replay();
+        }
+    }
+
+    /**
+     * Write frames the log holds beyond its checkpoint, i.e. that may not have
+     * reached the database before the last shutdown. Patches set absolute
+     * values, so applying a frame twice does no harm.
+     */
+    private void replay() throws IOException {
+        List<Submission> batch = new ArrayList<>();
+        int[] batchRecords = {0};
+        wal.open(record -> {
+            FleetFrame frame;
+            try {
+                frame = FleetFrameCodec.decode(record.getPayload());
+            } catch (WireFormatException e) {
+                logger.error("Skipping undecodable write-ahead log record {}: {}", record.getSequence(), e.getMessage());
+                return;
+            }
+            Submission submission = new Submission(frame.getRecords(), null);
+            submission.sequence = record.getSequence();
+            batch.add(submission);
+            batchRecords[0] += frame.getRecords().size();
+            if (batchRecords[0] >= maxBatchRecords) {
+                apply(batch, true);
+                batch.clear();
+                batchRecords[0] = 0;
+            }
+        });
+        if (!batch.isEmpty()) {
+            apply(batch, true);
+        }
+        wal.checkpoint();
+    }
+
+    /**
+     * Queue the records of one frame without blocking
+     * @param completion Notified once the frame is safe, may be null
+     * @return false if the buffer is full and the frame was not taken
+     */
+    public boolean offer(List<VehicleRecord> frameRecords, Completion completion) {
+        Submission submission = new Submission(frameRecords, completion);
+        if (wal == null) {
+            if (!pending.offer(submission)) {
+                rejected.incrementAndGet();
+                return false;
+            }
+        } else {
+            byte[] payload = FleetFrameCodec.encode(FleetFrame.telemetry(frameRecords));
+            WriteAheadLog.Append append;
+            synchronized (walOrder) {
+                if (pending.remainingCapacity() == 0) {
+                    rejected.incrementAndGet();
+                    return false;
+                }
+                append = wal.append(payload);
+                submission.sequence = append.getSequence();
+                pending.add(submission);
+            }
+            // If the log fails the frame completes after the database write instead
+            append.committed().thenRun(() -> submission.complete(frameRecords.size()));
+        }
+
+        frames.incrementAndGet();
+        records.addAndGet(frameRecords.size());
+        if (drainScheduled.compareAndSet(false, true)) {
+            ingestExecutor.execute(this::drain);
+        }
+        return true;
+    }
+
+    private void drain() {
+        // Cleared first so frames offered while draining schedule another pass
+        drainScheduled.set(false);
+        if (!unwritten.isEmpty()) {
+            // Frames stay queued meanwhile, so a long outage fills the buffer and pushes back
+            if (System.nanoTime() < retryAt || !apply(unwritten, false)) {
+                holdUnwritten();
+                return;
+            }
+            logger.info("Wrote {} held telemetry frames, write-ahead log checkpoint resumed", unwritten.size());
+            unwritten.clear();
+            holding = false;
+        }
+        List<Submission> batch = new ArrayList<>();
+        Submission submission;
+        int batchRecords = 0;
+        while ((submission = pending.poll()) != null) {
+            batch.add(submission);
+            batchRecords += submission.records.size();
+            if (batchRecords >= maxBatchRecords) {
+                if (!write(batch)) {
+                    return;
+                }
+                batchRecords = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    /**
+     * Apply and clear a batch
+     * @return false if it failed and is now held for a retry
+     */
+    private boolean write(List<Submission> batch) {
+        boolean written = apply(batch, false);
+        if (!written && wal != null) {
+            unwritten.addAll(batch);
+            holdUnwritten();
+            logger.error("Write-ahead log checkpoint held before sequence {} until its batch is written",
+                    unwritten.get(0).sequence);
+        }
+        batch.clear();
+        return written || wal == null;
+    }
+
+    private void holdUnwritten() {
+        if (!holding || System.nanoTime() >= retryAt) {
+            retryAt = System.nanoTime() + retryIntervalMs * 1_000_000;
+        }
+        holding = true;
+    }
+
+    /**
+     * Write a batch and, with the log, advance its checkpoint past it
+     * @return Whether the database took the batch
+     */
+    private boolean apply(List<Submission> batch, boolean replaying) {
+        List<Map<String, Object>> patches = new ArrayList<>();
+        List<Submission> owners = new ArrayList<>();
+        for (Submission submission : batch) {
+            for (VehicleRecord record : submission.records) {
+                // A record with only an id changes nothing
+                if (record.hasChanges()) {
+                    patches.add(record.toPatch());
+                    owners.add(submission);
+                }
+            }
+        }
+
+        boolean written = true;
+        if (!patches.isEmpty()) {
+            try {
+                List<Map<String, Object>> results = vehicleService.patchVehicles(patches);
+                for (int i = 0; i < results.size(); i++) {
+                    Object status = results.get(i).get("status");
+                    if ("UPDATED".equals(status)) {
+                        owners.get(i).applied++;
+                        updated.incrementAndGet();
+                    } else if ("NOT_FOUND".equals(status)) {
+                        notFound.incrementAndGet();
+                    } else {
+                        conflicts.incrementAndGet();
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to apply {} telemetry records", patches.size(), e);
+                failed.addAndGet(patches.size());
+                written = false;
+            }
+            batches.incrementAndGet();
+        }
+
+        if (wal != null) {
+            if (written) {
+                wal.markFlushed(batch.get(batch.size() - 1).sequence);
+            } else if (replaying) {
+                throw new IllegalStateException("Write-ahead log replay failed, the log is kept for the next start");
+            }
+        }
+
+        // Always complete, a connection waiting for its acknowledgement would stall otherwise
+        for (Submission submission : batch) {
+            submission.complete(submission.applied);
+        }
+        return written;
+    }
+
+    /**
+     * A held batch is otherwise only retried when new frames arrive
+     */
+    @Scheduled(fixedDelayString = "${telemetry.ingest.retry-interval-ms:1000}")
+    public void retryUnwritten() {
+        if (holding && drainScheduled.compareAndSet(false, true)) {
+            ingestExecutor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Checkpoints otherwise only follow new batches, so catch up when ingest goes idle
+     */
+    @Scheduled(fixedDelayString = "${telemetry.wal.checkpoint-interval-ms:1000}")
+    public void checkpoint() {
+        if (wal != null) {
+            wal.checkpoint();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("frames", frames.get());
+        stats.put("records", records.get());
+        stats.put("updated", updated.get());
+        stats.put("notFound", notFound.get());
+        stats.put("conflicts", conflicts.get());
+        stats.put("failed", failed.get());
+        stats.put("rejectedFrames", rejected.get());
+        stats.put("batches", batches.get());
+        stats.put("queuedFrames", pending.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("holdingFailedBatch", holding);
+        if (wal != null) {
+            stats.put("wal", wal.getStats());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,172 @@
+package com.neurofleetx.geofence;
+
+import com.neurofleetx.model.Geofence;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.repository.GeofenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates every vehicle position update against the active geofences and
+ * records the resulting events.
+ *
+ * Events are queued and written to {@code geofence_events} in JDBC batches
+ * every {@code geofence.flush-interval-ms}, so a burst of updates never waits
+ * on the database. A full queue drops events and counts them.
+ */
+@Component
+public class GeofenceEngine implements GeofenceTracker.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeofenceEngine.class);
+
+    private static final String INSERT_EVENT_SQL =
+            "INSERT INTO geofence_events (geofence_id, vehicle_id, event_type, latitude, longitude, occurred_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Value("${geofence.grid-cell-degrees:0.01}")
+    private double cellDegrees;
+
+    @Value("${geofence.max-cells-per-zone:4096}")
+    private int maxCellsPerZone;
+
+    @Value("${geofence.default-dwell-seconds:300}")
+    private int defaultDwellSeconds;
+
+    @Value("${geofence.event-queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${geofence.event-batch-size:5000}")
+    private int batchSize;
+
+    @Autowired
+    private GeofenceRepository geofenceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private GeofenceTracker tracker;
+    private BlockingQueue<Object[]> pendingEvents;
+
+    private final AtomicLong enters = new AtomicLong();
+    private final AtomicLong exits = new AtomicLong();
+    private final AtomicLong dwells = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        pendingEvents = new ArrayBlockingQueue<>(queueCapacity);
+        tracker = new GeofenceTracker(new GeofenceIndex(new ArrayList<>(), cellDegrees, maxCellsPerZone), this);
+        reload();
+    }
+
+    /**
+     * Rebuild the index from the active geofences, after any of them changed
+     */
+    public synchronized void reload() {
+        List<Zone> zones = new ArrayList<>();
+        for (Geofence geofence : geofenceRepository.findByActiveTrue()) {
+            try {
+                zones.add(Zone.of(geofence, defaultDwellSeconds * 1000L));
+            } catch (RuntimeException e) {
+                logger.warn("Skipping geofence {}: {}", geofence.getId(), e.getMessage());
+            }
+        }
+        GeofenceIndex index = new GeofenceIndex(zones, cellDegrees, maxCellsPerZone);
+        tracker.setIndex(index);
+        logger.info("Indexed {} geofences in {} grid cells", index.size(), index.getCellCount());
+    }
+
+    /**
+     * Evaluate a vehicle's current position
+     */
+    public void onPosition(Vehicle vehicle) {
+        if (vehicle.getId() != null && vehicle.getLatitude() != null && vehicle.getLongitude() != null) {
+            tracker.update(vehicle.getId(), vehicle.getLatitude(), vehicle.getLongitude(), System.currentTimeMillis());
+        }
+    }
+
+    public void forget(Long vehicleId) {
+        tracker.forget(vehicleId);
+    }
+
+    @Override
+    public void onEvent(Zone zone, long vehicleId, GeofenceTracker.EventType type, double latitude, double longitude,
+                        long timeMillis) {
+        switch (type) {
+            case ENTER: enters.incrementAndGet(); break;
+            case EXIT: exits.incrementAndGet(); break;
+            default: dwells.incrementAndGet(); break;
+        }
+        Object[] row = {zone.id, vehicleId, type.name(), latitude, longitude, new Timestamp(timeMillis)};
+        if (!pendingEvents.offer(row)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${geofence.flush-interval-ms:1000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        while (pendingEvents.drainTo(batch, batchSize) > 0) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_EVENT_SQL, batch);
+                written.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                logger.error("Failed to write {} geofence events", batch.size(), e);
+                dropped.addAndGet(batch.size());
+            }
+            batch.clear();
+        }
+    }
+
+    // Updates only arrive while vehicles report, so check parked vehicles periodically
+    @Scheduled(fixedDelayString = "${geofence.dwell-sweep-interval-ms:10000}")
+    public void sweepDwell() {
+        tracker.sweepDwell(System.currentTimeMillis());
+    }
+
+    /**
+     * Ids of the geofences a vehicle is in
+     */
+    public long[] zonesOf(long vehicleId) {
+        return tracker.zonesOf(vehicleId);
+    }
+
+    /**
+     * Ids of the vehicles in a geofence
+     */
+    public List<Long> vehiclesIn(long geofenceId) {
+        return tracker.vehiclesIn(geofenceId);
+    }
+
+    public Map<String, Object> getStats() {
+        GeofenceIndex index = tracker.getIndex();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("zones", index.size());
+        stats.put("gridCells", index.getCellCount());
+        stats.put("largeZones", index.getLargeZoneCount());
+        stats.put("trackedVehicles", tracker.getTrackedVehicles());
+        stats.put("updates", tracker.getUpdates());
+        stats.put("enters", enters.get());
+        stats.put("exits", exits.get());
+        stats.put("dwells", dwells.get());
+        stats.put("eventsWritten", written.get());
+        stats.put("eventsDropped", dropped.get());
+        stats.put("eventsQueued", pendingEvents.size());
+        return stats;
+    }
+}
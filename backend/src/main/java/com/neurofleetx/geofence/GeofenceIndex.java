@@ -0,0 +1,110 @@
+package com.neurofleetx.geofence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable spatial index of the active zones: a uniform grid of
+ * {@code cellDegrees} cells, each listing the zones whose bounding box
+ * overlaps it. A lookup tests only the zones of the point's cell, each
+ * against its bounding box first. Zones spanning more than
+ * {@code maxCellsPerZone} cells are kept in a short list tested on every lookup
+ * instead of being copied into thousands of cells.
+ *
+ * A changed zone set is published by building a new index, so lookups never lock.
+ */
+public final class GeofenceIndex {
+
+    static final long[] NONE = new long[0];
+    private static final int[] NO_ZONES = new int[0];
+
+    private final double cellDegrees;
+    private final Zone[] zones;
+    private final Map<Long, int[]> cells = new HashMap<>();
+    private final int[] large;
+    private final Map<Long, Zone> byId = new HashMap<>();
+
+    public GeofenceIndex(List<Zone> zoneList, double cellDegrees, int maxCellsPerZone) {
+        this.cellDegrees = cellDegrees;
+        this.zones = zoneList.toArray(new Zone[0]);
+        Map<Long, List<Integer>> building = new HashMap<>();
+        List<Integer> largeZones = new ArrayList<>();
+        for (int z = 0; z < zones.length; z++) {
+            Zone zone = zones[z];
+            byId.put(zone.id, zone);
+            int minRow = cell(zone.minLatitude), maxRow = cell(zone.maxLatitude);
+            int minColumn = cell(zone.minLongitude), maxColumn = cell(zone.maxLongitude);
+            if ((long) (maxRow - minRow + 1) * (maxColumn - minColumn + 1) > maxCellsPerZone) {
+                largeZones.add(z);
+                continue;
+            }
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    building.computeIfAbsent(key(row, column), k -> new ArrayList<>(2)).add(z);
+                }
+            }
+        }
+        for (Map.Entry<Long, List<Integer>> cell : building.entrySet()) {
+            cells.put(cell.getKey(), cell.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        large = largeZones.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private int cell(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | (column & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Ids of the zones containing a point, in ascending order
+     */
+    long[] containing(double latitude, double longitude) {
+        int[] candidates = cells.getOrDefault(key(cell(latitude), cell(longitude)), NO_ZONES);
+        if (candidates.length == 0 && large.length == 0) {
+            return NONE;
+        }
+        long[] found = null;
+        int count = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int z : pass == 0 ? candidates : large) {
+                Zone zone = zones[z];
+                if (zone.contains(latitude, longitude)) {
+                    if (found == null) {
+                        found = new long[4];
+                    } else if (count == found.length) {
+                        found = Arrays.copyOf(found, count * 2);
+                    }
+                    found[count++] = zone.id;
+                }
+            }
+        }
+        if (count == 0) {
+            return NONE;
+        }
+        long[] ids = Arrays.copyOf(found, count);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    Zone get(long id) {
+        return byId.get(id);
+    }
+
+    public int size() {
+        return zones.length;
+    }
+
+    public int getCellCount() {
+        return cells.size();
+    }
+
+    public int getLargeZoneCount() {
+        return large.length;
+    }
+}
@@ -0,0 +1,176 @@
+package com.neurofleetx.geofence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks which zones each vehicle is in and turns position updates into
+ * ENTER, EXIT and DWELL events. Each update is tested only against the zones
+ * the {@link GeofenceIndex} returns for its position.
+ *
+ * Updates of different vehicles run in parallel; the zones of one vehicle are
+ * compared under that vehicle's lock. Events are passed to the listener while
+ * the lock is held, so the listener must not block.
+ */
+public class GeofenceTracker {
+
+    public enum EventType { ENTER, EXIT, DWELL }
+
+    public interface Listener {
+        void onEvent(Zone zone, long vehicleId, EventType type, double latitude, double longitude, long timeMillis);
+    }
+
+    /**
+     * Zones a vehicle is in, sorted by id, with when it entered each
+     */
+    private static final class Membership {
+        long[] zones = GeofenceIndex.NONE;
+        long[] since = GeofenceIndex.NONE;
+        boolean[] dwelled = new boolean[0];
+        double latitude;
+        double longitude;
+    }
+
+    private final Listener listener;
+    private volatile GeofenceIndex index;
+    private final Map<Long, Membership> memberships = new ConcurrentHashMap<>();
+    private final LongAdder updates = new LongAdder();
+
+    public GeofenceTracker(GeofenceIndex index, Listener listener) {
+        this.index = index;
+        this.listener = listener;
+    }
+
+    /**
+     * Switch to a new zone set. Memberships of removed zones end without an EXIT event.
+     */
+    public void setIndex(GeofenceIndex index) {
+        this.index = index;
+    }
+
+    public GeofenceIndex getIndex() {
+        return index;
+    }
+
+    public void update(long vehicleId, double latitude, double longitude, long now) {
+        updates.increment();
+        GeofenceIndex current = index;
+        long[] inside = current.containing(latitude, longitude);
+        Membership membership = memberships.get(vehicleId);
+        if (membership == null) {
+            if (inside.length == 0) {
+                return;
+            }
+            membership = memberships.computeIfAbsent(vehicleId, id -> new Membership());
+        }
+        synchronized (membership) {
+            membership.latitude = latitude;
+            membership.longitude = longitude;
+            if (Arrays.equals(membership.zones, inside)) {
+                // Still in the same zones, the common case
+                checkDwell(current, vehicleId, membership, now);
+                return;
+            }
+            long[] before = membership.zones;
+            long[] since = new long[inside.length];
+            boolean[] dwelled = new boolean[inside.length];
+            int i = 0;
+            int j = 0;
+            while (i < before.length || j < inside.length) {
+                if (j == inside.length || (i < before.length && before[i] < inside[j])) {
+                    Zone left = current.get(before[i]);
+                    if (left != null) {
+                        listener.onEvent(left, vehicleId, EventType.EXIT, latitude, longitude, now);
+                    }
+                    i++;
+                } else if (i == before.length || inside[j] < before[i]) {
+                    since[j] = now;
+                    listener.onEvent(current.get(inside[j]), vehicleId, EventType.ENTER, latitude, longitude, now);
+                    j++;
+                } else {
+                    since[j] = membership.since[i];
+                    dwelled[j] = membership.dwelled[i];
+                    i++;
+                    j++;
+                }
+            }
+            membership.zones = inside;
+            membership.since = since;
+            membership.dwelled = dwelled;
+            checkDwell(current, vehicleId, membership, now);
+        }
+    }
+
+    private void checkDwell(GeofenceIndex current, long vehicleId, Membership membership, long now) {
+        for (int k = 0; k < membership.zones.length; k++) {
+            if (!membership.dwelled[k]) {
+                Zone zone = current.get(membership.zones[k]);
+                if (zone != null && now - membership.since[k] >= zone.dwellMillis) {
+                    membership.dwelled[k] = true;
+                    listener.onEvent(zone, vehicleId, EventType.DWELL, membership.latitude, membership.longitude, now);
+                }
+            }
+        }
+    }
+
+    /**
+     * Raise DWELL for vehicles that stopped reporting inside a zone
+     */
+    public void sweepDwell(long now) {
+        GeofenceIndex current = index;
+        for (Map.Entry<Long, Membership> entry : memberships.entrySet()) {
+            Membership membership = entry.getValue();
+            synchronized (membership) {
+                checkDwell(current, entry.getKey(), membership, now);
+            }
+        }
+    }
+
+    public void forget(long vehicleId) {
+        memberships.remove(vehicleId);
+    }
+
+    /**
+     * Ids of the zones a vehicle is in
+     */
+    public long[] zonesOf(long vehicleId) {
+        Membership membership = memberships.get(vehicleId);
+        if (membership == null) {
+            return GeofenceIndex.NONE;
+        }
+        synchronized (membership) {
+            return membership.zones.clone();
+        }
+    }
+
+    /**
+     * Vehicles in a zone; scans all tracked vehicles
+     */
+    public List<Long> vehiclesIn(long zoneId) {
+        List<Long> vehicles = new ArrayList<>();
+        for (Map.Entry<Long, Membership> entry : memberships.entrySet()) {
+            Membership membership = entry.getValue();
+            synchronized (membership) {
+                if (Arrays.binarySearch(membership.zones, zoneId) >= 0) {
+                    vehicles.add(entry.getKey());
+                }
+            }
+        }
+        return vehicles;
+    }
+
+    /**
+     * Vehicles that have been in a zone since they were last forgotten
+     */
+    public int getTrackedVehicles() {
+        return memberships.size();
+    }
+
+    public long getUpdates() {
+        return updates.sum();
+    }
+}
@@ -0,0 +1,40 @@
+package com.neurofleetx.geofence;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores polygon corners as text, {@code "lat,lon;lat,lon;..."}
+ */
+@Converter
+public class VerticesConverter implements AttributeConverter<double[][], String> {
+
+    @Override
+    public String convertToDatabaseColumn(double[][] vertices) {
+        if (vertices == null) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        for (double[] vertex : vertices) {
+            if (text.length() > 0) {
+                text.append(';');
+            }
+            text.append(vertex[0]).append(',').append(vertex[1]);
+        }
+        return text.toString();
+    }
+
+    @Override
+    public double[][] convertToEntityAttribute(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        String[] pairs = text.split(";");
+        double[][] vertices = new double[pairs.length][];
+        for (int i = 0; i < pairs.length; i++) {
+            String[] parts = pairs[i].split(",");
+            vertices[i] = new double[] {Double.parseDouble(parts[0]), Double.parseDouble(parts[1])};
+        }
+        return vertices;
+    }
+}
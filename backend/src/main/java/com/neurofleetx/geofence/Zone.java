@@ -0,0 +1,124 @@
+package com.neurofleetx.geofence;
+
+import com.neurofleetx.model.Geofence;
+
+/**
+ * A geofence compiled for containment tests: its bounding box and either the
+ * polygon corners in flat arrays or the circle in local meters.
+ *
+ * Coordinates are treated as planar within a zone, which is accurate for
+ * zones up to tens of kilometers away from the poles.
+ */
+public final class Zone {
+
+    static final double METERS_PER_DEGREE = 111_320;
+
+    final long id;
+    final String name;
+    final long dwellMillis;
+    final double minLatitude;
+    final double maxLatitude;
+    final double minLongitude;
+    final double maxLongitude;
+
+    // Polygon
+    private final double[] latitudes;
+    private final double[] longitudes;
+
+    // Circle
+    private final double centerLatitude;
+    private final double centerLongitude;
+    private final double metersPerDegreeLongitude;
+    private final double radiusSquared;
+
+    private Zone(long id, String name, long dwellMillis, double[] latitudes, double[] longitudes,
+                 double centerLatitude, double centerLongitude, double radiusMeters) {
+        this.id = id;
+        this.name = name;
+        this.dwellMillis = dwellMillis;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.centerLatitude = centerLatitude;
+        this.centerLongitude = centerLongitude;
+        this.metersPerDegreeLongitude = METERS_PER_DEGREE * Math.cos(Math.toRadians(centerLatitude));
+        this.radiusSquared = radiusMeters * radiusMeters;
+        if (latitudes != null) {
+            double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE, minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+            for (int i = 0; i < latitudes.length; i++) {
+                minLat = Math.min(minLat, latitudes[i]);
+                maxLat = Math.max(maxLat, latitudes[i]);
+                minLon = Math.min(minLon, longitudes[i]);
+                maxLon = Math.max(maxLon, longitudes[i]);
+            }
+            minLatitude = minLat;
+            maxLatitude = maxLat;
+            minLongitude = minLon;
+            maxLongitude = maxLon;
+        } else {
+            double latitudeSpan = radiusMeters / METERS_PER_DEGREE;
+            double longitudeSpan = radiusMeters / metersPerDegreeLongitude;
+            minLatitude = centerLatitude - latitudeSpan;
+            maxLatitude = centerLatitude + latitudeSpan;
+            minLongitude = centerLongitude - longitudeSpan;
+            maxLongitude = centerLongitude + longitudeSpan;
+        }
+    }
+
+    public static Zone polygon(long id, String name, long dwellMillis, double[][] vertices) {
+        double[] latitudes = new double[vertices.length];
+        double[] longitudes = new double[vertices.length];
+        for (int i = 0; i < vertices.length; i++) {
+            latitudes[i] = vertices[i][0];
+            longitudes[i] = vertices[i][1];
+        }
+        return new Zone(id, name, dwellMillis, latitudes, longitudes, 0, 0, 0);
+    }
+
+    public static Zone circle(long id, String name, long dwellMillis, double latitude, double longitude, double radiusMeters) {
+        return new Zone(id, name, dwellMillis, null, null, latitude, longitude, radiusMeters);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the geofence has no valid shape
+     */
+    public static Zone of(Geofence geofence, long defaultDwellMillis) {
+        long dwellMillis = geofence.getDwellSeconds() != null ? geofence.getDwellSeconds() * 1000L : defaultDwellMillis;
+        if ("CIRCLE".equals(geofence.getShape())) {
+            return circle(geofence.getId(), geofence.getName(), dwellMillis, geofence.getCenterLatitude(),
+                    geofence.getCenterLongitude(), geofence.getRadiusMeters());
+        }
+        if ("POLYGON".equals(geofence.getShape())) {
+            return polygon(geofence.getId(), geofence.getName(), dwellMillis, geofence.getVertices());
+        }
+        throw new IllegalArgumentException("Unknown geofence shape " + geofence.getShape());
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    boolean contains(double latitude, double longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude || longitude < minLongitude || longitude > maxLongitude) {
+            return false;
+        }
+        if (latitudes == null) {
+            double north = (latitude - centerLatitude) * METERS_PER_DEGREE;
+            double east = (longitude - centerLongitude) * metersPerDegreeLongitude;
+            return north * north + east * east <= radiusSquared;
+        }
+        // Ray casting: count the edges crossed by a ray going east from the point
+        boolean inside = false;
+        for (int i = 0, j = latitudes.length - 1; i < latitudes.length; j = i++) {
+            if ((latitudes[i] > latitude) != (latitudes[j] > latitude)
+                    && longitude < (longitudes[j] - longitudes[i]) * (latitude - latitudes[i])
+                    / (latitudes[j] - latitudes[i]) + longitudes[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+}
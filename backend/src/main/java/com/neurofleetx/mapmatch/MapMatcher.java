@@ -0,0 +1,361 @@
+package com.neurofleetx.mapmatch;
+
+import com.neurofleetx.road.EdgeIndex;
+import com.neurofleetx.road.RoadGraph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hidden Markov map matching (Newson and Krumm): the hidden states of a GPS
+ * point are the road edges near it, from the {@link EdgeIndex}. A candidate is
+ * more likely the closer it is to the point (Gaussian in the distance), and a
+ * move between candidates of consecutive points is more likely the closer its
+ * distance along the roads is to the straight-line distance between the
+ * points (exponential in the difference). Viterbi picks the most likely
+ * sequence.
+ *
+ * A {@link Session} matches one vehicle's stream incrementally over a window
+ * of recent points. The oldest point is decided as soon as every surviving
+ * path agrees on it, and at the latest once the window is full, so each point
+ * is final after a bounded number of later points.
+ */
+public class MapMatcher {
+
+    private final RoadGraph graph;
+    private final EdgeIndex index;
+    private final double sigmaMeters;
+    private final double betaMeters;
+    private final double radiusMeters;
+    private final int maxCandidates;
+    private final int windowPoints;
+    private final long maxGapMillis;
+    private final double maxRouteMeters;
+
+    private final ThreadLocal<RoadGraph.Workspace> workspaces;
+    private final ThreadLocal<EdgeIndex.Candidates> candidateBuffers = ThreadLocal.withInitial(EdgeIndex.Candidates::new);
+
+    /**
+     * @param sigmaMeters GPS noise, the spread of the distance to the true road
+     * @param betaMeters Typical difference between route and straight-line distance
+     * @param radiusMeters Edges further from a point are not candidates
+     * @param windowPoints Points a decision may lag behind the newest point
+     * @param maxGapMillis A longer silence starts a new match
+     * @param maxRouteMeters Longest route searched between consecutive points
+     */
+    public MapMatcher(RoadGraph graph, EdgeIndex index, double sigmaMeters, double betaMeters, double radiusMeters,
+                      int maxCandidates, int windowPoints, long maxGapMillis, double maxRouteMeters) {
+        this.graph = graph;
+        this.index = index;
+        this.sigmaMeters = sigmaMeters;
+        this.betaMeters = betaMeters;
+        this.radiusMeters = radiusMeters;
+        this.maxCandidates = maxCandidates;
+        this.windowPoints = Math.max(1, windowPoints);
+        this.maxGapMillis = maxGapMillis;
+        this.maxRouteMeters = maxRouteMeters;
+        workspaces = ThreadLocal.withInitial(graph::newWorkspace);
+    }
+
+    public RoadGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * One GPS point and its candidates, with the Viterbi score and best
+     * predecessor of each
+     */
+    private static final class Step {
+        long time;
+        double latitude;
+        double longitude;
+        int size;
+        int[] edges;
+        double[] offsets;
+        double[] snappedLatitudes;
+        double[] snappedLongitudes;
+        double[] scores;
+        int[] back;
+        // Route from the best predecessor, meters
+        double[] routes;
+    }
+
+    /**
+     * Incremental matcher of one vehicle's points, in time order; not thread-safe
+     */
+    public class Session {
+
+        private final ArrayDeque<Step> window = new ArrayDeque<>();
+        private final Consumer<MatchedPoint> committed;
+        private MatchedPoint lastCommitted;
+        private int lastCommittedEdge = -1;
+        private double lastCommittedOffset;
+        // Candidate index of the last decided point, -1 after a break
+        private int lastCommittedCandidate = -1;
+        private long breaks;
+        private long unmatched;
+
+        /**
+         * @param committed Receives each point once its match is final, in order
+         */
+        public Session(Consumer<MatchedPoint> committed) {
+            this.committed = committed;
+        }
+
+        /**
+         * Add the next point
+         * @return The current best match of this point, which later points may
+         *         still change, or null if no road is near it
+         */
+        public MatchedPoint add(long time, double latitude, double longitude) {
+            EdgeIndex.Candidates candidates = candidateBuffers.get();
+            index.nearest(latitude, longitude, radiusMeters, maxCandidates, candidates);
+            if (candidates.size == 0) {
+                unmatched++;
+                return null;
+            }
+            Step step = new Step();
+            step.time = time;
+            step.latitude = latitude;
+            step.longitude = longitude;
+            step.size = candidates.size;
+            step.edges = Arrays.copyOf(candidates.edges, candidates.size);
+            step.offsets = Arrays.copyOf(candidates.offsets, candidates.size);
+            step.snappedLatitudes = Arrays.copyOf(candidates.latitudes, candidates.size);
+            step.snappedLongitudes = Arrays.copyOf(candidates.longitudes, candidates.size);
+            step.scores = new double[step.size];
+            step.back = new int[step.size];
+            step.routes = new double[step.size];
+            Arrays.fill(step.back, -1);
+            Arrays.fill(step.routes, Double.NaN);
+
+            Step previous = window.peekLast();
+            if (previous != null && (time - previous.time > maxGapMillis || !transition(previous, step))) {
+                // Nothing connects the previous point to this one: settle what is open and start over
+                breaks++;
+                flush();
+                previous = null;
+            }
+            if (previous == null) {
+                for (int j = 0; j < step.size; j++) {
+                    step.scores[j] = emission(candidates.distances[j]);
+                }
+            } else {
+                for (int j = 0; j < step.size; j++) {
+                    step.scores[j] += emission(candidates.distances[j]);
+                }
+            }
+            normalize(step);
+            window.addLast(step);
+            commitSettled();
+            int best = best(step);
+            return point(step, best, step.routes[best]);
+        }
+
+        /**
+         * Decide all open points, e.g. at the end of a trace
+         */
+        public void flush() {
+            Step last = window.peekLast();
+            if (last == null) {
+                return;
+            }
+            int[] path = backtrack(best(last));
+            int i = 0;
+            for (Step step : window) {
+                commit(step, path[i++]);
+            }
+            window.clear();
+            lastCommittedCandidate = -1;
+        }
+
+        public MatchedPoint getLastCommitted() {
+            return lastCommitted;
+        }
+
+        public int getOpenPoints() {
+            return window.size();
+        }
+
+        public long getBreaks() {
+            return breaks;
+        }
+
+        public long getUnmatched() {
+            return unmatched;
+        }
+
+        // Viterbi step; false if no candidate of the step is reachable from the previous one
+        private boolean transition(Step previous, Step step) {
+            double straight = RoadGraph.distanceMeters(previous.latitude, previous.longitude, step.latitude, step.longitude);
+            double limit = Math.min(maxRouteMeters, 2 * straight + 2 * radiusMeters);
+            Arrays.fill(step.scores, Double.NEGATIVE_INFINITY);
+            RoadGraph.Workspace workspace = workspaces.get();
+            boolean reachable = false;
+            for (int i = 0; i < previous.size; i++) {
+                if (previous.scores[i] == Double.NEGATIVE_INFINITY) {
+                    continue;
+                }
+                int edge = previous.edges[i];
+                double remaining = graph.edgeLength(edge) - previous.offsets[i];
+                boolean searched = false;
+                for (int j = 0; j < step.size; j++) {
+                    double route = sameEdgeRoute(edge, previous.offsets[i], step.edges[j], step.offsets[j]);
+                    if (Double.isNaN(route)) {
+                        if (!searched) {
+                            graph.search(graph.edgeTo(edge), -1, limit - remaining, graph.lengths(), workspace);
+                            searched = true;
+                        }
+                        route = remaining + workspace.cost(graph.edgeFrom(step.edges[j])) + step.offsets[j];
+                    }
+                    if (route > limit) {
+                        continue;
+                    }
+                    double score = previous.scores[i] - Math.abs(route - straight) / betaMeters;
+                    if (score > step.scores[j]) {
+                        step.scores[j] = score;
+                        step.back[j] = i;
+                        step.routes[j] = route;
+                        reachable = true;
+                    }
+                }
+            }
+            return reachable;
+        }
+
+        // Decide the oldest points once all paths agree on them, or once the window is full
+        private void commitSettled() {
+            while (window.size() > 1) {
+                Step oldest = window.peekFirst();
+                int agreed = agreedOldest();
+                if (agreed < 0 && window.size() <= windowPoints) {
+                    return;
+                }
+                if (agreed < 0) {
+                    agreed = backtrack(best(window.peekLast()))[0];
+                }
+                commit(oldest, agreed);
+                window.removeFirst();
+            }
+        }
+
+        // The candidate of the oldest point every live path of the newest point goes through, or -1
+        private int agreedOldest() {
+            Step[] steps = window.toArray(new Step[0]);
+            Step newest = steps[steps.length - 1];
+            int agreed = -1;
+            for (int j = 0; j < newest.size; j++) {
+                if (newest.scores[j] == Double.NEGATIVE_INFINITY) {
+                    continue;
+                }
+                int candidate = j;
+                for (int s = steps.length - 1; s > 0; s--) {
+                    candidate = steps[s].back[candidate];
+                }
+                if (agreed >= 0 && candidate != agreed) {
+                    return -1;
+                }
+                agreed = candidate;
+            }
+            return agreed;
+        }
+
+        // Candidate index per window step on the best path ending at a candidate of the newest step
+        private int[] backtrack(int last) {
+            Step[] steps = window.toArray(new Step[0]);
+            int[] path = new int[steps.length];
+            path[steps.length - 1] = last;
+            for (int s = steps.length - 1; s > 0; s--) {
+                path[s - 1] = steps[s].back[path[s]];
+            }
+            return path;
+        }
+
+        private void commit(Step step, int candidate) {
+            double route = Double.NaN;
+            if (lastCommitted != null) {
+                route = sameEdgeRoute(lastCommittedEdge, lastCommittedOffset, step.edges[candidate], step.offsets[candidate]);
+                if (Double.isNaN(route) && lastCommittedCandidate >= 0) {
+                    if (step.back[candidate] == lastCommittedCandidate) {
+                        route = step.routes[candidate];
+                    } else {
+                        // The best path changed after the last decision; route from what was decided
+                        RoadGraph.Workspace workspace = workspaces.get();
+                        double remaining = graph.edgeLength(lastCommittedEdge) - lastCommittedOffset;
+                        graph.search(graph.edgeTo(lastCommittedEdge), graph.edgeFrom(step.edges[candidate]),
+                                maxRouteMeters, graph.lengths(), workspace);
+                        route = remaining + workspace.cost(graph.edgeFrom(step.edges[candidate])) + step.offsets[candidate];
+                    }
+                }
+                if (Double.isNaN(route) || Double.isInfinite(route)) {
+                    // After a break, the straight line between the matched points
+                    route = RoadGraph.distanceMeters(lastCommitted.getLatitude(), lastCommitted.getLongitude(),
+                            step.snappedLatitudes[candidate], step.snappedLongitudes[candidate]);
+                }
+            }
+            MatchedPoint point = point(step, candidate, route);
+            lastCommitted = point;
+            lastCommittedEdge = step.edges[candidate];
+            lastCommittedOffset = step.offsets[candidate];
+            lastCommittedCandidate = candidate;
+            committed.accept(point);
+        }
+    }
+
+    // Route along one edge, NaN for different edges. GPS noise often puts a point a little
+    // behind the previous one; within the candidate radius that counts as standing still.
+    private double sameEdgeRoute(int fromEdge, double fromOffset, int toEdge, double toOffset) {
+        if (fromEdge != toEdge || toOffset < fromOffset - radiusMeters) {
+            return Double.NaN;
+        }
+        return Math.max(0, toOffset - fromOffset);
+    }
+
+    private double emission(double distance) {
+        double z = distance / sigmaMeters;
+        return -0.5 * z * z;
+    }
+
+    // Keep scores near zero so long streams never lose precision
+    private static void normalize(Step step) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int j = 0; j < step.size; j++) {
+            max = Math.max(max, step.scores[j]);
+        }
+        for (int j = 0; j < step.size; j++) {
+            step.scores[j] -= max;
+        }
+    }
+
+    private static int best(Step step) {
+        int best = 0;
+        for (int j = 1; j < step.size; j++) {
+            if (step.scores[j] > step.scores[best]) {
+                best = j;
+            }
+        }
+        return best;
+    }
+
+    private static MatchedPoint point(Step step, int candidate, double route) {
+        return new MatchedPoint(step.time, step.snappedLatitudes[candidate], step.snappedLongitudes[candidate],
+                step.latitude, step.longitude, step.edges[candidate], step.offsets[candidate], route);
+    }
+
+    /**
+     * Match a whole trace at once
+     * @return One matched point per point near a road, in order
+     */
+    public List<MatchedPoint> match(long[] times, double[] latitudes, double[] longitudes, int size) {
+        List<MatchedPoint> matched = new ArrayList<>(size);
+        Session session = new Session(matched::add);
+        for (int i = 0; i < size; i++) {
+            session.add(times[i], latitudes[i], longitudes[i]);
+        }
+        session.flush();
+        return matched;
+    }
+}
@@ -0,0 +1,166 @@
+package com.neurofleetx.mapmatch;
+
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.road.RoadNetwork;
+import com.neurofleetx.util.LatencyHistogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Snaps every vehicle's position stream to the road network as it arrives,
+ * with one {@link MapMatcher.Session} per vehicle. Keeps each vehicle's
+ * current match and the distance driven along the matched roads.
+ */
+@Component
+public class MapMatchingEngine {
+
+    @Value("${mapmatch.online.enabled:true}")
+    private boolean onlineEnabled;
+
+    @Value("${mapmatch.sigma-meters:5}")
+    private double sigmaMeters;
+
+    @Value("${mapmatch.beta-meters:10}")
+    private double betaMeters;
+
+    @Value("${mapmatch.radius-meters:50}")
+    private double radiusMeters;
+
+    @Value("${mapmatch.max-candidates:8}")
+    private int maxCandidates;
+
+    @Value("${mapmatch.window-points:6}")
+    private int windowPoints;
+
+    @Value("${mapmatch.max-gap-seconds:60}")
+    private int maxGapSeconds;
+
+    @Value("${mapmatch.max-route-meters:5000}")
+    private double maxRouteMeters;
+
+    @Autowired
+    private RoadNetwork roadNetwork;
+
+    @Autowired(required = false)
+    private List<Listener> listeners = List.of();
+
+    private MapMatcher matcher;
+
+    /**
+     * Receives every vehicle's final matched points in order, on the thread
+     * that reported the position and under that vehicle's lock, so it must be quick
+     */
+    public interface Listener {
+        void onMatched(long vehicleId, MatchedPoint point);
+
+        default void forget(long vehicleId) {
+        }
+    }
+
+    /**
+     * One vehicle's session and running totals
+     */
+    private static final class VehicleMatch {
+        MapMatcher.Session session;
+        MatchedPoint current;
+        double matchedMeters;
+        long committedPoints;
+    }
+
+    private final Map<Long, VehicleMatch> vehicles = new ConcurrentHashMap<>();
+    private final LongAdder updates = new LongAdder();
+    private final LatencyHistogram updateLatency = new LatencyHistogram();
+
+    @PostConstruct
+    public void init() {
+        matcher = new MapMatcher(roadNetwork.getGraph(), roadNetwork.getIndex(), sigmaMeters, betaMeters, radiusMeters,
+                maxCandidates, windowPoints, maxGapSeconds * 1000L, maxRouteMeters);
+    }
+
+    /**
+     * Matcher with the configured parameters, for batch matching
+     */
+    public MapMatcher getMatcher() {
+        return matcher;
+    }
+
+    /**
+     * Match a vehicle's current position
+     */
+    public void onPosition(Vehicle vehicle) {
+        if (!onlineEnabled || vehicle.getId() == null || vehicle.getLatitude() == null || vehicle.getLongitude() == null) {
+            return;
+        }
+        long started = System.nanoTime();
+        updates.increment();
+        VehicleMatch match = vehicles.computeIfAbsent(vehicle.getId(), id -> {
+            VehicleMatch created = new VehicleMatch();
+            created.session = matcher.new Session(point -> {
+                if (!Double.isNaN(point.getRouteMeters())) {
+                    created.matchedMeters += point.getRouteMeters();
+                }
+                created.committedPoints++;
+                for (Listener listener : listeners) {
+                    listener.onMatched(id, point);
+                }
+            });
+            return created;
+        });
+        synchronized (match) {
+            match.current = match.session.add(System.currentTimeMillis(), vehicle.getLatitude(), vehicle.getLongitude());
+        }
+        updateLatency.record(System.nanoTime() - started);
+    }
+
+    public void forget(Long vehicleId) {
+        vehicles.remove(vehicleId);
+        for (Listener listener : listeners) {
+            listener.forget(vehicleId);
+        }
+    }
+
+    /**
+     * A vehicle's current match and matched distance, or null if it has none
+     */
+    public Map<String, Object> getVehicleMatch(long vehicleId) {
+        VehicleMatch match = vehicles.get(vehicleId);
+        if (match == null) {
+            return null;
+        }
+        synchronized (match) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("vehicleId", vehicleId);
+            result.put("current", match.current);
+            result.put("lastFinal", match.session.getLastCommitted());
+            result.put("openPoints", match.session.getOpenPoints());
+            result.put("finalPoints", match.committedPoints);
+            result.put("matchedDistanceKm", Math.round(match.matchedMeters) / 1000.0);
+            result.put("unmatchedPoints", match.session.getUnmatched());
+            result.put("breaks", match.session.getBreaks());
+            if (match.current != null) {
+                result.put("roadSpeedKmh", roadNetwork.getGraph().edgeSpeed(match.current.getEdge()));
+            }
+            return result;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("onlineEnabled", onlineEnabled);
+        stats.put("roadGraph", roadNetwork.getSource());
+        stats.put("nodes", roadNetwork.getGraph().nodeCount());
+        stats.put("edges", roadNetwork.getGraph().edgeCount());
+        stats.put("trackedVehicles", vehicles.size());
+        stats.put("updates", updates.sum());
+        stats.put("updateLatency", updateLatency.toMap());
+        return stats;
+    }
+}
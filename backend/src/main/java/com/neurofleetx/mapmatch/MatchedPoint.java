@@ -0,0 +1,63 @@
+package com.neurofleetx.mapmatch;
+
+/**
+ * A GPS point snapped onto a road edge
+ */
+public class MatchedPoint {
+
+    private final long time;
+    private final double latitude;
+    private final double longitude;
+    private final double rawLatitude;
+    private final double rawLongitude;
+    private final int edge;
+    private final double offsetMeters;
+    private final double routeMeters;
+
+    /**
+     * @param routeMeters Distance along the roads from the previous matched point, or NaN for the first
+     */
+    MatchedPoint(long time, double latitude, double longitude, double rawLatitude, double rawLongitude, int edge,
+                 double offsetMeters, double routeMeters) {
+        this.time = time;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.rawLatitude = rawLatitude;
+        this.rawLongitude = rawLongitude;
+        this.edge = edge;
+        this.offsetMeters = offsetMeters;
+        this.routeMeters = routeMeters;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public double getRawLatitude() {
+        return rawLatitude;
+    }
+
+    public double getRawLongitude() {
+        return rawLongitude;
+    }
+
+    public int getEdge() {
+        return edge;
+    }
+
+    public double getOffsetMeters() {
+        return offsetMeters;
+    }
+
+    public double getRouteMeters() {
+        return routeMeters;
+    }
+}
@@ -0,0 +1,137 @@
+package com.neurofleetx.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+// A place vehicles recharge or refuel, with a number of bays and opening hours
+@Entity
+@Table(name = "charging_stations")
+public class ChargingStation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    // What it serves: "BATTERY" chargers or "FUEL" pumps
+    @Column(nullable = false)
+    private String energyType;
+    
+    @Column(nullable = false)
+    private Double latitude;
+    
+    @Column(nullable = false)
+    private Double longitude;
+    
+    // Vehicles that can charge or refuel at the same time
+    @Column(nullable = false)
+    private Integer capacity;
+    
+    // Local opening hours; both null means always open, and closing before opening spans midnight
+    private LocalTime opensAt;
+    private LocalTime closesAt;
+    
+    // Percent of a full battery or tank added per minute, or null for the configured default
+    private Double percentPerMinute;
+    
+    @Column(nullable = false)
+    private boolean active = true;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public ChargingStation() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getEnergyType() {
+        return energyType;
+    }
+    
+    public void setEnergyType(String energyType) {
+        this.energyType = energyType;
+    }
+    
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+    
+    public Integer getCapacity() {
+        return capacity;
+    }
+    
+    public void setCapacity(Integer capacity) {
+        this.capacity = capacity;
+    }
+    
+    public LocalTime getOpensAt() {
+        return opensAt;
+    }
+    
+    public void setOpensAt(LocalTime opensAt) {
+        this.opensAt = opensAt;
+    }
+    
+    public LocalTime getClosesAt() {
+        return closesAt;
+    }
+    
+    public void setClosesAt(LocalTime closesAt) {
+        this.closesAt = closesAt;
+    }
+    
+    public Double getPercentPerMinute() {
+        return percentPerMinute;
+    }
+    
+    public void setPercentPerMinute(Double percentPerMinute) {
+        this.percentPerMinute = percentPerMinute;
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+    
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
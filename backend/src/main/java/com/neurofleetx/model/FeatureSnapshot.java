@@ -0,0 +1,64 @@
+package com.neurofleetx.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Periodic snapshot of a vehicle's maintenance-model features, i.e. the
+ * telemetry history that maintenance events are joined against. Rows are
+ * written and read in bulk through JDBC; the entity only defines the table.
+ */
+@Entity
+@Table(name = "feature_snapshots", indexes = @Index(name = "idx_feature_snapshots_vehicle", columnList = "vehicle_id, taken_at"))
+public class FeatureSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "vehicle_id", nullable = false)
+    private Long vehicleId;
+    
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+    
+    // Big-endian float32 feature values
+    @Column(nullable = false, length = 1024)
+    private byte[] features;
+    
+    // Constructors
+    public FeatureSnapshot() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+    
+    public void setVehicleId(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+    
+    public LocalDateTime getTakenAt() {
+        return takenAt;
+    }
+    
+    public void setTakenAt(LocalDateTime takenAt) {
+        this.takenAt = takenAt;
+    }
+    
+    public byte[] getFeatures() {
+        return features;
+    }
+    
+    public void setFeatures(byte[] features) {
+        this.features = features;
+    }
+}
@@ -0,0 +1,135 @@
+package com.neurofleetx.model;
+
+import com.neurofleetx.geofence.VerticesConverter;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A zone vehicles are tracked in and out of: a polygon or a circle
+@Entity
+@Table(name = "geofences")
+public class Geofence {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String name;
+    
+    // What the zone is, e.g. "DEPOT", "RESTRICTED", "CUSTOMER_SITE"
+    private String category;
+    
+    // "POLYGON" or "CIRCLE"
+    @Column(nullable = false)
+    private String shape;
+    
+    // Polygon corners as [latitude, longitude] pairs
+    @Convert(converter = VerticesConverter.class)
+    @Column(columnDefinition = "TEXT")
+    private double[][] vertices;
+    
+    private Double centerLatitude;
+    private Double centerLongitude;
+    private Double radiusMeters;
+    
+    // Time inside before a DWELL event, or null for the configured default
+    private Integer dwellSeconds;
+    
+    @Column(nullable = false)
+    private boolean active = true;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public Geofence() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public String getShape() {
+        return shape;
+    }
+    
+    public void setShape(String shape) {
+        this.shape = shape;
+    }
+    
+    public double[][] getVertices() {
+        return vertices;
+    }
+    
+    public void setVertices(double[][] vertices) {
+        this.vertices = vertices;
+    }
+    
+    public Double getCenterLatitude() {
+        return centerLatitude;
+    }
+    
+    public void setCenterLatitude(Double centerLatitude) {
+        this.centerLatitude = centerLatitude;
+    }
+    
+    public Double getCenterLongitude() {
+        return centerLongitude;
+    }
+    
+    public void setCenterLongitude(Double centerLongitude) {
+        this.centerLongitude = centerLongitude;
+    }
+    
+    public Double getRadiusMeters() {
+        return radiusMeters;
+    }
+    
+    public void setRadiusMeters(Double radiusMeters) {
+        this.radiusMeters = radiusMeters;
+    }
+    
+    public Integer getDwellSeconds() {
+        return dwellSeconds;
+    }
+    
+    public void setDwellSeconds(Integer dwellSeconds) {
+        this.dwellSeconds = dwellSeconds;
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+    
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,94 @@
+package com.neurofleetx.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A vehicle entering, leaving or dwelling in a geofence. Written in JDBC batches
+// by the geofence engine; the entity maps the table for reads.
+@Entity
+@Table(name = "geofence_events", indexes = {
+        @Index(name = "idx_geofence_events_vehicle", columnList = "vehicle_id"),
+        @Index(name = "idx_geofence_events_geofence", columnList = "geofence_id")
+})
+public class GeofenceEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "geofence_id", nullable = false)
+    private Long geofenceId;
+    
+    @Column(name = "vehicle_id", nullable = false)
+    private Long vehicleId;
+    
+    // "ENTER", "EXIT" or "DWELL"
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+    
+    private Double latitude;
+    private Double longitude;
+    
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+    
+    // Constructors
+    public GeofenceEvent() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getGeofenceId() {
+        return geofenceId;
+    }
+    
+    public void setGeofenceId(Long geofenceId) {
+        this.geofenceId = geofenceId;
+    }
+    
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+    
+    public void setVehicleId(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+}
@@ -0,0 +1,99 @@
+package com.neurofleetx.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "maintenance_events", indexes = @Index(name = "idx_maintenance_events_vehicle", columnList = "vehicle_id"))
+public class MaintenanceEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "vehicle_id", nullable = false)
+    private Long vehicleId;
+    
+    // Serviced component, e.g. "battery", "engine", "tires", "brakes"
+    @Column(nullable = false)
+    private String component;
+    
+    @Column(name = "performed_at", nullable = false)
+    private LocalDate performedAt;
+    
+    // Odometer reading at the time of service
+    private Long mileage;
+    
+    private String notes;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public MaintenanceEvent() {}
+    
+    public MaintenanceEvent(Long vehicleId, String component, LocalDate performedAt) {
+        this.vehicleId = vehicleId;
+        this.component = component;
+        this.performedAt = performedAt;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+    
+    public void setVehicleId(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+    
+    public String getComponent() {
+        return component;
+    }
+    
+    public void setComponent(String component) {
+        this.component = component;
+    }
+    
+    public LocalDate getPerformedAt() {
+        return performedAt;
+    }
+    
+    public void setPerformedAt(LocalDate performedAt) {
+        this.performedAt = performedAt;
+    }
+    
+    public Long getMileage() {
+        return mileage;
+    }
+    
+    public void setMileage(Long mileage) {
+        this.mileage = mileage;
+    }
+    
+    public String getNotes() {
+        return notes;
+    }
+    
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
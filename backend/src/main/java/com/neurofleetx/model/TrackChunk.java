@@ -0,0 +1,91 @@
+package com.neurofleetx.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A stretch of one vehicle's simplified track, encoded by TrackCodec
+@Entity
+@Table(name = "track_chunks", indexes = @Index(name = "idx_track_chunks_vehicle_started", columnList = "vehicle_id, started_at"))
+public class TrackChunk {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "vehicle_id", nullable = false)
+    private Long vehicleId;
+    
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(name = "ended_at", nullable = false)
+    private LocalDateTime endedAt;
+    
+    // Points stored, and points reported before simplification
+    private Integer points;
+    private Integer rawPoints;
+    
+    @Lob
+    @Column(nullable = false)
+    private byte[] data;
+    
+    // Constructors
+    public TrackChunk() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+    
+    public void setVehicleId(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public LocalDateTime getEndedAt() {
+        return endedAt;
+    }
+    
+    public void setEndedAt(LocalDateTime endedAt) {
+        this.endedAt = endedAt;
+    }
+    
+    public Integer getPoints() {
+        return points;
+    }
+    
+    public void setPoints(Integer points) {
+        this.points = points;
+    }
+    
+    public Integer getRawPoints() {
+        return rawPoints;
+    }
+    
+    public void setRawPoints(Integer rawPoints) {
+        this.rawPoints = rawPoints;
+    }
+    
+    public byte[] getData() {
+        return data;
+    }
+    
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+}
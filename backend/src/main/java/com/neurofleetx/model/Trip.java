@@ -0,0 +1,189 @@
+package com.neurofleetx.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A completed trip segmented from a vehicle's position stream. Written in JDBC
+// batches by the trip detector; the entity maps the table for reads.
+@Entity
+@Table(name = "trips", indexes = @Index(name = "idx_trips_vehicle_started", columnList = "vehicle_id, started_at"))
+public class Trip {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "vehicle_id", nullable = false)
+    private Long vehicleId;
+    
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+    
+    @Column(name = "ended_at", nullable = false)
+    private LocalDateTime endedAt;
+    
+    private Double startLatitude;
+    private Double startLongitude;
+    private Double endLatitude;
+    private Double endLongitude;
+    
+    private Double distanceKm;
+    private Long durationSeconds;
+    
+    // Time stopped for less than the stop threshold, e.g. at lights
+    private Long idleSeconds;
+    
+    private Double maxSpeed;
+    
+    // Distance over time in motion, km/h
+    private Double averageSpeed;
+    
+    // "BATTERY" or "FUEL", and the level change in percent (negative when used)
+    private String energyType;
+    private Double energyDelta;
+    
+    // Percent of battery or tank used per km
+    private Double energyPerKm;
+    
+    private Integer samples;
+    
+    // Constructors
+    public Trip() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getVehicleId() {
+        return vehicleId;
+    }
+    
+    public void setVehicleId(Long vehicleId) {
+        this.vehicleId = vehicleId;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public LocalDateTime getEndedAt() {
+        return endedAt;
+    }
+    
+    public void setEndedAt(LocalDateTime endedAt) {
+        this.endedAt = endedAt;
+    }
+    
+    public Double getStartLatitude() {
+        return startLatitude;
+    }
+    
+    public void setStartLatitude(Double startLatitude) {
+        this.startLatitude = startLatitude;
+    }
+    
+    public Double getStartLongitude() {
+        return startLongitude;
+    }
+    
+    public void setStartLongitude(Double startLongitude) {
+        this.startLongitude = startLongitude;
+    }
+    
+    public Double getEndLatitude() {
+        return endLatitude;
+    }
+    
+    public void setEndLatitude(Double endLatitude) {
+        this.endLatitude = endLatitude;
+    }
+    
+    public Double getEndLongitude() {
+        return endLongitude;
+    }
+    
+    public void setEndLongitude(Double endLongitude) {
+        this.endLongitude = endLongitude;
+    }
+    
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+    
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+    
+    public Long getDurationSeconds() {
+        return durationSeconds;
+    }
+    
+    public void setDurationSeconds(Long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+    
+    public Long getIdleSeconds() {
+        return idleSeconds;
+    }
+    
+    public void setIdleSeconds(Long idleSeconds) {
+        this.idleSeconds = idleSeconds;
+    }
+    
+    public Double getMaxSpeed() {
+        return maxSpeed;
+    }
+    
+    public void setMaxSpeed(Double maxSpeed) {
+        this.maxSpeed = maxSpeed;
+    }
+    
+    public Double getAverageSpeed() {
+        return averageSpeed;
+    }
+    
+    public void setAverageSpeed(Double averageSpeed) {
+        this.averageSpeed = averageSpeed;
+    }
+    
+    public String getEnergyType() {
+        return energyType;
+    }
+    
+    public void setEnergyType(String energyType) {
+        this.energyType = energyType;
+    }
+    
+    public Double getEnergyDelta() {
+        return energyDelta;
+    }
+    
+    public void setEnergyDelta(Double energyDelta) {
+        this.energyDelta = energyDelta;
+    }
+    
+    public Double getEnergyPerKm() {
+        return energyPerKm;
+    }
+    
+    public void setEnergyPerKm(Double energyPerKm) {
+        this.energyPerKm = energyPerKm;
+    }
+    
+    public Integer getSamples() {
+        return samples;
+    }
+    
+    public void setSamples(Integer samples) {
+        this.samples = samples;
+    }
+}
@@ -1,13 +1,24 @@
 package com.neurofleetx.model;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
+// Dynamic update: UPDATE statements only include the columns that changed.
+// Cached in the second-level cache when the prod profile enables it.
 @Entity
 @Table(name = "vehicles")
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Vehicle {
     
     @Id
@@ -27,9 +38,32 @@ public class Vehicle {
     private Double speed;
     private Long mileage;
     
+    // Optimistic lock version, incremented by every update
+    @Version
+    @Column(nullable = false)
+    private Long version;
+    
     // Constructors
     public Vehicle() {}
     
+    // Copy constructor, used to derive updated in-memory state without mutating shared instances
+    public Vehicle(Vehicle other) {
+        this.id = other.id;
+        this.vehicleNumber = other.vehicleNumber;
+        this.model = other.model;
+        this.manufacturer = other.manufacturer;
+        this.type = other.type;
+        this.status = other.status;
+        this.batteryLevel = other.batteryLevel;
+        this.fuelLevel = other.fuelLevel;
+        this.latitude = other.latitude;
+        this.longitude = other.longitude;
+        this.healthScore = other.healthScore;
+        this.speed = other.speed;
+        this.mileage = other.mileage;
+        this.version = other.version;
+    }
+    
     public Vehicle(String vehicleNumber, String model, String manufacturer, String type, String status) {
         this.vehicleNumber = vehicleNumber;
         this.model = model;
@@ -142,4 +176,12 @@ public class Vehicle {
     public void setMileage(Long mileage) {
         this.mileage = mileage;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
\ No newline at end of file
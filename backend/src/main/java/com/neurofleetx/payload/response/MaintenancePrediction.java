@@ -0,0 +1,138 @@
+package com.neurofleetx.payload.response;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Maintenance prediction of one vehicle. Serialized by the hand-written
+ * {@link JsonWriter} instead of bean introspection, always as
+ * <pre>
+ * {"needsMaintenance":..,"maintenanceType":..,"predictedDays":..,"probability":..,
+ *  "confidence":..,"components":{"engine":..,"battery":..,"tires":..,"brakes":..},
+ *  "recommendedActions":[..]}
+ * </pre>
+ */
+@JsonSerialize(using = MaintenancePrediction.JsonWriter.class)
+public class MaintenancePrediction {
+
+    private final boolean needsMaintenance;
+    private final String maintenanceType;
+    private final int predictedDays;
+    private final double probability;
+    private final double confidence;
+    private final ComponentHealth components;
+    private final String[] recommendedActions;
+
+    public MaintenancePrediction(boolean needsMaintenance, String maintenanceType, int predictedDays,
+                                 double probability, double confidence, ComponentHealth components,
+                                 String[] recommendedActions) {
+        this.needsMaintenance = needsMaintenance;
+        this.maintenanceType = maintenanceType;
+        this.predictedDays = predictedDays;
+        this.probability = probability;
+        this.confidence = confidence;
+        this.components = components;
+        this.recommendedActions = recommendedActions;
+    }
+
+    public boolean isNeedsMaintenance() {
+        return needsMaintenance;
+    }
+
+    public String getMaintenanceType() {
+        return maintenanceType;
+    }
+
+    public int getPredictedDays() {
+        return predictedDays;
+    }
+
+    public double getProbability() {
+        return probability;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    public ComponentHealth getComponents() {
+        return components;
+    }
+
+    public String[] getRecommendedActions() {
+        return recommendedActions.clone();
+    }
+
+    /**
+     * Condition label per component
+     */
+    public static class ComponentHealth {
+        private final String engine;
+        private final String battery;
+        private final String tires;
+        private final String brakes;
+
+        public ComponentHealth(String engine, String battery, String tires, String brakes) {
+            this.engine = engine;
+            this.battery = battery;
+            this.tires = tires;
+            this.brakes = brakes;
+        }
+
+        public String getEngine() {
+            return engine;
+        }
+
+        public String getBattery() {
+            return battery;
+        }
+
+        public String getTires() {
+            return tires;
+        }
+
+        public String getBrakes() {
+            return brakes;
+        }
+    }
+
+    public static class JsonWriter extends StdSerializer<MaintenancePrediction> {
+
+        public JsonWriter() {
+            super(MaintenancePrediction.class);
+        }
+
+        @Override
+        public void serialize(MaintenancePrediction prediction, JsonGenerator json, SerializerProvider provider)
+                throws IOException {
+            write(prediction, json);
+        }
+
+        public static void write(MaintenancePrediction prediction, JsonGenerator json) throws IOException {
+            json.writeStartObject();
+            json.writeBooleanField("needsMaintenance", prediction.needsMaintenance);
+            json.writeStringField("maintenanceType", prediction.maintenanceType);
+            json.writeNumberField("predictedDays", prediction.predictedDays);
+            json.writeNumberField("probability", prediction.probability);
+            json.writeNumberField("confidence", prediction.confidence);
+
+            json.writeObjectFieldStart("components");
+            json.writeStringField("engine", prediction.components.engine);
+            json.writeStringField("battery", prediction.components.battery);
+            json.writeStringField("tires", prediction.components.tires);
+            json.writeStringField("brakes", prediction.components.brakes);
+            json.writeEndObject();
+
+            json.writeArrayFieldStart("recommendedActions");
+            for (String action : prediction.recommendedActions) {
+                json.writeString(action);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.neurofleetx.range;
+
+import com.neurofleetx.road.RoadGraph;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Learns how much battery or fuel each vehicle and each vehicle type uses per
+ * km from the stream of position and energy updates.
+ *
+ * Every update adds the distance driven and the energy level lost since the
+ * previous one to running totals that fade with distance, an EWMA with a
+ * half-life in km. Energy spent standing still is included, so the rate is
+ * what range actually costs. A rise in level is a recharge or refuel and
+ * starts afresh; positions implying an impossible speed are skipped as GPS
+ * jumps. A vehicle's rate is shrunk toward its type's, and a type's toward a
+ * configured default, so new vehicles get sensible estimates.
+ *
+ * Levels and rates are in percent of a full battery or tank. One vehicle's
+ * state is changed under its lock; type totals under the type's lock.
+ */
+public class ConsumptionTracker {
+
+    public static final String BATTERY = "BATTERY";
+    public static final String FUEL = "FUEL";
+
+    // Below this a rate is treated as noise, so range stays finite
+    private static final double MIN_RATE = 0.01;
+
+    private static final class VehicleState {
+        Totals type;
+        String energyType;
+        long lastTime;
+        double lastLatitude;
+        double lastLongitude;
+        double lastLevel = Double.NaN;
+        double km;
+        double used;
+    }
+
+    private static final class Totals {
+        final String energyType;
+        double km;
+        double used;
+        long vehicles;
+
+        Totals(String energyType) {
+            this.energyType = energyType;
+        }
+    }
+
+    private final double batteryRate;
+    private final double fuelRate;
+    private final double priorKm;
+    private final double halfLifeKm;
+    private final double typeHalfLifeKm;
+    private final double refillPercent;
+    private final double maxSpeedKmh;
+
+    private final Map<Long, VehicleState> vehicles = new ConcurrentHashMap<>();
+    private final Map<String, Totals> types = new ConcurrentHashMap<>();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder refills = new LongAdder();
+    private final LongAdder jumps = new LongAdder();
+
+    /**
+     * @param batteryRate   Default percent per km for electric vehicles
+     * @param fuelRate      Default percent per km for combustion vehicles
+     * @param priorKm       How many km of observations weigh as much as the fallback rate
+     * @param refillPercent A rise in level of more than this is a recharge or refuel
+     */
+    public ConsumptionTracker(double batteryRate, double fuelRate, double priorKm, double halfLifeKm,
+                              double typeHalfLifeKm, double refillPercent, double maxSpeedKmh) {
+        this.batteryRate = batteryRate;
+        this.fuelRate = fuelRate;
+        this.priorKm = priorKm;
+        this.halfLifeKm = halfLifeKm;
+        this.typeHalfLifeKm = typeHalfLifeKm;
+        this.refillPercent = refillPercent;
+        this.maxSpeedKmh = maxSpeedKmh;
+    }
+
+    /**
+     * Battery level if the vehicle has one, otherwise fuel level, or NaN
+     */
+    public static double level(Double batteryLevel, Double fuelLevel) {
+        return batteryLevel != null ? batteryLevel : fuelLevel != null ? fuelLevel : Double.NaN;
+    }
+
+    public static String energyType(Double batteryLevel, Double fuelLevel) {
+        return batteryLevel != null ? BATTERY : fuelLevel != null ? FUEL : null;
+    }
+
+    public void update(long vehicleId, String type, double latitude, double longitude, double level,
+                       String energyType, long now) {
+        if (Double.isNaN(level) || energyType == null) {
+            return;
+        }
+        updates.increment();
+        VehicleState state = vehicles.computeIfAbsent(vehicleId, id -> new VehicleState());
+        synchronized (state) {
+            Totals totals = totals(type, energyType);
+            if (state.type != totals) {
+                // New vehicle, or it changed type: its history says nothing about the new one
+                if (state.type != null) {
+                    synchronized (state.type) {
+                        state.type.vehicles--;
+                    }
+                }
+                synchronized (totals) {
+                    totals.vehicles++;
+                }
+                state.type = totals;
+                state.energyType = energyType;
+                state.km = 0;
+                state.used = 0;
+                state.lastLevel = Double.NaN;
+            }
+            if (!Double.isNaN(state.lastLevel)) {
+                double km = RoadGraph.distanceMeters(state.lastLatitude, state.lastLongitude, latitude, longitude) / 1000;
+                double hours = (now - state.lastTime) / 3_600_000.0;
+                double used = state.lastLevel - level;
+                if (hours < 0) {
+                    return;
+                }
+                // 50 m of slack for GPS noise between close updates
+                if (km > maxSpeedKmh * hours + 0.05) {
+                    // Keep the last good position
+                    jumps.increment();
+                    return;
+                }
+                if (used < -refillPercent) {
+                    refills.increment();
+                } else {
+                    double decay = Math.pow(0.5, km / halfLifeKm);
+                    state.km = state.km * decay + km;
+                    state.used = state.used * decay + used;
+                    synchronized (totals) {
+                        double typeDecay = Math.pow(0.5, km / typeHalfLifeKm);
+                        totals.km = totals.km * typeDecay + km;
+                        totals.used = totals.used * typeDecay + used;
+                    }
+                }
+            }
+            state.lastTime = now;
+            state.lastLatitude = latitude;
+            state.lastLongitude = longitude;
+            state.lastLevel = level;
+        }
+    }
+
+    private Totals totals(String type, String energyType) {
+        return types.computeIfAbsent(key(type, energyType), key -> new Totals(energyType));
+    }
+
+    private static String key(String type, String energyType) {
+        return (type != null ? type : "UNKNOWN") + "/" + energyType;
+    }
+
+    /**
+     * Learned percent per km of a vehicle, or of its type if it has no history
+     * here yet, or the default for its energy type
+     */
+    public double rate(long vehicleId, String type, String energyType) {
+        VehicleState state = vehicles.get(vehicleId);
+        if (state != null) {
+            synchronized (state) {
+                if (state.type != null && energyType != null && energyType.equals(state.energyType)) {
+                    double typeRate = typeRate(state.type);
+                    return Math.max(MIN_RATE, (state.used + priorKm * typeRate) / (state.km + priorKm));
+                }
+            }
+        }
+        Totals totals = energyType != null ? types.get(key(type, energyType)) : null;
+        return totals != null ? typeRate(totals) : defaultRate(energyType);
+    }
+
+    private double typeRate(Totals totals) {
+        synchronized (totals) {
+            return Math.max(MIN_RATE, (totals.used + priorKm * defaultRate(totals.energyType)) / (totals.km + priorKm));
+        }
+    }
+
+    private double defaultRate(String energyType) {
+        return FUEL.equals(energyType) ? fuelRate : batteryRate;
+    }
+
+    /**
+     * Km of (faded) history behind a vehicle's rate, 0 if none
+     */
+    public double historyKm(long vehicleId) {
+        VehicleState state = vehicles.get(vehicleId);
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            return state.km;
+        }
+    }
+
+    /**
+     * Per type and energy type: learned percent per km, km of history and vehicles
+     */
+    public Map<String, Map<String, Object>> getTypeRates() {
+        Map<String, Map<String, Object>> result = new HashMap<>();
+        for (Map.Entry<String, Totals> entry : types.entrySet()) {
+            Totals totals = entry.getValue();
+            Map<String, Object> type = new HashMap<>();
+            type.put("percentPerKm", typeRate(totals));
+            synchronized (totals) {
+                type.put("historyKm", totals.km);
+                type.put("vehicles", totals.vehicles);
+            }
+            type.put("defaultPercentPerKm", defaultRate(totals.energyType));
+            result.put(entry.getKey(), type);
+        }
+        return result;
+    }
+
+    public void forget(long vehicleId) {
+        VehicleState state = vehicles.remove(vehicleId);
+        if (state != null) {
+            synchronized (state) {
+                if (state.type != null) {
+                    synchronized (state.type) {
+                        state.type.vehicles--;
+                    }
+                }
+            }
+        }
+    }
+
+    public int getTrackedVehicles() {
+        return vehicles.size();
+    }
+
+    public long getUpdates() {
+        return updates.sum();
+    }
+
+    public long getRefills() {
+        return refills.sum();
+    }
+
+    public long getJumps() {
+        return jumps.sum();
+    }
+}
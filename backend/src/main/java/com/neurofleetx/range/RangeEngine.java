@@ -0,0 +1,192 @@
+package com.neurofleetx.range;
+
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.road.EdgeIndex;
+import com.neurofleetx.road.RoadNetwork;
+import com.neurofleetx.util.LatencyHistogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Learns energy consumption from the telemetry stream and estimates how far
+ * vehicles can drive and whether they can reach a destination.
+ */
+@Component
+public class RangeEngine {
+
+    @Value("${range.default-battery-percent-per-km:0.4}")
+    private double batteryRate;
+
+    @Value("${range.default-fuel-percent-per-km:0.2}")
+    private double fuelRate;
+
+    @Value("${range.prior-km:20}")
+    private double priorKm;
+
+    @Value("${range.half-life-km:200}")
+    private double halfLifeKm;
+
+    @Value("${range.type-half-life-km:2000}")
+    private double typeHalfLifeKm;
+
+    @Value("${range.refill-percent:2}")
+    private double refillPercent;
+
+    @Value("${range.max-speed-kmh:250}")
+    private double maxSpeedKmh;
+
+    @Value("${range.reserve-percent:10}")
+    private double reservePercent;
+
+    @Value("${range.snap-radius-meters:500}")
+    private double snapRadiusMeters;
+
+    @Value("${range.detour-factor:1.3}")
+    private double detourFactor;
+
+    @Value("${range.chunk-size:1024}")
+    private int chunkSize;
+
+    @Autowired
+    private RoadNetwork roadNetwork;
+
+    @Autowired
+    @Qualifier("rangeExecutor")
+    private ExecutorService rangeExecutor;
+
+    private ConsumptionTracker tracker;
+    private RangeEstimator estimator;
+
+    private final LatencyHistogram batchLatency = new LatencyHistogram();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong vehiclesScored = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        tracker = new ConsumptionTracker(batteryRate, fuelRate, priorKm, halfLifeKm, typeHalfLifeKm, refillPercent,
+                maxSpeedKmh);
+        estimator = new RangeEstimator(roadNetwork.getGraph(), roadNetwork.getIndex(), snapRadiusMeters, detourFactor,
+                chunkSize);
+    }
+
+    public void onPosition(Vehicle vehicle) {
+        if (vehicle.getId() == null || vehicle.getLatitude() == null || vehicle.getLongitude() == null) {
+            return;
+        }
+        tracker.update(vehicle.getId(), vehicle.getType(), vehicle.getLatitude(), vehicle.getLongitude(),
+                ConsumptionTracker.level(vehicle.getBatteryLevel(), vehicle.getFuelLevel()),
+                ConsumptionTracker.energyType(vehicle.getBatteryLevel(), vehicle.getFuelLevel()),
+                System.currentTimeMillis());
+    }
+
+    public void forget(Long vehicleId) {
+        tracker.forget(vehicleId);
+    }
+
+    /**
+     * Percent of battery or tank a vehicle uses per km
+     */
+    public double rate(Vehicle vehicle) {
+        return tracker.rate(vehicle.getId(), vehicle.getType(),
+                ConsumptionTracker.energyType(vehicle.getBatteryLevel(), vehicle.getFuelLevel()));
+    }
+
+    public double historyKm(Long vehicleId) {
+        return tracker.historyKm(vehicleId);
+    }
+
+    /**
+     * Road distance and energy of every vehicle to a destination, in one batch.
+     * Vehicles without a position or an energy level are left out.
+     * @return The batch and, at the same index, the vehicle it scored
+     */
+    public Scored estimate(List<Vehicle> vehicles, double latitude, double longitude) {
+        Vehicle[] included = new Vehicle[vehicles.size()];
+        int size = 0;
+        for (Vehicle vehicle : vehicles) {
+            if (vehicle.getLatitude() != null && vehicle.getLongitude() != null
+                    && ConsumptionTracker.energyType(vehicle.getBatteryLevel(), vehicle.getFuelLevel()) != null) {
+                included[size++] = vehicle;
+            }
+        }
+        RangeEstimator.Batch batch = new RangeEstimator.Batch(size);
+        for (int i = 0; i < size; i++) {
+            Vehicle vehicle = included[i];
+            batch.set(i, vehicle.getLatitude(), vehicle.getLongitude(),
+                    ConsumptionTracker.level(vehicle.getBatteryLevel(), vehicle.getFuelLevel()), rate(vehicle));
+        }
+        long started = System.nanoTime();
+        estimator.estimate(batch, latitude, longitude, rangeExecutor);
+        batchLatency.record(System.nanoTime() - started);
+        batches.incrementAndGet();
+        vehiclesScored.addAndGet(size);
+        return new Scored(batch, included);
+    }
+
+    /**
+     * Road distances to a fixed place such as a station, settled once over the
+     * whole network and then answered per position
+     */
+    public RangeEstimator.Destination destination(double latitude, double longitude) {
+        return estimator.destination(latitude, longitude, Double.MAX_VALUE);
+    }
+
+    public double distanceMeters(RangeEstimator.Destination destination, double latitude, double longitude,
+                                 EdgeIndex.Candidates scratch) {
+        return estimator.distanceMeters(destination, latitude, longitude, scratch);
+    }
+
+    /**
+     * A scored batch with its vehicles
+     */
+    public static final class Scored {
+        private final RangeEstimator.Batch batch;
+        private final Vehicle[] vehicles;
+
+        Scored(RangeEstimator.Batch batch, Vehicle[] vehicles) {
+            this.batch = batch;
+            this.vehicles = vehicles;
+        }
+
+        public RangeEstimator.Batch getBatch() {
+            return batch;
+        }
+
+        public Vehicle getVehicle(int i) {
+            return vehicles[i];
+        }
+    }
+
+    /**
+     * Level a vehicle should keep when it arrives
+     */
+    public double getReservePercent() {
+        return reservePercent;
+    }
+
+    public Map<String, Map<String, Object>> getTypeRates() {
+        return tracker.getTypeRates();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedVehicles", tracker.getTrackedVehicles());
+        stats.put("updates", tracker.getUpdates());
+        stats.put("refills", tracker.getRefills());
+        stats.put("jumps", tracker.getJumps());
+        stats.put("batches", batches.get());
+        stats.put("vehiclesScored", vehiclesScored.get());
+        stats.put("batchLatency", batchLatency.toMap());
+        stats.put("reservePercent", reservePercent);
+        return stats;
+    }
+}
@@ -0,0 +1,253 @@
+package com.neurofleetx.range;
+
+import com.neurofleetx.road.EdgeIndex;
+import com.neurofleetx.road.RoadGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Scores many vehicles against one destination. A single backward search from
+ * the destination gives the road distance from every intersection to it, so
+ * each vehicle then costs only a snap to its nearest road; vehicles are
+ * scored in chunks in parallel. Vehicles off the road network, or not
+ * connected to the destination, fall back to the straight-line distance
+ * times a detour factor.
+ */
+public class RangeEstimator {
+
+    /**
+     * Vehicles to score as columns, and the results
+     */
+    public static final class Batch {
+        final int size;
+        final double[] latitudes;
+        final double[] longitudes;
+        final double[] levels;
+        final double[] rates;
+        final double[] distanceMeters;
+        final boolean[] onRoad;
+
+        public Batch(int size) {
+            this.size = size;
+            latitudes = new double[size];
+            longitudes = new double[size];
+            levels = new double[size];
+            rates = new double[size];
+            distanceMeters = new double[size];
+            onRoad = new boolean[size];
+        }
+
+        /**
+         * @param level Percent of a full battery or tank
+         * @param rate  Percent used per km
+         */
+        public void set(int i, double latitude, double longitude, double level, double rate) {
+            latitudes[i] = latitude;
+            longitudes[i] = longitude;
+            levels[i] = level;
+            rates[i] = rate;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public double level(int i) {
+            return levels[i];
+        }
+
+        public double rate(int i) {
+            return rates[i];
+        }
+
+        public double distanceKm(int i) {
+            return distanceMeters[i] / 1000;
+        }
+
+        // Whether the distance was measured along the roads rather than estimated
+        public boolean isOnRoad(int i) {
+            return onRoad[i];
+        }
+
+        public double energyNeeded(int i) {
+            return distanceKm(i) * rates[i];
+        }
+
+        public double levelAtArrival(int i) {
+            return levels[i] - energyNeeded(i);
+        }
+
+        /**
+         * Km the vehicle can drive before falling to the reserve level
+         */
+        public double rangeKm(int i, double reservePercent) {
+            return Math.max(0, levels[i] - reservePercent) / rates[i];
+        }
+
+        public boolean reachable(int i, double reservePercent) {
+            return levelAtArrival(i) >= reservePercent;
+        }
+    }
+
+    private final RoadGraph graph;
+    private final EdgeIndex index;
+    private final double snapRadiusMeters;
+    private final double detourFactor;
+    private final int chunkSize;
+    private final ThreadLocal<RoadGraph.Workspace> workspaces;
+
+    // Most vehicles are on a road, and a wide radius measures many edges
+    private static final double FIRST_SNAP_METERS = 50;
+
+    public RangeEstimator(RoadGraph graph, EdgeIndex index, double snapRadiusMeters, double detourFactor, int chunkSize) {
+        this.graph = graph;
+        this.index = index;
+        this.snapRadiusMeters = snapRadiusMeters;
+        this.detourFactor = detourFactor;
+        this.chunkSize = chunkSize;
+        this.workspaces = ThreadLocal.withInitial(graph::newWorkspace);
+    }
+
+    /**
+     * A destination with the road distance to it from every intersection
+     * settled, for answering many distance queries
+     */
+    public static final class Destination {
+        final double latitude;
+        final double longitude;
+        // Nearest road to the destination, empty if there is none within the snap radius
+        final EdgeIndex.Candidates snap = new EdgeIndex.Candidates();
+        final RoadGraph.Workspace workspace;
+        final double bound;
+
+        Destination(double latitude, double longitude, RoadGraph.Workspace workspace, double bound) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.workspace = workspace;
+            this.bound = bound;
+        }
+    }
+
+    /**
+     * Settle the road distances to a destination, up to {@code maxMeters}, in
+     * a workspace of its own so it can be kept and queried from any thread
+     */
+    public Destination destination(double latitude, double longitude, double maxMeters) {
+        return destination(latitude, longitude, maxMeters, graph.newWorkspace());
+    }
+
+    private Destination destination(double latitude, double longitude, double maxMeters, RoadGraph.Workspace workspace) {
+        Destination destination = new Destination(latitude, longitude, workspace, maxMeters);
+        index.nearest(latitude, longitude, snapRadiusMeters, 1, destination.snap);
+        if (destination.snap.size > 0) {
+            EdgeIndex.Candidates snap = destination.snap;
+            int edge = snap.edges[0];
+            RoadGraph.Ends targets = new RoadGraph.Ends();
+            targets.add(graph.edgeFrom(edge), snap.offsets[0] + snap.distances[0]);
+            if (graph.reverseEdge(edge) >= 0) {
+                targets.add(graph.edgeTo(edge), graph.edgeLength(edge) - snap.offsets[0] + snap.distances[0]);
+            }
+            graph.searchBackward(targets, maxMeters, graph.lengths(), workspace);
+        }
+        return destination;
+    }
+
+    /**
+     * Meters from a position to a destination: along the roads where both are
+     * on the network, otherwise the straight line times the detour factor
+     * @param scratch Reused by the caller's thread
+     */
+    public double distanceMeters(Destination destination, double latitude, double longitude, EdgeIndex.Candidates scratch) {
+        double road = roadDistance(destination, latitude, longitude, scratch);
+        return road < Double.POSITIVE_INFINITY ? road
+                : RoadGraph.distanceMeters(latitude, longitude, destination.latitude, destination.longitude) * detourFactor;
+    }
+
+    /**
+     * Fill in every vehicle's distance to the destination
+     * @param executor Runs the chunks; the calling thread waits for them
+     */
+    public void estimate(Batch batch, double latitude, double longitude, ExecutorService executor) {
+        // No vehicle can drive further than its full range, so nothing beyond needs settling
+        double bound = 0;
+        for (int i = 0; i < batch.size; i++) {
+            bound = Math.max(bound, batch.levels[i] / batch.rates[i] * 1000);
+        }
+        Destination destination = destination(latitude, longitude, bound, workspaces.get());
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < batch.size; from += chunkSize) {
+            int start = from;
+            int end = Math.min(batch.size, from + chunkSize);
+            futures.add(executor.submit(() -> estimate(batch, start, end, destination)));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while estimating range", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Range estimation failed", e.getCause());
+        }
+    }
+
+    private void estimate(Batch batch, int start, int end, Destination destination) {
+        EdgeIndex.Candidates near = new EdgeIndex.Candidates();
+        for (int i = start; i < end; i++) {
+            double road = roadDistance(destination, batch.latitudes[i], batch.longitudes[i], near);
+            if (road < Double.POSITIVE_INFINITY) {
+                batch.distanceMeters[i] = road;
+                batch.onRoad[i] = true;
+            } else {
+                double straight = RoadGraph.distanceMeters(batch.latitudes[i], batch.longitudes[i],
+                        destination.latitude, destination.longitude) * detourFactor;
+                // Past the search bound the vehicle is out of range, so the estimate must not bring it back in
+                batch.distanceMeters[i] = near.size > 0 ? Math.max(straight, destination.bound + near.distances[0]) : straight;
+                batch.onRoad[i] = false;
+            }
+        }
+    }
+
+    // Road meters from a position to the destination, infinite if either is off the network or they are not connected
+    private double roadDistance(Destination destination, double latitude, double longitude, EdgeIndex.Candidates near) {
+        near.size = 0;
+        if (destination.snap.size == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        index.nearest(latitude, longitude, Math.min(FIRST_SNAP_METERS, snapRadiusMeters), 1, near);
+        if (near.size == 0 && snapRadiusMeters > FIRST_SNAP_METERS) {
+            index.nearest(latitude, longitude, snapRadiusMeters, 1, near);
+        }
+        if (near.size == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return near.distances[0] + roadDistance(near.edges[0], near.offsets[0], destination.snap, destination.workspace);
+    }
+
+    // Meters from a point on an edge to the destination, either way along the edge
+    private double roadDistance(int edge, double offset, EdgeIndex.Candidates destination, RoadGraph.Workspace workspace) {
+        double length = graph.edgeLength(edge);
+        int reverse = graph.reverseEdge(edge);
+        double best = length - offset + workspace.cost(graph.edgeTo(edge));
+        if (reverse >= 0) {
+            best = Math.min(best, offset + workspace.cost(graph.edgeFrom(edge)));
+        }
+        // Straight along the destination's own road
+        int target = destination.edges[0];
+        double targetOffset = destination.offsets[0];
+        if (target == reverse) {
+            target = edge;
+            targetOffset = length - targetOffset;
+        }
+        if (target == edge && (targetOffset >= offset || reverse >= 0)) {
+            best = Math.min(best, Math.abs(targetOffset - offset) + destination.distances[0]);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,13 @@
+package com.neurofleetx.repository;
+
+import com.neurofleetx.model.ChargingStation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ChargingStationRepository extends JpaRepository<ChargingStation, Long> {
+    
+    List<ChargingStation> findByActiveTrue();
+}
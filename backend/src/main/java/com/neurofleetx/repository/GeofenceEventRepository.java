@@ -0,0 +1,19 @@
+package com.neurofleetx.repository;
+
+import com.neurofleetx.model.GeofenceEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GeofenceEventRepository extends JpaRepository<GeofenceEvent, Long> {
+    
+    // Newest first; ids follow insertion order
+    List<GeofenceEvent> findAllByOrderByIdDesc(Pageable pageable);
+    
+    List<GeofenceEvent> findByVehicleIdOrderByIdDesc(Long vehicleId, Pageable pageable);
+    
+    List<GeofenceEvent> findByGeofenceIdOrderByIdDesc(Long geofenceId, Pageable pageable);
+}
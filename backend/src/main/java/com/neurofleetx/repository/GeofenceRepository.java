@@ -0,0 +1,13 @@
+package com.neurofleetx.repository;
+
+import com.neurofleetx.model.Geofence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface GeofenceRepository extends JpaRepository<Geofence, Long> {
+    
+    List<Geofence> findByActiveTrue();
+}
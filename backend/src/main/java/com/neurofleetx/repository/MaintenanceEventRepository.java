@@ -0,0 +1,13 @@
+package com.neurofleetx.repository;
+
+import com.neurofleetx.model.MaintenanceEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MaintenanceEventRepository extends JpaRepository<MaintenanceEvent, Long> {
+    
+    List<MaintenanceEvent> findByVehicleIdOrderByPerformedAtDesc(Long vehicleId);
+}
@@ -0,0 +1,16 @@
+package com.neurofleetx.repository;
+
+import com.neurofleetx.model.TrackChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TrackChunkRepository extends JpaRepository<TrackChunk, Long> {
+    
+    // Chunks overlapping a time window, oldest first
+    List<TrackChunk> findByVehicleIdAndStartedAtLessThanEqualAndEndedAtGreaterThanEqualOrderByStartedAt(
+            Long vehicleId, LocalDateTime to, LocalDateTime from);
+}
@@ -0,0 +1,26 @@
+package com.neurofleetx.repository;
+
+import com.neurofleetx.model.Trip;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TripRepository extends JpaRepository<Trip, Long> {
+    
+    List<Trip> findByStartedAtBetweenOrderByStartedAtDesc(LocalDateTime from, LocalDateTime to, Pageable pageable);
+    
+    List<Trip> findByVehicleIdAndStartedAtBetweenOrderByStartedAtDesc(Long vehicleId, LocalDateTime from,
+                                                                      LocalDateTime to, Pageable pageable);
+    
+    // Trip count, distance, duration, idle time and energy used of one vehicle
+    @Query("SELECT COUNT(t), SUM(t.distanceKm), SUM(t.durationSeconds), SUM(t.idleSeconds), SUM(t.energyDelta) "
+            + "FROM Trip t WHERE t.vehicleId = :vehicleId AND t.startedAt BETWEEN :from AND :to")
+    List<Object[]> summarize(@Param("vehicleId") Long vehicleId, @Param("from") LocalDateTime from,
+                             @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,310 @@
+package com.neurofleetx.repository;
+
+import com.neurofleetx.model.Vehicle;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Partial vehicle updates issued as single targeted UPDATE statements, without
+ * loading the entity first. Only the supplied columns are written and the
+ * version column is bumped, so JPA optimistic locking stays consistent.
+ */
+@Repository
+public class VehiclePatchRepository {
+
+    // Patchable JSON field -> column and value conversion
+    private static final Map<String, Column> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("vehicleNumber", new Column("vehicle_number", VehiclePatchRepository::toText));
+        COLUMNS.put("model", new Column("model", VehiclePatchRepository::toText));
+        COLUMNS.put("manufacturer", new Column("manufacturer", VehiclePatchRepository::toText));
+        COLUMNS.put("type", new Column("type", VehiclePatchRepository::toText));
+        COLUMNS.put("status", new Column("status", VehiclePatchRepository::toText));
+        COLUMNS.put("batteryLevel", new Column("battery_level", value -> ((Number) value).doubleValue()));
+        COLUMNS.put("fuelLevel", new Column("fuel_level", value -> ((Number) value).doubleValue()));
+        COLUMNS.put("latitude", new Column("latitude", value -> ((Number) value).doubleValue()));
+        COLUMNS.put("longitude", new Column("longitude", value -> ((Number) value).doubleValue()));
+        COLUMNS.put("healthScore", new Column("health_score", value -> ((Number) value).intValue()));
+        COLUMNS.put("speed", new Column("speed", value -> ((Number) value).doubleValue()));
+        COLUMNS.put("mileage", new Column("mileage", value -> ((Number) value).longValue()));
+    }
+
+    // Ids per locking SELECT, to keep the IN list within driver limits
+    private static final int LOCK_CHUNK = 1000;
+
+    // How an UPDATE hands back the version it wrote
+    private enum Returning { FINAL_TABLE, RETURNING_CLAUSE, SELECT }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Decided from the database product on first use
+    private volatile Returning returning;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    private static final class Column {
+        private final String name;
+        private final Function<Object, Object> converter;
+
+        Column(String name, Function<Object, Object> converter) {
+            this.name = name;
+            this.converter = converter;
+        }
+    }
+
+    /**
+     * Changed fields of one vehicle
+     */
+    public static class VehiclePatch {
+        private final Long id;
+        private final Long expectedVersion;
+        private final Map<String, Object> fields;
+
+        /**
+         * @param expectedVersion Version the client last saw, or null to skip the check
+         * @throws IllegalArgumentException if a field is unknown or has the wrong type
+         */
+        public VehiclePatch(Long id, Long expectedVersion, Map<String, Object> fields) {
+            if (id == null) {
+                throw new IllegalArgumentException("Vehicle id is required");
+            }
+            if (fields.isEmpty()) {
+                throw new IllegalArgumentException("No fields to update for vehicle " + id);
+            }
+            // Sorted, so patches touching the same columns produce identical SQL
+            Map<String, Object> converted = new TreeMap<>();
+            for (Map.Entry<String, Object> field : fields.entrySet()) {
+                Column column = COLUMNS.get(field.getKey());
+                if (column == null) {
+                    throw new IllegalArgumentException("Field cannot be patched: " + field.getKey());
+                }
+                Object value = field.getValue();
+                try {
+                    converted.put(field.getKey(), value == null ? null : column.converter.apply(value));
+                } catch (ClassCastException e) {
+                    throw new IllegalArgumentException("Invalid value for " + field.getKey() + ": " + value);
+                }
+            }
+            this.id = id;
+            this.expectedVersion = expectedVersion;
+            this.fields = converted;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Long getExpectedVersion() {
+            return expectedVersion;
+        }
+
+        public Map<String, Object> getFields() {
+            return fields;
+        }
+    }
+
+    /**
+     * @return The version the update wrote, or null if the row does not exist or the version did not match
+     */
+    @Transactional
+    public Long patch(VehiclePatch patch) {
+        String sql = sql(patch);
+        Object[] arguments = arguments(patch);
+        Long written;
+        if (patch.getExpectedVersion() != null) {
+            // The update only matched the expected version, so it wrote the next one
+            written = jdbcTemplate.update(sql, arguments) == 1 ? patch.getExpectedVersion() + 1 : null;
+        } else {
+            switch (returning()) {
+                case FINAL_TABLE:
+                    written = single(jdbcTemplate.queryForList("SELECT version FROM FINAL TABLE (" + sql + ")",
+                            Long.class, arguments));
+                    break;
+                case RETURNING_CLAUSE:
+                    written = single(jdbcTemplate.queryForList(sql + " RETURNING version", Long.class, arguments));
+                    break;
+                default:
+                    // MySQL has no UPDATE ... RETURNING. The updated row stays locked until
+                    // commit, so the version read back is the one just written.
+                    written = jdbcTemplate.update(sql, arguments) != 1 ? null
+                            : jdbcTemplate.queryForObject("SELECT version FROM vehicles WHERE id = ?", Long.class,
+                                    patch.getId());
+            }
+        }
+        if (written != null) {
+            evictFromCache(List.of(patch.getId()));
+        }
+        return written;
+    }
+
+    private Returning returning() {
+        Returning current = returning;
+        if (current == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if ("H2".equals(product)) {
+                current = Returning.FINAL_TABLE;
+            } else if ("PostgreSQL".equals(product)) {
+                current = Returning.RETURNING_CLAUSE;
+            } else {
+                current = Returning.SELECT;
+            }
+            returning = current;
+        }
+        return current;
+    }
+
+    private static Long single(List<Long> versions) {
+        return versions.size() == 1 ? versions.get(0) : null;
+    }
+
+    /**
+     * Apply many patches with one JDBC batch per distinct set of columns.
+     *
+     * Patches run in rounds: round r holds the (r+1)-th patch of each vehicle, so
+     * a vehicle's patches apply in submission order even when their columns differ.
+     * The rows are locked and their versions read first. Drivers that rewrite
+     * batches (MySQL with rewriteBatchedStatements) report SUCCESS_NO_INFO for
+     * every statement, so whether a patch applied, and the version it wrote,
+     * are worked out from the locked versions instead.
+     * @return For each patch, in order, the version it wrote, or null if the row
+     * does not exist or the version did not match
+     */
+    @Transactional
+    public Long[] patchAll(List<VehiclePatch> patches) {
+        List<Map<String, List<Integer>>> rounds = new ArrayList<>();
+        Map<Long, Integer> patchesPerId = new HashMap<>();
+        for (int i = 0; i < patches.size(); i++) {
+            int round = patchesPerId.merge(patches.get(i).getId(), 1, Integer::sum) - 1;
+            if (round == rounds.size()) {
+                rounds.add(new LinkedHashMap<>());
+            }
+            rounds.get(round).computeIfAbsent(sql(patches.get(i)), sql -> new ArrayList<>()).add(i);
+        }
+        Map<Long, Long> versions = lockVersions(new TreeSet<>(patchesPerId.keySet()));
+
+        Long[] written = new Long[patches.size()];
+        for (Map<String, List<Integer>> groups : rounds) {
+            execute(groups, patches, versions, written);
+        }
+        evictFromCache(new ArrayList<>(patchesPerId.keySet()));
+        return written;
+    }
+
+    // One round: each vehicle appears at most once, so the groups may run in any order
+    private void execute(Map<String, List<Integer>> groups, List<VehiclePatch> patches, Map<Long, Long> versions,
+                         Long[] written) {
+        for (Map.Entry<String, List<Integer>> group : groups.entrySet()) {
+            List<Object[]> batch = new ArrayList<>(group.getValue().size());
+            for (int index : group.getValue()) {
+                batch.add(arguments(patches.get(index)));
+            }
+            int[] counts = jdbcTemplate.batchUpdate(group.getKey(), batch);
+            for (int i = 0; i < counts.length; i++) {
+                int index = group.getValue().get(i);
+                VehiclePatch patch = patches.get(index);
+                Long current = versions.get(patch.getId());
+                boolean applies = current != null
+                        && (patch.getExpectedVersion() == null || patch.getExpectedVersion().equals(current));
+                if (counts[i] != Statement.SUCCESS_NO_INFO && (counts[i] == 1) != applies) {
+                    throw new IllegalStateException("Vehicle " + patch.getId() + " changed while its row was locked");
+                }
+                if (applies) {
+                    written[index] = current + 1;
+                    versions.put(patch.getId(), current + 1);
+                }
+            }
+        }
+    }
+
+    // Current versions of the existing rows among the ids, locked in id order until commit
+    private Map<Long, Long> lockVersions(Set<Long> ids) {
+        Map<Long, Long> versions = new HashMap<>();
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += LOCK_CHUNK) {
+            List<Long> chunk = all.subList(from, Math.min(from + LOCK_CHUNK, all.size()));
+            String sql = "SELECT id, version FROM vehicles WHERE id IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") ORDER BY id FOR UPDATE";
+            jdbcTemplate.query(sql, row -> {
+                versions.put(row.getLong(1), row.getLong(2));
+            }, chunk.toArray());
+        }
+        return versions;
+    }
+
+    /**
+     * These updates bypass Hibernate, so drop anything the second-level and
+     * query caches hold for the patched vehicles
+     */
+    private void evictFromCache(List<Long> ids) {
+        Cache cache = entityManagerFactory.getCache();
+        for (Long id : ids) {
+            cache.evict(Vehicle.class, id);
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+    }
+
+    /**
+     * A vehicle as last committed. The read-write transaction routes it to the
+     * primary, where a read-only one could hit a lagging replica.
+     */
+    @Transactional
+    public Optional<Vehicle> findCommitted(Long id) {
+        return vehicleRepository.findById(id);
+    }
+
+    public boolean exists(Long id) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vehicles WHERE id = ?", Integer.class, id);
+        return count != null && count > 0;
+    }
+
+    private static String sql(VehiclePatch patch) {
+        StringBuilder sql = new StringBuilder("UPDATE vehicles SET ");
+        for (String field : patch.getFields().keySet()) {
+            sql.append(COLUMNS.get(field).name).append(" = ?, ");
+        }
+        sql.append("version = version + 1 WHERE id = ?");
+        if (patch.getExpectedVersion() != null) {
+            sql.append(" AND version = ?");
+        }
+        return sql.toString();
+    }
+
+    private static Object[] arguments(VehiclePatch patch) {
+        List<Object> arguments = new ArrayList<>(patch.getFields().values());
+        arguments.add(patch.getId());
+        if (patch.getExpectedVersion() != null) {
+            arguments.add(patch.getExpectedVersion());
+        }
+        return arguments.toArray();
+    }
+
+    private static Object toText(Object value) {
+        return value.toString();
+    }
+}
@@ -1,7 +1,9 @@
 package com.neurofleetx.repository;
 
 import com.neurofleetx.model.Vehicle;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,6 +11,8 @@ import java.util.List;
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     
+    // Query results are cached when the query cache is enabled (prod profile)
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Vehicle> findByStatus(String status);
     
     List<Vehicle> findByManufacturer(String manufacturer);
@@ -0,0 +1,168 @@
+package com.neurofleetx.road;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uniform grid over the edges of a {@link RoadGraph}, for finding the edges
+ * near a position. Each cell lists the edges whose bounding box touches it,
+ * so a query only measures the edges in the few cells around the position.
+ */
+public class EdgeIndex {
+
+    private final RoadGraph graph;
+    private final double cellDegrees;
+    private final Map<Long, int[]> cells;
+
+    /**
+     * Edges within a radius of a position, nearest first, with where the
+     * position projects onto each of them
+     */
+    public static class Candidates {
+        public int size;
+        public int[] edges = new int[16];
+        public double[] distances = new double[16];
+        // Meters from the edge's start to the projected point
+        public double[] offsets = new double[16];
+        public double[] latitudes = new double[16];
+        public double[] longitudes = new double[16];
+
+        void add(int edge, double distance, double offset, double latitude, double longitude) {
+            if (size == edges.length) {
+                int capacity = size * 2;
+                edges = Arrays.copyOf(edges, capacity);
+                distances = Arrays.copyOf(distances, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+            }
+            edges[size] = edge;
+            distances[size] = distance;
+            offsets[size] = offset;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            size++;
+        }
+
+        void swap(int i, int j) {
+            int edge = edges[i];
+            edges[i] = edges[j];
+            edges[j] = edge;
+            double value = distances[i];
+            distances[i] = distances[j];
+            distances[j] = value;
+            value = offsets[i];
+            offsets[i] = offsets[j];
+            offsets[j] = value;
+            value = latitudes[i];
+            latitudes[i] = latitudes[j];
+            latitudes[j] = value;
+            value = longitudes[i];
+            longitudes[i] = longitudes[j];
+            longitudes[j] = value;
+        }
+    }
+
+    public EdgeIndex(RoadGraph graph, double cellDegrees) {
+        this.graph = graph;
+        this.cellDegrees = cellDegrees;
+        Map<Long, List<Integer>> lists = new HashMap<>();
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            double lat1 = graph.nodeLatitude(graph.edgeFrom(e));
+            double lon1 = graph.nodeLongitude(graph.edgeFrom(e));
+            double lat2 = graph.nodeLatitude(graph.edgeTo(e));
+            double lon2 = graph.nodeLongitude(graph.edgeTo(e));
+            long rowFrom = cell(Math.min(lat1, lat2));
+            long rowTo = cell(Math.max(lat1, lat2));
+            long columnFrom = cell(Math.min(lon1, lon2));
+            long columnTo = cell(Math.max(lon1, lon2));
+            for (long row = rowFrom; row <= rowTo; row++) {
+                for (long column = columnFrom; column <= columnTo; column++) {
+                    lists.computeIfAbsent(key(row, column), k -> new ArrayList<>()).add(e);
+                }
+            }
+        }
+        cells = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<Long, List<Integer>> entry : lists.entrySet()) {
+            cells.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    /**
+     * Find up to {@code max} edges within {@code radiusMeters} of a position
+     */
+    public void nearest(double latitude, double longitude, double radiusMeters, int max, Candidates out) {
+        out.size = 0;
+        double scale = Math.cos(Math.toRadians(latitude)) * RoadGraph.METERS_PER_DEGREE;
+        double latitudeRadius = radiusMeters / RoadGraph.METERS_PER_DEGREE;
+        double longitudeRadius = radiusMeters / scale;
+        double radiusSquared = radiusMeters * radiusMeters;
+        long rowTo = cell(latitude + latitudeRadius);
+        long columnTo = cell(longitude + longitudeRadius);
+        for (long row = cell(latitude - latitudeRadius); row <= rowTo; row++) {
+            for (long column = cell(longitude - longitudeRadius); column <= columnTo; column++) {
+                int[] edges = cells.get(key(row, column));
+                if (edges == null) {
+                    continue;
+                }
+                for (int edge : edges) {
+                    if (contains(out, edge)) {
+                        continue;
+                    }
+                    double lat1 = graph.nodeLatitude(graph.edgeFrom(edge));
+                    double lon1 = graph.nodeLongitude(graph.edgeFrom(edge));
+                    double bx = (graph.nodeLongitude(graph.edgeTo(edge)) - lon1) * scale;
+                    double by = (graph.nodeLatitude(graph.edgeTo(edge)) - lat1) * RoadGraph.METERS_PER_DEGREE;
+                    double px = (longitude - lon1) * scale;
+                    double py = (latitude - lat1) * RoadGraph.METERS_PER_DEGREE;
+                    double lengthSquared = bx * bx + by * by;
+                    double t = lengthSquared > 0 ? Math.max(0, Math.min(1, (px * bx + py * by) / lengthSquared)) : 0;
+                    double dx = px - t * bx;
+                    double dy = py - t * by;
+                    double distanceSquared = dx * dx + dy * dy;
+                    if (distanceSquared <= radiusSquared) {
+                        out.add(edge, Math.sqrt(distanceSquared), t * graph.edgeLength(edge), lat1 + t * by / RoadGraph.METERS_PER_DEGREE,
+                                lon1 + t * bx / scale);
+                    }
+                }
+            }
+        }
+        // Partial selection sort; candidate lists are short
+        int keep = Math.min(max, out.size);
+        for (int i = 0; i < keep; i++) {
+            int best = i;
+            for (int j = i + 1; j < out.size; j++) {
+                if (out.distances[j] < out.distances[best]) {
+                    best = j;
+                }
+            }
+            out.swap(i, best);
+        }
+        out.size = keep;
+    }
+
+    // An edge spanning several cells is found in each of them
+    private static boolean contains(Candidates out, int edge) {
+        for (int i = 0; i < out.size; i++) {
+            if (out.edges[i] == edge) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getCellCount() {
+        return cells.size();
+    }
+
+    private long cell(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long key(long row, long column) {
+        return (row << 32) ^ (column & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,481 @@
+package com.neurofleetx.road;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable directed road graph. Nodes are intersections; a two-way road is a
+ * pair of opposite edges. Outgoing edges of each node are stored in one array
+ * (compressed sparse rows), so a search allocates nothing per edge.
+ */
+public class RoadGraph {
+
+    static final double METERS_PER_DEGREE = 111_320;
+
+    private final double[] nodeLatitude;
+    private final double[] nodeLongitude;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final double[] edgeLength;
+    private final double[] edgeSpeed;
+    // Outgoing edges of node n are outEdges[firstOut[n]] up to outEdges[firstOut[n + 1]]
+    private final int[] firstOut;
+    private final int[] outEdges;
+    // Incoming edges of node n are inEdges[firstIn[n]] up to inEdges[firstIn[n + 1]]
+    private final int[] firstIn;
+    private final int[] inEdges;
+    // Opposite edge of a two-way road, or -1
+    private final int[] reverseEdge;
+
+    private RoadGraph(double[] nodeLatitude, double[] nodeLongitude, int[] edgeFrom, int[] edgeTo, double[] edgeSpeed) {
+        this.nodeLatitude = nodeLatitude;
+        this.nodeLongitude = nodeLongitude;
+        this.edgeFrom = edgeFrom;
+        this.edgeTo = edgeTo;
+        this.edgeSpeed = edgeSpeed;
+        int nodes = nodeLatitude.length;
+        int edges = edgeFrom.length;
+        edgeLength = new double[edges];
+        firstOut = new int[nodes + 1];
+        for (int e = 0; e < edges; e++) {
+            edgeLength[e] = distanceMeters(nodeLatitude[edgeFrom[e]], nodeLongitude[edgeFrom[e]],
+                    nodeLatitude[edgeTo[e]], nodeLongitude[edgeTo[e]]);
+            firstOut[edgeFrom[e] + 1]++;
+        }
+        for (int n = 0; n < nodes; n++) {
+            firstOut[n + 1] += firstOut[n];
+        }
+        outEdges = new int[edges];
+        int[] next = Arrays.copyOf(firstOut, nodes);
+        for (int e = 0; e < edges; e++) {
+            outEdges[next[edgeFrom[e]]++] = e;
+        }
+        firstIn = new int[nodes + 1];
+        for (int e = 0; e < edges; e++) {
+            firstIn[edgeTo[e] + 1]++;
+        }
+        for (int n = 0; n < nodes; n++) {
+            firstIn[n + 1] += firstIn[n];
+        }
+        inEdges = new int[edges];
+        next = Arrays.copyOf(firstIn, nodes);
+        for (int e = 0; e < edges; e++) {
+            inEdges[next[edgeTo[e]]++] = e;
+        }
+        reverseEdge = new int[edges];
+        Arrays.fill(reverseEdge, -1);
+        for (int e = 0; e < edges; e++) {
+            for (int i = firstOut[edgeTo[e]]; i < firstOut[edgeTo[e] + 1]; i++) {
+                if (edgeTo[outEdges[i]] == edgeFrom[e]) {
+                    reverseEdge[e] = outEdges[i];
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects roads; nodes at the same position (to 1e-6 degrees) are merged
+     */
+    public static class Builder {
+        private final Map<Long, Integer> nodeIds = new HashMap<>();
+        private double[] latitudes = new double[1024];
+        private double[] longitudes = new double[1024];
+        private int nodes;
+        private int[] from = new int[1024];
+        private int[] to = new int[1024];
+        private double[] speed = new double[1024];
+        private int edges;
+
+        public Builder addRoad(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude,
+                               double speedKmh, boolean oneWay) {
+            if (speedKmh <= 0) {
+                throw new IllegalArgumentException("Road speed must be positive: " + speedKmh);
+            }
+            int a = node(fromLatitude, fromLongitude);
+            int b = node(toLatitude, toLongitude);
+            if (a == b) {
+                return this;
+            }
+            addEdge(a, b, speedKmh);
+            if (!oneWay) {
+                addEdge(b, a, speedKmh);
+            }
+            return this;
+        }
+
+        private int node(double latitude, double longitude) {
+            if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+                throw new IllegalArgumentException("Position out of range: " + latitude + ", " + longitude);
+            }
+            long key = Math.round(latitude * 1e6) * 400_000_000L + Math.round(longitude * 1e6);
+            Integer id = nodeIds.get(key);
+            if (id != null) {
+                return id;
+            }
+            if (nodes == latitudes.length) {
+                latitudes = Arrays.copyOf(latitudes, nodes * 2);
+                longitudes = Arrays.copyOf(longitudes, nodes * 2);
+            }
+            latitudes[nodes] = latitude;
+            longitudes[nodes] = longitude;
+            nodeIds.put(key, nodes);
+            return nodes++;
+        }
+
+        private void addEdge(int a, int b, double speedKmh) {
+            if (edges == from.length) {
+                from = Arrays.copyOf(from, edges * 2);
+                to = Arrays.copyOf(to, edges * 2);
+                speed = Arrays.copyOf(speed, edges * 2);
+            }
+            from[edges] = a;
+            to[edges] = b;
+            speed[edges] = speedKmh;
+            edges++;
+        }
+
+        public RoadGraph build() {
+            return new RoadGraph(Arrays.copyOf(latitudes, nodes), Arrays.copyOf(longitudes, nodes),
+                    Arrays.copyOf(from, edges), Arrays.copyOf(to, edges), Arrays.copyOf(speed, edges));
+        }
+    }
+
+    /**
+     * Start or end nodes of a search, each with the cost of getting from the
+     * query position to it (or from it to the query position)
+     */
+    public static class Ends {
+        private int size;
+        private int[] nodes = new int[4];
+        private double[] costs = new double[4];
+
+        public void clear() {
+            size = 0;
+        }
+
+        public void add(int node, double cost) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                costs = Arrays.copyOf(costs, size * 2);
+            }
+            nodes[size] = node;
+            costs[size] = cost;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public int node(int i) {
+            return nodes[i];
+        }
+
+        public double cost(int i) {
+            return costs[i];
+        }
+    }
+
+    /**
+     * Reusable state of one shortest-path search; one per thread
+     */
+    public static class Workspace {
+        private final double[] cost;
+        private final int[] previousEdge;
+        private final int[] stamp;
+        private int current;
+        private int[] heapNodes = new int[256];
+        private double[] heapCosts = new double[256];
+        private int heapSize;
+
+        Workspace(int nodes) {
+            cost = new double[nodes];
+            previousEdge = new int[nodes];
+            stamp = new int[nodes];
+        }
+
+        /**
+         * Cost of the cheapest path to a node in the last search, or infinity if not reached
+         */
+        public double cost(int node) {
+            return stamp[node] == current ? cost[node] : Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * Last edge of the cheapest path to a node, or -1 at the source; after a
+         * backward search, the first edge of the node's path to the targets
+         */
+        public int previousEdge(int node) {
+            return stamp[node] == current ? previousEdge[node] : -1;
+        }
+
+        private void reset() {
+            current++;
+            if (current == Integer.MAX_VALUE) {
+                Arrays.fill(stamp, 0);
+                current = 1;
+            }
+            heapSize = 0;
+        }
+
+        private void push(int node, double value) {
+            if (heapSize == heapNodes.length) {
+                heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+                heapCosts = Arrays.copyOf(heapCosts, heapSize * 2);
+            }
+            int i = heapSize++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapCosts[parent] <= value) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[parent];
+                heapCosts[i] = heapCosts[parent];
+                i = parent;
+            }
+            heapNodes[i] = node;
+            heapCosts[i] = value;
+        }
+
+        // Removes the cheapest entry; its node and cost are left in slot heapSize
+        private void pop() {
+            int topNode = heapNodes[0];
+            double topCost = heapCosts[0];
+            int lastNode = heapNodes[--heapSize];
+            double lastCost = heapCosts[heapSize];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && heapCosts[child + 1] < heapCosts[child]) {
+                    child++;
+                }
+                if (heapCosts[child] >= lastCost) {
+                    break;
+                }
+                heapNodes[i] = heapNodes[child];
+                heapCosts[i] = heapCosts[child];
+                i = child;
+            }
+            heapNodes[i] = lastNode;
+            heapCosts[i] = lastCost;
+            heapNodes[heapSize] = topNode;
+            heapCosts[heapSize] = topCost;
+        }
+    }
+
+    public Workspace newWorkspace() {
+        return new Workspace(nodeLatitude.length);
+    }
+
+    /**
+     * Dijkstra from a node over the given per-edge costs, settling nodes up to
+     * {@code maxCost}; read the results from the workspace
+     * @param edgeCosts For example {@link #lengths()} or travel times
+     * @param target Node at which to stop early, or -1 to search the whole bound
+     */
+    public void search(int source, int target, double maxCost, double[] edgeCosts, Workspace workspace) {
+        workspace.reset();
+        int current = workspace.current;
+        workspace.stamp[source] = current;
+        workspace.cost[source] = 0;
+        workspace.previousEdge[source] = -1;
+        workspace.push(source, 0);
+        while (workspace.heapSize > 0) {
+            workspace.pop();
+            int node = workspace.heapNodes[workspace.heapSize];
+            double cost = workspace.heapCosts[workspace.heapSize];
+            if (cost > workspace.cost[node]) {
+                continue;
+            }
+            if (node == target) {
+                return;
+            }
+            for (int i = firstOut[node]; i < firstOut[node + 1]; i++) {
+                int edge = outEdges[i];
+                int next = edgeTo[edge];
+                double nextCost = cost + edgeCosts[edge];
+                if (nextCost > maxCost) {
+                    continue;
+                }
+                if (workspace.stamp[next] != current || nextCost < workspace.cost[next]) {
+                    workspace.stamp[next] = current;
+                    workspace.cost[next] = nextCost;
+                    workspace.previousEdge[next] = edge;
+                    workspace.push(next, nextCost);
+                }
+            }
+        }
+    }
+
+    /**
+     * A* from any of the sources to the cheapest of the targets, where the path
+     * cost is source cost + edge costs + target cost. The heuristic is the
+     * straight-line distance to the target position over {@code metersPerCost},
+     * so that must be at least the best meters per unit cost of any edge (for
+     * travel times, the top speed in m/s). Read the path back from the workspace.
+     * @return Index in {@code targets} of the cheapest target, or -1 if none is
+     *         reachable within {@code maxCost}
+     */
+    public int search(Ends sources, Ends targets, double targetLatitude, double targetLongitude, double metersPerCost,
+                      double maxCost, double[] edgeCosts, Workspace workspace) {
+        workspace.reset();
+        int current = workspace.current;
+        // Cost per degree; 1% below the true bound absorbs the change in longitude scale across a city
+        double latitudeScale = 0.99 * METERS_PER_DEGREE / metersPerCost;
+        double longitudeScale = latitudeScale * Math.cos(Math.toRadians(targetLatitude));
+        for (int i = 0; i < sources.size; i++) {
+            int node = sources.nodes[i];
+            double cost = sources.costs[i];
+            if (workspace.stamp[node] != current || cost < workspace.cost[node]) {
+                workspace.stamp[node] = current;
+                workspace.cost[node] = cost;
+                workspace.previousEdge[node] = -1;
+                workspace.push(node, cost + remaining(node, targetLatitude, targetLongitude, latitudeScale, longitudeScale));
+            }
+        }
+        int best = -1;
+        double bestCost = maxCost;
+        while (workspace.heapSize > 0) {
+            workspace.pop();
+            int node = workspace.heapNodes[workspace.heapSize];
+            double key = workspace.heapCosts[workspace.heapSize];
+            if (key >= bestCost) {
+                break;
+            }
+            double cost = workspace.cost[node];
+            // Recomputed from the same operands, so an entry that is still current compares equal
+            if (key > cost + remaining(node, targetLatitude, targetLongitude, latitudeScale, longitudeScale)) {
+                continue;
+            }
+            for (int i = 0; i < targets.size; i++) {
+                if (targets.nodes[i] == node && cost + targets.costs[i] < bestCost) {
+                    best = i;
+                    bestCost = cost + targets.costs[i];
+                }
+            }
+            for (int i = firstOut[node]; i < firstOut[node + 1]; i++) {
+                int edge = outEdges[i];
+                int next = edgeTo[edge];
+                double nextCost = cost + edgeCosts[edge];
+                if (nextCost > bestCost) {
+                    continue;
+                }
+                if (workspace.stamp[next] != current || nextCost < workspace.cost[next]) {
+                    workspace.stamp[next] = current;
+                    workspace.cost[next] = nextCost;
+                    workspace.previousEdge[next] = edge;
+                    workspace.push(next, nextCost + remaining(next, targetLatitude, targetLongitude, latitudeScale, longitudeScale));
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Dijkstra backwards along the edges from the targets, settling nodes up to
+     * {@code maxCost}: afterwards the workspace holds every node's cost to the
+     * cheapest target, which makes this a one-to-all query towards a destination
+     */
+    public void searchBackward(Ends targets, double maxCost, double[] edgeCosts, Workspace workspace) {
+        workspace.reset();
+        int current = workspace.current;
+        for (int i = 0; i < targets.size; i++) {
+            int node = targets.nodes[i];
+            double cost = targets.costs[i];
+            if (workspace.stamp[node] != current || cost < workspace.cost[node]) {
+                workspace.stamp[node] = current;
+                workspace.cost[node] = cost;
+                workspace.previousEdge[node] = -1;
+                workspace.push(node, cost);
+            }
+        }
+        while (workspace.heapSize > 0) {
+            workspace.pop();
+            int node = workspace.heapNodes[workspace.heapSize];
+            double cost = workspace.heapCosts[workspace.heapSize];
+            if (cost > workspace.cost[node]) {
+                continue;
+            }
+            for (int i = firstIn[node]; i < firstIn[node + 1]; i++) {
+                int edge = inEdges[i];
+                int previous = edgeFrom[edge];
+                double previousCost = cost + edgeCosts[edge];
+                if (previousCost > maxCost) {
+                    continue;
+                }
+                if (workspace.stamp[previous] != current || previousCost < workspace.cost[previous]) {
+                    workspace.stamp[previous] = current;
+                    workspace.cost[previous] = previousCost;
+                    workspace.previousEdge[previous] = edge;
+                    workspace.push(previous, previousCost);
+                }
+            }
+        }
+    }
+
+    private double remaining(int node, double latitude, double longitude, double latitudeScale, double longitudeScale) {
+        double x = (nodeLongitude[node] - longitude) * longitudeScale;
+        double y = (nodeLatitude[node] - latitude) * latitudeScale;
+        return Math.sqrt(x * x + y * y);
+    }
+
+    public int nodeCount() {
+        return nodeLatitude.length;
+    }
+
+    public int edgeCount() {
+        return edgeFrom.length;
+    }
+
+    public double nodeLatitude(int node) {
+        return nodeLatitude[node];
+    }
+
+    public double nodeLongitude(int node) {
+        return nodeLongitude[node];
+    }
+
+    public int edgeFrom(int edge) {
+        return edgeFrom[edge];
+    }
+
+    public int edgeTo(int edge) {
+        return edgeTo[edge];
+    }
+
+    public double edgeLength(int edge) {
+        return edgeLength[edge];
+    }
+
+    public double edgeSpeed(int edge) {
+        return edgeSpeed[edge];
+    }
+
+    /**
+     * The opposite edge of a two-way road, or -1 for a one-way road
+     */
+    public int reverseEdge(int edge) {
+        return reverseEdge[edge];
+    }
+
+    /**
+     * Edge lengths in meters, as search costs; not to be modified
+     */
+    public double[] lengths() {
+        return edgeLength;
+    }
+
+    /**
+     * Equirectangular distance, accurate to well under a meter at city scale
+     */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double x = (lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        double y = lat2 - lat1;
+        return Math.sqrt(x * x + y * y) * METERS_PER_DEGREE;
+    }
+}
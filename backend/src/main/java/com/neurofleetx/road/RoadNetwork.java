@@ -0,0 +1,135 @@
+package com.neurofleetx.road;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The road graph used for map matching and routing, with its edge index.
+ *
+ * The graph is read from {@code road.graph-file}, a CSV with one road per line:
+ * {@code fromLatitude,fromLongitude,toLatitude,toLongitude[,speedKmh[,oneWay]]}.
+ * Lines starting with # and a header line are skipped. Without a file, a street
+ * grid around {@code road.grid.center-*} is generated, the same grid the fleet
+ * simulator drives on.
+ */
+@Component
+public class RoadNetwork {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoadNetwork.class);
+
+    @Value("${road.graph-file:}")
+    private String graphFile;
+
+    @Value("${road.default-speed-kmh:40}")
+    private double defaultSpeedKmh;
+
+    @Value("${road.grid.center-latitude:12.9716}")
+    private double gridCenterLatitude;
+
+    @Value("${road.grid.center-longitude:77.5946}")
+    private double gridCenterLongitude;
+
+    @Value("${road.grid.block-degrees:0.002}")
+    private double gridBlockDegrees;
+
+    @Value("${road.grid.radius-degrees:0.12}")
+    private double gridRadiusDegrees;
+
+    @Value("${road.index-cell-degrees:0.005}")
+    private double indexCellDegrees;
+
+    private RoadGraph graph;
+    private EdgeIndex index;
+    private String source;
+
+    @PostConstruct
+    public void init() throws IOException {
+        long started = System.nanoTime();
+        if (graphFile.isBlank()) {
+            graph = grid(gridCenterLatitude, gridCenterLongitude, gridBlockDegrees, gridRadiusDegrees, defaultSpeedKmh);
+            source = "grid";
+        } else {
+            graph = read(Paths.get(graphFile), defaultSpeedKmh);
+            source = graphFile;
+        }
+        index = new EdgeIndex(graph, indexCellDegrees);
+        logger.info("Loaded road graph from {}: {} nodes, {} edges, {} index cells in {} ms", source,
+                graph.nodeCount(), graph.edgeCount(), index.getCellCount(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Read a road CSV
+     * @throws IllegalArgumentException if a line is malformed
+     */
+    public static RoadGraph read(Path file, double defaultSpeedKmh) throws IOException {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int number = 0;
+            while ((line = reader.readLine()) != null) {
+                number++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#") || (number == 1 && Character.isLetter(line.charAt(0)))) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                try {
+                    builder.addRoad(Double.parseDouble(fields[0].trim()), Double.parseDouble(fields[1].trim()),
+                            Double.parseDouble(fields[2].trim()), Double.parseDouble(fields[3].trim()),
+                            fields.length > 4 && !fields[4].isBlank() ? Double.parseDouble(fields[4].trim()) : defaultSpeedKmh,
+                            fields.length > 5 && Boolean.parseBoolean(fields[5].trim()));
+                } catch (RuntimeException e) {
+                    throw new IllegalArgumentException(file + " line " + number + ": " + e.getMessage());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Two-way streets every {@code blockDegrees} in both directions, within
+     * {@code radiusDegrees} of a center
+     */
+    public static RoadGraph grid(double centerLatitude, double centerLongitude, double blockDegrees,
+                                 double radiusDegrees, double speedKmh) {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        long steps = Math.round(radiusDegrees / blockDegrees);
+        long firstRow = Math.round((centerLatitude - radiusDegrees) / blockDegrees);
+        long firstColumn = Math.round((centerLongitude - radiusDegrees) / blockDegrees);
+        for (long i = 0; i <= 2 * steps; i++) {
+            for (long j = 0; j <= 2 * steps; j++) {
+                double latitude = (firstRow + i) * blockDegrees;
+                double longitude = (firstColumn + j) * blockDegrees;
+                if (j < 2 * steps) {
+                    builder.addRoad(latitude, longitude, latitude, longitude + blockDegrees, speedKmh, false);
+                }
+                if (i < 2 * steps) {
+                    builder.addRoad(latitude, longitude, latitude + blockDegrees, longitude, speedKmh, false);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public RoadGraph getGraph() {
+        return graph;
+    }
+
+    public EdgeIndex getIndex() {
+        return index;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
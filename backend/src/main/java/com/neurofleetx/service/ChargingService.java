@@ -0,0 +1,93 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.charging.ChargingEngine;
+import com.neurofleetx.model.ChargingStation;
+import com.neurofleetx.repository.ChargingStationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+@Service
+public class ChargingService {
+    
+    @Autowired
+    private ChargingStationRepository stationRepository;
+    
+    @Autowired
+    private ChargingEngine chargingEngine;
+    
+    @Transactional(readOnly = true)
+    public List<ChargingStation> getAllStations() {
+        return stationRepository.findAll();
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<ChargingStation> getStationById(Long id) {
+        return stationRepository.findById(id);
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the station is incomplete or out of range
+     */
+    public ChargingStation createStation(ChargingStation station) {
+        validate(station);
+        station.setId(null);
+        station.setCreatedAt(LocalDateTime.now());
+        ChargingStation saved = stationRepository.save(station);
+        chargingEngine.reload();
+        return saved;
+    }
+    
+    public ChargingStation updateStation(Long id, ChargingStation details) {
+        ChargingStation station = stationRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Charging station not found with id: " + id));
+        validate(details);
+        station.setName(details.getName());
+        station.setEnergyType(details.getEnergyType());
+        station.setLatitude(details.getLatitude());
+        station.setLongitude(details.getLongitude());
+        station.setCapacity(details.getCapacity());
+        station.setOpensAt(details.getOpensAt());
+        station.setClosesAt(details.getClosesAt());
+        station.setPercentPerMinute(details.getPercentPerMinute());
+        station.setActive(details.isActive());
+        ChargingStation saved = stationRepository.save(station);
+        chargingEngine.reload();
+        return saved;
+    }
+    
+    public void deleteStation(Long id) {
+        stationRepository.deleteById(id);
+        chargingEngine.reload();
+    }
+    
+    private static void validate(ChargingStation station) {
+        if (station.getName() == null || station.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        String energyType = station.getEnergyType() == null ? "" : station.getEnergyType().trim().toUpperCase(Locale.ROOT);
+        if (!energyType.equals("BATTERY") && !energyType.equals("FUEL")) {
+            throw new IllegalArgumentException("energyType must be BATTERY or FUEL");
+        }
+        station.setEnergyType(energyType);
+        if (station.getLatitude() == null || station.getLongitude() == null
+                || station.getLatitude() < -90 || station.getLatitude() > 90
+                || station.getLongitude() < -180 || station.getLongitude() > 180) {
+            throw new IllegalArgumentException("A valid latitude and longitude are required");
+        }
+        if (station.getCapacity() == null || station.getCapacity() < 1 || station.getCapacity() > 1000) {
+            throw new IllegalArgumentException("capacity must be between 1 and 1000");
+        }
+        if ((station.getOpensAt() == null) != (station.getClosesAt() == null)) {
+            throw new IllegalArgumentException("Set both opensAt and closesAt, or neither for always open");
+        }
+        if (station.getPercentPerMinute() != null && station.getPercentPerMinute() <= 0) {
+            throw new IllegalArgumentException("percentPerMinute must be positive");
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.eta.EtaEngine;
+import com.neurofleetx.eta.EtaPredictor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class EtaService {
+    
+    @Value("${eta.max-routes:1000}")
+    private int maxRoutes;
+    
+    @Value("${eta.max-waypoints:100}")
+    private int maxWaypoints;
+    
+    @Autowired
+    private EtaEngine etaEngine;
+    
+    /**
+     * Predict the travel time of candidate routes, all in one batch
+     * @param routes    Each with an optional "id" and "waypoints" as [latitude, longitude] pairs
+     * @param departure Epoch millis or a local date-time in the ETA time zone; null means now
+     * @throws IllegalArgumentException if a route or the departure is malformed
+     */
+    public Map<String, Object> predict(List<Map<String, Object>> routes, Object departure) {
+        if (routes == null || routes.isEmpty() || routes.size() > maxRoutes) {
+            throw new IllegalArgumentException("Expected 1 to " + maxRoutes + " routes");
+        }
+        long departureMillis = departureMillis(departure);
+        List<double[][]> waypoints = new ArrayList<>(routes.size());
+        for (Map<String, Object> route : routes) {
+            waypoints.add(waypoints(route));
+        }
+        
+        long started = System.nanoTime();
+        List<EtaPredictor.RouteEta> etas = etaEngine.predict(waypoints, departureMillis);
+        long elapsedNanos = System.nanoTime() - started;
+        
+        List<Map<String, Object>> results = new ArrayList<>(etas.size());
+        for (int i = 0; i < etas.size(); i++) {
+            EtaPredictor.RouteEta eta = etas.get(i);
+            Map<String, Object> result = new HashMap<>();
+            result.put("id", routes.get(i).get("id"));
+            result.put("status", eta.getStatus());
+            if ("OK".equals(eta.getStatus())) {
+                result.put("etaSeconds", Math.round(eta.getSeconds()));
+                result.put("profileSeconds", Math.round(eta.getProfileSeconds()));
+                result.put("distanceKm", Math.round(eta.getMeters()) / 1000.0);
+                result.put("arrival", Instant.ofEpochMilli(departureMillis + Math.round(eta.getSeconds() * 1000)));
+                List<Map<String, Object>> legs = new ArrayList<>();
+                for (int leg = 0; leg < eta.getLegSeconds().length; leg++) {
+                    Map<String, Object> legResult = new HashMap<>();
+                    legResult.put("etaSeconds", Math.round(eta.getLegSeconds()[leg]));
+                    legResult.put("distanceKm", Math.round(eta.getLegMeters()[leg]) / 1000.0);
+                    legs.add(legResult);
+                }
+                result.put("legs", legs);
+            }
+            results.add(result);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("departure", Instant.ofEpochMilli(departureMillis));
+        response.put("routes", results);
+        response.put("elapsedMicros", elapsedNanos / 1000);
+        return response;
+    }
+    
+    private long departureMillis(Object departure) {
+        if (departure == null) {
+            return System.currentTimeMillis();
+        }
+        if (departure instanceof Number) {
+            return ((Number) departure).longValue();
+        }
+        try {
+            return LocalDateTime.parse(departure.toString()).atZone(etaEngine.getZone()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid departure: " + departure);
+        }
+    }
+    
+    private double[][] waypoints(Map<String, Object> route) {
+        Object value = route.get("waypoints");
+        if (!(value instanceof List) || ((List<?>) value).size() < 2 || ((List<?>) value).size() > maxWaypoints) {
+            throw new IllegalArgumentException("Each route needs 2 to " + maxWaypoints + " waypoints");
+        }
+        List<?> list = (List<?>) value;
+        double[][] waypoints = new double[list.size()][];
+        for (int i = 0; i < list.size(); i++) {
+            if (!(list.get(i) instanceof List) || ((List<?>) list.get(i)).size() != 2) {
+                throw new IllegalArgumentException("Each waypoint must be [latitude, longitude]");
+            }
+            List<?> pair = (List<?>) list.get(i);
+            if (!(pair.get(0) instanceof Number) || !(pair.get(1) instanceof Number)) {
+                throw new IllegalArgumentException("Each waypoint must be [latitude, longitude]");
+            }
+            waypoints[i] = new double[] {((Number) pair.get(0)).doubleValue(), ((Number) pair.get(1)).doubleValue()};
+        }
+        return waypoints;
+    }
+}
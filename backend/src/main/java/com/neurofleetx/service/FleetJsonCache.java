@@ -0,0 +1,187 @@
+package com.neurofleetx.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neurofleetx.ai.ModelRuntime;
+import com.neurofleetx.ai.PredictiveMaintenanceService;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.payload.response.MaintenancePrediction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encoded JSON of every vehicle and its maintenance prediction, kept as bytes.
+ *
+ * Vehicles in {@link FleetState} are replaced on every change, so a cached entry
+ * stays valid as long as it was made from the same instance. Predictions also
+ * depend on the model and are re-encoded when {@link ModelRuntime#getGeneration()}
+ * moves. List responses are written by concatenating the cached fragments.
+ */
+@Component
+public class FleetJsonCache {
+
+    private static final byte[] EMPTY_ARRAY = "[]".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PredictiveMaintenanceService predictiveMaintenanceService;
+
+    @Autowired
+    private ModelRuntime modelRuntime;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private static final class Entry {
+        final Vehicle vehicle;
+        final byte[] vehicleJson;
+        final long generation;
+        final byte[] predictionJson;
+
+        Entry(Vehicle vehicle, byte[] vehicleJson, long generation, byte[] predictionJson) {
+            this.vehicle = vehicle;
+            this.vehicleJson = vehicleJson;
+            this.generation = generation;
+            this.predictionJson = predictionJson;
+        }
+    }
+
+    /**
+     * JSON of a vehicle, encoded only if it changed since the last call
+     */
+    public byte[] vehicleJson(Vehicle vehicle) {
+        return entry(vehicle).vehicleJson;
+    }
+
+    /**
+     * A JSON array of vehicles
+     */
+    public StreamingResponseBody vehicleList(Collection<Vehicle> vehicles) {
+        List<byte[]> fragments = vehicleFragments(vehicles);
+        return out -> writeArray(fragments, out);
+    }
+
+    /**
+     * {"version":..,"full":..,"vehicles":[..],"deleted":[..]}
+     */
+    public StreamingResponseBody vehicleChanges(FleetState.Changes changes) {
+        List<byte[]> fragments = vehicleFragments(changes.getVehicles());
+        return out -> {
+            out.write(ascii("{\"version\":" + changes.getVersion() + ",\"full\":" + changes.isFull() + ",\"vehicles\":"));
+            writeArray(fragments, out);
+            StringBuilder deleted = new StringBuilder(",\"deleted\":[");
+            for (int i = 0; i < changes.getDeleted().size(); i++) {
+                deleted.append(i > 0 ? "," : "").append(changes.getDeleted().get(i));
+            }
+            out.write(ascii(deleted.append("]}").toString()));
+        };
+    }
+
+    /**
+     * {"predictions":{"<vehicle id>":{..},..},"count":..,"fleetVersion":..}. Only
+     * vehicles without a current cached prediction are scored, in one batch.
+     */
+    public StreamingResponseBody predictionList(List<Vehicle> vehicles, long fleetVersion) {
+        long generation = modelRuntime.getGeneration();
+        byte[][] predictionJson = new byte[vehicles.size()][];
+        List<Vehicle> stale = new ArrayList<>();
+        for (int i = 0; i < vehicles.size(); i++) {
+            Entry entry = entry(vehicles.get(i));
+            if (entry.predictionJson != null && entry.generation == generation) {
+                predictionJson[i] = entry.predictionJson;
+            } else {
+                stale.add(vehicles.get(i));
+            }
+        }
+        if (!stale.isEmpty()) {
+            Map<Long, MaintenancePrediction> predictions = predictiveMaintenanceService.predictMaintenanceBatch(stale);
+            for (int i = 0; i < vehicles.size(); i++) {
+                if (predictionJson[i] == null) {
+                    Vehicle vehicle = vehicles.get(i);
+                    predictionJson[i] = encodePrediction(predictions.get(vehicle.getId()));
+                    entries.put(vehicle.getId(), new Entry(vehicle, entry(vehicle).vehicleJson, generation, predictionJson[i]));
+                }
+            }
+        }
+
+        return out -> {
+            out.write(ascii("{\"predictions\":{"));
+            for (int i = 0; i < predictionJson.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                out.write(ascii("\"" + vehicles.get(i).getId() + "\":"));
+                out.write(predictionJson[i]);
+            }
+            out.write(ascii("},\"count\":" + vehicles.size() + ",\"fleetVersion\":" + fleetVersion + "}"));
+        };
+    }
+
+    public void forget(Long id) {
+        entries.remove(id);
+    }
+
+    private List<byte[]> vehicleFragments(Collection<Vehicle> vehicles) {
+        List<byte[]> fragments = new ArrayList<>(vehicles.size());
+        for (Vehicle vehicle : vehicles) {
+            fragments.add(entry(vehicle).vehicleJson);
+        }
+        return fragments;
+    }
+
+    private Entry entry(Vehicle vehicle) {
+        Entry entry = entries.get(vehicle.getId());
+        if (entry != null && entry.vehicle == vehicle) {
+            return entry;
+        }
+        try {
+            entry = new Entry(vehicle, objectMapper.writeValueAsBytes(vehicle), -1, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        entries.put(vehicle.getId(), entry);
+        return entry;
+    }
+
+    private byte[] encodePrediction(MaintenancePrediction prediction) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(512);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(buffer)) {
+            MaintenancePrediction.JsonWriter.write(prediction, json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static void writeArray(List<byte[]> fragments, OutputStream out) throws IOException {
+        if (fragments.isEmpty()) {
+            out.write(EMPTY_ARRAY);
+            return;
+        }
+        out.write('[');
+        for (int i = 0; i < fragments.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(fragments.get(i));
+        }
+        out.write(']');
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,306 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.repository.VehicleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory copy of the current state of every vehicle, loaded once at startup
+ * and kept up to date by {@link VehicleService} on every write. Read paths that
+ * must not block on the database serve from here.
+ *
+ * Stored vehicles are replaced, never mutated, so readers can hand them out
+ * without copying.
+ *
+ * Every change bumps the fleet version, and each vehicle remembers the version
+ * of its last change, so pollers can ask for the changes since a version they
+ * have seen. It also remembers the version of each property's last change, so
+ * the answer can be narrowed to the fields that changed. The version starts from
+ * the load time in microseconds, which keeps it increasing across restarts.
+ */
+@Component
+public class FleetState {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetState.class);
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    // Deleted ids kept for change queries; beyond this the oldest are dropped
+    private static final int MAX_TOMBSTONES = 10000;
+
+    // Vehicle properties whose last change is tracked, by JSON name
+    private static final Map<String, Integer> FIELD_INDEX = new LinkedHashMap<>();
+    private static final List<Function<Vehicle, Object>> FIELDS = new ArrayList<>();
+
+    static {
+        field("vehicleNumber", Vehicle::getVehicleNumber);
+        field("model", Vehicle::getModel);
+        field("manufacturer", Vehicle::getManufacturer);
+        field("type", Vehicle::getType);
+        field("status", Vehicle::getStatus);
+        field("batteryLevel", Vehicle::getBatteryLevel);
+        field("fuelLevel", Vehicle::getFuelLevel);
+        field("latitude", Vehicle::getLatitude);
+        field("longitude", Vehicle::getLongitude);
+        field("healthScore", Vehicle::getHealthScore);
+        field("speed", Vehicle::getSpeed);
+        field("mileage", Vehicle::getMileage);
+    }
+
+    private static void field(String name, Function<Vehicle, Object> getter) {
+        FIELD_INDEX.put(name, FIELDS.size());
+        FIELDS.add(getter);
+    }
+
+    private final Map<Long, Vehicle> vehicles = new ConcurrentHashMap<>();
+
+    // Vehicle id -> fleet version of its last change
+    private final Map<Long, Long> modifiedVersions = new ConcurrentHashMap<>();
+
+    // Vehicle id -> fleet version of the last change of each tracked field, replaced on every change
+    private final Map<Long, long[]> fieldVersions = new ConcurrentHashMap<>();
+
+    // Deleted vehicle id -> fleet version of the delete
+    private final Map<Long, Long> deletedVersions = new ConcurrentHashMap<>();
+
+    // Published after the change it counts, so every change up to it is visible
+    private volatile long version = System.currentTimeMillis() * 1000;
+
+    // Changes since a version below this cannot be answered, a full snapshot is needed
+    private volatile long oldestAnswerable = version;
+
+    private volatile boolean loaded;
+
+    /**
+     * Vehicles changed after a version, and ids deleted since then.
+     * If {@code full} is set, the version was too old and {@code vehicles} holds the whole fleet.
+     */
+    public static class Changes {
+        private final long version;
+        private final boolean full;
+        private final List<Vehicle> vehicles;
+        private final List<Long> deleted;
+
+        Changes(long version, boolean full, List<Vehicle> vehicles, List<Long> deleted) {
+            this.version = version;
+            this.full = full;
+            this.vehicles = vehicles;
+            this.deleted = deleted;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public boolean isFull() {
+            return full;
+        }
+
+        public List<Vehicle> getVehicles() {
+            return vehicles;
+        }
+
+        public List<Long> getDeleted() {
+            return deleted;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        long loadVersion = version;
+        for (Vehicle vehicle : vehicleRepository.findAll()) {
+            if (vehicles.putIfAbsent(vehicle.getId(), vehicle) == null) {
+                modifiedVersions.put(vehicle.getId(), loadVersion);
+                long[] loaded = new long[FIELDS.size()];
+                Arrays.fill(loaded, loadVersion);
+                fieldVersions.put(vehicle.getId(), loaded);
+            }
+        }
+        loaded = true;
+        logger.info("Loaded {} vehicles into fleet state", vehicles.size());
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Store a vehicle unless a newer row version of it is already stored, as
+     * writes may commit in one order and reach memory in another
+     * @return Whether it was stored
+     */
+    public synchronized boolean put(Vehicle vehicle) {
+        if (vehicle.getId() == null) {
+            return false;
+        }
+        Vehicle current = vehicles.get(vehicle.getId());
+        if (current != null && current.getVersion() != null && vehicle.getVersion() != null
+                && current.getVersion() > vehicle.getVersion()) {
+            return false;
+        }
+        store(vehicle);
+        return true;
+    }
+
+    /**
+     * Derive a vehicle's state at row version {@code rowVersion} from the stored
+     * one under the lock, so concurrent changes to the same vehicle never
+     * overwrite each other. The change only applies to the version just before
+     * it; when the stored copy is newer or a change in between is missing, the
+     * row has to be read again.
+     * @return The stored result, or null if the change could not be applied
+     */
+    public synchronized Vehicle merge(Long id, long rowVersion, UnaryOperator<Vehicle> change) {
+        Vehicle current = vehicles.get(id);
+        if (current == null || current.getVersion() == null || current.getVersion() != rowVersion - 1) {
+            return null;
+        }
+        Vehicle vehicle = change.apply(new Vehicle(current));
+        vehicle.setVersion(rowVersion);
+        store(vehicle);
+        return vehicle;
+    }
+
+    private void store(Vehicle vehicle) {
+        long next = version + 1;
+        Vehicle previous = vehicles.put(vehicle.getId(), vehicle);
+        long[] previousFields = fieldVersions.get(vehicle.getId());
+        long[] fields = previousFields != null ? previousFields.clone() : new long[FIELDS.size()];
+        for (int i = 0; i < fields.length; i++) {
+            Function<Vehicle, Object> getter = FIELDS.get(i);
+            if (previous == null || previousFields == null
+                    || !Objects.equals(getter.apply(previous), getter.apply(vehicle))) {
+                fields[i] = next;
+            }
+        }
+        fieldVersions.put(vehicle.getId(), fields);
+        modifiedVersions.put(vehicle.getId(), next);
+        deletedVersions.remove(vehicle.getId());
+        version = next;
+    }
+
+    public synchronized void remove(Long id) {
+        if (vehicles.remove(id) == null) {
+            return;
+        }
+        long next = version + 1;
+        modifiedVersions.remove(id);
+        fieldVersions.remove(id);
+        deletedVersions.put(id, next);
+        if (deletedVersions.size() > MAX_TOMBSTONES) {
+            dropOldestTombstones();
+        }
+        version = next;
+    }
+
+    private void dropOldestTombstones() {
+        long[] versions = deletedVersions.values().stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(versions);
+        long cutoff = versions[versions.length / 2];
+        deletedVersions.values().removeIf(deletedAt -> deletedAt <= cutoff);
+        oldestAnswerable = cutoff;
+    }
+
+    /**
+     * Current fleet version; it changes whenever any vehicle is saved or deleted
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Fleet version of the last change to a vehicle, or -1 if it is not held
+     */
+    public long getModifiedVersion(Long id) {
+        Long modified = modifiedVersions.get(id);
+        return modified != null ? modified : -1;
+    }
+
+    /**
+     * Whether a vehicle's property, by JSON name, changed after {@code since}.
+     * Untracked properties and vehicles that are not held count as changed.
+     */
+    public boolean isFieldChangedSince(Long id, String field, long since) {
+        Integer index = FIELD_INDEX.get(field);
+        long[] versions = fieldVersions.get(id);
+        return index == null || versions == null || versions[index] > since;
+    }
+
+    /**
+     * Vehicles changed after {@code since} and ids deleted after it. Changes still in
+     * flight may be included too, so a client can safely ask again from the returned version.
+     */
+    public Changes getChangesSince(long since) {
+        long current = version;
+        if (since < oldestAnswerable) {
+            return new Changes(current, true, getAllSorted(), List.of());
+        }
+        List<Vehicle> changed = new ArrayList<>();
+        if (since < current) {
+            for (Map.Entry<Long, Long> entry : modifiedVersions.entrySet()) {
+                Vehicle vehicle = vehicles.get(entry.getKey());
+                if (entry.getValue() > since && vehicle != null) {
+                    changed.add(vehicle);
+                }
+            }
+        }
+        changed.sort(Comparator.comparing(Vehicle::getId));
+        List<Long> deleted = new ArrayList<>();
+        for (Map.Entry<Long, Long> entry : deletedVersions.entrySet()) {
+            if (entry.getValue() > since) {
+                deleted.add(entry.getKey());
+            }
+        }
+        return new Changes(current, false, changed, deleted);
+    }
+
+    public Vehicle get(Long id) {
+        return vehicles.get(id);
+    }
+
+    public Collection<Vehicle> getAll() {
+        return vehicles.values();
+    }
+
+    /**
+     * All vehicles ordered by id, so the same fleet version always yields the same list
+     */
+    public List<Vehicle> getAllSorted() {
+        List<Vehicle> result = new ArrayList<>(vehicles.values());
+        result.sort(Comparator.comparing(Vehicle::getId));
+        return result;
+    }
+
+    public List<Vehicle> getByStatus(String status) {
+        List<Vehicle> result = new ArrayList<>();
+        for (Vehicle vehicle : vehicles.values()) {
+            if (status.equals(vehicle.getStatus())) {
+                result.add(vehicle);
+            }
+        }
+        result.sort(Comparator.comparing(Vehicle::getId));
+        return result;
+    }
+
+    public int size() {
+        return vehicles.size();
+    }
+}
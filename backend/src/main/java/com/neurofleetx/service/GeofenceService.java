@@ -0,0 +1,131 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.geofence.GeofenceEngine;
+import com.neurofleetx.model.Geofence;
+import com.neurofleetx.model.GeofenceEvent;
+import com.neurofleetx.repository.GeofenceEventRepository;
+import com.neurofleetx.repository.GeofenceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+@Service
+public class GeofenceService {
+    
+    @Autowired
+    private GeofenceRepository geofenceRepository;
+    
+    @Autowired
+    private GeofenceEventRepository geofenceEventRepository;
+    
+    @Autowired
+    private GeofenceEngine geofenceEngine;
+    
+    @Transactional(readOnly = true)
+    public List<Geofence> getAllGeofences() {
+        return geofenceRepository.findAll();
+    }
+    
+    @Transactional(readOnly = true)
+    public Optional<Geofence> getGeofenceById(Long id) {
+        return geofenceRepository.findById(id);
+    }
+    
+    /**
+     * @throws IllegalArgumentException if the zone has no valid shape
+     */
+    public Geofence createGeofence(Geofence geofence) {
+        validate(geofence);
+        geofence.setId(null);
+        geofence.setCreatedAt(LocalDateTime.now());
+        Geofence saved = geofenceRepository.save(geofence);
+        geofenceEngine.reload();
+        return saved;
+    }
+    
+    public Geofence updateGeofence(Long id, Geofence details) {
+        Geofence geofence = geofenceRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Geofence not found with id: " + id));
+        validate(details);
+        geofence.setName(details.getName());
+        geofence.setCategory(details.getCategory());
+        geofence.setShape(details.getShape());
+        geofence.setVertices(details.getVertices());
+        geofence.setCenterLatitude(details.getCenterLatitude());
+        geofence.setCenterLongitude(details.getCenterLongitude());
+        geofence.setRadiusMeters(details.getRadiusMeters());
+        geofence.setDwellSeconds(details.getDwellSeconds());
+        geofence.setActive(details.isActive());
+        Geofence saved = geofenceRepository.save(geofence);
+        geofenceEngine.reload();
+        return saved;
+    }
+    
+    public void deleteGeofence(Long id) {
+        geofenceRepository.deleteById(id);
+        geofenceEngine.reload();
+    }
+    
+    /**
+     * Newest events first, optionally of one vehicle or one geofence
+     */
+    @Transactional(readOnly = true)
+    public List<GeofenceEvent> getEvents(Long vehicleId, Long geofenceId, int limit) {
+        Pageable page = PageRequest.of(0, Math.max(1, Math.min(limit, 1000)));
+        if (vehicleId != null) {
+            return geofenceEventRepository.findByVehicleIdOrderByIdDesc(vehicleId, page);
+        }
+        if (geofenceId != null) {
+            return geofenceEventRepository.findByGeofenceIdOrderByIdDesc(geofenceId, page);
+        }
+        return geofenceEventRepository.findAllByOrderByIdDesc(page);
+    }
+    
+    private static void validate(Geofence geofence) {
+        if (geofence.getName() == null || geofence.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        String shape = geofence.getShape() == null ? "" : geofence.getShape().trim().toUpperCase(Locale.ROOT);
+        geofence.setShape(shape);
+        if (shape.equals("POLYGON")) {
+            double[][] vertices = geofence.getVertices();
+            if (vertices == null || vertices.length < 3) {
+                throw new IllegalArgumentException("A polygon needs at least 3 vertices");
+            }
+            for (double[] vertex : vertices) {
+                if (vertex == null || vertex.length != 2) {
+                    throw new IllegalArgumentException("Each vertex is a [latitude, longitude] pair");
+                }
+                checkPosition(vertex[0], vertex[1]);
+            }
+            geofence.setCenterLatitude(null);
+            geofence.setCenterLongitude(null);
+            geofence.setRadiusMeters(null);
+        } else if (shape.equals("CIRCLE")) {
+            if (geofence.getCenterLatitude() == null || geofence.getCenterLongitude() == null
+                    || geofence.getRadiusMeters() == null || geofence.getRadiusMeters() <= 0) {
+                throw new IllegalArgumentException("A circle needs centerLatitude, centerLongitude and a positive radiusMeters");
+            }
+            checkPosition(geofence.getCenterLatitude(), geofence.getCenterLongitude());
+            geofence.setVertices(null);
+        } else {
+            throw new IllegalArgumentException("shape must be POLYGON or CIRCLE");
+        }
+        if (geofence.getDwellSeconds() != null && geofence.getDwellSeconds() < 0) {
+            throw new IllegalArgumentException("dwellSeconds cannot be negative");
+        }
+    }
+    
+    private static void checkPosition(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Position out of range: " + latitude + ", " + longitude);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.ai.ColumnarExampleWriter;
+import com.neurofleetx.ai.PredictiveMaintenanceService;
+import com.neurofleetx.model.MaintenanceEvent;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.repository.MaintenanceEventRepository;
+import com.neurofleetx.repository.VehicleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.annotation.PostConstruct;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Ledger of performed maintenance and the source of supervised training data.
+ *
+ * Feature snapshots of every vehicle are taken periodically and form the
+ * telemetry history. Exporting joins each snapshot against the ledger: it is
+ * a positive example if the vehicle was serviced within the label horizon
+ * after the snapshot, and a negative one if the horizon has passed without
+ * service. Snapshots are streamed through JDBC rather than JPA entities.
+ *
+ * The online learner gets the same labels as they become known: a recorded
+ * service makes the snapshots in the horizon before it positive, and a snapshot
+ * whose horizon closes without service becomes a negative example.
+ */
+@Service
+public class MaintenanceLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceLedgerService.class);
+
+    private static final String INSERT_SNAPSHOT_SQL =
+            "INSERT INTO feature_snapshots (vehicle_id, taken_at, features) VALUES (?, ?, ?)";
+    private static final String SELECT_SNAPSHOTS_SQL =
+            "SELECT vehicle_id, taken_at, features FROM feature_snapshots";
+    private static final String SELECT_VEHICLE_SNAPSHOTS_SQL =
+            "SELECT taken_at, features FROM feature_snapshots WHERE vehicle_id = ? AND taken_at >= ? AND taken_at < ?";
+    private static final String SELECT_SNAPSHOTS_BETWEEN_SQL =
+            "SELECT vehicle_id, taken_at, features FROM feature_snapshots WHERE taken_at >= ? AND taken_at < ?";
+
+    @Autowired
+    private MaintenanceEventRepository maintenanceEventRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private PredictiveMaintenanceService predictiveMaintenanceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${maintenance.label-horizon-days:30}")
+    private int labelHorizonDays;
+
+    @Value("${maintenance.snapshot-retention-days:365}")
+    private int snapshotRetentionDays;
+
+    // Snapshots up to this day have been given to the online learner with their final label.
+    // Kept in memory, so horizons that close while the application is down are skipped.
+    private volatile long learnedThroughDay;
+
+    @PostConstruct
+    public void init() {
+        learnedThroughDay = LocalDate.now().toEpochDay() - labelHorizonDays;
+    }
+
+    /**
+     * Result of an example export
+     */
+    public static class ExportResult {
+        private final Path path;
+        private final int rows;
+        private final int positives;
+
+        public ExportResult(Path path, int rows, int positives) {
+            this.path = path;
+            this.rows = rows;
+            this.positives = positives;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getPositives() {
+            return positives;
+        }
+    }
+
+    public MaintenanceEvent recordEvent(MaintenanceEvent event) {
+        Vehicle vehicle = vehicleRepository.findById(event.getVehicleId())
+                .orElseThrow(() -> new RuntimeException("Vehicle not found with id: " + event.getVehicleId()));
+        if (event.getPerformedAt() == null) {
+            event.setPerformedAt(LocalDate.now());
+        }
+        if (event.getMileage() == null) {
+            event.setMileage(vehicle.getMileage());
+        }
+        event.setCreatedAt(LocalDateTime.now());
+        MaintenanceEvent saved = maintenanceEventRepository.save(event);
+
+        if (predictiveMaintenanceService.isLearningOnline()) {
+            learnFromService(saved);
+        }
+        return saved;
+    }
+
+    /**
+     * Give the online learner the snapshots a service turns into positive examples.
+     * Snapshots whose horizon already closed were given as negatives, and those an
+     * earlier service made positive were given then, so both are left out.
+     */
+    private void learnFromService(MaintenanceEvent event) {
+        long serviceDay = event.getPerformedAt().toEpochDay();
+        List<Long> others = new ArrayList<>();
+        for (MaintenanceEvent other : maintenanceEventRepository.findByVehicleIdOrderByPerformedAtDesc(event.getVehicleId())) {
+            if (!other.getId().equals(event.getId())) {
+                others.add(other.getPerformedAt().toEpochDay());
+            }
+        }
+        long[] otherDays = others.stream().mapToLong(Long::longValue).sorted().toArray();
+
+        // Serviced within (day, day + horizon] means day in [serviceDay - horizon, serviceDay)
+        long fromDay = Math.max(serviceDay - labelHorizonDays, learnedThroughDay + 1);
+        if (fromDay >= serviceDay) {
+            return;
+        }
+        int[] learned = {0};
+        jdbcTemplate.query(SELECT_VEHICLE_SNAPSHOTS_SQL, rs -> {
+            long day = rs.getTimestamp("taken_at").toLocalDateTime().toLocalDate().toEpochDay();
+            double[] features = decode(rs.getBytes("features"));
+            if (features != null && !servicedWithin(otherDays, day, day + labelHorizonDays)) {
+                predictiveMaintenanceService.learnFromOutcome(features, true);
+                learned[0]++;
+            }
+        }, event.getVehicleId(), startOf(fromDay), startOf(serviceDay));
+        logger.info("Service of vehicle {} labeled {} snapshots positive for online learning",
+                event.getVehicleId(), learned[0]);
+    }
+
+    /**
+     * Give the online learner the snapshots whose label horizon closed without
+     * service as negative examples
+     */
+    @Scheduled(fixedDelayString = "${maintenance.snapshot-interval-ms:21600000}",
+               initialDelayString = "${maintenance.snapshot-interval-ms:21600000}")
+    public void learnFromClosedHorizons() {
+        long closedThroughDay = LocalDate.now().toEpochDay() - labelHorizonDays;
+        if (!predictiveMaintenanceService.isLearningOnline() || closedThroughDay <= learnedThroughDay) {
+            return;
+        }
+        Map<Long, long[]> serviceDays = loadServiceDays();
+        int[] negatives = {0};
+        jdbcTemplate.query(SELECT_SNAPSHOTS_BETWEEN_SQL, rs -> {
+            long day = rs.getTimestamp("taken_at").toLocalDateTime().toLocalDate().toEpochDay();
+            double[] features = decode(rs.getBytes("features"));
+            // Serviced ones were given as positives when the service was recorded
+            if (features != null && !servicedWithin(serviceDays.get(rs.getLong("vehicle_id")), day,
+                    day + labelHorizonDays)) {
+                predictiveMaintenanceService.learnFromOutcome(features, false);
+                negatives[0]++;
+            }
+        }, startOf(learnedThroughDay + 1), startOf(closedThroughDay + 1));
+        learnedThroughDay = closedThroughDay;
+        logger.info("Labeled {} snapshots negative for online learning", negatives[0]);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MaintenanceEvent> getEvents(Long vehicleId) {
+        if (vehicleId != null) {
+            return maintenanceEventRepository.findByVehicleIdOrderByPerformedAtDesc(vehicleId);
+        }
+        return maintenanceEventRepository.findAll();
+    }
+
+    /**
+     * Record the current features of every vehicle as telemetry history
+     */
+    @Scheduled(fixedDelayString = "${maintenance.snapshot-interval-ms:21600000}",
+               initialDelayString = "${maintenance.snapshot-interval-ms:21600000}")
+    public void snapshotFeatures() {
+        List<Vehicle> vehicles = vehicleRepository.findAll();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(vehicles.size());
+        for (Vehicle vehicle : vehicles) {
+            batch.add(new Object[] {vehicle.getId(), now, encode(predictiveMaintenanceService.extractFeatures(vehicle))});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SNAPSHOT_SQL, batch);
+
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(snapshotRetentionDays));
+        int purged = jdbcTemplate.update("DELETE FROM feature_snapshots WHERE taken_at < ?", cutoff);
+        logger.info("Recorded {} feature snapshots, purged {} expired", batch.size(), purged);
+    }
+
+    /**
+     * Join the snapshots against the ledger and write the labeled examples to
+     * {@code target} in the columnar example format
+     */
+    @Transactional(readOnly = true)
+    public ExportResult exportTrainingExamples(Path target) throws IOException {
+        Map<Long, long[]> serviceDays = loadServiceDays();
+
+        Integer snapshotCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM feature_snapshots", Integer.class);
+        int capacity = snapshotCount != null ? snapshotCount : 0;
+        int featureCount = PredictiveMaintenanceService.FEATURE_COUNT;
+        long lastLabeledDay = LocalDate.now().toEpochDay() - labelHorizonDays;
+
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(1000);
+
+        int[] positives = {0};
+        try (ColumnarExampleWriter writer = new ColumnarExampleWriter(target, featureCount, capacity)) {
+            float[] features = new float[featureCount];
+            streaming.query(SELECT_SNAPSHOTS_SQL, rs -> {
+                byte[] encoded = rs.getBytes("features");
+                if (encoded.length != featureCount * Float.BYTES || writer.getRows() == capacity) {
+                    // Taken with a different feature layout, or after the count
+                    return;
+                }
+                long vehicleId = rs.getLong("vehicle_id");
+                long day = rs.getTimestamp("taken_at").toLocalDateTime().toLocalDate().toEpochDay();
+
+                boolean serviced = servicedWithin(serviceDays.get(vehicleId), day, day + labelHorizonDays);
+                if (!serviced && day > lastLabeledDay) {
+                    // Horizon still open: the outcome is not known yet
+                    return;
+                }
+                ByteBuffer.wrap(encoded).asFloatBuffer().get(features);
+                try {
+                    writer.add(features, serviced ? 1.0f : 0.0f);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                if (serviced) {
+                    positives[0]++;
+                }
+            });
+            writer.finish();
+            logger.info("Exported {} training examples ({} positive) to {}", writer.getRows(), positives[0], target);
+            return new ExportResult(target, writer.getRows(), positives[0]);
+        }
+    }
+
+    /**
+     * Service days per vehicle, sorted; the ledger is small next to the snapshots
+     */
+    private Map<Long, long[]> loadServiceDays() {
+        Map<Long, long[]> serviceDays = new HashMap<>();
+        Map<Long, List<Long>> collected = new HashMap<>();
+        for (MaintenanceEvent event : maintenanceEventRepository.findAll()) {
+            collected.computeIfAbsent(event.getVehicleId(), id -> new ArrayList<>())
+                    .add(event.getPerformedAt().toEpochDay());
+        }
+        collected.forEach((vehicleId, days) ->
+                serviceDays.put(vehicleId, days.stream().mapToLong(Long::longValue).sorted().toArray()));
+        return serviceDays;
+    }
+
+    private static Timestamp startOf(long epochDay) {
+        return Timestamp.valueOf(LocalDate.ofEpochDay(epochDay).atStartOfDay());
+    }
+
+    // Null for snapshots taken with a different feature layout
+    private static double[] decode(byte[] encoded) {
+        if (encoded.length != PredictiveMaintenanceService.FEATURE_COUNT * Float.BYTES) {
+            return null;
+        }
+        FloatBuffer buffer = ByteBuffer.wrap(encoded).asFloatBuffer();
+        double[] features = new double[buffer.remaining()];
+        for (int i = 0; i < features.length; i++) {
+            features[i] = buffer.get(i);
+        }
+        return features;
+    }
+
+    /**
+     * Whether any service day falls in {@code (fromDay, toDay]}
+     */
+    private static boolean servicedWithin(long[] days, long fromDay, long toDay) {
+        if (days == null) {
+            return false;
+        }
+        int index = Arrays.binarySearch(days, fromDay + 1);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < days.length && days[index] <= toDay;
+    }
+
+    private static byte[] encode(double[] features) {
+        ByteBuffer buffer = ByteBuffer.allocate(features.length * Float.BYTES);
+        for (double feature : features) {
+            buffer.putFloat((float) feature);
+        }
+        return buffer.array();
+    }
+}
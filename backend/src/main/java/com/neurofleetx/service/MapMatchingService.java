@@ -0,0 +1,187 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.mapmatch.MapMatcher;
+import com.neurofleetx.mapmatch.MapMatchingEngine;
+import com.neurofleetx.mapmatch.MatchedPoint;
+import com.neurofleetx.road.RoadGraph;
+import com.neurofleetx.track.TrackPoints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+@Service
+public class MapMatchingService {
+    
+    private static final int MAX_TRACES = 10000;
+    
+    @Autowired
+    private MapMatchingEngine mapMatchingEngine;
+    
+    @Autowired
+    private TrackService trackService;
+    
+    @Autowired
+    @Qualifier("mapMatchingExecutor")
+    private ExecutorService mapMatchingExecutor;
+    
+    /**
+     * Match traces given as columns, each on its own core
+     * @param traces Each with "time" (epoch millis, optional), "latitude" and "longitude"
+     *               arrays of equal length, and an optional "vehicleId"
+     * @throws IllegalArgumentException if a trace is malformed
+     */
+    public Map<String, Object> matchTraces(List<Map<String, Object>> traces) {
+        if (traces == null || traces.isEmpty() || traces.size() > MAX_TRACES) {
+            throw new IllegalArgumentException("Expected 1 to " + MAX_TRACES + " traces");
+        }
+        List<Trace> parsed = new ArrayList<>(traces.size());
+        for (Map<String, Object> trace : traces) {
+            parsed.add(Trace.parse(trace));
+        }
+        return matchAll(parsed);
+    }
+    
+    /**
+     * Match the stored tracks of some vehicles in a time window, each on its own core
+     * @throws IllegalArgumentException if the window is invalid
+     */
+    public Map<String, Object> matchHistory(List<Long> vehicleIds, LocalDateTime from, LocalDateTime to) {
+        if (vehicleIds == null || vehicleIds.isEmpty() || vehicleIds.size() > MAX_TRACES) {
+            throw new IllegalArgumentException("Expected 1 to " + MAX_TRACES + " vehicleIds");
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+        List<Trace> traces = new ArrayList<>(vehicleIds.size());
+        for (Long vehicleId : vehicleIds) {
+            TrackPoints points = trackService.getPoints(vehicleId, start, end);
+            Trace trace = new Trace(vehicleId, points.size());
+            for (int i = 0; i < points.size(); i++) {
+                trace.times[i] = points.time(i);
+                trace.latitudes[i] = points.latitude(i);
+                trace.longitudes[i] = points.longitude(i);
+            }
+            traces.add(trace);
+        }
+        return matchAll(traces);
+    }
+    
+    private Map<String, Object> matchAll(List<Trace> traces) {
+        long started = System.nanoTime();
+        MapMatcher matcher = mapMatchingEngine.getMatcher();
+        List<Future<Map<String, Object>>> futures = new ArrayList<>(traces.size());
+        for (Trace trace : traces) {
+            futures.add(mapMatchingExecutor.submit(() -> trace.match(matcher)));
+        }
+        List<Map<String, Object>> results = new ArrayList<>(traces.size());
+        long points = 0;
+        try {
+            for (Future<Map<String, Object>> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while matching traces", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Map matching failed", e.getCause());
+        }
+        for (Trace trace : traces) {
+            points += trace.times.length;
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("traces", results);
+        response.put("points", points);
+        response.put("elapsedMs", (System.nanoTime() - started) / 1_000_000);
+        return response;
+    }
+    
+    private static final class Trace {
+        final Object vehicleId;
+        final long[] times;
+        final double[] latitudes;
+        final double[] longitudes;
+        
+        Trace(Object vehicleId, int size) {
+            this.vehicleId = vehicleId;
+            times = new long[size];
+            latitudes = new double[size];
+            longitudes = new double[size];
+        }
+        
+        static Trace parse(Map<String, Object> trace) {
+            List<?> latitudes = list(trace, "latitude");
+            List<?> longitudes = list(trace, "longitude");
+            List<?> times = trace.get("time") != null ? list(trace, "time") : null;
+            if (latitudes.size() != longitudes.size() || (times != null && times.size() != latitudes.size())) {
+                throw new IllegalArgumentException("time, latitude and longitude must have the same length");
+            }
+            Trace parsed = new Trace(trace.get("vehicleId"), latitudes.size());
+            for (int i = 0; i < latitudes.size(); i++) {
+                // Without times, points are taken to be a second apart
+                parsed.times[i] = times != null ? number(times.get(i)).longValue() : i * 1000L;
+                parsed.latitudes[i] = number(latitudes.get(i)).doubleValue();
+                parsed.longitudes[i] = number(longitudes.get(i)).doubleValue();
+                if (i > 0 && parsed.times[i] < parsed.times[i - 1]) {
+                    throw new IllegalArgumentException("Times must not decrease");
+                }
+            }
+            return parsed;
+        }
+        
+        private static List<?> list(Map<String, Object> trace, String name) {
+            Object value = trace.get(name);
+            if (!(value instanceof List)) {
+                throw new IllegalArgumentException("Each trace needs a " + name + " array");
+            }
+            return (List<?>) value;
+        }
+        
+        private static Number number(Object value) {
+            if (!(value instanceof Number)) {
+                throw new IllegalArgumentException("Not a number: " + value);
+            }
+            return (Number) value;
+        }
+        
+        Map<String, Object> match(MapMatcher matcher) {
+            List<MatchedPoint> matched = matcher.match(times, latitudes, longitudes, times.length);
+            double rawMeters = 0;
+            for (int i = 1; i < times.length; i++) {
+                rawMeters += RoadGraph.distanceMeters(latitudes[i - 1], longitudes[i - 1], latitudes[i], longitudes[i]);
+            }
+            double matchedMeters = 0;
+            List<Long> matchedTimes = new ArrayList<>(matched.size());
+            List<Double> matchedLatitudes = new ArrayList<>(matched.size());
+            List<Double> matchedLongitudes = new ArrayList<>(matched.size());
+            List<Integer> edges = new ArrayList<>(matched.size());
+            for (MatchedPoint point : matched) {
+                if (!Double.isNaN(point.getRouteMeters())) {
+                    matchedMeters += point.getRouteMeters();
+                }
+                matchedTimes.add(point.getTime());
+                matchedLatitudes.add(Math.round(point.getLatitude() * 1e6) / 1e6);
+                matchedLongitudes.add(Math.round(point.getLongitude() * 1e6) / 1e6);
+                edges.add(point.getEdge());
+            }
+            Map<String, Object> result = new HashMap<>();
+            result.put("vehicleId", vehicleId);
+            result.put("inputPoints", times.length);
+            result.put("matchedPoints", matched.size());
+            result.put("rawDistanceKm", Math.round(rawMeters) / 1000.0);
+            result.put("matchedDistanceKm", Math.round(matchedMeters) / 1000.0);
+            result.put("time", matchedTimes);
+            result.put("latitude", matchedLatitudes);
+            result.put("longitude", matchedLongitudes);
+            result.put("edge", edges);
+            return result;
+        }
+    }
+}
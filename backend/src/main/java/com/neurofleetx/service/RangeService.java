@@ -0,0 +1,184 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.eta.EtaEngine;
+import com.neurofleetx.eta.EtaPredictor;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.range.ConsumptionTracker;
+import com.neurofleetx.range.RangeEngine;
+import com.neurofleetx.range.RangeEstimator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class RangeService {
+
+    @Value("${range.max-waypoints:100}")
+    private int maxWaypoints;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private RangeEngine rangeEngine;
+
+    @Autowired
+    private EtaEngine etaEngine;
+
+    /**
+     * Energy level, learned consumption and remaining range of a vehicle
+     * @throws RuntimeException if the vehicle does not exist
+     */
+    public Map<String, Object> getVehicleRange(Long id) {
+        Vehicle vehicle = vehicle(id);
+        Map<String, Object> result = new HashMap<>();
+        result.put("vehicleId", id);
+        result.put("type", vehicle.getType());
+        String energyType = ConsumptionTracker.energyType(vehicle.getBatteryLevel(), vehicle.getFuelLevel());
+        result.put("energyType", energyType);
+        if (energyType != null) {
+            double level = ConsumptionTracker.level(vehicle.getBatteryLevel(), vehicle.getFuelLevel());
+            double rate = rangeEngine.rate(vehicle);
+            result.put("level", level);
+            result.put("percentPerKm", rate);
+            result.put("rangeKm", round(Math.max(0, level - rangeEngine.getReservePercent()) / rate));
+            result.put("fullRangeKm", round(level / rate));
+            result.put("historyKm", round(rangeEngine.historyKm(id)));
+        }
+        result.put("reservePercent", rangeEngine.getReservePercent());
+        return result;
+    }
+
+    /**
+     * Energy a vehicle needs to drive from where it is through waypoints,
+     * routed and timed by the ETA engine
+     * @throws IllegalArgumentException if the waypoints are malformed or the vehicle has no position or level
+     * @throws RuntimeException if the vehicle does not exist
+     */
+    public Map<String, Object> estimateRoute(Long id, Object waypoints) {
+        Vehicle vehicle = vehicle(id);
+        String energyType = ConsumptionTracker.energyType(vehicle.getBatteryLevel(), vehicle.getFuelLevel());
+        if (vehicle.getLatitude() == null || vehicle.getLongitude() == null || energyType == null) {
+            throw new IllegalArgumentException("Vehicle " + id + " has no position or energy level");
+        }
+        double[][] route = waypoints(waypoints, vehicle);
+        long departure = System.currentTimeMillis();
+        EtaPredictor.RouteEta eta = etaEngine.predict(Collections.singletonList(route), departure).get(0);
+
+        double level = ConsumptionTracker.level(vehicle.getBatteryLevel(), vehicle.getFuelLevel());
+        double rate = rangeEngine.rate(vehicle);
+        double reserve = rangeEngine.getReservePercent();
+        Map<String, Object> result = new HashMap<>();
+        result.put("vehicleId", id);
+        result.put("energyType", energyType);
+        result.put("level", level);
+        result.put("percentPerKm", rate);
+        result.put("rangeKm", round(Math.max(0, level - reserve) / rate));
+        result.put("status", eta.getStatus());
+        if ("OK".equals(eta.getStatus())) {
+            double km = eta.getMeters() / 1000;
+            double needed = km * rate;
+            result.put("distanceKm", round(km));
+            result.put("etaSeconds", Math.round(eta.getSeconds()));
+            result.put("energyNeeded", round(needed));
+            result.put("levelAtArrival", round(level - needed));
+            result.put("reachable", level - needed >= reserve);
+        }
+        result.put("reservePercent", reserve);
+        return result;
+    }
+
+    /**
+     * Score every available vehicle against a destination, reachable vehicles
+     * first and then by distance
+     * @param limit At most this many vehicles in the result
+     */
+    public Map<String, Object> scoreAvailable(double latitude, double longitude, int limit, boolean reachableOnly) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        List<Vehicle> available = vehicleService.getCurrentVehiclesByStatus("AVAILABLE");
+        long started = System.nanoTime();
+        RangeEngine.Scored scored = rangeEngine.estimate(available, latitude, longitude);
+        long elapsedNanos = System.nanoTime() - started;
+
+        RangeEstimator.Batch batch = scored.getBatch();
+        double reserve = rangeEngine.getReservePercent();
+        Integer[] order = new Integer[batch.size()];
+        int reachable = 0;
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            if (batch.reachable(i, reserve)) {
+                reachable++;
+            }
+        }
+        Arrays.sort(order, Comparator.<Integer, Boolean>comparing(i -> !batch.reachable(i, reserve))
+                .thenComparingDouble(batch::distanceKm));
+
+        List<Map<String, Object>> vehicles = new ArrayList<>();
+        for (int i : order) {
+            if (vehicles.size() == limit || (reachableOnly && !batch.reachable(i, reserve))) {
+                break;
+            }
+            Vehicle vehicle = scored.getVehicle(i);
+            Map<String, Object> result = new HashMap<>();
+            result.put("vehicleId", vehicle.getId());
+            result.put("vehicleNumber", vehicle.getVehicleNumber());
+            result.put("type", vehicle.getType());
+            result.put("level", batch.level(i));
+            result.put("percentPerKm", batch.rate(i));
+            result.put("rangeKm", round(batch.rangeKm(i, reserve)));
+            result.put("distanceKm", round(batch.distanceKm(i)));
+            result.put("roadDistance", batch.isOnRoad(i));
+            result.put("energyNeeded", round(batch.energyNeeded(i)));
+            result.put("levelAtArrival", round(batch.levelAtArrival(i)));
+            result.put("reachable", batch.reachable(i, reserve));
+            vehicles.add(result);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("available", available.size());
+        response.put("scored", batch.size());
+        response.put("reachable", reachable);
+        response.put("reservePercent", reserve);
+        response.put("vehicles", vehicles);
+        response.put("elapsedMicros", elapsedNanos / 1000);
+        return response;
+    }
+
+    private Vehicle vehicle(Long id) {
+        return vehicleService.getCurrentVehicle(id)
+                .orElseThrow(() -> new RuntimeException("Vehicle not found with id: " + id));
+    }
+
+    // The vehicle's position followed by the requested waypoints
+    private double[][] waypoints(Object value, Vehicle vehicle) {
+        if (!(value instanceof List) || ((List<?>) value).isEmpty() || ((List<?>) value).size() > maxWaypoints) {
+            throw new IllegalArgumentException("Expected 1 to " + maxWaypoints + " waypoints");
+        }
+        List<?> list = (List<?>) value;
+        double[][] waypoints = new double[list.size() + 1][];
+        waypoints[0] = new double[] {vehicle.getLatitude(), vehicle.getLongitude()};
+        for (int i = 0; i < list.size(); i++) {
+            if (!(list.get(i) instanceof List) || ((List<?>) list.get(i)).size() != 2
+                    || !(((List<?>) list.get(i)).get(0) instanceof Number)
+                    || !(((List<?>) list.get(i)).get(1) instanceof Number)) {
+                throw new IllegalArgumentException("Each waypoint must be [latitude, longitude]");
+            }
+            List<?> pair = (List<?>) list.get(i);
+            waypoints[i + 1] = new double[] {((Number) pair.get(0)).doubleValue(), ((Number) pair.get(1)).doubleValue()};
+        }
+        return waypoints;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
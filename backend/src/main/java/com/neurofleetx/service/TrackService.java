@@ -0,0 +1,152 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.TrackChunk;
+import com.neurofleetx.repository.TrackChunkRepository;
+import com.neurofleetx.track.Lttb;
+import com.neurofleetx.track.TrackCodec;
+import com.neurofleetx.track.TrackPoints;
+import com.neurofleetx.track.TrackStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+public class TrackService {
+    
+    // Most points one response may ask for
+    private static final int MAX_POINTS = 10000;
+    
+    @Autowired
+    private TrackChunkRepository trackChunkRepository;
+    
+    @Autowired
+    private TrackStore trackStore;
+    
+    /**
+     * A vehicle's track in a time window, downsampled to at most {@code points} points
+     * @throws IllegalArgumentException if the window or point count is invalid
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getTrack(Long vehicleId, LocalDateTime from, LocalDateTime to, int points) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+        TrackPoints track = load(vehicleId, start, end, points);
+        
+        // Downsample along the path, in a plane of roughly equal units
+        double scale = track.size() > 0 ? Math.cos(Math.toRadians(track.latitude(0))) : 1;
+        double[] x = new double[track.size()];
+        double[] y = new double[track.size()];
+        for (int i = 0; i < track.size(); i++) {
+            x[i] = track.longitude(i) * scale;
+            y[i] = track.latitude(i);
+        }
+        TrackPoints selected = track.select(Lttb.select(x, y, track.size(), points));
+        
+        List<Long> times = new ArrayList<>(selected.size());
+        List<Double> latitudes = new ArrayList<>(selected.size());
+        List<Double> longitudes = new ArrayList<>(selected.size());
+        List<Double> speeds = new ArrayList<>(selected.size());
+        List<Double> energies = new ArrayList<>(selected.size());
+        for (int i = 0; i < selected.size(); i++) {
+            times.add(selected.time(i));
+            latitudes.add(selected.latitude(i));
+            longitudes.add(selected.longitude(i));
+            speeds.add(orNull(selected.speed(i)));
+            energies.add(orNull(selected.energy(i)));
+        }
+        Map<String, Object> response = window(vehicleId, start, end, track.size());
+        response.put("time", times);
+        response.put("latitude", latitudes);
+        response.put("longitude", longitudes);
+        response.put("speed", speeds);
+        response.put("energy", energies);
+        return response;
+    }
+    
+    /**
+     * One metric of a vehicle's track over time, downsampled to at most {@code points} points
+     * @param metric "speed" or "energy"
+     * @throws IllegalArgumentException if the metric, window or point count is invalid
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSeries(Long vehicleId, String metric, LocalDateTime from, LocalDateTime to, int points) {
+        String name = metric == null ? "" : metric.trim().toLowerCase(Locale.ROOT);
+        if (!name.equals("speed") && !name.equals("energy")) {
+            throw new IllegalArgumentException("metric must be speed or energy");
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+        TrackPoints track = load(vehicleId, start, end, points);
+        
+        // Points without a value, such as an unknown energy level, are left out
+        double[] x = new double[track.size()];
+        double[] y = new double[track.size()];
+        int size = 0;
+        for (int i = 0; i < track.size(); i++) {
+            double value = name.equals("speed") ? track.speed(i) : track.energy(i);
+            if (!Double.isNaN(value)) {
+                x[size] = track.time(i);
+                y[size] = value;
+                size++;
+            }
+        }
+        List<Long> times = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        for (int i : Lttb.select(x, y, size, points)) {
+            times.add((long) x[i]);
+            values.add(y[i]);
+        }
+        Map<String, Object> response = window(vehicleId, start, end, size);
+        response.put("metric", name);
+        response.put("time", times);
+        response.put("value", values);
+        return response;
+    }
+    
+    private TrackPoints load(Long vehicleId, LocalDateTime from, LocalDateTime to, int points) {
+        if (points < 2 || points > MAX_POINTS) {
+            throw new IllegalArgumentException("points must be between 2 and " + MAX_POINTS);
+        }
+        return getPoints(vehicleId, from, to);
+    }
+    
+    /**
+     * All stored points of a vehicle in a time window, then those not written yet
+     * @throws IllegalArgumentException if from is after to
+     */
+    @Transactional(readOnly = true)
+    public TrackPoints getPoints(Long vehicleId, LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        TrackPoints all = new TrackPoints(256);
+        for (TrackChunk chunk : trackChunkRepository
+                .findByVehicleIdAndStartedAtLessThanEqualAndEndedAtGreaterThanEqualOrderByStartedAt(vehicleId, to, from)) {
+            all.addAll(TrackCodec.decode(chunk.getData(), chunk.getPoints()));
+        }
+        all.addAll(trackStore.recent(vehicleId));
+        return all.between(Timestamp.valueOf(from).getTime(), Timestamp.valueOf(to).getTime());
+    }
+    
+    private static Map<String, Object> window(Long vehicleId, LocalDateTime from, LocalDateTime to, int storedPoints) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("vehicleId", vehicleId);
+        response.put("from", from);
+        response.put("to", to);
+        response.put("storedPoints", storedPoints);
+        return response;
+    }
+    
+    // JSON has no NaN
+    private static Double orNull(double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+}
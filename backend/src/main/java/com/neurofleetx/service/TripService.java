@@ -0,0 +1,72 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.Trip;
+import com.neurofleetx.repository.TripRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class TripService {
+    
+    // Default query window when no start is given
+    private static final int DEFAULT_DAYS = 7;
+    
+    @Autowired
+    private TripRepository tripRepository;
+    
+    /**
+     * Completed trips started in a time window, newest first, optionally of one vehicle
+     */
+    @Transactional(readOnly = true)
+    public List<Trip> getTrips(Long vehicleId, LocalDateTime from, LocalDateTime to, int limit) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(DEFAULT_DAYS);
+        checkWindow(start, end);
+        Pageable page = PageRequest.of(0, Math.max(1, Math.min(limit, 1000)));
+        if (vehicleId != null) {
+            return tripRepository.findByVehicleIdAndStartedAtBetweenOrderByStartedAtDesc(vehicleId, start, end, page);
+        }
+        return tripRepository.findByStartedAtBetweenOrderByStartedAtDesc(start, end, page);
+    }
+    
+    /**
+     * Totals over a vehicle's completed trips in a time window
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSummary(Long vehicleId, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(DEFAULT_DAYS);
+        checkWindow(start, end);
+        Object[] totals = tripRepository.summarize(vehicleId, start, end).get(0);
+        long trips = ((Number) totals[0]).longValue();
+        double distanceKm = totals[1] != null ? ((Number) totals[1]).doubleValue() : 0;
+        long durationSeconds = totals[2] != null ? ((Number) totals[2]).longValue() : 0;
+        long idleSeconds = totals[3] != null ? ((Number) totals[3]).longValue() : 0;
+        
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("vehicleId", vehicleId);
+        summary.put("from", start);
+        summary.put("to", end);
+        summary.put("trips", trips);
+        summary.put("distanceKm", Math.round(distanceKm * 1000) / 1000.0);
+        summary.put("durationSeconds", durationSeconds);
+        summary.put("idleSeconds", idleSeconds);
+        summary.put("idleShare", durationSeconds > 0 ? Math.round(idleSeconds * 1000.0 / durationSeconds) / 1000.0 : 0);
+        summary.put("energyDelta", totals[4] != null ? Math.round(((Number) totals[4]).doubleValue() * 100) / 100.0 : null);
+        return summary;
+    }
+    
+    private static void checkWindow(LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+    }
+}
@@ -1,11 +1,28 @@
 package com.neurofleetx.service;
 
+import com.neurofleetx.ai.PredictiveMaintenanceService;
+import com.neurofleetx.ai.TelemetryFeatureExtractor;
+import com.neurofleetx.charging.ChargingEngine;
+import com.neurofleetx.geofence.GeofenceEngine;
+import com.neurofleetx.mapmatch.MapMatchingEngine;
 import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.range.RangeEngine;
+import com.neurofleetx.repository.VehiclePatchRepository;
+import com.neurofleetx.repository.VehiclePatchRepository.VehiclePatch;
 import com.neurofleetx.repository.VehicleRepository;
+import com.neurofleetx.track.TrackStore;
+import com.neurofleetx.trip.TripEngine;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -14,22 +31,112 @@ public class VehicleService {
     @Autowired
     private VehicleRepository vehicleRepository;
     
+    @Autowired
+    private TelemetryFeatureExtractor telemetryFeatureExtractor;
+    
+    @Autowired
+    private PredictiveMaintenanceService predictiveMaintenanceService;
+    
+    @Autowired
+    private VehiclePatchRepository vehiclePatchRepository;
+    
+    @Autowired
+    private FleetState fleetState;
+    
+    @Autowired
+    private FleetJsonCache fleetJsonCache;
+    
+    @Autowired
+    private GeofenceEngine geofenceEngine;
+    
+    @Autowired
+    private TripEngine tripEngine;
+    
+    @Autowired
+    private TrackStore trackStore;
+    
+    @Autowired
+    private MapMatchingEngine mapMatchingEngine;
+    
+    @Autowired
+    private RangeEngine rangeEngine;
+    
+    @Autowired
+    private ChargingEngine chargingEngine;
+    
+    @Transactional(readOnly = true)
     public List<Vehicle> getAllVehicles() {
         return vehicleRepository.findAll();
     }
     
+    /**
+     * Current fleet version; see {@link FleetState}
+     */
+    public long getFleetVersion() {
+        return fleetState.getVersion();
+    }
+    
+    /**
+     * Fleet version of the last change to a vehicle, or -1 if unknown
+     */
+    public long getVehicleVersion(Long id) {
+        return fleetState.getModifiedVersion(id);
+    }
+    
+    /**
+     * All vehicles as of at least the current fleet version, from memory once the
+     * fleet state is loaded. Read after {@link #getFleetVersion()}, the list is never
+     * older than that version, which a lagging replica could not guarantee.
+     */
+    public List<Vehicle> getCurrentVehicles() {
+        return fleetState.isLoaded() ? fleetState.getAllSorted() : getAllVehicles();
+    }
+    
+    /**
+     * Vehicles changed and deleted after a fleet version
+     */
+    public FleetState.Changes getVehiclesSince(long since) {
+        return fleetState.getChangesSince(since);
+    }
+    
+    /**
+     * Whether a vehicle's property, by JSON name, changed after a fleet version
+     */
+    public boolean isFieldChangedSince(Long id, String field, long since) {
+        return fleetState.isFieldChangedSince(id, field, since);
+    }
+    
+    @Transactional(readOnly = true)
     public Optional<Vehicle> getVehicleById(Long id) {
         return vehicleRepository.findById(id);
     }
     
+    @Transactional
     public Vehicle saveVehicle(Vehicle vehicle) {
-        return vehicleRepository.save(vehicle);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        afterCommit(() -> publish(saved));
+        return saved;
     }
     
+    // Insert many vehicles in one transaction, e.g. a synthetic fleet for the simulator
+    @Transactional
+    public List<Vehicle> saveVehicles(List<Vehicle> vehicles) {
+        List<Vehicle> saved = vehicleRepository.saveAll(vehicles);
+        afterCommit(() -> saved.forEach(this::publish));
+        return saved;
+    }
+    
+    // One read-write transaction, so the version check reads the primary and not a lagging replica
+    @Transactional
     public Vehicle updateVehicle(Long id, Vehicle vehicleDetails) {
         Vehicle vehicle = vehicleRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Vehicle not found with id: " + id));
         
+        // A client that sends the version it edited gets optimistic locking
+        if (vehicleDetails.getVersion() != null && !vehicleDetails.getVersion().equals(vehicle.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Vehicle.class, id);
+        }
+        
         vehicle.setVehicleNumber(vehicleDetails.getVehicleNumber());
         vehicle.setModel(vehicleDetails.getModel());
         vehicle.setManufacturer(vehicleDetails.getManufacturer());
@@ -43,14 +150,176 @@ public class VehicleService {
         vehicle.setSpeed(vehicleDetails.getSpeed());
         vehicle.setMileage(vehicleDetails.getMileage());
         
-        return vehicleRepository.save(vehicle);
+        Vehicle saved = vehicleRepository.save(vehicle);
+        afterCommit(() -> predictiveMaintenanceService.learnFromTelemetry(publish(saved)));
+        return saved;
+    }
+    
+    /**
+     * Update only the given fields with a single UPDATE statement, without reading the row first
+     * @param expectedVersion Version the client last saw, or null to skip the check
+     * @return The updated vehicle from the in-memory fleet state, or null if it is not loaded there
+     */
+    public Vehicle patchVehicle(Long id, Long expectedVersion, Map<String, Object> fields) {
+        VehiclePatch patch = new VehiclePatch(id, expectedVersion, fields);
+        Long version = vehiclePatchRepository.patch(patch);
+        if (version == null) {
+            // Only the failure path pays for a lookup, to tell the two cases apart
+            if (!vehiclePatchRepository.exists(id)) {
+                throw new RuntimeException("Vehicle not found with id: " + id);
+            }
+            throw new ObjectOptimisticLockingFailureException(Vehicle.class, id);
+        }
+        return applyPatch(patch, version);
+    }
+    
+    /**
+     * Patch many vehicles in one statement batch per distinct set of changed fields
+     * @param items Each holds an "id", an optional "version" and the changed fields
+     * @return Per item, its id and "status": UPDATED, NOT_FOUND or CONFLICT
+     */
+    public List<Map<String, Object>> patchVehicles(List<Map<String, Object>> items) {
+        List<VehiclePatch> patches = new ArrayList<>(items.size());
+        for (Map<String, Object> item : items) {
+            Map<String, Object> fields = new HashMap<>(item);
+            Object id = fields.remove("id");
+            Object version = fields.remove("version");
+            if (!(id instanceof Number) || (version != null && !(version instanceof Number))) {
+                throw new IllegalArgumentException("Each patch needs a numeric id and an optional numeric version");
+            }
+            patches.add(new VehiclePatch(((Number) id).longValue(),
+                    version != null ? ((Number) version).longValue() : null, fields));
+        }
+        
+        Long[] versions = vehiclePatchRepository.patchAll(patches);
+        List<Map<String, Object>> results = new ArrayList<>(patches.size());
+        for (int i = 0; i < patches.size(); i++) {
+            VehiclePatch patch = patches.get(i);
+            Map<String, Object> result = new HashMap<>();
+            result.put("id", patch.getId());
+            if (versions[i] != null) {
+                applyPatch(patch, versions[i]);
+                result.put("status", "UPDATED");
+            } else {
+                result.put("status", vehiclePatchRepository.exists(patch.getId()) ? "CONFLICT" : "NOT_FOUND");
+            }
+            results.add(result);
+        }
+        return results;
+    }
+    
+    /**
+     * Mirror a committed patch into the in-memory state and the telemetry features
+     * @param version Row version the patch wrote
+     */
+    private Vehicle applyPatch(VehiclePatch patch, long version) {
+        Vehicle vehicle = fleetState.merge(patch.getId(), version, current -> {
+            for (Map.Entry<String, Object> field : patch.getFields().entrySet()) {
+                Object value = field.getValue();
+                switch (field.getKey()) {
+                    case "vehicleNumber": current.setVehicleNumber((String) value); break;
+                    case "model": current.setModel((String) value); break;
+                    case "manufacturer": current.setManufacturer((String) value); break;
+                    case "type": current.setType((String) value); break;
+                    case "status": current.setStatus((String) value); break;
+                    case "batteryLevel": current.setBatteryLevel((Double) value); break;
+                    case "fuelLevel": current.setFuelLevel((Double) value); break;
+                    case "latitude": current.setLatitude((Double) value); break;
+                    case "longitude": current.setLongitude((Double) value); break;
+                    case "healthScore": current.setHealthScore((Integer) value); break;
+                    case "speed": current.setSpeed((Double) value); break;
+                    case "mileage": current.setMileage((Long) value); break;
+                    default: break;
+                }
+            }
+            return current;
+        });
+        if (vehicle == null) {
+            // Out of order with another write to the vehicle, or not held yet: take the committed row
+            vehicle = vehiclePatchRepository.findCommitted(patch.getId()).orElse(null);
+            if (vehicle == null || !fleetState.put(vehicle)) {
+                return fleetState.get(patch.getId());
+            }
+        }
+        observe(vehicle);
+        predictiveMaintenanceService.learnFromTelemetry(vehicle);
+        return vehicle;
     }
     
+    @Transactional
     public void deleteVehicle(Long id) {
         vehicleRepository.deleteById(id);
+        afterCommit(() -> {
+            fleetState.remove(id);
+            fleetJsonCache.forget(id);
+            telemetryFeatureExtractor.forget(id);
+            geofenceEngine.forget(id);
+            tripEngine.forget(id);
+            trackStore.forget(id);
+            mapMatchingEngine.forget(id);
+            rangeEngine.forget(id);
+            chargingEngine.forget(id);
+        });
+    }
+    
+    /**
+     * Run an action once the current transaction has committed, or right away
+     * outside one, so a write that fails to commit never reaches the in-memory state
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    /**
+     * Store a committed vehicle in the fleet state and pass it on. The stored copy is
+     * detached from the persistence context, whose instance Hibernate keeps mutating.
+     */
+    private Vehicle publish(Vehicle saved) {
+        Vehicle vehicle = new Vehicle(saved);
+        if (fleetState.put(vehicle)) {
+            observe(vehicle);
+        }
+        return vehicle;
     }
     
+    /**
+     * Pass a vehicle's new state to everything derived from the telemetry stream
+     */
+    private void observe(Vehicle vehicle) {
+        telemetryFeatureExtractor.record(vehicle);
+        geofenceEngine.onPosition(vehicle);
+        tripEngine.onPosition(vehicle);
+        trackStore.record(vehicle);
+        mapMatchingEngine.onPosition(vehicle);
+        rangeEngine.onPosition(vehicle);
+        chargingEngine.onPosition(vehicle);
+    }
+    
+    @Transactional(readOnly = true)
     public List<Vehicle> getVehiclesByStatus(String status) {
         return vehicleRepository.findByStatus(status);
     }
+    
+    /**
+     * Vehicles with a status as of at least the current fleet version
+     */
+    public List<Vehicle> getCurrentVehiclesByStatus(String status) {
+        return fleetState.isLoaded() ? fleetState.getByStatus(status) : getVehiclesByStatus(status);
+    }
+    
+    /**
+     * A vehicle as of at least the current fleet version
+     */
+    public Optional<Vehicle> getCurrentVehicle(Long id) {
+        return fleetState.isLoaded() ? Optional.ofNullable(fleetState.get(id)) : getVehicleById(id);
+    }
 }
\ No newline at end of file
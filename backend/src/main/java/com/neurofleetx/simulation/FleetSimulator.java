@@ -0,0 +1,402 @@
+package com.neurofleetx.simulation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neurofleetx.gateway.TelemetryIngestor;
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.service.VehicleService;
+import com.neurofleetx.util.LatencyHistogram;
+import com.neurofleetx.wire.VehicleRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a fleet of virtual vehicles and pushes their telemetry through the
+ * real update paths, as a live data source for the dashboards and as a load
+ * generator.
+ *
+ * The fleet is split into shards, each stepped on a scheduled executor every
+ * {@code tickMs}; a vehicle reports every {@code reportIntervalMs}, with report
+ * times spread over the interval so the load is smooth. Reports of one tick
+ * are sent in batches of up to {@code maxBatchRecords}.
+ *
+ * Latency is measured from the time a tick was due, not from when it actually
+ * ran, so a sink that falls behind shows its backlog in the percentiles instead
+ * of quietly lowering the offered rate.
+ */
+@Component
+public class FleetSimulator {
+
+    private static final Logger logger = LoggerFactory.getLogger(FleetSimulator.class);
+
+    private static final int SEED_CHUNK = 1000;
+    private static final int SHARDS_PER_THREAD = 4;
+
+    @Value("${simulation.max-vehicles:200000}")
+    private int maxVehicles;
+
+    @Value("${server.port:8083}")
+    private int serverPort;
+
+    @Autowired
+    private VehicleService vehicleService;
+
+    @Autowired
+    private TelemetryIngestor telemetryIngestor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Run current;
+
+    /**
+     * One simulation run and its counters
+     */
+    private final class Run {
+        final SimulationPlan plan;
+        final TelemetrySink sink;
+        final ScheduledExecutorService executor;
+        final long startedAt = System.currentTimeMillis();
+        volatile String state = "SEEDING";
+        volatile String error;
+        volatile SimulatedFleet fleet;
+        volatile long runningSince;
+        final AtomicInteger seeded = new AtomicInteger();
+
+        final LongAdder recordsSent = new LongAdder();
+        final LongAdder recordsAccepted = new LongAdder();
+        final LongAdder recordsFailed = new LongAdder();
+        final LongAdder recordsDropped = new LongAdder();
+        final LongAdder batches = new LongAdder();
+        final LongAdder tickOverruns = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        // Accepted records per second over the last sample interval
+        volatile double recentRate;
+        long lastSampleAccepted;
+        long lastSampleAt;
+
+        Run(SimulationPlan plan) {
+            this.plan = plan;
+            this.sink = createSink(plan);
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.executor = Executors.newScheduledThreadPool(plan.getThreads(), runnable -> {
+                Thread thread = new Thread(runnable, "fleet-simulator-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        boolean isActive() {
+            return "SEEDING".equals(state) || "RUNNING".equals(state);
+        }
+    }
+
+    /**
+     * Start a run; seeding happens in the background, see {@link #getStatus()}
+     * @throws IllegalStateException if a run is already active
+     */
+    public synchronized Map<String, Object> start(SimulationPlan plan) {
+        if (current != null && current.isActive()) {
+            throw new IllegalStateException("A simulation is already running, stop it first");
+        }
+        if (plan.getVehicles() > maxVehicles) {
+            throw new IllegalArgumentException("At most " + maxVehicles + " vehicles can be simulated");
+        }
+        Run run = new Run(plan);
+        current = run;
+        run.executor.execute(() -> {
+            try {
+                seedAndStart(run);
+            } catch (RuntimeException e) {
+                logger.error("Fleet simulation failed to start", e);
+                run.error = e.getMessage();
+                run.state = "FAILED";
+                run.executor.shutdownNow();
+            }
+        });
+        logger.info("Fleet simulation starting: {}", plan.toMap());
+        return getStatus();
+    }
+
+    public synchronized Map<String, Object> stop() {
+        if (current != null && current.isActive()) {
+            current.state = "STOPPED";
+            current.executor.shutdownNow();
+            logger.info("Fleet simulation stopped");
+        }
+        return getStatus();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stop();
+    }
+
+    private TelemetrySink createSink(SimulationPlan plan) {
+        switch (plan.getSink()) {
+            case INGEST:
+                return (batch, done) -> {
+                    if (!telemetryIngestor.offer(batch, done::accept)) {
+                        done.accept(TelemetrySink.DROPPED);
+                    }
+                };
+            case HTTP_JSON:
+            case HTTP_FRAME:
+                return new HttpTelemetrySink(plan.getBaseUrl(), plan.getToken(),
+                        plan.getSink() == SimulationPlan.Sink.HTTP_FRAME, objectMapper);
+            default:
+                return (batch, done) -> {
+                    List<Map<String, Object>> patches = new ArrayList<>(batch.size());
+                    for (VehicleRecord record : batch) {
+                        patches.add(record.toPatch());
+                    }
+                    int accepted = 0;
+                    for (Map<String, Object> result : vehicleService.patchVehicles(patches)) {
+                        if ("UPDATED".equals(result.get("status"))) {
+                            accepted++;
+                        }
+                    }
+                    done.accept(accepted);
+                };
+        }
+    }
+
+    private void seedAndStart(Run run) {
+        SimulationPlan plan = run.plan;
+        Random random = new Random(plan.getSeed());
+        SimulatedFleet fleet;
+        if (plan.getSource() == SimulationPlan.Source.TABLE) {
+            List<Vehicle> vehicles = vehicleService.getCurrentVehicles();
+            int size = plan.getVehicles() == 0 ? Math.min(vehicles.size(), maxVehicles)
+                    : Math.min(vehicles.size(), plan.getVehicles());
+            if (size == 0) {
+                throw new IllegalStateException("The vehicles table is empty, use a SYNTHETIC fleet");
+            }
+            fleet = new SimulatedFleet(size, plan.getCenterLatitude(), plan.getCenterLongitude());
+            for (int i = 0; i < size; i++) {
+                Vehicle vehicle = vehicles.get(i);
+                boolean electric = vehicle.getBatteryLevel() != null;
+                Double level = electric ? vehicle.getBatteryLevel() : vehicle.getFuelLevel();
+                fleet.init(i, vehicle.getId(), orNaN(vehicle.getLatitude()), orNaN(vehicle.getLongitude()), electric,
+                        orNaN(level), vehicle.getMileage() != null ? vehicle.getMileage() : 0, random);
+                run.seeded.incrementAndGet();
+            }
+        } else {
+            fleet = new SimulatedFleet(plan.getVehicles(), plan.getCenterLatitude(), plan.getCenterLongitude());
+            String prefix = "SIM-" + Long.toString(plan.getSeed() & 0xFFFFFF, 36).toUpperCase() + "-";
+            for (int offset = 0; offset < plan.getVehicles(); offset += SEED_CHUNK) {
+                if (!run.isActive()) {
+                    return;
+                }
+                int count = Math.min(SEED_CHUNK, plan.getVehicles() - offset);
+                List<Vehicle> chunk = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    chunk.add(syntheticVehicle(prefix + (offset + i + 1), random));
+                }
+                List<Vehicle> saved = vehicleService.saveVehicles(chunk);
+                for (int i = 0; i < saved.size(); i++) {
+                    Vehicle vehicle = saved.get(i);
+                    boolean electric = vehicle.getBatteryLevel() != null;
+                    fleet.init(offset + i, vehicle.getId(), Double.NaN, Double.NaN, electric,
+                            electric ? vehicle.getBatteryLevel() : vehicle.getFuelLevel(), 0, random);
+                }
+                run.seeded.addAndGet(saved.size());
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < fleet.size; i++) {
+            fleet.nextReport[i] = now + (long) (random.nextDouble() * plan.getReportIntervalMs());
+        }
+        run.fleet = fleet;
+
+        synchronized (this) {
+            if (!run.isActive()) {
+                return;
+            }
+            int shards = Math.min(fleet.size, plan.getThreads() * SHARDS_PER_THREAD);
+            for (int s = 0; s < shards; s++) {
+                Shard shard = new Shard(run, fleet, s * fleet.size / shards, (s + 1) * fleet.size / shards,
+                        new Random(plan.getSeed() + s + 1));
+                // Stagger the shards over the tick so they do not all send at once
+                long delay = plan.getTickMs() * s / shards;
+                run.executor.scheduleAtFixedRate(shard::tick, delay, plan.getTickMs(), TimeUnit.MILLISECONDS);
+            }
+            run.lastSampleAt = System.nanoTime();
+            run.executor.scheduleAtFixedRate(() -> sample(run), 1, 1, TimeUnit.SECONDS);
+            run.runningSince = System.currentTimeMillis();
+            run.state = "RUNNING";
+        }
+        logger.info("Fleet simulation running {} vehicles", fleet.size);
+    }
+
+    private static Vehicle syntheticVehicle(String number, Random random) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setVehicleNumber(number);
+        vehicle.setManufacturer("Simulated");
+        vehicle.setStatus("AVAILABLE");
+        vehicle.setHealthScore(70 + random.nextInt(31));
+        vehicle.setSpeed(0.0);
+        vehicle.setMileage(0L);
+        // About four in ten are electric sedans
+        if (random.nextDouble() < 0.4) {
+            vehicle.setType("SEDAN");
+            vehicle.setModel("Sim EV");
+            vehicle.setBatteryLevel(Math.round((40 + random.nextDouble() * 60) * 100) / 100.0);
+        } else {
+            String[] types = {"SUV", "VAN", "TRUCK"};
+            vehicle.setType(types[random.nextInt(types.length)]);
+            vehicle.setModel("Sim ICE");
+            vehicle.setFuelLevel(Math.round((40 + random.nextDouble() * 60) * 100) / 100.0);
+        }
+        return vehicle;
+    }
+
+    private static double orNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    private void sample(Run run) {
+        long now = System.nanoTime();
+        long accepted = run.recordsAccepted.sum();
+        run.recentRate = (accepted - run.lastSampleAccepted) * 1e9 / (now - run.lastSampleAt);
+        run.lastSampleAccepted = accepted;
+        run.lastSampleAt = now;
+    }
+
+    /**
+     * A contiguous range of vehicles, only ever stepped by one thread at a time
+     */
+    private static final class Shard {
+        final Run run;
+        final SimulatedFleet fleet;
+        final int from;
+        final int to;
+        final Random random;
+        final long tickNanos;
+        long due = -1;
+        long lastStep;
+
+        Shard(Run run, SimulatedFleet fleet, int from, int to, Random random) {
+            this.run = run;
+            this.fleet = fleet;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+            this.tickNanos = TimeUnit.MILLISECONDS.toNanos(run.plan.getTickMs());
+        }
+
+        void tick() {
+            long started = System.nanoTime();
+            due = due < 0 ? started : due + tickNanos;
+            long now = System.currentTimeMillis();
+            // Step by the time that really passed, at most a second after a stall
+            double dt = lastStep == 0 ? run.plan.getTickMs() / 1000.0 : Math.min(1.0, (now - lastStep) / 1000.0);
+            lastStep = now;
+            try {
+                List<VehicleRecord> batch = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    fleet.step(i, dt, now, random);
+                    if (fleet.nextReport[i] <= now) {
+                        batch.add(fleet.report(i));
+                        fleet.nextReport[i] += run.plan.getReportIntervalMs();
+                        if (fleet.nextReport[i] <= now) {
+                            fleet.nextReport[i] = now + run.plan.getReportIntervalMs();
+                        }
+                        if (batch.size() >= run.plan.getMaxBatchRecords()) {
+                            send(batch, due);
+                            batch = new ArrayList<>();
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    send(batch, due);
+                }
+            } catch (RuntimeException e) {
+                // An exception would cancel the scheduled task, keep ticking instead
+                logger.warn("Fleet simulation tick failed: {}", e.getMessage());
+            }
+            if (System.nanoTime() - started > tickNanos) {
+                run.tickOverruns.increment();
+            }
+        }
+
+        private void send(List<VehicleRecord> batch, long dueAt) {
+            int size = batch.size();
+            run.recordsSent.add(size);
+            run.batches.increment();
+            try {
+                run.sink.send(batch, result -> {
+                    run.latency.record(System.nanoTime() - dueAt);
+                    if (result == TelemetrySink.DROPPED) {
+                        run.recordsDropped.add(size);
+                    } else if (result == TelemetrySink.FAILED) {
+                        run.recordsFailed.add(size);
+                    } else {
+                        run.recordsAccepted.add(result);
+                    }
+                });
+            } catch (RuntimeException e) {
+                run.recordsFailed.add(size);
+                throw e;
+            }
+        }
+    }
+
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        Run run = current;
+        if (run == null) {
+            status.put("state", "IDLE");
+            return status;
+        }
+        SimulationPlan plan = run.plan;
+        status.put("state", run.state);
+        status.put("plan", plan.toMap());
+        if (run.error != null) {
+            status.put("error", run.error);
+        }
+        status.put("seededVehicles", run.seeded.get());
+        SimulatedFleet fleet = run.fleet;
+        if (fleet != null) {
+            status.put("vehicles", fleet.size);
+            status.put("targetRecordsPerSecond", fleet.size * 1000.0 / plan.getReportIntervalMs());
+        }
+        if (run.runningSince > 0) {
+            double seconds = Math.max(0.001, (System.currentTimeMillis() - run.runningSince) / 1000.0);
+            status.put("runningSeconds", seconds);
+            status.put("acceptedRecordsPerSecond", run.recordsAccepted.sum() / seconds);
+            status.put("recentRecordsPerSecond", run.recentRate);
+        }
+        status.put("recordsSent", run.recordsSent.sum());
+        status.put("recordsAccepted", run.recordsAccepted.sum());
+        status.put("recordsFailed", run.recordsFailed.sum());
+        status.put("recordsDropped", run.recordsDropped.sum());
+        status.put("batches", run.batches.sum());
+        status.put("tickOverruns", run.tickOverruns.sum());
+        status.put("latency", run.latency.toMap());
+        return status;
+    }
+
+    /**
+     * Base URL of this server, the default target of the HTTP sinks
+     */
+    public String getLocalBaseUrl() {
+        return "http://localhost:" + serverPort;
+    }
+}
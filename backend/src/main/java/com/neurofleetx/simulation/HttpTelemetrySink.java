@@ -0,0 +1,84 @@
+package com.neurofleetx.simulation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neurofleetx.wire.FleetFrame;
+import com.neurofleetx.wire.FleetFrameCodec;
+import com.neurofleetx.wire.VehicleRecord;
+import com.neurofleetx.wire.WireFormat;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntConsumer;
+
+/**
+ * Sends batches as {@code PATCH /api/vehicles} requests, as JSON or as binary
+ * fleet frames, so a run also covers the HTTP stack. Requests are asynchronous;
+ * a batch that finds {@link #MAX_IN_FLIGHT} requests still open is dropped
+ * rather than queued, so a slow server shows up as drops and latency instead
+ * of silently lowering the offered load.
+ */
+class HttpTelemetrySink implements TelemetrySink {
+
+    private static final int MAX_IN_FLIGHT = 256;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+    private final URI uri;
+    private final String token;
+    private final boolean binary;
+    private final ObjectMapper objectMapper;
+
+    HttpTelemetrySink(String baseUrl, String token, boolean binary, ObjectMapper objectMapper) {
+        this.uri = URI.create(baseUrl.replaceAll("/+$", "") + "/api/vehicles");
+        this.token = token;
+        this.binary = binary;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void send(List<VehicleRecord> batch, IntConsumer done) {
+        if (!inFlight.tryAcquire()) {
+            done.accept(DROPPED);
+            return;
+        }
+        byte[] body;
+        try {
+            body = binary ? FleetFrameCodec.encode(FleetFrame.telemetry(batch)) : json(batch);
+        } catch (JsonProcessingException e) {
+            inFlight.release();
+            done.accept(FAILED);
+            return;
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", binary ? WireFormat.MEDIA_TYPE_VALUE : "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(body));
+        if (token != null && !token.isBlank()) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    inFlight.release();
+                    boolean ok = error == null && response.statusCode() / 100 == 2;
+                    done.accept(ok ? batch.size() : FAILED);
+                });
+    }
+
+    private byte[] json(List<VehicleRecord> batch) throws JsonProcessingException {
+        List<Map<String, Object>> patches = new ArrayList<>(batch.size());
+        for (VehicleRecord record : batch) {
+            patches.add(record.toPatch());
+        }
+        return objectMapper.writeValueAsBytes(patches);
+    }
+}
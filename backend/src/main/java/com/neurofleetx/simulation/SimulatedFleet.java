@@ -0,0 +1,236 @@
+package com.neurofleetx.simulation;
+
+import com.neurofleetx.wire.VehicleRecord;
+import com.neurofleetx.wire.WireField;
+
+import java.util.Random;
+
+/**
+ * State of all simulated vehicles in parallel primitive arrays, so a large
+ * fleet costs a few dozen bytes per vehicle and no objects per step.
+ *
+ * Vehicles drive on a grid of streets {@link #BLOCK_DEGREES} apart around the
+ * plan's center. At every intersection a vehicle goes straight or turns, and
+ * sometimes waits as if at a red light; it accelerates and brakes towards its
+ * own cruising speed. Electric vehicles spend battery on distance, air drag,
+ * acceleration and auxiliary load; combustion vehicles spend fuel the same way
+ * plus idling. A vehicle that runs low is recharged or refueled after a stop.
+ *
+ * Each index is only ever stepped by one thread.
+ */
+class SimulatedFleet {
+
+    // Street spacing, about 220 m
+    static final double BLOCK_DEGREES = 0.002;
+
+    private static final double METERS_PER_DEGREE = 111_320;
+
+    // Vehicles heading further than this from the center turn back
+    private static final double MAX_RADIUS_DEGREES = 0.1;
+
+    private static final double ACCELERATION_KMH_PER_S = 8;
+    private static final double BRAKING_KMH_PER_S = 15;
+    private static final double MASS_KG = 1800;
+
+    private static final double EV_KWH_PER_KM = 0.11;
+    private static final double EV_DRAG_KWH_PER_KM_PER_KMH2 = 0.000018;
+    private static final double EV_AUX_KW = 0.4;
+    private static final double EV_DRIVETRAIN_EFFICIENCY = 0.9;
+
+    private static final double ICE_LITERS_PER_KM = 0.055;
+    private static final double ICE_DRAG_LITERS_PER_KM_PER_KMH2 = 0.0000035;
+    private static final double ICE_IDLE_LITERS_PER_HOUR = 0.8;
+    // Usable energy of a liter of fuel at the wheels, kWh
+    private static final double ICE_KWH_PER_LITER = 8.9 * 0.25;
+
+    private static final double LOW_ENERGY_PERCENT = 5;
+    private static final long REFILL_STOP_MS = 60_000;
+
+    // N, E, S, W
+    private static final int[] DIRECTION_LATITUDE = {1, 0, -1, 0};
+    private static final int[] DIRECTION_LONGITUDE = {0, 1, 0, -1};
+
+    final int size;
+    final long[] ids;
+    private final double[] latitude;
+    private final double[] longitude;
+    private final byte[] direction;
+    private final double[] speed;
+    private final double[] cruise;
+    private final long[] stopUntil;
+    private final boolean[] electric;
+    // Battery or fuel level, percent
+    private final double[] energy;
+    // Battery kWh or tank liters
+    private final double[] capacity;
+    private final double[] odometer;
+    final long[] nextReport;
+
+    private final double centerLatitude;
+    private final double centerLongitude;
+
+    SimulatedFleet(int size, double centerLatitude, double centerLongitude) {
+        this.size = size;
+        this.centerLatitude = centerLatitude;
+        this.centerLongitude = centerLongitude;
+        ids = new long[size];
+        latitude = new double[size];
+        longitude = new double[size];
+        direction = new byte[size];
+        speed = new double[size];
+        cruise = new double[size];
+        stopUntil = new long[size];
+        electric = new boolean[size];
+        energy = new double[size];
+        capacity = new double[size];
+        odometer = new double[size];
+        nextReport = new long[size];
+    }
+
+    /**
+     * Place a vehicle on the street nearest to the given position
+     * @param lat Latitude, or NaN for a random spot in the area
+     */
+    void init(int i, long id, double lat, double lon, boolean isElectric, double energyPercent, double mileage,
+              Random random) {
+        if (Double.isNaN(lat) || Double.isNaN(lon)) {
+            lat = centerLatitude + (random.nextDouble() * 2 - 1) * MAX_RADIUS_DEGREES * 0.7;
+            lon = centerLongitude + (random.nextDouble() * 2 - 1) * MAX_RADIUS_DEGREES * 0.7;
+        }
+        ids[i] = id;
+        direction[i] = (byte) random.nextInt(4);
+        // On a north-south street the longitude sits on a grid line, and vice versa
+        if (DIRECTION_LATITUDE[direction[i]] != 0) {
+            lon = Math.round(lon / BLOCK_DEGREES) * BLOCK_DEGREES;
+        } else {
+            lat = Math.round(lat / BLOCK_DEGREES) * BLOCK_DEGREES;
+        }
+        latitude[i] = lat;
+        longitude[i] = lon;
+        cruise[i] = 25 + random.nextDouble() * 35;
+        speed[i] = random.nextDouble() * cruise[i];
+        electric[i] = isElectric;
+        capacity[i] = isElectric ? 50 + random.nextDouble() * 40 : 40 + random.nextDouble() * 30;
+        energy[i] = Double.isNaN(energyPercent) ? 40 + random.nextDouble() * 60 : energyPercent;
+        odometer[i] = mileage;
+    }
+
+    /**
+     * Advance one vehicle by {@code dt} seconds
+     */
+    void step(int i, double dt, long now, Random random) {
+        double before = speed[i];
+        double target = now < stopUntil[i] ? 0 : cruise[i];
+        double change = Math.max(-BRAKING_KMH_PER_S * dt, Math.min(ACCELERATION_KMH_PER_S * dt, target - before));
+        double after = Math.max(0, before + change + (cruising(target, before) ? random.nextGaussian() * 0.5 : 0));
+        speed[i] = after;
+
+        double average = (before + after) / 2;
+        double meters = average / 3.6 * dt;
+        double km = meters / 1000;
+        // Kinetic energy gained, kWh; braking energy is not recovered
+        double accelerationKwh = after > before
+                ? 0.5 * MASS_KG * (sq(after / 3.6) - sq(before / 3.6)) / 3.6e6 : 0;
+        double used;
+        if (electric[i]) {
+            used = km * (EV_KWH_PER_KM + EV_DRAG_KWH_PER_KM_PER_KMH2 * sq(average))
+                    + EV_AUX_KW * dt / 3600 + accelerationKwh / EV_DRIVETRAIN_EFFICIENCY;
+        } else {
+            used = km * (ICE_LITERS_PER_KM + ICE_DRAG_LITERS_PER_KM_PER_KMH2 * sq(average))
+                    + (average < 1 ? ICE_IDLE_LITERS_PER_HOUR * dt / 3600 : 0) + accelerationKwh / ICE_KWH_PER_LITER;
+        }
+        energy[i] = Math.max(0, energy[i] - used / capacity[i] * 100);
+        odometer[i] += km;
+
+        if (energy[i] < LOW_ENERGY_PERCENT && now >= stopUntil[i]) {
+            // Pull over to charge or refuel
+            stopUntil[i] = now + REFILL_STOP_MS;
+            energy[i] = 90 + random.nextDouble() * 10;
+        }
+        if (meters > 0) {
+            move(i, meters, now, random);
+        }
+    }
+
+    // Whether the vehicle is cruising, where it drifts a little around its speed
+    private static boolean cruising(double target, double before) {
+        return target > 0 && Math.abs(target - before) < 1;
+    }
+
+    private void move(int i, double meters, long now, Random random) {
+        int d = direction[i];
+        double degrees = meters / METERS_PER_DEGREE;
+        if (DIRECTION_LATITUDE[d] != 0) {
+            double next = latitude[i] + DIRECTION_LATITUDE[d] * degrees;
+            double crossed = crossedLine(latitude[i], next);
+            if (Double.isNaN(crossed)) {
+                latitude[i] = next;
+                return;
+            }
+            latitude[i] = crossed;
+        } else {
+            double next = longitude[i] + DIRECTION_LONGITUDE[d] * degrees / Math.cos(Math.toRadians(latitude[i]));
+            double crossed = crossedLine(longitude[i], next);
+            if (Double.isNaN(crossed)) {
+                longitude[i] = next;
+                return;
+            }
+            longitude[i] = crossed;
+        }
+        atIntersection(i, now, random);
+    }
+
+    // The grid line passed between two coordinates, or NaN if none was
+    private static double crossedLine(double from, double to) {
+        double fromCell = Math.floor(from / BLOCK_DEGREES);
+        double toCell = Math.floor(to / BLOCK_DEGREES);
+        if (fromCell == toCell) {
+            return Double.NaN;
+        }
+        return Math.max(fromCell, toCell) * BLOCK_DEGREES;
+    }
+
+    private void atIntersection(int i, long now, Random random) {
+        int d = direction[i];
+        double pick = random.nextDouble();
+        if (pick >= 0.8) {
+            d = (d + 1) % 4;
+        } else if (pick >= 0.6) {
+            d = (d + 3) % 4;
+        }
+        // Too far out: head back towards the center instead
+        double northOffset = latitude[i] - centerLatitude;
+        double eastOffset = longitude[i] - centerLongitude;
+        if (Math.abs(northOffset) > MAX_RADIUS_DEGREES) {
+            d = northOffset > 0 ? 2 : 0;
+        } else if (Math.abs(eastOffset) > MAX_RADIUS_DEGREES) {
+            d = eastOffset > 0 ? 3 : 1;
+        }
+        direction[i] = (byte) d;
+        // Snap onto the new street, so rounding never drifts a vehicle off the grid
+        if (DIRECTION_LATITUDE[d] != 0) {
+            longitude[i] = Math.round(longitude[i] / BLOCK_DEGREES) * BLOCK_DEGREES;
+        } else {
+            latitude[i] = Math.round(latitude[i] / BLOCK_DEGREES) * BLOCK_DEGREES;
+        }
+        if (random.nextDouble() < 0.2) {
+            stopUntil[i] = Math.max(stopUntil[i], now + 5_000 + random.nextInt(35_000));
+        }
+        if (random.nextDouble() < 0.05) {
+            cruise[i] = 25 + random.nextDouble() * 35;
+        }
+    }
+
+    VehicleRecord report(int i) {
+        return new VehicleRecord(ids[i])
+                .set(WireField.LATITUDE, Math.round(latitude[i] * 1e6) / 1e6)
+                .set(WireField.LONGITUDE, Math.round(longitude[i] * 1e6) / 1e6)
+                .set(WireField.SPEED, Math.round(speed[i] * 100) / 100.0)
+                .set(electric[i] ? WireField.BATTERY_LEVEL : WireField.FUEL_LEVEL, Math.round(energy[i] * 100) / 100.0)
+                .set(WireField.MILEAGE, (long) odometer[i]);
+    }
+
+    private static double sq(double value) {
+        return value * value;
+    }
+}
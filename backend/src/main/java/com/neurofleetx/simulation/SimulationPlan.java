@@ -0,0 +1,171 @@
+package com.neurofleetx.simulation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parameters of one simulation run
+ */
+public class SimulationPlan {
+
+    /**
+     * Where the simulated vehicles come from
+     */
+    public enum Source {
+        // Vehicles already in the vehicles table
+        TABLE,
+        // New vehicles inserted for the run
+        SYNTHETIC
+    }
+
+    /**
+     * Which update path the simulated telemetry goes through
+     */
+    public enum Sink {
+        // VehicleService.patchVehicles in-process
+        SERVICE,
+        // TelemetryIngestor in-process, as frames from the gateway
+        INGEST,
+        // PATCH /api/vehicles with a JSON array
+        HTTP_JSON,
+        // PATCH /api/vehicles with a binary fleet frame
+        HTTP_FRAME
+    }
+
+    private final Source source;
+    private final int vehicles;
+    private final Sink sink;
+    private final long reportIntervalMs;
+    private final long tickMs;
+    private final int threads;
+    private final int maxBatchRecords;
+    private final double centerLatitude;
+    private final double centerLongitude;
+    private final String baseUrl;
+    private final String token;
+    private final long seed;
+
+    private SimulationPlan(Map<String, Object> settings, String defaultBaseUrl) {
+        source = option(Source.class, text(settings, "source", "TABLE"));
+        vehicles = (int) number(settings, "vehicles", 0);
+        sink = option(Sink.class, text(settings, "sink", "SERVICE"));
+        reportIntervalMs = (long) number(settings, "reportIntervalMs", 1000);
+        tickMs = (long) number(settings, "tickMs", 100);
+        threads = (int) number(settings, "threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+        maxBatchRecords = (int) number(settings, "maxBatchRecords", 1000);
+        centerLatitude = number(settings, "centerLatitude", 12.9716);
+        centerLongitude = number(settings, "centerLongitude", 77.5946);
+        baseUrl = settings.containsKey("baseUrl") ? settings.get("baseUrl").toString() : defaultBaseUrl;
+        token = settings.containsKey("token") ? settings.get("token").toString() : null;
+        seed = (long) number(settings, "seed", System.nanoTime());
+
+        if (vehicles < 0 || (source == Source.SYNTHETIC && vehicles == 0)) {
+            throw new IllegalArgumentException("vehicles must be positive for a synthetic fleet (0 means all of the table)");
+        }
+        if (reportIntervalMs < 10 || tickMs < 1 || tickMs > reportIntervalMs) {
+            throw new IllegalArgumentException("Need reportIntervalMs >= 10 and 1 <= tickMs <= reportIntervalMs");
+        }
+        if (threads < 1 || maxBatchRecords < 1) {
+            throw new IllegalArgumentException("threads and maxBatchRecords must be positive");
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if a setting is invalid
+     */
+    public static SimulationPlan from(Map<String, Object> settings, String defaultBaseUrl) {
+        return new SimulationPlan(settings == null ? new HashMap<>() : settings, defaultBaseUrl);
+    }
+
+    private static String text(Map<String, Object> settings, String name, String defaultValue) {
+        Object value = settings.get(name);
+        return value == null ? defaultValue : value.toString().trim().toUpperCase(Locale.ROOT).replace('-', '_');
+    }
+
+    private static <E extends Enum<E>> E option(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + type.getSimpleName().toLowerCase(Locale.ROOT) + " " + name
+                    + ", expected one of " + Arrays.toString(type.getEnumConstants()));
+        }
+    }
+
+    private static double number(Map<String, Object> settings, String name, double defaultValue) {
+        Object value = settings.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        try {
+            return Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for " + name + ": " + value);
+        }
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public int getVehicles() {
+        return vehicles;
+    }
+
+    public Sink getSink() {
+        return sink;
+    }
+
+    public long getReportIntervalMs() {
+        return reportIntervalMs;
+    }
+
+    public long getTickMs() {
+        return tickMs;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public int getMaxBatchRecords() {
+        return maxBatchRecords;
+    }
+
+    public double getCenterLatitude() {
+        return centerLatitude;
+    }
+
+    public double getCenterLongitude() {
+        return centerLongitude;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("source", source.name());
+        map.put("vehicles", vehicles);
+        map.put("sink", sink.name());
+        map.put("reportIntervalMs", reportIntervalMs);
+        map.put("tickMs", tickMs);
+        map.put("threads", threads);
+        map.put("maxBatchRecords", maxBatchRecords);
+        map.put("seed", seed);
+        return map;
+    }
+}
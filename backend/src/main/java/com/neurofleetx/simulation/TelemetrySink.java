@@ -0,0 +1,23 @@
+package com.neurofleetx.simulation;
+
+import com.neurofleetx.wire.VehicleRecord;
+
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * One of the update paths simulated telemetry is pushed through
+ */
+interface TelemetrySink {
+
+    // Results passed to the callback besides a count of accepted records
+    int FAILED = -1;
+    int DROPPED = -2;
+
+    /**
+     * Send one batch of records. The callback runs once, possibly on another
+     * thread, with the number of records the update path accepted, or
+     * {@link #FAILED} or {@link #DROPPED}.
+     */
+    void send(List<VehicleRecord> batch, IntConsumer done);
+}
@@ -0,0 +1,35 @@
+package com.neurofleetx.track;
+
+/**
+ * Reader of the bits written by {@link BitOutput}
+ */
+class BitInput {
+
+    private final byte[] buffer;
+    private long position;
+
+    BitInput(byte[] buffer) {
+        this.buffer = buffer;
+    }
+
+    boolean readBit() {
+        return readBits(1) != 0;
+    }
+
+    long readBits(int count) {
+        if (position + count > (long) buffer.length * 8) {
+            throw new IllegalStateException("Track chunk is truncated");
+        }
+        long value = 0;
+        while (count > 0) {
+            int index = (int) (position >>> 3);
+            int available = 8 - (int) (position & 7);
+            int take = Math.min(available, count);
+            int chunk = ((buffer[index] & 0xFF) >>> (available - take)) & ((1 << take) - 1);
+            value = (value << take) | chunk;
+            position += take;
+            count -= take;
+        }
+        return value;
+    }
+}
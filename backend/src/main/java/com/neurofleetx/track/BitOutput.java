@@ -0,0 +1,55 @@
+package com.neurofleetx.track;
+
+import java.util.Arrays;
+
+/**
+ * Growable bit buffer, most significant bit first
+ */
+class BitOutput {
+
+    private byte[] buffer;
+    private long bits;
+
+    BitOutput(int initialBytes) {
+        buffer = new byte[Math.max(16, initialBytes)];
+    }
+
+    void writeBit(boolean bit) {
+        writeBits(bit ? 1 : 0, 1);
+    }
+
+    /**
+     * Write the low {@code count} bits of a value, 0 to 64
+     */
+    void writeBits(long value, int count) {
+        ensure(count);
+        while (count > 0) {
+            int index = (int) (bits >>> 3);
+            int free = 8 - (int) (bits & 7);
+            int take = Math.min(free, count);
+            int chunk = (int) ((value >>> (count - take)) & ((1 << take) - 1));
+            buffer[index] |= (byte) (chunk << (free - take));
+            bits += take;
+            count -= take;
+        }
+    }
+
+    long bitSize() {
+        return bits;
+    }
+
+    int byteSize() {
+        return (int) ((bits + 7) >>> 3);
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(buffer, byteSize());
+    }
+
+    private void ensure(int extraBits) {
+        int needed = (int) ((bits + extraBits + 7) >>> 3);
+        if (needed > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, needed));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.neurofleetx.track;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling: keeps the first and last point
+ * and, from each of the buckets in between, the point forming the largest
+ * triangle with the point kept before it and the average of the next bucket.
+ * Peaks and turns survive, unlike with every n-th point.
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * @param x Ascending for a time series, or any planar coordinate for a path
+     * @return Indices of at most {@code threshold} points, ascending
+     */
+    public static int[] select(double[] x, double[] y, int size, int threshold) {
+        if (threshold >= size) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        if (threshold < 3) {
+            // Too few for any bucket, keep the ends
+            return size == 1 ? new int[] {0} : new int[] {0, size - 1};
+        }
+        int[] selected = new int[threshold];
+        double bucketSize = (double) (size - 2) / (threshold - 2);
+        int kept = 0;
+        selected[0] = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextStart = end;
+            int nextEnd = Math.min(size, (int) Math.floor((bucket + 2) * bucketSize) + 1);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            averageX /= nextCount;
+            averageY /= nextCount;
+
+            double ax = x[kept];
+            double ay = y[kept];
+            double maxArea = -1;
+            int best = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((ax - averageX) * (y[i] - ay) - (ax - x[i]) * (averageY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    best = i;
+                }
+            }
+            selected[bucket + 1] = best;
+            kept = best;
+        }
+        selected[threshold - 1] = size - 1;
+        return selected;
+    }
+}
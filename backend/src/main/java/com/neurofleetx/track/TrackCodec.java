@@ -0,0 +1,227 @@
+package com.neurofleetx.track;
+
+/**
+ * Gorilla-style encoding of a track chunk.
+ *
+ * <pre>
+ * chunk      = first point, then each further point as
+ *              time, latitude, longitude (delta-of-delta), speed, energy (XOR)
+ * first      = time (64 bits), latitude, longitude (32 bits, microdegrees),
+ *              speed, energy (64-bit doubles)
+ * dod        = '0' for 0, else zigzag value as '10' + 7 bits, '110' + 12 bits,
+ *              '1110' + 20 bits or '1111' + 64 bits
+ * xor        = '0' if equal to the previous value, else the XOR with it as
+ *              '10' + its meaningful bits inside the previous leading/trailing zeros,
+ *              or '11' + leading zeros (5 bits) + length - 1 (6 bits) + meaningful bits
+ * </pre>
+ *
+ * Coordinates are rounded to 1e-6 degrees (about 0.1 m); times, speeds and
+ * energy levels are exact. Points arrive one at a time, so a vehicle's open
+ * chunk is encoded as it grows and never held as raw points.
+ */
+public final class TrackCodec {
+
+    private static final double MICRO = 1_000_000.0;
+
+    private TrackCodec() {
+    }
+
+    /**
+     * Encoder of one chunk
+     */
+    public static final class Encoder {
+
+        private final BitOutput out = new BitOutput(64);
+        private int count;
+        private long firstTime;
+        private long lastTime;
+        private final DeltaState time = new DeltaState();
+        private final DeltaState latitude = new DeltaState();
+        private final DeltaState longitude = new DeltaState();
+        private final XorState speed = new XorState();
+        private final XorState energy = new XorState();
+
+        public void add(long t, double lat, double lon, double spd, double nrg) {
+            int latMicro = (int) Math.round(lat * MICRO);
+            int lonMicro = (int) Math.round(lon * MICRO);
+            if (count == 0) {
+                firstTime = t;
+                out.writeBits(t, 64);
+                out.writeBits(latMicro, 32);
+                out.writeBits(lonMicro, 32);
+                time.first(t);
+                latitude.first(latMicro);
+                longitude.first(lonMicro);
+                speed.first(out, spd);
+                energy.first(out, nrg);
+            } else {
+                time.write(out, t);
+                latitude.write(out, latMicro);
+                longitude.write(out, lonMicro);
+                speed.write(out, spd);
+                energy.write(out, nrg);
+            }
+            lastTime = t;
+            count++;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public int byteSize() {
+            return out.byteSize();
+        }
+
+        public long getFirstTime() {
+            return firstTime;
+        }
+
+        public long getLastTime() {
+            return lastTime;
+        }
+
+        public byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * @param count Number of points in the chunk, stored alongside it
+     */
+    public static TrackPoints decode(byte[] data, int count) {
+        TrackPoints points = new TrackPoints(count);
+        if (count == 0) {
+            return points;
+        }
+        BitInput in = new BitInput(data);
+        long t = in.readBits(64);
+        long lat = (int) in.readBits(32);
+        long lon = (int) in.readBits(32);
+        long speedBits = in.readBits(64);
+        long energyBits = in.readBits(64);
+        points.add(t, lat / MICRO, lon / MICRO, Double.longBitsToDouble(speedBits), Double.longBitsToDouble(energyBits));
+
+        long timeDelta = 0;
+        long latDelta = 0;
+        long lonDelta = 0;
+        int[] speedWindow = {-1, 0};
+        int[] energyWindow = {-1, 0};
+        for (int i = 1; i < count; i++) {
+            timeDelta += readDod(in);
+            t += timeDelta;
+            latDelta += readDod(in);
+            lat += latDelta;
+            lonDelta += readDod(in);
+            lon += lonDelta;
+            speedBits = readXor(in, speedBits, speedWindow);
+            energyBits = readXor(in, energyBits, energyWindow);
+            points.add(t, lat / MICRO, lon / MICRO, Double.longBitsToDouble(speedBits), Double.longBitsToDouble(energyBits));
+        }
+        return points;
+    }
+
+    private static final class DeltaState {
+        long previous;
+        long delta;
+
+        void first(long value) {
+            previous = value;
+        }
+
+        void write(BitOutput out, long value) {
+            long next = value - previous;
+            writeDod(out, next - delta);
+            delta = next;
+            previous = value;
+        }
+    }
+
+    private static final class XorState {
+        long previous;
+        int leading = -1;
+        int trailing;
+
+        void first(BitOutput out, double value) {
+            previous = Double.doubleToRawLongBits(value);
+            out.writeBits(previous, 64);
+        }
+
+        void write(BitOutput out, double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            long xor = bits ^ previous;
+            previous = bits;
+            if (xor == 0) {
+                out.writeBit(false);
+                return;
+            }
+            out.writeBit(true);
+            int lead = Math.min(31, Long.numberOfLeadingZeros(xor));
+            int trail = Long.numberOfTrailingZeros(xor);
+            if (leading >= 0 && lead >= leading && trail >= trailing) {
+                out.writeBit(false);
+                out.writeBits(xor >>> trailing, 64 - leading - trailing);
+            } else {
+                int length = 64 - lead - trail;
+                out.writeBit(true);
+                out.writeBits(lead, 5);
+                out.writeBits(length - 1, 6);
+                out.writeBits(xor >>> trail, length);
+                leading = lead;
+                trailing = trail;
+            }
+        }
+    }
+
+    private static void writeDod(BitOutput out, long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        // Unsigned: the zigzag of a delta of delta beyond 2^62 has the sign bit set
+        if (zigzag == 0) {
+            out.writeBit(false);
+        } else if (zigzag >>> 7 == 0) {
+            out.writeBits(0b10, 2);
+            out.writeBits(zigzag, 7);
+        } else if (zigzag >>> 12 == 0) {
+            out.writeBits(0b110, 3);
+            out.writeBits(zigzag, 12);
+        } else if (zigzag >>> 20 == 0) {
+            out.writeBits(0b1110, 4);
+            out.writeBits(zigzag, 20);
+        } else {
+            out.writeBits(0b1111, 4);
+            out.writeBits(zigzag, 64);
+        }
+    }
+
+    private static long readDod(BitInput in) {
+        long zigzag;
+        if (!in.readBit()) {
+            return 0;
+        } else if (!in.readBit()) {
+            zigzag = in.readBits(7);
+        } else if (!in.readBit()) {
+            zigzag = in.readBits(12);
+        } else if (!in.readBit()) {
+            zigzag = in.readBits(20);
+        } else {
+            zigzag = in.readBits(64);
+        }
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    // window holds the leading and trailing zeros of the last explicit XOR
+    private static long readXor(BitInput in, long previous, int[] window) {
+        if (!in.readBit()) {
+            return previous;
+        }
+        if (!in.readBit()) {
+            int length = 64 - window[0] - window[1];
+            return previous ^ (in.readBits(length) << window[1]);
+        }
+        int lead = (int) in.readBits(5);
+        int length = (int) in.readBits(6) + 1;
+        window[0] = lead;
+        window[1] = 64 - lead - length;
+        return previous ^ (in.readBits(length) << window[1]);
+    }
+}
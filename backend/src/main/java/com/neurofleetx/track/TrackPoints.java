@@ -0,0 +1,101 @@
+package com.neurofleetx.track;
+
+import java.util.Arrays;
+
+/**
+ * A growable track in parallel columns: time (epoch millis), latitude,
+ * longitude, speed (km/h) and battery or fuel level (percent, NaN if unknown)
+ */
+public class TrackPoints {
+
+    private long[] times;
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] speeds;
+    private double[] energies;
+    private int size;
+
+    public TrackPoints(int initialCapacity) {
+        int capacity = Math.max(4, initialCapacity);
+        times = new long[capacity];
+        latitudes = new double[capacity];
+        longitudes = new double[capacity];
+        speeds = new double[capacity];
+        energies = new double[capacity];
+    }
+
+    public void add(long time, double latitude, double longitude, double speed, double energy) {
+        if (size == times.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            latitudes = Arrays.copyOf(latitudes, capacity);
+            longitudes = Arrays.copyOf(longitudes, capacity);
+            speeds = Arrays.copyOf(speeds, capacity);
+            energies = Arrays.copyOf(energies, capacity);
+        }
+        times[size] = time;
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        speeds[size] = speed;
+        energies[size] = energy;
+        size++;
+    }
+
+    public void addAll(TrackPoints other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.times[i], other.latitudes[i], other.longitudes[i], other.speeds[i], other.energies[i]);
+        }
+    }
+
+    /**
+     * Points with a time in [from, to]
+     */
+    public TrackPoints between(long from, long to) {
+        TrackPoints result = new TrackPoints(size);
+        for (int i = 0; i < size; i++) {
+            if (times[i] >= from && times[i] <= to) {
+                result.add(times[i], latitudes[i], longitudes[i], speeds[i], energies[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The points at the given indices, in that order
+     */
+    public TrackPoints select(int[] indices) {
+        TrackPoints result = new TrackPoints(indices.length);
+        for (int i : indices) {
+            result.add(times[i], latitudes[i], longitudes[i], speeds[i], energies[i]);
+        }
+        return result;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long time(int i) {
+        return times[i];
+    }
+
+    public double latitude(int i) {
+        return latitudes[i];
+    }
+
+    public double longitude(int i) {
+        return longitudes[i];
+    }
+
+    public double speed(int i) {
+        return speeds[i];
+    }
+
+    public double energy(int i) {
+        return energies[i];
+    }
+}
@@ -0,0 +1,124 @@
+package com.neurofleetx.track;
+
+/**
+ * Online simplification of one vehicle's track with an opening window.
+ *
+ * The last kept point anchors a window of the points since. A new point is
+ * held back while every point in the window lies within the tolerance of the
+ * line from the anchor to it; once one does not, the newest window point is
+ * kept and becomes the anchor. So every dropped point is within the tolerance
+ * of the kept track, as with Douglas-Peucker, while only the window is held.
+ *
+ * Speed and energy use a dead band: a point whose speed or energy level moved
+ * further than its tolerance from the anchor's is kept. A point is also kept
+ * at least every max interval, and when the window is full.
+ */
+public class TrackSimplifier {
+
+    private static final double METERS_PER_DEGREE = 111_320;
+
+    private final double toleranceMeters;
+    private final double speedTolerance;
+    private final double energyTolerance;
+    private final long maxIntervalMillis;
+
+    private boolean anchored;
+    private long anchorTime;
+    private double anchorLatitude;
+    private double anchorLongitude;
+    private double anchorSpeed;
+    private double anchorEnergy;
+
+    private final TrackPoints window;
+    private final int windowCapacity;
+
+    public TrackSimplifier(double toleranceMeters, double speedTolerance, double energyTolerance,
+                           long maxIntervalMillis, int windowCapacity) {
+        this.toleranceMeters = toleranceMeters;
+        this.speedTolerance = speedTolerance;
+        this.energyTolerance = energyTolerance;
+        this.maxIntervalMillis = maxIntervalMillis;
+        this.windowCapacity = Math.max(1, windowCapacity);
+        window = new TrackPoints(Math.min(8, this.windowCapacity));
+    }
+
+    /**
+     * Offer the next point; kept points are added to {@code out}, in order
+     * @return Number of points kept, 0 to 2
+     */
+    public int offer(long time, double latitude, double longitude, double speed, double energy, TrackCodec.Encoder out) {
+        if (!anchored) {
+            keep(time, latitude, longitude, speed, energy, out);
+            return 1;
+        }
+        int kept = 0;
+        int last = window.size() - 1;
+        if (last >= 0 && (window.size() >= windowCapacity || time - anchorTime > maxIntervalMillis
+                || deviates(latitude, longitude))) {
+            keep(window.time(last), window.latitude(last), window.longitude(last), window.speed(last),
+                    window.energy(last), out);
+            kept++;
+        }
+        if (outside(speed, anchorSpeed, speedTolerance) || outside(energy, anchorEnergy, energyTolerance)
+                || time - anchorTime > maxIntervalMillis) {
+            keep(time, latitude, longitude, speed, energy, out);
+            kept++;
+        } else {
+            window.add(time, latitude, longitude, speed, energy);
+        }
+        return kept;
+    }
+
+    /**
+     * The newest point not kept yet, or null if there is none
+     */
+    public TrackPoints pending() {
+        int last = window.size() - 1;
+        if (last < 0) {
+            return null;
+        }
+        TrackPoints points = new TrackPoints(1);
+        points.add(window.time(last), window.latitude(last), window.longitude(last), window.speed(last),
+                window.energy(last));
+        return points;
+    }
+
+    private void keep(long time, double latitude, double longitude, double speed, double energy, TrackCodec.Encoder out) {
+        out.add(time, latitude, longitude, speed, energy);
+        anchored = true;
+        anchorTime = time;
+        anchorLatitude = latitude;
+        anchorLongitude = longitude;
+        anchorSpeed = speed;
+        anchorEnergy = energy;
+        window.clear();
+    }
+
+    // Whether a window point is further than the tolerance from the anchor-to-new-point segment
+    private boolean deviates(double latitude, double longitude) {
+        double scale = Math.cos(Math.toRadians(anchorLatitude)) * METERS_PER_DEGREE;
+        double bx = (longitude - anchorLongitude) * scale;
+        double by = (latitude - anchorLatitude) * METERS_PER_DEGREE;
+        double lengthSquared = bx * bx + by * by;
+        double limit = toleranceMeters * toleranceMeters;
+        for (int i = 0; i < window.size(); i++) {
+            double px = (window.longitude(i) - anchorLongitude) * scale;
+            double py = (window.latitude(i) - anchorLatitude) * METERS_PER_DEGREE;
+            double t = lengthSquared > 0 ? Math.max(0, Math.min(1, (px * bx + py * by) / lengthSquared)) : 0;
+            double dx = px - t * bx;
+            double dy = py - t * by;
+            if (dx * dx + dy * dy > limit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // NaN on only one side counts as a change
+    private static boolean outside(double value, double reference, double tolerance) {
+        if (Double.isNaN(value) || Double.isNaN(reference)) {
+            return Double.isNaN(value) != Double.isNaN(reference);
+        }
+        return Math.abs(value - reference) > tolerance;
+    }
+}
@@ -0,0 +1,219 @@
+package com.neurofleetx.track;
+
+import com.neurofleetx.model.Vehicle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the position history of every vehicle in compressed chunks.
+ *
+ * Each update goes through the vehicle's {@link TrackSimplifier}, and the
+ * points it keeps are appended to the vehicle's open chunk, encoded by
+ * {@link TrackCodec} as they arrive. A chunk is sealed once it holds
+ * {@code track.chunk-points} points or spans {@code track.chunk-seconds}, then
+ * queued and written to {@code track_chunks} in JDBC batches.
+ */
+@Component
+public class TrackStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrackStore.class);
+
+    private static final String INSERT_CHUNK_SQL =
+            "INSERT INTO track_chunks (vehicle_id, started_at, ended_at, points, raw_points, data) VALUES (?, ?, ?, ?, ?, ?)";
+
+    // A raw point as five 8-byte columns, for the compression ratio
+    static final int RAW_POINT_BYTES = 40;
+
+    @Value("${track.tolerance-meters:10}")
+    private double toleranceMeters;
+
+    @Value("${track.speed-tolerance-kmh:5}")
+    private double speedTolerance;
+
+    @Value("${track.energy-tolerance:1}")
+    private double energyTolerance;
+
+    @Value("${track.max-interval-seconds:120}")
+    private int maxIntervalSeconds;
+
+    @Value("${track.window-points:32}")
+    private int windowPoints;
+
+    @Value("${track.chunk-points:512}")
+    private int chunkPoints;
+
+    @Value("${track.chunk-seconds:900}")
+    private int chunkSeconds;
+
+    @Value("${track.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${track.batch-size:500}")
+    private int batchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * One vehicle's simplifier and open chunk
+     */
+    private final class Track {
+        final TrackSimplifier simplifier = new TrackSimplifier(toleranceMeters, speedTolerance, energyTolerance,
+                maxIntervalSeconds * 1000L, windowPoints);
+        TrackCodec.Encoder chunk = new TrackCodec.Encoder();
+        int rawPoints;
+    }
+
+    private final Map<Long, Track> tracks = new ConcurrentHashMap<>();
+    private BlockingQueue<Object[]> pendingChunks;
+
+    private final LongAdder rawPoints = new LongAdder();
+    private final LongAdder keptPoints = new LongAdder();
+    private final AtomicLong sealedRawPoints = new AtomicLong();
+    private final AtomicLong sealedBytes = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        pendingChunks = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Record a vehicle's current position, speed and energy level
+     */
+    public void record(Vehicle vehicle) {
+        if (vehicle.getId() == null || vehicle.getLatitude() == null || vehicle.getLongitude() == null) {
+            return;
+        }
+        double speed = vehicle.getSpeed() != null ? vehicle.getSpeed() : Double.NaN;
+        Double level = vehicle.getBatteryLevel() != null ? vehicle.getBatteryLevel() : vehicle.getFuelLevel();
+        double energy = level != null ? level : Double.NaN;
+        long now = System.currentTimeMillis();
+        rawPoints.increment();
+        Track track = tracks.computeIfAbsent(vehicle.getId(), id -> new Track());
+        synchronized (track) {
+            track.rawPoints++;
+            keptPoints.add(track.simplifier.offer(now, vehicle.getLatitude(), vehicle.getLongitude(), speed, energy,
+                    track.chunk));
+            if (track.chunk.size() >= chunkPoints) {
+                seal(vehicle.getId(), track);
+            }
+        }
+    }
+
+    public void forget(Long vehicleId) {
+        tracks.remove(vehicleId);
+    }
+
+    // Queue the open chunk for writing and start a new one
+    private void seal(long vehicleId, Track track) {
+        TrackCodec.Encoder chunk = track.chunk;
+        if (chunk.size() == 0) {
+            return;
+        }
+        byte[] data = chunk.toByteArray();
+        Object[] row = {vehicleId, new Timestamp(chunk.getFirstTime()), new Timestamp(chunk.getLastTime()),
+                chunk.size(), track.rawPoints, data};
+        if (pendingChunks.offer(row)) {
+            sealedRawPoints.addAndGet(track.rawPoints);
+            sealedBytes.addAndGet(data.length);
+        } else {
+            dropped.incrementAndGet();
+        }
+        track.chunk = new TrackCodec.Encoder();
+        track.rawPoints = 0;
+    }
+
+    // Seal chunks that span long enough, so quiet vehicles' history still reaches the table
+    @Scheduled(fixedDelayString = "${track.seal-interval-ms:10000}")
+    public void sealExpired() {
+        long cutoff = System.currentTimeMillis() - chunkSeconds * 1000L;
+        for (Map.Entry<Long, Track> entry : tracks.entrySet()) {
+            Track track = entry.getValue();
+            synchronized (track) {
+                if (track.chunk.size() > 0 && track.chunk.getFirstTime() <= cutoff) {
+                    seal(entry.getKey(), track);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${track.flush-interval-ms:1000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        while (pendingChunks.drainTo(batch, batchSize) > 0) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_CHUNK_SQL, batch);
+                written.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                logger.error("Failed to write {} track chunks", batch.size(), e);
+                dropped.addAndGet(batch.size());
+            }
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Map.Entry<Long, Track> entry : tracks.entrySet()) {
+            synchronized (entry.getValue()) {
+                seal(entry.getKey(), entry.getValue());
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Points of a vehicle not written yet: the open chunk and the newest point
+     * the simplifier still holds back
+     */
+    public TrackPoints recent(long vehicleId) {
+        Track track = tracks.get(vehicleId);
+        if (track == null) {
+            return new TrackPoints(0);
+        }
+        synchronized (track) {
+            TrackPoints points = TrackCodec.decode(track.chunk.toByteArray(), track.chunk.size());
+            TrackPoints pending = track.simplifier.pending();
+            if (pending != null) {
+                points.addAll(pending);
+            }
+            return points;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long sealedRaw = sealedRawPoints.get();
+        long bytes = sealedBytes.get();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedVehicles", tracks.size());
+        stats.put("rawPoints", rawPoints.sum());
+        stats.put("keptPoints", keptPoints.sum());
+        stats.put("sealedRawBytes", sealedRaw * RAW_POINT_BYTES);
+        stats.put("sealedBytes", bytes);
+        stats.put("compressionRatio", bytes > 0 ? Math.round(sealedRaw * RAW_POINT_BYTES * 10.0 / bytes) / 10.0 : null);
+        stats.put("chunksWritten", written.get());
+        stats.put("chunksDropped", dropped.get());
+        stats.put("chunksQueued", pendingChunks.size());
+        return stats;
+    }
+}
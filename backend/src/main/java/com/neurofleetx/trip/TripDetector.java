@@ -0,0 +1,322 @@
+package com.neurofleetx.trip;
+
+import com.neurofleetx.model.Trip;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Segments each vehicle's stream of position updates into trips.
+ *
+ * A vehicle is PARKED until it moves, DRIVING while it moves and PAUSED once
+ * it stops. A pause shorter than the stop threshold, such as a red light, is
+ * counted as idle time; a longer one ends the trip where the pause began. A
+ * gap in the updates longer than the max gap ends the trip at the last update.
+ *
+ * Only running totals are kept per vehicle (distance, moving and idle time,
+ * max speed, the first and latest energy level), never the track itself.
+ * Positions implying an impossible speed are dropped as GPS jumps.
+ *
+ * Updates of different vehicles run in parallel; one vehicle's state is
+ * changed under its lock. Completed trips are passed to the listener while the
+ * lock is held, so the listener must not block.
+ */
+public class TripDetector {
+
+    public enum Phase { PARKED, DRIVING, PAUSED }
+
+    public interface Listener {
+        void onTrip(Trip trip);
+    }
+
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+
+    private static final class State {
+        Phase phase = Phase.PARKED;
+        long lastTime;
+        double lastLatitude;
+        double lastLongitude;
+        double lastEnergy = Double.NaN;
+
+        long startTime;
+        double startLatitude;
+        double startLongitude;
+        double startEnergy;
+        String energyType;
+        double meters;
+        long movingMillis;
+        long idleMillis;
+        double maxSpeed;
+        int samples;
+
+        // Where and when the current pause began
+        long pauseTime;
+        double pauseLatitude;
+        double pauseLongitude;
+        double pauseMeters;
+        double pauseEnergy;
+    }
+
+    private final double movingKmh;
+    private final long stopMillis;
+    private final long maxGapMillis;
+    private final double minTripMeters;
+    private final double maxKmh;
+    private final Listener listener;
+
+    private final Map<Long, State> states = new ConcurrentHashMap<>();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder jumps = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    /**
+     * @param movingKmh Speed from which a vehicle counts as moving
+     * @param stopMillis Pause after which a trip ends
+     * @param maxGapMillis Silence after which a trip ends
+     * @param minTripMeters Shorter trips are discarded, e.g. moving in a depot
+     * @param maxKmh Faster implied movement is a GPS jump
+     */
+    public TripDetector(double movingKmh, long stopMillis, long maxGapMillis, double minTripMeters, double maxKmh,
+                        Listener listener) {
+        this.movingKmh = movingKmh;
+        this.stopMillis = stopMillis;
+        this.maxGapMillis = maxGapMillis;
+        this.minTripMeters = minTripMeters;
+        this.maxKmh = maxKmh;
+        this.listener = listener;
+    }
+
+    /**
+     * @param speed Reported speed in km/h, or NaN to infer it from the distance covered
+     * @param energy Battery or fuel level in percent, or NaN if unknown
+     * @param energyType "BATTERY" or "FUEL", or null
+     */
+    public void update(long vehicleId, double latitude, double longitude, double speed, double energy,
+                       String energyType, long now) {
+        updates.increment();
+        State state = states.computeIfAbsent(vehicleId, id -> new State());
+        synchronized (state) {
+            if (state.lastTime == 0) {
+                remember(state, latitude, longitude, energy, now);
+                return;
+            }
+            long dt = now - state.lastTime;
+            if (dt < 0) {
+                return;
+            }
+            double meters = distanceMeters(state.lastLatitude, state.lastLongitude, latitude, longitude);
+            // Updates in the same millisecond still get a second to cover the distance
+            if (meters / Math.max(dt, 1000) * 3600 > maxKmh) {
+                jumps.increment();
+                return;
+            }
+            if (state.phase != Phase.PARKED && dt > maxGapMillis) {
+                close(vehicleId, state);
+            }
+            double kmh = Double.isNaN(speed) ? (dt > 0 ? meters / dt * 3600 : 0) : speed;
+            boolean moving = kmh >= movingKmh;
+
+            switch (state.phase) {
+                case PARKED:
+                    if (moving) {
+                        start(state, dt <= maxGapMillis, latitude, longitude, energy, energyType, now);
+                        state.meters = dt <= maxGapMillis ? meters : 0;
+                        state.movingMillis = dt <= maxGapMillis ? dt : 0;
+                        state.maxSpeed = kmh;
+                    }
+                    break;
+                case DRIVING:
+                    state.meters += meters;
+                    state.movingMillis += dt;
+                    if (!moving) {
+                        state.phase = Phase.PAUSED;
+                        state.pauseTime = now;
+                        state.pauseLatitude = latitude;
+                        state.pauseLongitude = longitude;
+                        state.pauseMeters = state.meters;
+                        state.pauseEnergy = Double.isNaN(energy) ? state.lastEnergy : energy;
+                    }
+                    break;
+                default:
+                    state.meters += meters;
+                    if (moving) {
+                        // A short stop, e.g. at a light
+                        state.idleMillis += now - state.pauseTime;
+                        state.phase = Phase.DRIVING;
+                    } else if (now - state.pauseTime >= stopMillis) {
+                        close(vehicleId, state);
+                    }
+                    break;
+            }
+            if (state.phase != Phase.PARKED) {
+                state.samples++;
+                state.maxSpeed = Math.max(state.maxSpeed, kmh);
+            }
+            remember(state, latitude, longitude, energy, now);
+        }
+    }
+
+    private static void remember(State state, double latitude, double longitude, double energy, long now) {
+        state.lastTime = now;
+        state.lastLatitude = latitude;
+        state.lastLongitude = longitude;
+        if (!Double.isNaN(energy)) {
+            state.lastEnergy = energy;
+        }
+    }
+
+    // Begin a trip, at the last update if the vehicle left from there or else here
+    private static void start(State state, boolean fromLast, double latitude, double longitude, double energy,
+                              String energyType, long now) {
+        state.phase = Phase.DRIVING;
+        state.startTime = fromLast ? state.lastTime : now;
+        state.startLatitude = fromLast ? state.lastLatitude : latitude;
+        state.startLongitude = fromLast ? state.lastLongitude : longitude;
+        state.startEnergy = fromLast && !Double.isNaN(state.lastEnergy) ? state.lastEnergy : energy;
+        state.energyType = energyType;
+        state.idleMillis = 0;
+        state.samples = 0;
+    }
+
+    // End the trip, where the pause began if the vehicle is paused
+    private void close(long vehicleId, State state) {
+        Trip trip = state.phase == Phase.PAUSED
+                ? summarize(vehicleId, state, state.pauseTime, state.pauseLatitude, state.pauseLongitude,
+                        state.pauseMeters, state.pauseEnergy)
+                : summarize(vehicleId, state, state.lastTime, state.lastLatitude, state.lastLongitude,
+                        state.meters, state.lastEnergy);
+        state.phase = Phase.PARKED;
+        if (trip.getDistanceKm() * 1000 < minTripMeters) {
+            discarded.increment();
+            return;
+        }
+        completed.increment();
+        listener.onTrip(trip);
+    }
+
+    private static Trip summarize(long vehicleId, State state, long endTime, double endLatitude, double endLongitude,
+                                  double meters, double endEnergy) {
+        Trip trip = new Trip();
+        trip.setVehicleId(vehicleId);
+        trip.setStartedAt(toDateTime(state.startTime));
+        trip.setEndedAt(toDateTime(endTime));
+        trip.setStartLatitude(state.startLatitude);
+        trip.setStartLongitude(state.startLongitude);
+        trip.setEndLatitude(endLatitude);
+        trip.setEndLongitude(endLongitude);
+        double km = meters / 1000;
+        trip.setDistanceKm(round(km, 3));
+        trip.setDurationSeconds((endTime - state.startTime) / 1000);
+        trip.setIdleSeconds(state.idleMillis / 1000);
+        trip.setMaxSpeed(round(state.maxSpeed, 2));
+        trip.setAverageSpeed(state.movingMillis > 0 ? round(km / (state.movingMillis / 3_600_000.0), 2) : 0.0);
+        if (state.energyType != null && !Double.isNaN(state.startEnergy) && !Double.isNaN(endEnergy)) {
+            double delta = endEnergy - state.startEnergy;
+            trip.setEnergyType(state.energyType);
+            trip.setEnergyDelta(round(delta, 2));
+            // A refill during the trip leaves nothing meaningful per km
+            trip.setEnergyPerKm(delta <= 0 && km > 0 ? round(-delta / km, 4) : null);
+        }
+        trip.setSamples(state.samples);
+        return trip;
+    }
+
+    /**
+     * End trips of vehicles that stopped or went silent, since no update will
+     * arrive to do it, and forget vehicles parked for longer than the max gap
+     */
+    public void sweep(long now) {
+        Iterator<Map.Entry<Long, State>> entries = states.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Long, State> entry = entries.next();
+            State state = entry.getValue();
+            synchronized (state) {
+                if (state.phase == Phase.PAUSED && now - state.pauseTime >= stopMillis) {
+                    close(entry.getKey(), state);
+                } else if (state.phase == Phase.DRIVING && now - state.lastTime > maxGapMillis) {
+                    close(entry.getKey(), state);
+                }
+                if (state.phase == Phase.PARKED && now - state.lastTime > maxGapMillis) {
+                    entries.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * The trip a vehicle is on so far, without an id, or null if it is parked
+     */
+    public Trip current(long vehicleId) {
+        State state = states.get(vehicleId);
+        if (state == null) {
+            return null;
+        }
+        synchronized (state) {
+            return state.phase == Phase.PARKED ? null : summarize(vehicleId, state, state.lastTime,
+                    state.lastLatitude, state.lastLongitude, state.meters, state.lastEnergy);
+        }
+    }
+
+    /**
+     * Trips in progress of all vehicles
+     */
+    public List<Trip> active() {
+        List<Trip> trips = new ArrayList<>();
+        for (Long vehicleId : states.keySet()) {
+            Trip trip = current(vehicleId);
+            if (trip != null) {
+                trips.add(trip);
+            }
+        }
+        return trips;
+    }
+
+    public void forget(long vehicleId) {
+        states.remove(vehicleId);
+    }
+
+    public int getTrackedVehicles() {
+        return states.size();
+    }
+
+    public long getUpdates() {
+        return updates.sum();
+    }
+
+    public long getJumps() {
+        return jumps.sum();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getDiscarded() {
+        return discarded.sum();
+    }
+
+    static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static double round(double value, int decimals) {
+        double scale = Math.pow(10, decimals);
+        return Math.round(value * scale) / scale;
+    }
+}
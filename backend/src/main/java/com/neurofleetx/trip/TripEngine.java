@@ -0,0 +1,159 @@
+package com.neurofleetx.trip;
+
+import com.neurofleetx.model.Trip;
+import com.neurofleetx.model.Vehicle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feeds every vehicle update to the {@link TripDetector} and records the
+ * completed trips.
+ *
+ * Trips are queued and written to {@code trips} in JDBC batches every
+ * {@code trip.flush-interval-ms}, like geofence events. A full queue drops
+ * trips and counts them.
+ */
+@Component
+public class TripEngine implements TripDetector.Listener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TripEngine.class);
+
+    private static final String INSERT_TRIP_SQL =
+            "INSERT INTO trips (vehicle_id, started_at, ended_at, start_latitude, start_longitude, end_latitude, end_longitude, "
+                    + "distance_km, duration_seconds, idle_seconds, max_speed, average_speed, energy_type, energy_delta, "
+                    + "energy_per_km, samples) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Value("${trip.moving-speed-kmh:5}")
+    private double movingKmh;
+
+    @Value("${trip.stop-seconds:180}")
+    private int stopSeconds;
+
+    @Value("${trip.max-gap-seconds:600}")
+    private int maxGapSeconds;
+
+    @Value("${trip.min-distance-meters:200}")
+    private double minDistanceMeters;
+
+    @Value("${trip.max-speed-kmh:250}")
+    private double maxSpeedKmh;
+
+    @Value("${trip.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${trip.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TripDetector detector;
+    private BlockingQueue<Object[]> pendingTrips;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        pendingTrips = new ArrayBlockingQueue<>(queueCapacity);
+        detector = new TripDetector(movingKmh, stopSeconds * 1000L, maxGapSeconds * 1000L, minDistanceMeters,
+                maxSpeedKmh, this);
+    }
+
+    /**
+     * Feed a vehicle's current position, speed and energy level
+     */
+    public void onPosition(Vehicle vehicle) {
+        if (vehicle.getId() == null || vehicle.getLatitude() == null || vehicle.getLongitude() == null) {
+            return;
+        }
+        double speed = vehicle.getSpeed() != null ? vehicle.getSpeed() : Double.NaN;
+        double energy = Double.NaN;
+        String energyType = null;
+        if (vehicle.getBatteryLevel() != null) {
+            energy = vehicle.getBatteryLevel();
+            energyType = "BATTERY";
+        } else if (vehicle.getFuelLevel() != null) {
+            energy = vehicle.getFuelLevel();
+            energyType = "FUEL";
+        }
+        detector.update(vehicle.getId(), vehicle.getLatitude(), vehicle.getLongitude(), speed, energy, energyType,
+                System.currentTimeMillis());
+    }
+
+    public void forget(Long vehicleId) {
+        detector.forget(vehicleId);
+    }
+
+    @Override
+    public void onTrip(Trip trip) {
+        Object[] row = {trip.getVehicleId(), Timestamp.valueOf(trip.getStartedAt()), Timestamp.valueOf(trip.getEndedAt()),
+                trip.getStartLatitude(), trip.getStartLongitude(), trip.getEndLatitude(), trip.getEndLongitude(),
+                trip.getDistanceKm(), trip.getDurationSeconds(), trip.getIdleSeconds(), trip.getMaxSpeed(),
+                trip.getAverageSpeed(), trip.getEnergyType(), trip.getEnergyDelta(), trip.getEnergyPerKm(),
+                trip.getSamples()};
+        if (!pendingTrips.offer(row)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trip.flush-interval-ms:1000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        while (pendingTrips.drainTo(batch, batchSize) > 0) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_TRIP_SQL, batch);
+                written.addAndGet(batch.size());
+            } catch (RuntimeException e) {
+                logger.error("Failed to write {} trips", batch.size(), e);
+                dropped.addAndGet(batch.size());
+            }
+            batch.clear();
+        }
+    }
+
+    // Vehicles that stopped reporting mid-trip send nothing that would end it
+    @Scheduled(fixedDelayString = "${trip.sweep-interval-ms:30000}")
+    public void sweep() {
+        detector.sweep(System.currentTimeMillis());
+    }
+
+    /**
+     * The trip a vehicle is on so far, or null if it is parked
+     */
+    public Trip current(long vehicleId) {
+        return detector.current(vehicleId);
+    }
+
+    public List<Trip> active() {
+        return detector.active();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedVehicles", detector.getTrackedVehicles());
+        stats.put("updates", detector.getUpdates());
+        stats.put("gpsJumps", detector.getJumps());
+        stats.put("tripsCompleted", detector.getCompleted());
+        stats.put("tripsDiscarded", detector.getDiscarded());
+        stats.put("tripsWritten", written.get());
+        stats.put("tripsDropped", dropped.get());
+        stats.put("tripsQueued", pendingTrips.size());
+        return stats;
+    }
+}
@@ -0,0 +1,238 @@
+package com.neurofleetx.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory denylist of revoked JWT ids.
+ *
+ * A Bloom filter sits in front of an exact map of id to token expiry, so the
+ * common case (token not revoked) is answered from a few bit lookups without
+ * touching the map, and no request ever does I/O. Entries are dropped once the
+ * token would have expired anyway. Revocations are appended to a local file
+ * and reloaded at startup.
+ */
+@Component
+public class TokenDenylist {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenDenylist.class);
+
+    @Value("${auth.denylist.path:data/token-denylist.txt}")
+    private String denylistPath;
+
+    @Value("${auth.denylist.expected-entries:100000}")
+    private int expectedEntries;
+
+    // Target false positive rate of the Bloom filter; false positives only cost a map lookup
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    // Serializes file writes; not a monitor so waiting virtual threads are not pinned
+    private final ReentrantLock fileLock = new ReentrantLock();
+    private volatile BloomFilter bloomFilter;
+
+    @PostConstruct
+    public void load() {
+        Path path = Paths.get(denylistPath);
+        long now = System.currentTimeMillis();
+        if (Files.isRegularFile(path)) {
+            try {
+                List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+                for (String line : lines) {
+                    int separator = line.indexOf(' ');
+                    if (separator <= 0) {
+                        continue;
+                    }
+                    try {
+                        long expiresAt = Long.parseLong(line.substring(separator + 1).trim());
+                        if (expiresAt > now) {
+                            revoked.put(line.substring(0, separator), expiresAt);
+                        }
+                    } catch (NumberFormatException e) {
+                        logger.warn("Skipping malformed denylist entry: {}", line);
+                    }
+                }
+            } catch (IOException e) {
+                logger.error("Unable to load token denylist from {}", path, e);
+            }
+        }
+        rebuildFilter();
+        logger.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    /**
+     * Revoke a token id until {@code expiresAt} (epoch millis)
+     */
+    public void revoke(String tokenId, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        // Map first: a concurrent reader that sees the Bloom bit must find the entry
+        revoked.put(tokenId, expiresAt);
+        bloomFilter.add(tokenId);
+        append(tokenId, expiresAt);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Drop expired entries, rebuild the Bloom filter (bits cannot be removed)
+     * and compact the file
+     */
+    @Scheduled(fixedDelayString = "${auth.denylist.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        if (revoked.size() == before) {
+            return;
+        }
+        rebuildFilter();
+        rewriteFile();
+    }
+
+    private void rebuildFilter() {
+        BloomFilter filter = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(filter::add);
+        bloomFilter = filter;
+        // Ids revoked while rebuilding may have gone into the old filter only
+        revoked.keySet().forEach(filter::add);
+    }
+
+    private void append(String tokenId, long expiresAt) {
+        fileLock.lock();
+        try {
+            Path path = Paths.get(denylistPath);
+            try {
+                Files.createDirectories(path.toAbsolutePath().getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    writer.write(tokenId + " " + expiresAt + "\n");
+                }
+            } catch (IOException e) {
+                logger.error("Unable to persist revoked token", e);
+            }
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    private void rewriteFile() {
+        fileLock.lock();
+        try {
+            Path path = Paths.get(denylistPath);
+            try {
+                Path parent = path.toAbsolutePath().getParent();
+                Files.createDirectories(parent);
+                Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+                try {
+                    try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                        for (Map.Entry<String, Long> entry : revoked.entrySet()) {
+                            writer.write(entry.getKey() + " " + entry.getValue() + "\n");
+                        }
+                    }
+                    Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+            } catch (IOException e) {
+                logger.error("Unable to compact token denylist", e);
+            }
+        } finally {
+            fileLock.unlock();
+        }
+    }
+
+    /**
+     * Lock-free Bloom filter over strings using double hashing
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final int bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedEntries, double falsePositiveRate) {
+            double ln2 = Math.log(2);
+            long optimalBits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+            this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, optimalBits));
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * ln2));
+            this.bits = new AtomicLongArray((bitCount + 63) / 64);
+        }
+
+        void add(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                int bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 64-bit FNV-1a followed by a murmur3 finalizer to spread the bits
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
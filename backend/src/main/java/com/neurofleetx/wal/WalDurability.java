@@ -0,0 +1,27 @@
+package com.neurofleetx.wal;
+
+/**
+ * When an append to the {@link WriteAheadLog} counts as committed
+ */
+public enum WalDurability {
+
+    /**
+     * Written to the operating system once the group closes, fsync'd only when
+     * a segment is closed. Survives a crash of the process but not of the machine.
+     */
+    ASYNC,
+
+    /**
+     * Appends are collected until the group-commit interval or size threshold
+     * is reached, then written and fsync'd together. Up to one interval of
+     * added latency, one fsync per group.
+     */
+    GROUP,
+
+    /**
+     * Every append waits for an fsync that covers it. A group closes as soon as
+     * the previous fsync finishes, so appenders that arrive during an fsync
+     * still share the next one.
+     */
+    SYNC
+}
@@ -0,0 +1,544 @@
+package com.neurofleetx.wal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only log of opaque records, written ahead of a slower store.
+ *
+ * <pre>
+ * segment    = record*, named wal-&lt;first sequence, 20 digits&gt;.log
+ * record     = payload length (int), CRC32 of sequence + payload (int), sequence (long), payload
+ * checkpoint = highest sequence confirmed by the store, as text
+ * </pre>
+ *
+ * Appends are handed to a single committer thread that writes them in groups,
+ * with one fsync per group according to the {@link WalDurability}. A segment
+ * is closed and a new one started once it would exceed the segment size. When
+ * the store confirms it holds everything up to a sequence ({@link #markFlushed}),
+ * the checkpoint is advanced and segments it fully covers are deleted. On
+ * {@link #open} the records after the checkpoint are handed back for replay,
+ * and a torn or corrupt tail left by a crash is cut off.
+ */
+public class WriteAheadLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadLog.class);
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    // Payload length, CRC and sequence in front of every payload
+    static final int HEADER_BYTES = 16;
+
+    public static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+    private final Path directory;
+    private final WalDurability durability;
+    private final long groupCommitNanos;
+    private final int groupCommitBytes;
+    private final long segmentBytes;
+    private final long checkpointIntervalNanos;
+
+    // First sequence -> segment file; the last entry is the one being appended to
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+
+    // Only touched by the committer thread once open() has returned
+    private FileChannel active;
+    private long activeSize;
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(64 * 1024);
+    // Set when a failed group could neither be cut off nor left behind in its segment
+    private Exception unusable;
+
+    // Appends waiting for the committer, guarded by lock
+    private final Object lock = new Object();
+    private List<Append> buffer = new ArrayList<>();
+    private long bufferedBytes;
+    private long firstBufferedAt;
+    private long lastSequence;
+    private boolean closed;
+
+    private Thread committer;
+
+    private volatile long committedSequence;
+    private volatile long checkpointSequence;
+    private final AtomicLong flushedSequence = new AtomicLong();
+    private volatile long lastCheckpointAt = System.nanoTime();
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+
+    private final AtomicLong appends = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicLong groups = new AtomicLong();
+    private final AtomicLong fsyncs = new AtomicLong();
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong truncatedBytes = new AtomicLong();
+
+    /**
+     * A record handed to {@link #append}
+     */
+    public static final class Append {
+        private final long sequence;
+        private final byte[] payload;
+        private final CompletableFuture<Long> committed = new CompletableFuture<>();
+
+        Append(long sequence, byte[] payload) {
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Completes with the sequence once the record is committed per the durability
+         * level, or exceptionally if it could not be written
+         */
+        public CompletableFuture<Long> committed() {
+            return committed;
+        }
+    }
+
+    /**
+     * A record read back from the log
+     */
+    public static final class Record {
+        private final long sequence;
+        private final byte[] payload;
+
+        Record(long sequence, byte[] payload) {
+            this.sequence = sequence;
+            this.payload = payload;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+
+    /**
+     * @param groupCommitMs Longest an append waits for its group to fill (GROUP and ASYNC)
+     * @param groupCommitBytes Group size that is committed without waiting further
+     * @param checkpointIntervalMs Least time between checkpoint writes
+     */
+    public WriteAheadLog(Path directory, WalDurability durability, long groupCommitMs, int groupCommitBytes,
+                         long segmentBytes, long checkpointIntervalMs) {
+        this.directory = directory;
+        this.durability = durability;
+        this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(groupCommitMs);
+        this.groupCommitBytes = groupCommitBytes;
+        this.segmentBytes = segmentBytes;
+        this.checkpointIntervalNanos = TimeUnit.MILLISECONDS.toNanos(checkpointIntervalMs);
+    }
+
+    /**
+     * Recover the log and start accepting appends
+     * @param replay Receives every intact record after the checkpoint, in sequence order
+     */
+    public void open(Consumer<Record> replay) throws IOException {
+        Files.createDirectories(directory);
+        Path checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        if (Files.exists(checkpointFile)) {
+            checkpointSequence = Long.parseLong(Files.readString(checkpointFile, StandardCharsets.US_ASCII).trim());
+        }
+        flushedSequence.set(checkpointSequence);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    segments.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())), file);
+                }
+            });
+        }
+
+        long last = checkpointSequence;
+        for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+            last = recover(segment.getValue(), last, segment.getKey().equals(segments.lastKey()), replay);
+        }
+        lastSequence = last;
+        committedSequence = last;
+
+        if (segments.isEmpty() || Files.size(segments.lastEntry().getValue()) >= segmentBytes) {
+            startSegment(last + 1);
+        } else {
+            Path path = segments.lastEntry().getValue();
+            active = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            activeSize = active.size();
+        }
+
+        committer = new Thread(this::commitLoop, "wal-committer");
+        committer.setDaemon(true);
+        committer.start();
+        logger.info("Write-ahead log {} opened at sequence {} ({} segments, checkpoint {}, {} records replayed, durability {})",
+                directory, lastSequence, segments.size(), checkpointSequence, replayed.get(), durability);
+    }
+
+    /**
+     * Scan one segment, replaying records after the checkpoint. Everything from
+     * the first bad record on is cut off, which is how a write torn by a crash
+     * at the end of the last segment looks.
+     * @return The highest sequence seen so far
+     */
+    private long recover(Path segment, long last, boolean isLast, Consumer<Record> replay) throws IOException {
+        long valid = 0;
+        long size = Files.size(segment);
+        String problem = null;
+        try (InputStream file = Files.newInputStream(segment);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(file, 1 << 16))) {
+            CRC32 crc = new CRC32();
+            while (valid < size) {
+                int length;
+                int checksum;
+                long sequence;
+                byte[] payload;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    sequence = in.readLong();
+                    if (length < 0 || length > MAX_RECORD_BYTES || valid + HEADER_BYTES + length > size) {
+                        problem = "incomplete record";
+                        break;
+                    }
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    problem = "incomplete record header";
+                    break;
+                }
+                if (checksum(crc, sequence, payload) != checksum) {
+                    problem = "checksum mismatch";
+                    break;
+                }
+                if (sequence <= last && sequence > checkpointSequence) {
+                    problem = "sequence " + sequence + " out of order";
+                    break;
+                }
+                if (sequence > checkpointSequence) {
+                    replay.accept(new Record(sequence, payload));
+                    replayed.incrementAndGet();
+                }
+                last = Math.max(last, sequence);
+                valid += HEADER_BYTES + length;
+            }
+        }
+
+        if (problem != null) {
+            truncatedBytes.addAndGet(size - valid);
+            if (isLast) {
+                logger.warn("Cutting {} bytes of {} after offset {}: {}", size - valid, segment, valid, problem);
+            } else {
+                logger.error("Cutting {} bytes of {} after offset {}, records in them are lost: {}",
+                        size - valid, segment, valid, problem);
+            }
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                channel.truncate(valid);
+                channel.force(true);
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Queue a record for the next group commit. Sequences are assigned in call order.
+     */
+    public Append append(byte[] payload) {
+        if (payload.length > MAX_RECORD_BYTES) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds " + MAX_RECORD_BYTES);
+        }
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Write-ahead log is closed");
+            }
+            Append append = new Append(++lastSequence, payload);
+            if (buffer.isEmpty()) {
+                firstBufferedAt = System.nanoTime();
+                lock.notifyAll();
+            }
+            buffer.add(append);
+            bufferedBytes += HEADER_BYTES + payload.length;
+            if (bufferedBytes >= groupCommitBytes) {
+                lock.notifyAll();
+            }
+            appends.incrementAndGet();
+            return append;
+        }
+    }
+
+    private void commitLoop() {
+        while (true) {
+            List<Append> group;
+            synchronized (lock) {
+                try {
+                    while (buffer.isEmpty() && !closed) {
+                        lock.wait();
+                    }
+                    if (buffer.isEmpty()) {
+                        break;
+                    }
+                    // SYNC commits whatever arrived during the previous fsync right away
+                    if (durability != WalDurability.SYNC) {
+                        while (!closed && bufferedBytes < groupCommitBytes) {
+                            long wait = firstBufferedAt + groupCommitNanos - System.nanoTime();
+                            if (wait <= 0) {
+                                break;
+                            }
+                            TimeUnit.NANOSECONDS.timedWait(lock, wait);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    closed = true;
+                }
+                group = buffer;
+                buffer = new ArrayList<>();
+                bufferedBytes = 0;
+            }
+            if (group.isEmpty()) {
+                continue;
+            }
+
+            try {
+                write(group);
+                for (Append append : group) {
+                    append.committed.complete(append.sequence);
+                }
+            } catch (IOException | RuntimeException e) {
+                logger.error("Write-ahead log failed to commit {} records", group.size(), e);
+                for (Append append : group) {
+                    append.committed.completeExceptionally(e);
+                }
+            }
+        }
+
+        if (active == null) {
+            return;
+        }
+        try {
+            active.force(true);
+            active.close();
+        } catch (IOException e) {
+            logger.error("Failed to close write-ahead log segment", e);
+        }
+    }
+
+    private void write(List<Append> group) throws IOException {
+        if (unusable != null) {
+            throw new IOException("Write-ahead log segment could not be repaired", unusable);
+        }
+        int size = 0;
+        for (Append append : group) {
+            size += HEADER_BYTES + append.payload.length;
+        }
+        if (activeSize > 0 && activeSize + size > segmentBytes) {
+            startSegment(group.get(0).sequence);
+        }
+        if (writeBuffer.capacity() < size) {
+            writeBuffer = ByteBuffer.allocate(Math.max(size, writeBuffer.capacity() * 2));
+        }
+
+        ByteBuffer out = writeBuffer;
+        out.clear();
+        CRC32 crc = new CRC32();
+        for (Append append : group) {
+            out.putInt(append.payload.length)
+                    .putInt(checksum(crc, append.sequence, append.payload))
+                    .putLong(append.sequence)
+                    .put(append.payload);
+        }
+        out.flip();
+        try {
+            while (out.hasRemaining()) {
+                active.write(out);
+            }
+            if (durability != WalDurability.ASYNC) {
+                active.force(false);
+                fsyncs.incrementAndGet();
+            }
+        } catch (IOException | RuntimeException e) {
+            discardTail(group.get(group.size() - 1).sequence + 1);
+            throw e;
+        }
+        activeSize += size;
+        groups.incrementAndGet();
+        bytesWritten.addAndGet(size);
+        committedSequence = group.get(group.size() - 1).sequence;
+    }
+
+    /**
+     * Cut off what a failed group left after the last committed record.
+     * Appending after it would hide every later record from recovery, which
+     * stops at the first bad record. If the segment cannot be cut, it is
+     * closed and the next group starts a new one.
+     */
+    private void discardTail(long nextSequence) {
+        try {
+            active.truncate(activeSize);
+            active.force(false);
+            return;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to cut a partly written group off the write-ahead log, starting a new segment", e);
+        }
+        try {
+            active.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close the damaged write-ahead log segment", e);
+        }
+        active = null;
+        try {
+            startSegment(nextSequence);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to start a new write-ahead log segment, refusing further appends", e);
+            unusable = e;
+        }
+    }
+
+    private void startSegment(long firstSequence) throws IOException {
+        if (active != null) {
+            active.force(true);
+            fsyncs.incrementAndGet();
+            active.close();
+        }
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        active = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        activeSize = 0;
+        segments.put(firstSequence, path);
+        syncDirectory();
+    }
+
+    /**
+     * The store now holds every record up to {@code sequence}. The checkpoint
+     * follows at most once per checkpoint interval.
+     */
+    public void markFlushed(long sequence) {
+        flushedSequence.accumulateAndGet(sequence, Math::max);
+        if (System.nanoTime() - lastCheckpointAt >= checkpointIntervalNanos) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Persist the flushed sequence and delete segments whose records are all covered by it
+     */
+    public void checkpoint() {
+        if (!checkpointLock.tryLock()) {
+            return;
+        }
+        try {
+            lastCheckpointAt = System.nanoTime();
+            long sequence = flushedSequence.get();
+            if (sequence <= checkpointSequence) {
+                return;
+            }
+            Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                channel.write(ByteBuffer.wrap(Long.toString(sequence).getBytes(StandardCharsets.US_ASCII)));
+                channel.force(true);
+            }
+            Files.move(tmp, directory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+            checkpointSequence = sequence;
+
+            // A segment is covered when the next one starts at or below sequence + 1;
+            // the segment being appended to is never deleted
+            Long activeSegment = segments.lastKey();
+            for (Long first : segments.headMap(activeSegment).keySet()) {
+                Long next = segments.higherKey(first);
+                if (next == null || next - 1 > sequence) {
+                    break;
+                }
+                Files.deleteIfExists(segments.remove(first));
+            }
+        } catch (IOException e) {
+            logger.error("Failed to checkpoint write-ahead log", e);
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        if (committer != null) {
+            try {
+                committer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        checkpoint();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("durability", durability.name());
+        stats.put("segments", segments.size());
+        stats.put("appends", appends.get());
+        stats.put("bytesWritten", bytesWritten.get());
+        stats.put("groups", groups.get());
+        stats.put("fsyncs", fsyncs.get());
+        stats.put("committedSequence", committedSequence);
+        stats.put("flushedSequence", flushedSequence.get());
+        stats.put("checkpointSequence", checkpointSequence);
+        stats.put("replayed", replayed.get());
+        stats.put("truncatedBytes", truncatedBytes.get());
+        return stats;
+    }
+
+    private static int checksum(CRC32 crc, long sequence, byte[] payload) {
+        crc.reset();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            crc.update((int) (sequence >>> shift));
+        }
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue();
+    }
+
+    // Makes a created or renamed file itself durable; not supported on every platform
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+}
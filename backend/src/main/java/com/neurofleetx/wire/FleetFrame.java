@@ -0,0 +1,58 @@
+package com.neurofleetx.wire;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Unit of the binary wire format: a fleet snapshot, the changes since an earlier
+ * fleet version, or a batch of telemetry updates sent by a client.
+ */
+public class FleetFrame {
+
+    public enum Kind {
+        // Every vehicle as of {@code version}
+        SNAPSHOT,
+        // Vehicles changed and ids deleted after {@code baseVersion}, up to {@code version}
+        CHANGES,
+        // Partial updates; each record carries only the fields to change
+        TELEMETRY
+    }
+
+    private final Kind kind;
+    private final long version;
+    private final long baseVersion;
+    private final List<VehicleRecord> records;
+    private final List<Long> deleted;
+
+    public FleetFrame(Kind kind, long version, long baseVersion, List<VehicleRecord> records, List<Long> deleted) {
+        this.kind = kind;
+        this.version = version;
+        this.baseVersion = baseVersion;
+        this.records = records;
+        this.deleted = deleted;
+    }
+
+    public static FleetFrame telemetry(List<VehicleRecord> records) {
+        return new FleetFrame(Kind.TELEMETRY, 0, 0, records, new ArrayList<>());
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    public List<VehicleRecord> getRecords() {
+        return records;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+}
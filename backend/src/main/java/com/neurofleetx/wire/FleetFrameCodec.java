@@ -0,0 +1,210 @@
+package com.neurofleetx.wire;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encoder and decoder of {@link FleetFrame}s.
+ *
+ * <pre>
+ * frame      = magic "NFXW" (int), format version (byte), kind (byte),
+ *              version (varint), base version (varint), dictionary, records, deleted
+ * dictionary = count (varint), then each string as length (varint) + UTF-8 bytes
+ * records    = count (varint), then per record:
+ *              id delta (zigzag, against the previous record), presence mask (varint),
+ *              in CHANGES frames a mask of the fields that became null (varint),
+ *              then each present field in {@link WireField} order
+ * deleted    = count (varint), then each id as a delta (zigzag) against the previous one
+ * </pre>
+ *
+ * A CHANGES record carries only the fields that changed after the base version.
+ * Records are written in the order given; sorting them by id keeps the id deltas
+ * to a byte or two. Doubles are fixed point, so values beyond the field's
+ * resolution (1e-2, or 1e-6 degrees for coordinates) are rounded.
+ */
+public final class FleetFrameCodec {
+
+    public static final int MAGIC = 0x4E465857; // "NFXW"
+    public static final int FORMAT_VERSION = 1;
+
+    private static final double CENTI = 100.0;
+    private static final double MICRO = 1_000_000.0;
+
+    private FleetFrameCodec() {
+    }
+
+    public static byte[] encode(FleetFrame frame) {
+        WireOutput out = new WireOutput(64 + frame.getRecords().size() * 24);
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+        out.writeByte(frame.getKind().ordinal());
+        out.writeVarint(frame.getVersion());
+        out.writeVarint(frame.getBaseVersion());
+
+        // Dictionary of every distinct string, in first-use order
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        for (VehicleRecord record : frame.getRecords()) {
+            for (Map.Entry<WireField, Object> field : record.getFields().entrySet()) {
+                if (field.getKey().getEncoding() == WireField.Encoding.STRING
+                        && dictionary.putIfAbsent((String) field.getValue(), strings.size()) == null) {
+                    strings.add((String) field.getValue());
+                }
+            }
+        }
+        out.writeVarint(strings.size());
+        for (String string : strings) {
+            out.writeString(string);
+        }
+
+        out.writeVarint(frame.getRecords().size());
+        long previousId = 0;
+        long[] previousCoordinate = new long[WireField.VALUES.length];
+        for (VehicleRecord record : frame.getRecords()) {
+            out.writeZigzag(record.getId() - previousId);
+            previousId = record.getId();
+
+            out.writeVarint(mask(record.getFields().keySet()));
+            if (frame.getKind() == FleetFrame.Kind.CHANGES) {
+                out.writeVarint(mask(record.getCleared()));
+            }
+
+            for (Map.Entry<WireField, Object> entry : record.getFields().entrySet()) {
+                WireField field = entry.getKey();
+                Object value = entry.getValue();
+                switch (field.getEncoding()) {
+                    case STRING:
+                        out.writeVarint(dictionary.get((String) value));
+                        break;
+                    case CENTI:
+                        out.writeZigzag(Math.round(((Number) value).doubleValue() * CENTI));
+                        break;
+                    case MICRO_DEGREES:
+                        long fixed = Math.round(((Number) value).doubleValue() * MICRO);
+                        out.writeZigzag(fixed - previousCoordinate[field.ordinal()]);
+                        previousCoordinate[field.ordinal()] = fixed;
+                        break;
+                    default:
+                        out.writeZigzag(((Number) value).longValue());
+                        break;
+                }
+            }
+        }
+
+        long[] deleted = frame.getDeleted().stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(deleted);
+        out.writeVarint(deleted.length);
+        long previousDeleted = 0;
+        for (long id : deleted) {
+            out.writeZigzag(id - previousDeleted);
+            previousDeleted = id;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws WireFormatException if the frame is truncated, corrupt or of an unknown version
+     */
+    public static FleetFrame decode(byte[] bytes) {
+        WireInput in = new WireInput(bytes);
+        if (in.readInt() != MAGIC) {
+            throw new WireFormatException("Not a fleet frame");
+        }
+        int formatVersion = in.readByte();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new WireFormatException("Unsupported fleet frame version " + formatVersion);
+        }
+        int kind = in.readByte();
+        if (kind >= FleetFrame.Kind.values().length) {
+            throw new WireFormatException("Unknown frame kind " + kind);
+        }
+        long version = in.readVarint();
+        long baseVersion = in.readVarint();
+
+        String[] strings = new String[in.readCount()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = in.readString();
+        }
+
+        int recordCount = in.readCount();
+        List<VehicleRecord> records = new ArrayList<>(recordCount);
+        long previousId = 0;
+        long[] previousCoordinate = new long[WireField.VALUES.length];
+        for (int r = 0; r < recordCount; r++) {
+            long id = previousId + in.readZigzag();
+            previousId = id;
+            VehicleRecord record = new VehicleRecord(id);
+
+            long mask = readMask(in, id);
+            if (kind == FleetFrame.Kind.CHANGES.ordinal()) {
+                long clearedMask = readMask(in, id);
+                for (WireField field : WireField.VALUES) {
+                    if ((clearedMask & (1L << field.ordinal())) != 0) {
+                        record.clear(field);
+                    }
+                }
+            }
+            for (WireField field : WireField.VALUES) {
+                if ((mask & (1L << field.ordinal())) == 0) {
+                    continue;
+                }
+                switch (field.getEncoding()) {
+                    case STRING:
+                        long index = in.readVarint();
+                        if (index >= strings.length) {
+                            throw new WireFormatException("String index " + index + " outside the dictionary");
+                        }
+                        record.set(field, strings[(int) index]);
+                        break;
+                    case CENTI:
+                        record.set(field, in.readZigzag() / CENTI);
+                        break;
+                    case MICRO_DEGREES:
+                        long fixed = previousCoordinate[field.ordinal()] + in.readZigzag();
+                        previousCoordinate[field.ordinal()] = fixed;
+                        record.set(field, fixed / MICRO);
+                        break;
+                    case INT:
+                        record.set(field, (int) in.readZigzag());
+                        break;
+                    default:
+                        record.set(field, in.readZigzag());
+                        break;
+                }
+            }
+            records.add(record);
+        }
+
+        int deletedCount = in.readCount();
+        List<Long> deleted = new ArrayList<>(deletedCount);
+        long previousDeleted = 0;
+        for (int i = 0; i < deletedCount; i++) {
+            previousDeleted += in.readZigzag();
+            deleted.add(previousDeleted);
+        }
+        if (in.remaining() != 0) {
+            throw new WireFormatException(in.remaining() + " trailing bytes after the frame");
+        }
+        return new FleetFrame(FleetFrame.Kind.values()[kind], version, baseVersion, records, deleted);
+    }
+
+    private static long mask(Set<WireField> fields) {
+        long mask = 0;
+        for (WireField field : fields) {
+            mask |= 1L << field.ordinal();
+        }
+        return mask;
+    }
+
+    private static long readMask(WireInput in, long id) {
+        long mask = in.readVarint();
+        if ((mask >>> WireField.VALUES.length) != 0) {
+            throw new WireFormatException("Unknown fields in record of vehicle " + id);
+        }
+        return mask;
+    }
+}
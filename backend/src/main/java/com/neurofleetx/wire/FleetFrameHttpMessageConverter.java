@@ -0,0 +1,47 @@
+package com.neurofleetx.wire;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes {@link FleetFrame}s as {@link WireFormat#MEDIA_TYPE_VALUE}
+ */
+public class FleetFrameHttpMessageConverter extends AbstractHttpMessageConverter<FleetFrame> {
+
+    // Telemetry frames are small; anything larger is rejected before decoding
+    private static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    public FleetFrameHttpMessageConverter() {
+        super(WireFormat.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return FleetFrame.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected FleetFrame readInternal(Class<? extends FleetFrame> clazz, HttpInputMessage inputMessage)
+            throws IOException {
+        byte[] bytes = inputMessage.getBody().readNBytes(MAX_FRAME_BYTES + 1);
+        if (bytes.length > MAX_FRAME_BYTES) {
+            throw new HttpMessageNotReadableException("Fleet frame larger than " + MAX_FRAME_BYTES + " bytes", inputMessage);
+        }
+        try {
+            return FleetFrameCodec.decode(bytes);
+        } catch (WireFormatException e) {
+            throw new HttpMessageNotReadableException("Invalid fleet frame: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(FleetFrame frame, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = FleetFrameCodec.encode(frame);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
@@ -0,0 +1,153 @@
+package com.neurofleetx.wire;
+
+import com.neurofleetx.model.Vehicle;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * One vehicle in a frame: its id and the fields that are present. In a snapshot
+ * absent fields are null; in a changes or telemetry frame they are unchanged,
+ * and a changes frame lists the fields that became null as cleared.
+ *
+ * Values are String, Double, Integer or Long according to the field's encoding.
+ */
+public class VehicleRecord {
+
+    private final long id;
+    private final EnumMap<WireField, Object> fields = new EnumMap<>(WireField.class);
+    private final EnumSet<WireField> cleared = EnumSet.noneOf(WireField.class);
+
+    public VehicleRecord(long id) {
+        this.id = id;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public VehicleRecord set(WireField field, Object value) {
+        if (value == null) {
+            fields.remove(field);
+        } else {
+            fields.put(field, value);
+            cleared.remove(field);
+        }
+        return this;
+    }
+
+    public Object get(WireField field) {
+        return fields.get(field);
+    }
+
+    /**
+     * Mark a field as changed to null
+     */
+    public VehicleRecord clear(WireField field) {
+        fields.remove(field);
+        cleared.add(field);
+        return this;
+    }
+
+    public boolean isCleared(WireField field) {
+        return cleared.contains(field);
+    }
+
+    Set<WireField> getCleared() {
+        return cleared;
+    }
+
+    /**
+     * Whether the record sets anything besides its id and version
+     */
+    public boolean hasChanges() {
+        return fields.size() > (fields.containsKey(WireField.VERSION) ? 1 : 0);
+    }
+
+    Map<WireField, Object> getFields() {
+        return fields;
+    }
+
+    public static VehicleRecord of(Vehicle vehicle) {
+        return new VehicleRecord(vehicle.getId())
+                .set(WireField.VEHICLE_NUMBER, vehicle.getVehicleNumber())
+                .set(WireField.MODEL, vehicle.getModel())
+                .set(WireField.MANUFACTURER, vehicle.getManufacturer())
+                .set(WireField.TYPE, vehicle.getType())
+                .set(WireField.STATUS, vehicle.getStatus())
+                .set(WireField.BATTERY_LEVEL, vehicle.getBatteryLevel())
+                .set(WireField.FUEL_LEVEL, vehicle.getFuelLevel())
+                .set(WireField.LATITUDE, vehicle.getLatitude())
+                .set(WireField.LONGITUDE, vehicle.getLongitude())
+                .set(WireField.HEALTH_SCORE, vehicle.getHealthScore())
+                .set(WireField.SPEED, vehicle.getSpeed())
+                .set(WireField.MILEAGE, vehicle.getMileage())
+                .set(WireField.VERSION, vehicle.getVersion());
+    }
+
+    /**
+     * A changes record: the version and only the fields, by name, that
+     * {@code changed} accepts, with those now null marked cleared
+     */
+    public static VehicleRecord changes(Vehicle vehicle, Predicate<String> changed) {
+        return new VehicleRecord(vehicle.getId())
+                .change(WireField.VEHICLE_NUMBER, vehicle.getVehicleNumber(), changed)
+                .change(WireField.MODEL, vehicle.getModel(), changed)
+                .change(WireField.MANUFACTURER, vehicle.getManufacturer(), changed)
+                .change(WireField.TYPE, vehicle.getType(), changed)
+                .change(WireField.STATUS, vehicle.getStatus(), changed)
+                .change(WireField.BATTERY_LEVEL, vehicle.getBatteryLevel(), changed)
+                .change(WireField.FUEL_LEVEL, vehicle.getFuelLevel(), changed)
+                .change(WireField.LATITUDE, vehicle.getLatitude(), changed)
+                .change(WireField.LONGITUDE, vehicle.getLongitude(), changed)
+                .change(WireField.HEALTH_SCORE, vehicle.getHealthScore(), changed)
+                .change(WireField.SPEED, vehicle.getSpeed(), changed)
+                .change(WireField.MILEAGE, vehicle.getMileage(), changed)
+                .set(WireField.VERSION, vehicle.getVersion());
+    }
+
+    private VehicleRecord change(WireField field, Object value, Predicate<String> changed) {
+        if (!changed.test(field.getName())) {
+            return this;
+        }
+        return value == null ? clear(field) : set(field, value);
+    }
+
+    public Vehicle toVehicle() {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(id);
+        vehicle.setVehicleNumber((String) get(WireField.VEHICLE_NUMBER));
+        vehicle.setModel((String) get(WireField.MODEL));
+        vehicle.setManufacturer((String) get(WireField.MANUFACTURER));
+        vehicle.setType((String) get(WireField.TYPE));
+        vehicle.setStatus((String) get(WireField.STATUS));
+        vehicle.setBatteryLevel((Double) get(WireField.BATTERY_LEVEL));
+        vehicle.setFuelLevel((Double) get(WireField.FUEL_LEVEL));
+        vehicle.setLatitude((Double) get(WireField.LATITUDE));
+        vehicle.setLongitude((Double) get(WireField.LONGITUDE));
+        vehicle.setHealthScore((Integer) get(WireField.HEALTH_SCORE));
+        vehicle.setSpeed((Double) get(WireField.SPEED));
+        vehicle.setMileage((Long) get(WireField.MILEAGE));
+        vehicle.setVersion((Long) get(WireField.VERSION));
+        return vehicle;
+    }
+
+    /**
+     * The record as a patch: "id", optional "version" and the present fields by name
+     */
+    public Map<String, Object> toPatch() {
+        Map<String, Object> patch = new LinkedHashMap<>();
+        patch.put("id", id);
+        for (Map.Entry<WireField, Object> field : fields.entrySet()) {
+            patch.put(field.getKey().getName(), field.getValue());
+        }
+        for (WireField field : cleared) {
+            patch.put(field.getName(), null);
+        }
+        return patch;
+    }
+}
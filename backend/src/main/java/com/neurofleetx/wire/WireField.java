@@ -0,0 +1,62 @@
+package com.neurofleetx.wire;
+
+/**
+ * Vehicle fields carried by a record, in wire order. The ordinal is the bit in
+ * the record's presence mask, so new fields may only be appended.
+ */
+public enum WireField {
+    VEHICLE_NUMBER("vehicleNumber", Encoding.STRING),
+    MODEL("model", Encoding.STRING),
+    MANUFACTURER("manufacturer", Encoding.STRING),
+    TYPE("type", Encoding.STRING),
+    STATUS("status", Encoding.STRING),
+    BATTERY_LEVEL("batteryLevel", Encoding.CENTI),
+    FUEL_LEVEL("fuelLevel", Encoding.CENTI),
+    LATITUDE("latitude", Encoding.MICRO_DEGREES),
+    LONGITUDE("longitude", Encoding.MICRO_DEGREES),
+    HEALTH_SCORE("healthScore", Encoding.INT),
+    SPEED("speed", Encoding.CENTI),
+    MILEAGE("mileage", Encoding.LONG),
+    VERSION("version", Encoding.LONG);
+
+    /**
+     * STRING: index into the frame's string dictionary.
+     * CENTI: doubles in hundredths (levels, speed).
+     * MICRO_DEGREES: coordinates in 1e-6 degrees (about 11 cm), delta coded
+     * against the previous record of the frame that carried the field.
+     * INT and LONG: zigzag varints.
+     */
+    public enum Encoding {
+        STRING, CENTI, MICRO_DEGREES, INT, LONG
+    }
+
+    static final WireField[] VALUES = values();
+
+    private final String name;
+    private final Encoding encoding;
+
+    WireField(String name, Encoding encoding) {
+        this.name = name;
+        this.encoding = encoding;
+    }
+
+    /**
+     * Property name, as in the JSON representation and in patches
+     */
+    public String getName() {
+        return name;
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    public static WireField forName(String name) {
+        for (WireField field : VALUES) {
+            if (field.name.equals(name)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
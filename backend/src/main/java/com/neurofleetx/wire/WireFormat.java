@@ -0,0 +1,35 @@
+package com.neurofleetx.wire;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * Media type of the binary fleet format, negotiated through Accept and Content-Type
+ */
+public final class WireFormat {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-neurofleetx-frame";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private WireFormat() {
+    }
+
+    /**
+     * Whether an Accept header asks for the binary format explicitly; wildcards keep JSON
+     */
+    public static boolean isAccepted(String accept) {
+        if (accept == null) {
+            return false;
+        }
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (MEDIA_TYPE.equalsTypeAndSubtype(type) && type.getQualityValue() > 0) {
+                    return true;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,13 @@
+package com.neurofleetx.wire;
+
+/**
+ * Thrown when a frame is truncated, corrupt or of an unsupported version
+ */
+public class WireFormatException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    public WireFormatException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,82 @@
+package com.neurofleetx.wire;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reader for the encodings of {@link WireOutput}. Every read is bounds checked,
+ * so truncated or corrupt input fails with a {@link WireFormatException}.
+ */
+public class WireInput {
+
+    private final byte[] buffer;
+    private int position;
+    private final int limit;
+
+    public WireInput(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    public WireInput(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+
+    public int readInt() {
+        require(4);
+        int value = ((buffer[position] & 0xFF) << 24) | ((buffer[position + 1] & 0xFF) << 16)
+                | ((buffer[position + 2] & 0xFF) << 8) | (buffer[position + 3] & 0xFF);
+        position += 4;
+        return value;
+    }
+
+    public long readVarint() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new WireFormatException("Varint longer than 10 bytes");
+    }
+
+    public long readZigzag() {
+        long encoded = readVarint();
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    /**
+     * A varint count; at least one byte per element must remain
+     */
+    public int readCount() {
+        long count = readVarint();
+        if (count < 0 || count > remaining()) {
+            throw new WireFormatException("Count " + count + " exceeds the remaining " + remaining() + " bytes");
+        }
+        return (int) count;
+    }
+
+    public String readString() {
+        int length = readCount();
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public int remaining() {
+        return limit - position;
+    }
+
+    private void require(int bytes) {
+        if (limit - position < bytes) {
+            throw new WireFormatException("Frame is truncated");
+        }
+    }
+}
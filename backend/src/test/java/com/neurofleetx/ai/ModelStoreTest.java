@@ -0,0 +1,86 @@
+package com.neurofleetx.ai;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ModelStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static final LinearModel LINEAR = new LinearModel(ModelType.LOGISTIC, new double[]{0.5, -1.25, 2.0}, 0.1);
+
+    // One tree: the root splits feature 1 at 3.0 into two leaves
+    private static final TreeEnsembleModel TREES = new TreeEnsembleModel(3, 0.2, new int[]{0},
+            new int[]{1, -1, -1}, new int[]{1, 0, 0}, new double[]{3.0, -0.5, 0.75});
+
+    private static byte[] bytes(Model model) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ModelSerializer.write(model, out);
+        return out.toByteArray();
+    }
+
+    private static Model read(byte[] bytes) throws IOException {
+        return ModelSerializer.read(new ByteArrayInputStream(bytes), bytes.length);
+    }
+
+    @Test
+    void roundTripsBothModelFamilies() throws IOException {
+        double[] features = {1.0, 4.0, -2.0};
+        Model linear = read(bytes(LINEAR));
+        Model trees = read(bytes(TREES));
+
+        assertEquals(ModelType.LOGISTIC, linear.getType());
+        assertEquals(LINEAR.score(features, 0), linear.score(features, 0));
+        assertEquals(ModelType.TREE_ENSEMBLE, trees.getType());
+        assertEquals(TREES.score(features, 0), trees.score(features, 0));
+    }
+
+    @Test
+    void unknownTypeCodeIsAnIoException() throws IOException {
+        byte[] bytes = bytes(LINEAR);
+        bytes[6] = 99;
+
+        assertThrows(IOException.class, () -> read(bytes));
+    }
+
+    @Test
+    void countsBeyondTheFileLengthAreRejectedBeforeAllocating() throws IOException {
+        byte[] bytes = bytes(TREES);
+        // Tree and node counts follow the header and the base score
+        ByteBuffer.wrap(bytes).putInt(19, 1 << 26).putInt(23, 1 << 26);
+
+        assertThrows(IOException.class, () -> read(bytes));
+    }
+
+    @Test
+    void latestGoodSkipsAVersionWithACorruptTypeByte() throws IOException {
+        ModelStore store = new ModelStore(dir.toString(), "maintenance");
+        int good = store.save(LINEAR);
+        store.activate(good);
+        int damaged = store.save(TREES);
+        store.activate(damaged);
+
+        Path file = dir.resolve("maintenance-v" + damaged + ".nfxm");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[6] = 99;
+        Files.write(file, bytes);
+
+        ModelStore.LoadedModel loaded = store.loadLatestGood();
+        assertNotNull(loaded);
+        assertEquals(good, loaded.getVersion());
+        assertThrows(IOException.class, () -> store.activate(damaged));
+        assertEquals(good, store.rollback().getVersion());
+    }
+}
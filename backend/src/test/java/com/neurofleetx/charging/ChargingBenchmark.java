@@ -0,0 +1,202 @@
+package com.neurofleetx.charging;
+
+import com.neurofleetx.range.RangeEstimator;
+import com.neurofleetx.road.EdgeIndex;
+import com.neurofleetx.road.RoadGraph;
+import com.neurofleetx.road.RoadNetwork;
+import com.neurofleetx.util.LatencyHistogram;
+
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Fleet downtime and repair latency of the charging planner over a simulated
+ * shift on the generated street grid. Vehicles cross their thresholds at
+ * random places and times and follow the plan exactly: they wait at the
+ * station for their slot and leave charged. The same arrivals are also
+ * replayed with every vehicle going to its nearest reachable station first
+ * come, first served, and the plan is periodically solved again from scratch
+ * to compare the cost of a full re-plan with an incremental repair.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *   com.neurofleetx.charging.ChargingBenchmark --vehicles=600 --hours=12 --stations=16
+ * </pre>
+ */
+public class ChargingBenchmark {
+
+    private static final long MINUTE_MS = 60_000;
+
+    private static final class Arrival {
+        long vehicleId;
+        long time;
+        String energyType;
+        double latitude;
+        double longitude;
+        double level;
+        double rate;
+    }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int split = option.indexOf('=');
+            options.put(split < 0 ? option : option.substring(0, split), split < 0 ? "" : option.substring(split + 1));
+        }
+        int vehicles = Integer.parseInt(options.getOrDefault("vehicles", "600"));
+        int hours = Integer.parseInt(options.getOrDefault("hours", "12"));
+        int stationCount = Integer.parseInt(options.getOrDefault("stations", "16"));
+        int bays = Integer.parseInt(options.getOrDefault("bays", "4"));
+        int ejections = Integer.parseInt(options.getOrDefault("ejection-candidates", "20"));
+        double speedKmh = Double.parseDouble(options.getOrDefault("speed-kmh", "25"));
+
+        RoadGraph graph = RoadNetwork.grid(12.9716, 77.5946, 0.002, 0.12, 40);
+        RangeEstimator estimator = new RangeEstimator(graph, new EdgeIndex(graph, 0.005), 500, 1.3, 1024);
+        Random random = new Random(5);
+
+        // Three quarters chargers at 1 %/min, the rest fuel pumps; every fourth station closes at night
+        List<Station> stations = new ArrayList<>();
+        List<RangeEstimator.Destination> destinations = new ArrayList<>();
+        for (int s = 0; s < stationCount; s++) {
+            double latitude = 12.9716 + (random.nextDouble() - 0.5) * 0.1;
+            double longitude = 77.5946 + (random.nextDouble() - 0.5) * 0.1;
+            boolean fuel = s % 4 == 3;
+            boolean daytime = s % 4 == 1;
+            stations.add(new Station(s, "S" + s, fuel ? "FUEL" : "BATTERY", latitude, longitude, bays, fuel ? 20 : 1,
+                    daytime ? LocalTime.of(6, 0) : null, daytime ? LocalTime.of(22, 0) : null, ZoneOffset.UTC));
+            destinations.add(estimator.destination(latitude, longitude, Double.MAX_VALUE));
+        }
+        EdgeIndex.Candidates scratch = new EdgeIndex.Candidates();
+        ChargingPlanner.Distances distances = (s, latitude, longitude) ->
+                estimator.distanceMeters(destinations.get(s), latitude, longitude, scratch);
+
+        long start = 1_700_000_000_000L - 1_700_000_000_000L % (24 * 3_600_000L) + 5 * 3_600_000L;
+        List<Arrival> arrivals = new ArrayList<>();
+        for (int v = 0; v < vehicles; v++) {
+            Arrival arrival = new Arrival();
+            arrival.vehicleId = v;
+            arrival.time = start + (long) (random.nextDouble() * hours * 3_600_000L);
+            boolean fuel = random.nextInt(4) == 0;
+            arrival.energyType = fuel ? "FUEL" : "BATTERY";
+            arrival.latitude = 12.9716 + (random.nextDouble() - 0.5) * 0.12;
+            arrival.longitude = 77.5946 + (random.nextDouble() - 0.5) * 0.12;
+            arrival.level = 8 + random.nextDouble() * (fuel ? 12 : 17);
+            arrival.rate = fuel ? 0.15 + random.nextDouble() * 0.1 : 0.3 + random.nextDouble() * 0.2;
+            arrivals.add(arrival);
+        }
+        arrivals.sort((a, b) -> Long.compare(a.time, b.time));
+        System.out.printf("%d vehicles over %d h, %d stations of %d bays%n", vehicles, hours, stationCount, bays);
+
+        simulate(stations, distances, arrivals, start, hours, speedKmh, ejections);
+        nearestStation(stations, distances, arrivals, speedKmh);
+    }
+
+    private static void simulate(List<Station> stations, ChargingPlanner.Distances distances, List<Arrival> arrivals,
+                                 long start, int hours, double speedKmh, int ejections) {
+        ChargingPlanner planner = new ChargingPlanner(speedKmh, 2, 100, 10 * MINUTE_MS, ejections);
+        planner.setStations(stations, distances, start);
+        LatencyHistogram repair = new LatencyHistogram();
+        LatencyHistogram resolve = new LatencyHistogram();
+        double downtime = 0;
+        long done = 0;
+        int next = 0;
+        long end = start + (hours + 24) * 3_600_000L;
+        for (long now = start; now < end && (next < arrivals.size() || !planner.getBookings().isEmpty()); now += MINUTE_MS) {
+            long started = System.nanoTime();
+            // Vehicles at their station when the slot starts, and leaving charged when it ends
+            for (ChargingPlanner.Booking booking : new ArrayList<>(planner.getBookings())) {
+                Station station = planner.getStation(booking);
+                ChargingPlanner.Request request = booking.request;
+                if (!booking.started && booking.start <= now) {
+                    planner.request(request.vehicleId, request.energyType, station.latitude, station.longitude,
+                            booking.arrivalLevel, request.rate, request.target, 1000, now);
+                } else if (booking.started && booking.end <= now) {
+                    downtime += booking.end - request.requestedAt;
+                    done++;
+                    planner.request(request.vehicleId, request.energyType, station.latitude, station.longitude,
+                            request.target, request.rate, request.target, 1000, now);
+                }
+            }
+            while (next < arrivals.size() && arrivals.get(next).time <= now) {
+                Arrival arrival = arrivals.get(next++);
+                planner.request(arrival.vehicleId, arrival.energyType, arrival.latitude, arrival.longitude, arrival.level,
+                        arrival.rate, "FUEL".equals(arrival.energyType) ? 95 : 80, 1000, now);
+            }
+            planner.repair(now);
+            repair.record(System.nanoTime() - started);
+
+            // Every hour, time planning every waiting vehicle again from scratch
+            if ((now - start) % (60 * MINUTE_MS) == 0 && !planner.getBookings().isEmpty()) {
+                long resolveStarted = System.nanoTime();
+                ChargingPlanner fresh = new ChargingPlanner(speedKmh, 2, 100, 10 * MINUTE_MS, ejections);
+                fresh.setStations(stations, distances, now);
+                for (ChargingPlanner.Booking booking : planner.getBookings()) {
+                    ChargingPlanner.Request request = booking.request;
+                    fresh.request(request.vehicleId, request.energyType, request.latitude, request.longitude,
+                            request.level, request.rate, request.target, 1000, now);
+                }
+                fresh.repair(now);
+                resolve.record(System.nanoTime() - resolveStarted);
+            }
+        }
+        int unserved = planner.getUnserved().size();
+        System.out.printf("Incremental plan: %d charged, %d unserved, mean downtime %.1f min; %d ejections, "
+                        + "%d relocations; repair per minute p50 %.3f ms, p99 %.3f ms; full re-plan p50 %.3f ms%n",
+                done, unserved, downtime / done / MINUTE_MS, planner.getEjections(), planner.getRelocations(),
+                repair.percentile(0.5), repair.percentile(0.99), resolve.percentile(0.5));
+    }
+
+    // Every vehicle to its nearest reachable station, first come first served at the earliest free bay
+    private static void nearestStation(List<Station> stations, ChargingPlanner.Distances distances,
+                                       List<Arrival> arrivals, double speedKmh) {
+        long[][] free = new long[stations.size()][];
+        for (int s = 0; s < stations.size(); s++) {
+            free[s] = new long[stations.get(s).capacity];
+        }
+        double downtime = 0;
+        int charged = 0;
+        for (Arrival arrival : arrivals) {
+            int nearest = -1;
+            double nearestMeters = Double.MAX_VALUE;
+            for (int s = 0; s < stations.size(); s++) {
+                if (!stations.get(s).energyType.equals(arrival.energyType)) {
+                    continue;
+                }
+                double meters = distances.meters(s, arrival.latitude, arrival.longitude);
+                if (meters < nearestMeters && arrival.level - meters / 1000 * arrival.rate >= 2) {
+                    nearest = s;
+                    nearestMeters = meters;
+                }
+            }
+            if (nearest < 0) {
+                continue;
+            }
+            Station station = stations.get(nearest);
+            double arrivalLevel = arrival.level - nearestMeters / 1000 * arrival.rate;
+            long duration = Math.max(MINUTE_MS, Math.round(
+                    (("FUEL".equals(arrival.energyType) ? 95 : 80) - arrivalLevel) / station.percentPerMinute * MINUTE_MS));
+            long at = arrival.time + Math.round(nearestMeters / 1000 / speedKmh * 3_600_000);
+            int bay = 0;
+            for (int b = 1; b < free[nearest].length; b++) {
+                if (free[nearest][b] < free[nearest][bay]) {
+                    bay = b;
+                }
+            }
+            long slot = station.earliestOpen(Math.max(at, free[nearest][bay]), duration);
+            if (slot < 0) {
+                continue;
+            }
+            free[nearest][bay] = slot + duration;
+            downtime += slot + duration - arrival.time;
+            charged++;
+        }
+        System.out.printf("Nearest station, first come first served: %d charged, mean downtime %.1f min%n",
+                charged, downtime / charged / MINUTE_MS);
+    }
+}
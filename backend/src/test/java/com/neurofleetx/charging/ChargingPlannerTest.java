@@ -0,0 +1,192 @@
+package com.neurofleetx.charging;
+
+import com.neurofleetx.road.RoadGraph;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChargingPlannerTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long NOW = Instant.parse("2026-01-05T06:00:00Z").toEpochMilli();
+    private static final double LATITUDE = 12.97;
+
+    // 36 km/h, so 10 m/s on the way; arrive with at least 5 %, within 100 m; 10 minutes of grace
+    private final ChargingPlanner planner = new ChargingPlanner(36, 5, 100, 10 * MINUTE, 8);
+
+    private static Station battery(long id, double longitude, int bays) {
+        return new Station(id, "S" + id, "BATTERY", LATITUDE, longitude, bays, 1, null, null, ZoneOffset.UTC);
+    }
+
+    private void use(Station... stations) {
+        List<Station> list = List.of(stations);
+        planner.setStations(list, (s, latitude, longitude) -> RoadGraph.distanceMeters(latitude, longitude,
+                list.get(s).latitude, list.get(s).longitude), NOW);
+    }
+
+    // Battery vehicle on the station row, charging to 80 % and released at 95 %
+    private void request(long vehicleId, double longitude, double level, double rate, long now) {
+        planner.request(vehicleId, "BATTERY", LATITUDE, longitude, level, rate, 80, 95, now);
+    }
+
+    private ChargingPlanner.Booking booking(long vehicleId) {
+        for (ChargingPlanner.Booking booking : planner.getBookings()) {
+            if (booking.getRequest().getVehicleId() == vehicleId) {
+                return booking;
+            }
+        }
+        return null;
+    }
+
+    private static long travel(double fromLongitude, double toLongitude) {
+        return Math.round(RoadGraph.distanceMeters(LATITUDE, fromLongitude, LATITUDE, toLongitude) / 10 * 1000);
+    }
+
+    @Test
+    void vehicleGetsTheSlotThatFinishesItSoonest() {
+        use(battery(1, 77.59, 1), battery(2, 77.63, 1));
+
+        request(7, 77.599, 20, 0.5, NOW);
+
+        ChargingPlanner.Booking booking = booking(7);
+        double meters = RoadGraph.distanceMeters(LATITUDE, 77.599, LATITUDE, 77.59);
+        double arrivalLevel = 20 - meters / 1000 * 0.5;
+        assertEquals(1, planner.getStation(booking).getId());
+        assertEquals(NOW + travel(77.599, 77.59), booking.getStart());
+        assertEquals(arrivalLevel, booking.getArrivalLevel(), 1e-9);
+        assertEquals(booking.getStart() + Math.round((80 - arrivalLevel) * MINUTE), booking.getEnd());
+    }
+
+    @Test
+    void busyBaySendsTheNextVehicleToAFurtherStation() {
+        use(battery(1, 77.59, 1), battery(2, 77.61, 1));
+
+        request(7, 77.59, 20, 0.5, NOW);
+        request(8, 77.59, 20, 0.5, NOW);
+
+        assertEquals(1, planner.getStation(booking(7)).getId());
+        assertEquals(2, planner.getStation(booking(8)).getId());
+        assertEquals(NOW + travel(77.59, 77.61), booking(8).getStart());
+    }
+
+    @Test
+    void vehicleBumpedToAnotherStationWhenThatLowersTheTotal() {
+        use(battery(1, 77.59, 1), battery(2, 77.60, 1));
+        // Can reach either station, and the first is a little closer
+        request(7, 77.5948, 50, 0.5, NOW);
+        assertEquals(1, planner.getStation(booking(7)).getId());
+
+        // Can only reach the first with 5 % left
+        request(8, 77.585, 6, 1, NOW);
+
+        assertEquals(1, planner.getEjections());
+        assertEquals(1, planner.getStation(booking(8)).getId());
+        assertEquals(NOW + travel(77.585, 77.59), booking(8).getStart());
+        assertEquals(2, planner.getStation(booking(7)).getId());
+    }
+
+    @Test
+    void vehicleThatCannotArriveWithTheReserveWaitsForAStation() {
+        use(battery(1, 77.59, 1));
+
+        // 5.4 km away with 7 % at 0.5 %/km would arrive with 4.3 %
+        request(7, 77.64, 7, 0.5, NOW);
+        assertNull(booking(7));
+        assertEquals(1, planner.getUnserved().size());
+
+        use(battery(1, 77.59, 1), battery(2, 77.64, 1));
+
+        assertEquals(2, planner.getStation(booking(7)).getId());
+        assertTrue(planner.getUnserved().isEmpty());
+    }
+
+    @Test
+    void fuelVehiclesOnlyUseFuelStations() {
+        use(battery(1, 77.59, 2));
+
+        planner.request(7, "FUEL", LATITUDE, 77.59, 10, 0.2, 80, 95, NOW);
+
+        assertNull(booking(7));
+        assertEquals(1, planner.getUnserved().size());
+    }
+
+    @Test
+    void slotsFitInsideTheOpeningHours() {
+        Station dayShift = new Station(1, "day", "BATTERY", LATITUDE, 77.59, 1, 1, LocalTime.of(8, 0),
+                LocalTime.of(18, 0), ZoneOffset.UTC);
+        Station nightShift = new Station(2, "night", "BATTERY", LATITUDE, 77.59, 1, 1, LocalTime.of(22, 0),
+                LocalTime.of(2, 0), ZoneOffset.UTC);
+        long eight = Instant.parse("2026-01-05T08:00:00Z").toEpochMilli();
+        long tenAtNight = Instant.parse("2026-01-05T22:00:00Z").toEpochMilli();
+
+        assertEquals(eight, dayShift.earliestOpen(NOW, 60 * MINUTE));
+        assertEquals(NOW + 4 * 60 * MINUTE, dayShift.earliestOpen(NOW + 4 * 60 * MINUTE, 60 * MINUTE));
+        // Too late to finish today
+        assertEquals(eight + 24 * 60 * MINUTE, dayShift.earliestOpen(eight + 9 * 60 * MINUTE + 1, 60 * MINUTE));
+        assertEquals(-1, dayShift.earliestOpen(NOW, 11 * 60 * MINUTE));
+        // Still open from the evening before, across midnight
+        assertEquals(NOW - 5 * 60 * MINUTE, nightShift.earliestOpen(NOW - 5 * 60 * MINUTE, 60 * MINUTE));
+        assertEquals(tenAtNight, nightShift.earliestOpen(NOW - 3 * 60 * MINUTE - 30 * MINUTE, 60 * MINUTE));
+
+        use(dayShift);
+        request(7, 77.59, 20, 0.5, NOW);
+        assertEquals(eight, booking(7).getStart());
+    }
+
+    @Test
+    void arrivalStartsTheSlotAndChargingCompletesIt() {
+        use(battery(1, 77.59, 1));
+        request(7, 77.595, 20, 0.5, NOW);
+
+        request(7, 77.5901, 19.8, 0.5, NOW + 2 * MINUTE);
+        assertTrue(booking(7).isStarted());
+        // Reaching the target at the station completes the slot
+        request(7, 77.5901, 80, 0.5, NOW + 62 * MINUTE);
+
+        assertNull(booking(7));
+        assertEquals(1, planner.getCompletions());
+        assertEquals(0, planner.getRequestCount());
+    }
+
+    @Test
+    void vehicleChargedElsewhereIsReleased() {
+        use(battery(1, 77.59, 1));
+        request(7, 77.62, 20, 0.5, NOW);
+
+        request(7, 77.62, 96, 0.5, NOW + 5 * MINUTE);
+
+        assertNull(booking(7));
+        assertEquals(0, planner.getRequestCount());
+        assertEquals(0, planner.getCompletions());
+    }
+
+    @Test
+    void noShowIsRebookedAndFreedSlotsAreTakenByOthers() {
+        use(battery(1, 77.59, 1), battery(2, 77.61, 1));
+        request(7, 77.59, 20, 0.5, NOW);
+        request(8, 77.59, 20, 0.5, NOW);
+        assertEquals(2, planner.getStation(booking(8)).getId());
+
+        // Vehicle 8 turns back toward the first station and 7 gives up its slot
+        request(8, 77.59, 20, 0.5, NOW + MINUTE);
+        planner.release(7);
+        planner.repair(NOW + MINUTE);
+
+        assertEquals(1, planner.getRelocations());
+        assertEquals(1, planner.getStation(booking(8)).getId());
+
+        // Never arrives: past the grace period the slot is planned again
+        long start = booking(8).getStart();
+        planner.repair(start + 11 * MINUTE);
+
+        assertEquals(1, planner.getRebookings());
+        assertTrue(booking(8).getStart() > start);
+    }
+}
@@ -0,0 +1,130 @@
+package com.neurofleetx.config;
+
+import com.neurofleetx.util.LatencyHistogram;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Throughput and tail latency of blocking request handling on platform threads
+ * and on virtual threads under a slow database. Requests arrive at a fixed
+ * rate, as on an open workload. Each runs its statements through the
+ * {@link SimulatedLatencyStatementInspector}, which parks for the configured
+ * latency, plus a little CPU work. The platform pool is sized like Tomcat's
+ * default of 200 worker threads. Virtual threads get one thread per request.
+ * Latency counts from the moment a request was due, so queueing behind a
+ * saturated pool shows up in the percentiles.
+ *
+ * Virtual threads need Java 21; build with the {@code java21} profile.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *   com.neurofleetx.config.VirtualThreadBenchmark --rate=5000 --seconds=10 --latency-ms=10 --statements=3
+ * </pre>
+ */
+public class VirtualThreadBenchmark {
+
+    private static final String SQL = "select v.id, v.version from vehicles v where v.id = ?";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int split = option.indexOf('=');
+            options.put(split < 0 ? option : option.substring(0, split), split < 0 ? "" : option.substring(split + 1));
+        }
+        int rate = Integer.parseInt(options.getOrDefault("rate", "5000"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+        long latencyMs = Long.parseLong(options.getOrDefault("latency-ms", "10"));
+        int statements = Integer.parseInt(options.getOrDefault("statements", "3"));
+        long cpuMicros = Long.parseLong(options.getOrDefault("cpu-micros", "50"));
+        int platformThreads = Integer.parseInt(options.getOrDefault("platform-threads", "200"));
+        // 0 leaves connections unbounded; Hikari's default pool holds 10
+        int connections = Integer.parseInt(options.getOrDefault("connections", "0"));
+        String mode = options.getOrDefault("mode", "both");
+
+        // The inspector reads its delay once, when it is created
+        System.setProperty("neurofleetx.simulated-db-latency-ms", Long.toString(latencyMs));
+        SimulatedLatencyStatementInspector inspector = new SimulatedLatencyStatementInspector();
+        System.out.printf("%d requests/s for %d s, %d statements of %d ms and %d us of CPU each, %s connections%n",
+                rate, seconds, statements, latencyMs, cpuMicros, connections > 0 ? Integer.toString(connections) : "unbounded");
+
+        if (!"virtual".equals(mode)) {
+            ExecutorService platform = Executors.newFixedThreadPool(platformThreads);
+            run(platformThreads + " platform threads", platform, inspector, rate, seconds, statements, cpuMicros, connections);
+            platform.shutdownNow();
+        }
+        if (!"platform".equals(mode)) {
+            if (Runtime.version().feature() < 21) {
+                System.out.println("Virtual threads: skipped, they need Java 21 (running " + Runtime.version() + ")");
+                return;
+            }
+            run("Virtual threads", new VirtualThreadTaskExecutor("bench-"), inspector, rate, seconds, statements,
+                    cpuMicros, connections);
+        }
+    }
+
+    private static void run(String name, Executor executor, SimulatedLatencyStatementInspector inspector,
+                            int rate, int seconds, int statements, long cpuMicros, int connections)
+            throws InterruptedException {
+        Semaphore pool = connections > 0 ? new Semaphore(connections, true) : null;
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicLong lastCompletion = new AtomicLong();
+
+        long periodNanos = 1_000_000_000L / rate;
+        int total = rate * seconds;
+        CountDownLatch completed = new CountDownLatch(total);
+        long start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            long due = start + i * periodNanos;
+            long ahead = due - System.nanoTime();
+            if (ahead > 0) {
+                LockSupport.parkNanos(ahead);
+            }
+            executor.execute(() -> {
+                for (int s = 0; s < statements; s++) {
+                    if (pool != null) {
+                        pool.acquireUninterruptibly();
+                    }
+                    try {
+                        inspector.inspect(SQL);
+                    } finally {
+                        if (pool != null) {
+                            pool.release();
+                        }
+                    }
+                }
+                spin(cpuMicros);
+                long now = System.nanoTime();
+                latency.record(now - due);
+                lastCompletion.accumulateAndGet(now, Math::max);
+                completed.countDown();
+            });
+        }
+        // A saturated pool may still hold a long queue; give it a bounded time to drain
+        boolean drained = completed.await(Math.max(30, seconds * 3L), TimeUnit.SECONDS);
+
+        long done = total - completed.getCount();
+        double elapsed = (lastCompletion.get() - start) / 1e9;
+        System.out.printf("%s: %d of %d requests%s, %.0f requests/s, latency ms p50 %.1f, p99 %.1f, max %.1f%n",
+                name, done, total, drained ? "" : " (gave up draining)", done / elapsed,
+                latency.percentile(0.5), latency.percentile(0.99), latency.percentile(1.0));
+    }
+
+    // Stands in for the request's own work, e.g. serializing the response
+    private static void spin(long micros) {
+        long until = System.nanoTime() + micros * 1000;
+        while (System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.neurofleetx.eta;
+
+import com.neurofleetx.ai.LinearModel;
+import com.neurofleetx.road.EdgeIndex;
+import com.neurofleetx.road.RoadGraph;
+import com.neurofleetx.road.RoadNetwork;
+import com.neurofleetx.util.LatencyHistogram;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Accuracy and query latency of the ETA pipeline on the generated street grid.
+ * A synthetic city gives every edge a congestion factor, slows traffic in the
+ * morning and evening peaks and adds a delay at every intersection. Observed
+ * pieces of road train the profiles and the model exactly as in
+ * {@link EtaEngine}; held-out random drives are then predicted by free flow,
+ * the profiles alone and the model, and random candidate routes are timed.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *   com.neurofleetx.eta.EtaBenchmark --pieces=2000000 --queries=20000 --routes-per-query=10
+ * </pre>
+ */
+public class EtaBenchmark {
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int split = option.indexOf('=');
+            options.put(split < 0 ? option : option.substring(0, split), split < 0 ? "" : option.substring(split + 1));
+        }
+        int pieceCount = Integer.parseInt(options.getOrDefault("pieces", "2000000"));
+        int refreshEvery = Integer.parseInt(options.getOrDefault("refresh-every", "100000"));
+        int drives = Integer.parseInt(options.getOrDefault("drives", "2000"));
+        int queries = Integer.parseInt(options.getOrDefault("queries", "20000"));
+        int routesPerQuery = Integer.parseInt(options.getOrDefault("routes-per-query", "10"));
+        double maxKm = Double.parseDouble(options.getOrDefault("max-km", "8"));
+        double intersectionSeconds = Double.parseDouble(options.getOrDefault("intersection-seconds", "6"));
+
+        RoadGraph graph = RoadNetwork.grid(12.9716, 77.5946, 0.002, 0.12, 40);
+        System.out.printf("Grid of %d nodes and %d edges%n", graph.nodeCount(), graph.edgeCount());
+        Random random = new Random(7);
+        double[] congestion = new double[graph.edgeCount()];
+        for (int e = 0; e < congestion.length; e++) {
+            congestion[e] = Math.exp(0.35 * random.nextGaussian()) * 1.3;
+        }
+        City city = new City(graph, congestion, intersectionSeconds);
+
+        // Train on observed pieces, publishing profiles periodically as the engine does
+        SpeedProfileAccumulator accumulator = new SpeedProfileAccumulator(graph, 500);
+        EtaLearner learner = new EtaLearner(EtaFeatures.DEFAULT_WEIGHTS, 0.01, 30);
+        SpeedProfiles profiles = accumulator.build();
+        double[] row = new double[EtaFeatures.FEATURE_COUNT];
+        long trainStart = System.nanoTime();
+        for (int i = 0; i < pieceCount; i++) {
+            int edge = random.nextInt(graph.edgeCount());
+            double fraction = 0.05 + 0.95 * random.nextDouble();
+            double hour = random.nextDouble() * 24;
+            double seconds = city.seconds(edge, fraction, hour) * Math.exp(0.2 * random.nextGaussian());
+            Arrays.fill(row, 0);
+            EtaFeatures.addPiece(graph, profiles, edge, fraction, hour, row, 0);
+            learner.update(row, 0, seconds);
+            accumulator.add(edge, (int) hour, fraction * graph.edgeLength(edge), seconds);
+            if ((i + 1) % refreshEvery == 0) {
+                profiles = accumulator.build();
+            }
+        }
+        profiles = accumulator.build();
+        LinearModel model = learner.snapshot();
+        System.out.printf("Trained on %d pieces in %.1f s, %d edges profiled: %s%n", pieceCount,
+                (System.nanoTime() - trainStart) / 1e9, profiles.getObservedEdges(), model);
+
+        // Held-out drives: random walks of 10 to 60 edges
+        double[] error = new double[3];
+        double total = 0;
+        for (int d = 0; d < drives; d++) {
+            double hour = random.nextDouble() * 24;
+            int node = random.nextInt(graph.nodeCount());
+            Arrays.fill(row, 0);
+            double truth = 0;
+            double freeFlow = 0;
+            double elapsed = 0;
+            int length = 10 + random.nextInt(51);
+            int previous = -1;
+            for (int step = 0; step < length; step++) {
+                int edge = city.randomOut(node, previous, random);
+                double at = (hour + truth / 3600) % 24;
+                truth += city.seconds(edge, 1, at);
+                freeFlow += SpeedProfiles.freeFlowSeconds(graph, edge);
+                elapsed += EtaFeatures.addPiece(graph, profiles, edge, 1, (hour + elapsed / 3600) % 24, row, 0);
+                previous = edge;
+                node = graph.edgeTo(edge);
+            }
+            error[0] += Math.abs(freeFlow - truth);
+            error[1] += Math.abs(row[EtaFeatures.PROFILE_SECONDS] - truth);
+            error[2] += Math.abs(model.score(row, 0) - truth);
+            total += truth;
+        }
+        System.out.printf("%d held-out drives, mean %.0f s: mean absolute error free flow %.1f%%, profiles %.1f%%, "
+                        + "model %.1f%%%n", drives, total / drives, 100 * error[0] / total, 100 * error[1] / total,
+                100 * error[2] / total);
+
+        // Query latency: each query predicts several candidate routes between random points
+        EtaPredictor predictor = new EtaPredictor(graph, new EdgeIndex(graph, 0.005), 200, ZoneOffset.UTC);
+        LatencyHistogram latency = new LatencyHistogram();
+        double span = maxKm * 1000 / 111_320;
+        long routes = 0;
+        for (int q = 0; q < queries; q++) {
+            List<double[][]> candidates = new ArrayList<>(routesPerQuery);
+            double latitude = 12.9716 + (random.nextDouble() - 0.5) * 0.16;
+            double longitude = 77.5946 + (random.nextDouble() - 0.5) * 0.16;
+            for (int r = 0; r < routesPerQuery; r++) {
+                candidates.add(new double[][] {{latitude, longitude},
+                        {latitude + (random.nextDouble() - 0.5) * span, longitude + (random.nextDouble() - 0.5) * span},
+                        {latitude + (random.nextDouble() - 0.5) * span, longitude + (random.nextDouble() - 0.5) * span}});
+            }
+            long started = System.nanoTime();
+            predictor.predict(candidates, System.currentTimeMillis(), profiles, model);
+            // The first queries warm up the JIT
+            if (q >= queries / 10) {
+                latency.record(System.nanoTime() - started);
+                routes += routesPerQuery;
+            }
+        }
+        System.out.printf("%d routes of 2 legs within %.0f km, %d per query: per query p50 %.3f ms, p99 %.3f ms, "
+                        + "per route p50 %.3f ms%n", routes, maxKm, routesPerQuery, latency.percentile(0.5),
+                latency.percentile(0.99), latency.percentile(0.5) / routesPerQuery);
+    }
+
+    /**
+     * Ground truth travel times of the synthetic city
+     */
+    private static final class City {
+        final RoadGraph graph;
+        final double[] congestion;
+        final double intersectionSeconds;
+        final List<List<Integer>> outEdges = new ArrayList<>();
+
+        City(RoadGraph graph, double[] congestion, double intersectionSeconds) {
+            this.graph = graph;
+            this.congestion = congestion;
+            this.intersectionSeconds = intersectionSeconds;
+            for (int n = 0; n < graph.nodeCount(); n++) {
+                outEdges.add(new ArrayList<>());
+            }
+            for (int e = 0; e < graph.edgeCount(); e++) {
+                outEdges.get(graph.edgeFrom(e)).add(e);
+            }
+        }
+
+        double seconds(int edge, double fraction, double hour) {
+            // Peaks around 9:00 and 18:00
+            double peak = Math.exp(-Math.pow(hour - 9, 2) / 2) + Math.exp(-Math.pow(hour - 18, 2) / 3);
+            return fraction * (SpeedProfiles.freeFlowSeconds(graph, edge) * congestion[edge] * (1 + 0.8 * peak)
+                    + intersectionSeconds);
+        }
+
+        // A random outgoing edge that does not turn straight back, if there is another
+        int randomOut(int node, int previous, Random random) {
+            List<Integer> out = new ArrayList<>(outEdges.get(node));
+            if (previous >= 0 && out.size() > 1) {
+                out.remove(Integer.valueOf(graph.reverseEdge(previous)));
+            }
+            return out.get(random.nextInt(out.size()));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.neurofleetx.eta;
+
+import com.neurofleetx.ai.LinearModel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EtaLearnerTest {
+
+    // One piece of road: its profile time and one edge
+    private static double[] piece(double profileSeconds) {
+        double[] row = new double[EtaFeatures.FEATURE_COUNT];
+        row[EtaFeatures.PROFILE_SECONDS] = profileSeconds;
+        row[EtaFeatures.EDGES] = 1;
+        return row;
+    }
+
+    private static EtaLearner trained(double huberSeconds) {
+        EtaLearner learner = new EtaLearner(EtaFeatures.DEFAULT_WEIGHTS, 0.1, huberSeconds);
+        Random random = new Random(5);
+        // Traffic is half again as slow as the profiles say
+        for (int i = 0; i < 20_000; i++) {
+            double profile = 5 + random.nextDouble() * 55;
+            learner.update(piece(profile), 0, 1.5 * profile);
+        }
+        return learner;
+    }
+
+    @Test
+    void learnsASteadyBiasOfTheProfiles() {
+        EtaLearner learner = trained(30);
+        LinearModel model = learner.snapshot();
+
+        assertEquals(20_000, learner.getUpdates());
+        assertEquals(15, model.score(piece(10), 0), 0.5);
+        assertEquals(90, model.score(piece(60), 0), 0.5);
+    }
+
+    @Test
+    void anOutlierDoesNotStallLearning() {
+        EtaLearner clipped = trained(30);
+        EtaLearner unclipped = trained(Double.POSITIVE_INFINITY);
+
+        // A vehicle parked for three hours on one piece of road, then normal traffic again.
+        // Unclipped, its squared gradient dwarfs the rest and AdaGrad barely moves afterwards.
+        clipped.update(piece(60), 0, 10_800);
+        unclipped.update(piece(60), 0, 10_800);
+        for (int i = 0; i < 2_000; i++) {
+            double profile = 5 + (i % 56);
+            clipped.update(piece(profile), 0, 1.5 * profile);
+            unclipped.update(piece(profile), 0, 1.5 * profile);
+        }
+
+        double clippedError = Math.abs(clipped.snapshot().score(piece(60), 0) - 90);
+        double unclippedError = Math.abs(unclipped.snapshot().score(piece(60), 0) - 90);
+        assertTrue(clippedError < 0.5, "clipped error " + clippedError);
+        assertTrue(unclippedError > 1, "unclipped error " + unclippedError);
+    }
+
+    @Test
+    void snapshotIsNotChangedByLaterSteps() {
+        EtaLearner learner = new EtaLearner(EtaFeatures.DEFAULT_WEIGHTS, 0.1, 30);
+        LinearModel model = learner.snapshot();
+
+        learner.update(piece(10), 0, 20);
+
+        assertEquals(10, model.score(piece(10), 0));
+        assertEquals(10, learner.getMeanAbsoluteError());
+    }
+}
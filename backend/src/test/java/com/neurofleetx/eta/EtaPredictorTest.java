@@ -0,0 +1,134 @@
+package com.neurofleetx.eta;
+
+import com.neurofleetx.ai.LinearModel;
+import com.neurofleetx.ai.ModelType;
+import com.neurofleetx.road.EdgeIndex;
+import com.neurofleetx.road.RoadGraph;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EtaPredictorTest {
+
+    private static final double MAIN = 12.97;
+    // 08:00 UTC
+    private static final long DEPARTURE = 8 * 3_600_000L;
+
+    /**
+     * A two-way 36 km/h road east from 77.59 to 77.60 in 100 m pieces, and a
+     * separate road further north that nothing leads to
+     */
+    private static RoadGraph graph() {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        for (int i = 0; i < 10; i++) {
+            builder.addRoad(MAIN, 77.59 + i * 0.001, MAIN, 77.59 + (i + 1) * 0.001, 36, false);
+        }
+        builder.addRoad(MAIN + 0.05, 77.59, MAIN + 0.05, 77.60, 36, false);
+        return builder.build();
+    }
+
+    private static final RoadGraph GRAPH = graph();
+    private static final EtaPredictor PREDICTOR = new EtaPredictor(GRAPH, new EdgeIndex(GRAPH, 0.005), 200,
+            ZoneOffset.UTC);
+
+    private static double[][] route(double... longitudes) {
+        double[][] waypoints = new double[longitudes.length][];
+        for (int i = 0; i < longitudes.length; i++) {
+            waypoints[i] = new double[] {MAIN, longitudes[i]};
+        }
+        return waypoints;
+    }
+
+    @Test
+    void freeFlowRouteTakesItsLengthOverTheSpeedLimit() {
+        List<EtaPredictor.RouteEta> etas = PREDICTOR.predict(List.<double[][]>of(route(77.5915, 77.5955, 77.5985)), DEPARTURE,
+                SpeedProfiles.freeFlow(GRAPH), null);
+
+        EtaPredictor.RouteEta eta = etas.get(0);
+        double first = RoadGraph.distanceMeters(MAIN, 77.5915, MAIN, 77.5955);
+        double second = RoadGraph.distanceMeters(MAIN, 77.5955, MAIN, 77.5985);
+        assertEquals("OK", eta.getStatus());
+        assertArrayEquals(new double[] {first, second}, eta.getLegMeters(), 0.5);
+        assertEquals(first + second, eta.getMeters(), 0.5);
+        assertEquals((first + second) / 10, eta.getSeconds(), 0.05);
+        assertEquals(eta.getSeconds(), eta.getProfileSeconds(), 1e-9);
+    }
+
+    @Test
+    void drivingWestUsesTheReverseEdges() {
+        EtaPredictor.RouteEta east = PREDICTOR.predict(List.<double[][]>of(route(77.5915, 77.5985)), DEPARTURE,
+                SpeedProfiles.freeFlow(GRAPH), null).get(0);
+        EtaPredictor.RouteEta west = PREDICTOR.predict(List.<double[][]>of(route(77.5985, 77.5915)), DEPARTURE,
+                SpeedProfiles.freeFlow(GRAPH), null).get(0);
+
+        assertEquals(east.getMeters(), west.getMeters(), 0.5);
+        assertEquals(east.getSeconds(), west.getSeconds(), 0.05);
+    }
+
+    @Test
+    void modelScoresTheLegsAndNeverGoesBelowHalfTheProfile() {
+        double[] slower = new double[EtaFeatures.FEATURE_COUNT];
+        slower[EtaFeatures.PROFILE_SECONDS] = 1.5;
+        double[] drifted = new double[EtaFeatures.FEATURE_COUNT];
+        drifted[EtaFeatures.PROFILE_SECONDS] = 0.1;
+        List<double[][]> routes = List.<double[][]>of(route(77.5915, 77.5985));
+        SpeedProfiles profiles = SpeedProfiles.freeFlow(GRAPH);
+
+        EtaPredictor.RouteEta base = PREDICTOR.predict(routes, DEPARTURE, profiles, null).get(0);
+        EtaPredictor.RouteEta learned = PREDICTOR.predict(routes, DEPARTURE, profiles,
+                new LinearModel(ModelType.LINEAR, slower, 0)).get(0);
+        EtaPredictor.RouteEta floored = PREDICTOR.predict(routes, DEPARTURE, profiles,
+                new LinearModel(ModelType.LINEAR, drifted, 0)).get(0);
+
+        assertEquals(1.5 * base.getSeconds(), learned.getSeconds(), 1e-6);
+        assertEquals(base.getSeconds(), learned.getProfileSeconds(), 1e-9);
+        assertEquals(0.5 * base.getSeconds(), floored.getSeconds(), 1e-6);
+    }
+
+    @Test
+    void offRoadAndUnreachableRoutesHaveNoTime() {
+        List<EtaPredictor.RouteEta> etas = PREDICTOR.predict(List.of(
+                new double[][] {{MAIN, 77.5915}, {MAIN + 1, 77.5915}},
+                new double[][] {{MAIN, 77.5915}, {MAIN + 0.05, 77.595}},
+                route(77.5915, 77.592)), DEPARTURE, SpeedProfiles.freeFlow(GRAPH), null);
+
+        assertEquals("OFF_ROAD", etas.get(0).getStatus());
+        assertEquals("UNREACHABLE", etas.get(1).getStatus());
+        assertTrue(Double.isNaN(etas.get(1).getSeconds()));
+        // One bad route does not fail the others in the batch
+        assertEquals("OK", etas.get(2).getStatus());
+    }
+
+    @Test
+    void routeNeedsTwoWaypoints() {
+        assertThrows(IllegalArgumentException.class, () -> PREDICTOR.predict(List.<double[][]>of(route(77.5915)), DEPARTURE,
+                SpeedProfiles.freeFlow(GRAPH), null));
+    }
+
+    @Test
+    void slowerHourOfTheDepartureIsUsed() {
+        SpeedProfileAccumulator accumulator = new SpeedProfileAccumulator(GRAPH, 1);
+        // Half the speed limit at 8 o'clock on every piece of the main road
+        for (int edge = 0; edge < GRAPH.edgeCount(); edge++) {
+            accumulator.add(edge, 8, 100_000, 20_000);
+        }
+        SpeedProfiles profiles = accumulator.build();
+        List<double[][]> routes = List.<double[][]>of(route(77.5915, 77.5985));
+
+        double morning = PREDICTOR.predict(routes, DEPARTURE, profiles, null).get(0).getSeconds();
+        double night = PREDICTOR.predict(routes, DEPARTURE + 12 * 3_600_000L, profiles, null).get(0).getSeconds();
+        double freeFlow = PREDICTOR.predict(routes, DEPARTURE, SpeedProfiles.freeFlow(GRAPH), null).get(0).getSeconds();
+
+        assertEquals(2 * freeFlow, morning, 0.5);
+        // Every observation was at 8 o'clock, so the all-day profile is just as slow
+        assertEquals(morning, night, 0.01);
+        assertEquals(8.0, EtaFeatures.hourOfDay(DEPARTURE, ZoneOffset.UTC));
+        assertEquals(13.5, EtaFeatures.hourOfDay(DEPARTURE, ZoneOffset.ofHoursMinutes(5, 30)));
+    }
+}
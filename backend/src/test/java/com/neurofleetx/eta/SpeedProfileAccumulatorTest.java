@@ -0,0 +1,62 @@
+package com.neurofleetx.eta;
+
+import com.neurofleetx.road.RoadGraph;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SpeedProfileAccumulatorTest {
+
+    // Three 100 m pieces of a 36 km/h road, 10 m/s at free flow
+    private static RoadGraph graph() {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        for (int i = 0; i < 3; i++) {
+            builder.addRoad(12.97, 77.59 + i * 0.001, 12.97, 77.59 + (i + 1) * 0.001, 36, true);
+        }
+        return builder.build();
+    }
+
+    @Test
+    void withoutObservationsEveryHourIsFreeFlow() {
+        RoadGraph graph = graph();
+        SpeedProfiles profiles = new SpeedProfileAccumulator(graph, 100).build();
+
+        assertEquals(graph.edgeLength(0) / 10, profiles.seconds(8)[0], 1e-9);
+        assertEquals(10, profiles.metersPerSecond(8), 1e-9);
+        assertEquals(0, profiles.getObservedEdges());
+    }
+
+    @Test
+    void observedHourBlendsTowardTheAllDayPaceAndOthersShareIt() {
+        RoadGraph graph = graph();
+        SpeedProfileAccumulator accumulator = new SpeedProfileAccumulator(graph, 100);
+        // 10 km at 5 m/s at 8 o'clock, and 900 m at 10 m/s at noon
+        accumulator.add(0, 8, 10_000, 2_000);
+        accumulator.add(0, 12, 900, 90);
+
+        SpeedProfiles profiles = accumulator.build();
+
+        double length = graph.edgeLength(0);
+        double allDayPace = (2_090 + 100 * 0.1) / (10_900 + 100);
+        assertEquals(length * allDayPace, profiles.seconds(3)[0], 1e-9);
+        assertEquals(length * (2_000 + 100 * allDayPace) / 10_100, profiles.seconds(8)[0], 1e-9);
+        assertEquals(length * (90 + 100 * allDayPace) / 1_000, profiles.seconds(12)[0], 1e-9);
+        // Other edges keep free flow, and unobserved hours share the all-day array
+        assertEquals(graph.edgeLength(1) / 10, profiles.seconds(8)[1], 1e-9);
+        assertSame(profiles.seconds(3), profiles.seconds(20));
+        assertEquals(1, profiles.getObservedEdges());
+        assertEquals(2, profiles.getObservations());
+    }
+
+    @Test
+    void decayDropsEdgesLeftWithAlmostNothing() {
+        SpeedProfileAccumulator accumulator = new SpeedProfileAccumulator(graph(), 100);
+        accumulator.add(0, 8, 1_000, 200);
+        accumulator.add(1, 8, 50, 10);
+
+        accumulator.decay(0.01);
+
+        assertEquals(1, accumulator.getObservedEdges());
+    }
+}
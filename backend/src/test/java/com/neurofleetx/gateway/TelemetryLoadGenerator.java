@@ -0,0 +1,339 @@
+package com.neurofleetx.gateway;
+
+import com.neurofleetx.wire.FleetFrame;
+import com.neurofleetx.wire.FleetFrameCodec;
+import com.neurofleetx.wire.VehicleRecord;
+import com.neurofleetx.wire.WireField;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulated on-board units for the telemetry gateway. Each connection owns a
+ * slice of the vehicle ids and sends one telemetry frame for all of them per
+ * tick, on a fixed schedule regardless of how fast the gateway answers. Over
+ * TCP the latency from send to ACK is measured; a growing lag means the
+ * gateway is pushing back.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *   com.neurofleetx.gateway.TelemetryLoadGenerator --token=JWT --vehicles=1-10000 --connections=50 --hz=1 --seconds=60 [--udp]
+ * </pre>
+ */
+public class TelemetryLoadGenerator {
+
+    private final String host;
+    private final int tcpPort;
+    private final int udpPort;
+    private final String token;
+    private final long firstId;
+    private final long lastId;
+    private final int connectionCount;
+    private final double hz;
+    private final int seconds;
+    private final boolean udp;
+
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong recordsSent = new AtomicLong();
+    private final AtomicLong framesAcked = new AtomicLong();
+    private final AtomicLong recordsApplied = new AtomicLong();
+    private final AtomicLong lateTicks = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final Queue<long[]> latencies = new ConcurrentLinkedQueue<>();
+
+    TelemetryLoadGenerator(Map<String, String> options) {
+        host = options.getOrDefault("host", "localhost");
+        tcpPort = Integer.parseInt(options.getOrDefault("tcp-port", "9090"));
+        udpPort = Integer.parseInt(options.getOrDefault("udp-port", "9091"));
+        token = options.get("token");
+        String[] range = options.getOrDefault("vehicles", "1-100").split("-");
+        firstId = Long.parseLong(range[0]);
+        lastId = Long.parseLong(range[range.length - 1]);
+        connectionCount = Integer.parseInt(options.getOrDefault("connections", "4"));
+        hz = Double.parseDouble(options.getOrDefault("hz", "1"));
+        seconds = Integer.parseInt(options.getOrDefault("seconds", "30"));
+        udp = options.containsKey("udp");
+        if (token == null) {
+            throw new IllegalArgumentException("--token is required");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int split = option.indexOf('=');
+            options.put(split < 0 ? option : option.substring(0, split), split < 0 ? "" : option.substring(split + 1));
+        }
+        new TelemetryLoadGenerator(options).run();
+    }
+
+    void run() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        for (int c = 0; c < connectionCount; c++) {
+            List<Long> ids = new ArrayList<>();
+            for (long id = firstId + c; id <= lastId; id += connectionCount) {
+                ids.add(id);
+            }
+            Device device = new Device(ids, c);
+            Thread thread = new Thread(() -> device.run(start, deadline), "device-" + c);
+            thread.start();
+            threads.add(thread);
+        }
+
+        long lastFrames = 0;
+        long lastRecords = 0;
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(1000);
+            long frames = framesSent.get();
+            long records = recordsSent.get();
+            System.out.printf("sent %d frames/s, %d records/s, acked %d frames, applied %d records, late ticks %d, errors %d%n",
+                    frames - lastFrames, records - lastRecords, framesAcked.get(), recordsApplied.get(),
+                    lateTicks.get(), errors.get());
+            lastFrames = frames;
+            lastRecords = records;
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        report((System.nanoTime() - start) / 1e9);
+    }
+
+    private void report(double elapsed) {
+        System.out.printf("%s: %d frames, %d records in %.1f s (%.0f records/s), %d acked, %d applied, %d errors%n",
+                udp ? "UDP" : "TCP", framesSent.get(), recordsSent.get(), elapsed, recordsSent.get() / elapsed,
+                framesAcked.get(), recordsApplied.get(), errors.get());
+        List<Long> all = new ArrayList<>();
+        for (long[] connection : latencies) {
+            for (long latency : connection) {
+                all.add(latency);
+            }
+        }
+        if (!all.isEmpty()) {
+            long[] sorted = all.stream().mapToLong(Long::longValue).sorted().toArray();
+            System.out.printf("ack latency ms: p50 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                    sorted[sorted.length - 1] / 1e6);
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(quantile * sorted.length))] / 1e6;
+    }
+
+    /**
+     * One simulated on-board unit connection
+     */
+    private class Device {
+        private final List<Long> ids;
+        private final Random random;
+        private final double[] latitude;
+        private final double[] longitude;
+        private final double[] battery;
+
+        // Intended send times of unacknowledged frames, oldest first
+        private final Queue<Long> sentAt = new ConcurrentLinkedQueue<>();
+        private long[] ackLatencies = new long[1024];
+        private int ackCount;
+
+        Device(List<Long> ids, int seed) {
+            this.ids = ids;
+            this.random = new Random(seed);
+            latitude = new double[ids.size()];
+            longitude = new double[ids.size()];
+            battery = new double[ids.size()];
+            for (int i = 0; i < ids.size(); i++) {
+                latitude[i] = 12.9 + random.nextDouble() * 0.2;
+                longitude[i] = 77.5 + random.nextDouble() * 0.2;
+                battery[i] = 50 + random.nextDouble() * 50;
+            }
+        }
+
+        void run(long start, long deadline) {
+            try {
+                if (udp) {
+                    runUdp(start, deadline);
+                } else {
+                    runTcp(start, deadline);
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+                System.err.println(Thread.currentThread().getName() + ": " + e.getMessage());
+            } finally {
+                latencies.add(recordedLatencies());
+            }
+        }
+
+        private void runTcp(long start, long deadline) throws IOException {
+            try (Socket socket = new Socket(host, tcpPort)) {
+                socket.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+
+                byte[] auth = token.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(1 + auth.length);
+                out.writeByte(GatewayProtocol.AUTH);
+                out.write(auth);
+                out.flush();
+                byte[] reply = readFrame(in);
+                if (reply[0] != GatewayProtocol.AUTH_OK) {
+                    throw new IOException("Authentication failed: " + new String(reply, 1, reply.length - 1, StandardCharsets.UTF_8));
+                }
+
+                Thread reader = new Thread(() -> readAcks(in), Thread.currentThread().getName() + "-acks");
+                reader.setDaemon(true);
+                reader.start();
+
+                long period = (long) (TimeUnit.SECONDS.toNanos(1) / hz);
+                for (long tick = 0; ; tick++) {
+                    long intended = start + tick * period;
+                    if (intended >= deadline) {
+                        break;
+                    }
+                    sleepUntil(intended);
+                    byte[] frame = FleetFrameCodec.encode(nextFrame());
+                    // Latency counts from the intended time, so a stalled sender does not hide queueing
+                    sentAt.add(intended);
+                    out.writeInt(1 + frame.length);
+                    out.writeByte(GatewayProtocol.TELEMETRY);
+                    out.write(frame);
+                    out.flush();
+                    framesSent.incrementAndGet();
+                    recordsSent.addAndGet(ids.size());
+                }
+                // Give outstanding acknowledgements a moment to arrive
+                long drainUntil = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (!sentAt.isEmpty() && System.nanoTime() < drainUntil) {
+                    sleepUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10));
+                }
+            }
+        }
+
+        private void readAcks(DataInputStream in) {
+            try {
+                while (true) {
+                    byte[] message = readFrame(in);
+                    if (message[0] == GatewayProtocol.ACK) {
+                        Long intended = sentAt.poll();
+                        if (intended != null) {
+                            recordLatency(System.nanoTime() - intended);
+                        }
+                        framesAcked.incrementAndGet();
+                        recordsApplied.addAndGet(ByteBuffer.wrap(message, 1, 4).getInt());
+                    } else if (message[0] == GatewayProtocol.ERROR) {
+                        errors.incrementAndGet();
+                        System.err.println("gateway: " + new String(message, 1, message.length - 1, StandardCharsets.UTF_8));
+                    }
+                }
+            } catch (IOException e) {
+                // Socket closed at the end of the run
+            }
+        }
+
+        private synchronized void recordLatency(long nanos) {
+            if (ackCount == ackLatencies.length) {
+                ackLatencies = Arrays.copyOf(ackLatencies, ackCount * 2);
+            }
+            ackLatencies[ackCount++] = nanos;
+        }
+
+        private synchronized long[] recordedLatencies() {
+            return Arrays.copyOf(ackLatencies, ackCount);
+        }
+
+        private void runUdp(long start, long deadline) throws IOException {
+            try (DatagramSocket socket = new DatagramSocket()) {
+                InetSocketAddress gateway = new InetSocketAddress(host, udpPort);
+                byte[] auth = token.getBytes(StandardCharsets.UTF_8);
+                byte[] request = new byte[1 + auth.length];
+                request[0] = GatewayProtocol.AUTH;
+                System.arraycopy(auth, 0, request, 1, auth.length);
+                socket.setSoTimeout(5000);
+                socket.send(new DatagramPacket(request, request.length, gateway));
+                byte[] reply = new byte[1024];
+                DatagramPacket packet = new DatagramPacket(reply, reply.length);
+                socket.receive(packet);
+                if (reply[0] != GatewayProtocol.AUTH_OK) {
+                    throw new IOException("Authentication failed: " + new String(reply, 1, packet.getLength() - 1, StandardCharsets.UTF_8));
+                }
+                long session = ByteBuffer.wrap(reply, 1, 8).getLong();
+
+                long period = (long) (TimeUnit.SECONDS.toNanos(1) / hz);
+                for (long tick = 0; ; tick++) {
+                    long intended = start + tick * period;
+                    if (intended >= deadline) {
+                        break;
+                    }
+                    sleepUntil(intended);
+                    byte[] frame = FleetFrameCodec.encode(nextFrame());
+                    ByteBuffer datagram = ByteBuffer.allocate(1 + 8 + frame.length);
+                    datagram.put(GatewayProtocol.TELEMETRY).putLong(session).put(frame);
+                    socket.send(new DatagramPacket(datagram.array(), datagram.capacity(), gateway));
+                    framesSent.incrementAndGet();
+                    recordsSent.addAndGet(ids.size());
+                }
+            }
+        }
+
+        // A small random walk per vehicle
+        private FleetFrame nextFrame() {
+            List<VehicleRecord> records = new ArrayList<>(ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                latitude[i] += (random.nextDouble() - 0.5) * 0.0005;
+                longitude[i] += (random.nextDouble() - 0.5) * 0.0005;
+                battery[i] = Math.max(0, battery[i] - random.nextDouble() * 0.01);
+                records.add(new VehicleRecord(ids.get(i))
+                        .set(WireField.LATITUDE, latitude[i])
+                        .set(WireField.LONGITUDE, longitude[i])
+                        .set(WireField.SPEED, Math.round(random.nextDouble() * 9000) / 100.0)
+                        .set(WireField.BATTERY_LEVEL, Math.round(battery[i] * 100) / 100.0));
+            }
+            return FleetFrame.telemetry(records);
+        }
+
+        private void sleepUntil(long nanoTime) {
+            long wait = nanoTime - System.nanoTime();
+            if (wait < -TimeUnit.MILLISECONDS.toNanos(1)) {
+                lateTicks.incrementAndGet();
+            }
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private static byte[] readFrame(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 1) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        byte[] frame = new byte[length];
+        in.readFully(frame);
+        return frame;
+    }
+}
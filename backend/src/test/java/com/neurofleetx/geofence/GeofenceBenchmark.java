@@ -0,0 +1,112 @@
+package com.neurofleetx.geofence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sustained position updates per second through the {@link GeofenceTracker}
+ * with a synthetic city: random circles and polygons of 50 to 500 m, and
+ * vehicles driving in random directions across them.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *   com.neurofleetx.geofence.GeofenceBenchmark --zones=10000 --vehicles=100000 --threads=4 --seconds=10
+ * </pre>
+ */
+public class GeofenceBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int split = option.indexOf('=');
+            options.put(split < 0 ? option : option.substring(0, split), split < 0 ? "" : option.substring(split + 1));
+        }
+        int zoneCount = Integer.parseInt(options.getOrDefault("zones", "10000"));
+        int vehicles = Integer.parseInt(options.getOrDefault("vehicles", "100000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", Integer.toString(Runtime.getRuntime().availableProcessors())));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+        double cellDegrees = Double.parseDouble(options.getOrDefault("cell-degrees", "0.01"));
+        // Side of the square area, about 33 km
+        double area = Double.parseDouble(options.getOrDefault("area-degrees", "0.3"));
+
+        Random random = new Random(1);
+        double south = 12.8;
+        double west = 77.45;
+        List<Zone> zones = new ArrayList<>();
+        for (int i = 0; i < zoneCount; i++) {
+            double latitude = south + random.nextDouble() * area;
+            double longitude = west + random.nextDouble() * area;
+            double radius = 50 + random.nextDouble() * 450;
+            if (i % 2 == 0) {
+                zones.add(Zone.circle(i, "zone-" + i, 60_000, latitude, longitude, radius));
+            } else {
+                int corners = 3 + random.nextInt(6);
+                double[][] vertices = new double[corners][];
+                for (int c = 0; c < corners; c++) {
+                    double angle = 2 * Math.PI * c / corners;
+                    double distance = radius * (0.6 + 0.4 * random.nextDouble()) / Zone.METERS_PER_DEGREE;
+                    vertices[c] = new double[] {latitude + distance * Math.sin(angle), longitude + distance * Math.cos(angle)};
+                }
+                zones.add(Zone.polygon(i, "zone-" + i, 60_000, vertices));
+            }
+        }
+        long built = System.nanoTime();
+        GeofenceIndex index = new GeofenceIndex(zones, cellDegrees, 4096);
+        System.out.printf("Indexed %d zones in %d cells in %.0f ms%n", index.size(), index.getCellCount(),
+                (System.nanoTime() - built) / 1e6);
+
+        LongAdder events = new LongAdder();
+        GeofenceTracker tracker = new GeofenceTracker(index, (zone, vehicleId, type, latitude, longitude, time) -> events.increment());
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        LongAdder updates = new LongAdder();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int from = t * vehicles / threads;
+            int to = (t + 1) * vehicles / threads;
+            Random local = new Random(t + 2);
+            Thread worker = new Thread(() -> {
+                int size = to - from;
+                double[] latitudes = new double[size];
+                double[] longitudes = new double[size];
+                double[] headings = new double[size];
+                for (int v = 0; v < size; v++) {
+                    latitudes[v] = south + local.nextDouble() * area;
+                    longitudes[v] = west + local.nextDouble() * area;
+                    headings[v] = local.nextDouble() * 2 * Math.PI;
+                }
+                // Each update moves a vehicle about 10 m
+                double step = 10 / Zone.METERS_PER_DEGREE;
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    for (int v = 0; v < size; v++) {
+                        latitudes[v] += step * Math.sin(headings[v]);
+                        longitudes[v] += step * Math.cos(headings[v]);
+                        if (latitudes[v] < south || latitudes[v] > south + area
+                                || longitudes[v] < west || longitudes[v] > west + area) {
+                            headings[v] += Math.PI;
+                        }
+                        tracker.update(from + v, latitudes[v], longitudes[v], System.currentTimeMillis());
+                    }
+                    count += size;
+                }
+                updates.add(count);
+            }, "geofence-bench-" + t);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d threads, %d vehicles, %d zones: %.0f updates/s, %d events, %d vehicles tracked%n",
+                threads, vehicles, zoneCount, updates.sum() / elapsed, events.sum(), tracker.getTrackedVehicles());
+    }
+}
@@ -0,0 +1,112 @@
+package com.neurofleetx.geofence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeofenceTrackerTest {
+
+    // A depot of 500 m radius andan L-shaped yard overlapping its east side
+    private static final Zone DEPOT = Zone.circle(1, "depot", 60_000, 12.97, 77.59, 500);
+    private static final Zone YARD = Zone.polygon(2, "yard", 30_000, new double[][] {
+            {12.968, 77.593}, {12.968, 77.600}, {12.972, 77.600}, {12.972, 77.597}, {12.970, 77.597}, {12.970, 77.593}});
+
+    private final List<String> events = new ArrayList<>();
+
+    private GeofenceTracker tracker(Zone... zones) {
+        return new GeofenceTracker(new GeofenceIndex(List.of(zones), 0.01, 4096),
+                (zone, vehicleId, type, latitude, longitude, time) ->
+                        events.add(type + " " + zone.getName() + " " + vehicleId + " @" + time));
+    }
+
+    @Test
+    void entersAndExitsOnceEach() {
+        GeofenceTracker tracker = tracker(DEPOT);
+
+        tracker.update(7, 12.90, 77.50, 0);
+        tracker.update(7, 12.97, 77.59, 1_000);
+        tracker.update(7, 12.971, 77.591, 2_000);
+        tracker.update(7, 12.98, 77.59, 3_000);
+        tracker.update(7, 12.99, 77.59, 4_000);
+
+        assertEquals(List.of("ENTER depot 7 @1000", "EXIT depot 7 @3000"), events);
+        assertEquals(0, tracker.zonesOf(7).length);
+    }
+
+    @Test
+    void vehiclesOutsideEveryZoneAreNotTracked() {
+        GeofenceTracker tracker = tracker(DEPOT);
+
+        tracker.update(7, 12.90, 77.50, 0);
+
+        assertEquals(0, tracker.getTrackedVehicles());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    void dwellFiresOnceAfterTheZoneDwellTime() {
+        GeofenceTracker tracker = tracker(DEPOT);
+
+        tracker.update(7, 12.97, 77.59, 0);
+        tracker.update(7, 12.97, 77.59, 59_999);
+        tracker.update(7, 12.97, 77.59, 60_000);
+        tracker.update(7, 12.97, 77.59, 120_000);
+
+        assertEquals(List.of("ENTER depot 7 @0", "DWELL depot 7 @60000"), events);
+    }
+
+    @Test
+    void sweepRaisesDwellForAVehicleThatStoppedReporting() {
+        GeofenceTracker tracker = tracker(DEPOT);
+        tracker.update(7, 12.97, 77.59, 0);
+
+        tracker.sweepDwell(30_000);
+        tracker.sweepDwell(61_000);
+        tracker.sweepDwell(90_000);
+
+        assertEquals(List.of("ENTER depot 7 @0", "DWELL depot 7 @61000"), events);
+    }
+
+    @Test
+    void overlappingZonesKeepTheirOwnEntryTimes() {
+        GeofenceTracker tracker = tracker(DEPOT, YARD);
+
+        // Inside both, then into the part of the yard outside the depot
+        tracker.update(7, 12.969, 77.594, 0);
+        tracker.update(7, 12.971, 77.599, 20_000);
+        tracker.update(7, 12.971, 77.599, 30_000);
+
+        assertEquals(List.of("ENTER depot 7 @0", "ENTER yard 7 @0", "EXIT depot 7 @20000", "DWELL yard 7 @30000"),
+                events);
+        assertArrayEquals(new long[] {2}, tracker.zonesOf(7));
+        assertEquals(List.of(7L), tracker.vehiclesIn(2));
+    }
+
+    @Test
+    void polygonNotchIsOutside() {
+        GeofenceTracker tracker = tracker(YARD);
+
+        // The L shape leaves the north-west quarter of its bounding box out
+        tracker.update(7, 12.971, 77.594, 0);
+        tracker.update(7, 12.969, 77.594, 1_000);
+
+        assertEquals(List.of("ENTER yard 7 @1000"), events);
+    }
+
+    @Test
+    void removedZonesEndWithoutAnExit() {
+        GeofenceTracker tracker = tracker(DEPOT);
+        tracker.update(7, 12.97, 77.59, 0);
+
+        tracker.setIndex(new GeofenceIndex(List.of(YARD), 0.01, 4096));
+        tracker.update(7, 12.90, 77.50, 1_000);
+
+        assertEquals(List.of("ENTER depot 7 @0"), events);
+        assertEquals(0, tracker.zonesOf(7).length);
+    }
+}
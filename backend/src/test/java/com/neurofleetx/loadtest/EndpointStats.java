@@ -0,0 +1,78 @@
+package com.neurofleetx.loadtest;
+
+import com.neurofleetx.util.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcomes of the requests of one operation during the measured part of a run.
+ *
+ * Two latencies are kept per request: from the time the request was scheduled
+ * to start ({@code latency}, corrected for coordinated omission) and from the
+ * time it was actually sent ({@code serviceTime}). They only differ once the
+ * load generator or the connection pool falls behind the arrival schedule,
+ * which is exactly when the uncorrected numbers would look too good.
+ */
+class EndpointStats {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @param outcome HTTP status code, or the exception name if there was no response
+     */
+    void record(long latencyNanos, long serviceNanos, String outcome, boolean error) {
+        latency.record(latencyNanos);
+        serviceTime.record(serviceNanos);
+        requests.increment();
+        if (error) {
+            errors.increment();
+        }
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    long getRequests() {
+        return requests.sum();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    double getErrorRate() {
+        long count = requests.sum();
+        return count == 0 ? 0 : (double) errors.sum() / count;
+    }
+
+    LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> map = new TreeMap<>();
+        map.put("requests", getRequests());
+        map.put("errors", getErrors());
+        map.put("errorRate", getErrorRate());
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        map.put("outcomes", counts);
+        map.put("latency", latency.toMap());
+        map.put("serviceTime", serviceTime.toMap());
+        return map;
+    }
+}
@@ -0,0 +1,296 @@
+package com.neurofleetx.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neurofleetx.NeuroFleetXApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * End-to-end HTTP load test: a weighted mix of logins, profile reads, vehicle
+ * listings and status queries, single and batch predictions and telemetry
+ * writes, sent as an {@link OpenWorkload} at a constant arrival rate.
+ *
+ * Without {@code --base-url} the backend is started in this JVM with the
+ * {@code local} profile on an in-memory H2 database, so the test runs offline;
+ * it then shares the CPU with the server, so use a separate server for
+ * absolute numbers. Setup registers load-test users and, if the fleet is
+ * smaller than {@code --vehicles}, creates vehicles.
+ *
+ * Writes {@code report.json} and {@code report.html} to {@code --out} and exits
+ * with status 1 if any endpoint misses the latency SLO.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *   com.neurofleetx.loadtest.LoadTest --rate=200 --warmup-seconds=10 --duration-seconds=60 --slo-p99-ms=250
+ * </pre>
+ */
+public class LoadTest {
+
+    private static final String DEFAULT_MIX =
+            "login:1,me:4,vehicles:4,vehicles-by-status:3,predict:3,predict-all:1,telemetry:8";
+    private static final String PASSWORD = "loadtest-secret";
+    private static final String[] STATUSES = {"AVAILABLE", "IN_USE", "MAINTENANCE"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+    private final String baseUrl;
+    private final List<String> usernames = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private final List<Long> vehicleIds = new ArrayList<>();
+
+    private LoadTest(HttpClient client, String baseUrl) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int split = option.indexOf('=');
+            options.put(split < 0 ? option : option.substring(0, split), split < 0 ? "" : option.substring(split + 1));
+        }
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup-seconds", "10"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration-seconds", "60"));
+        int users = Integer.parseInt(options.getOrDefault("users", "20"));
+        int vehicles = Integer.parseInt(options.getOrDefault("vehicles", "500"));
+        int maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "1000"));
+        int telemetryBatch = Integer.parseInt(options.getOrDefault("telemetry-batch", "20"));
+        String mix = options.getOrDefault("mix", DEFAULT_MIX);
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        Path out = Paths.get(options.getOrDefault("out", "target/loadtest"));
+        double sloP99Ms = Double.parseDouble(options.getOrDefault("slo-p99-ms", "250"));
+        double sloP999Ms = Double.parseDouble(options.getOrDefault("slo-p999-ms", "1000"));
+        double sloErrorRate = Double.parseDouble(options.getOrDefault("slo-error-rate", "0.01"));
+        if (rate <= 0 || durationSeconds <= 0 || users < 1 || vehicles < 1 || maxInFlight < 1 || telemetryBatch < 1) {
+            throw new IllegalArgumentException("rate, duration-seconds, users, vehicles, max-in-flight and telemetry-batch must be positive");
+        }
+
+        ConfigurableApplicationContext embedded = null;
+        String baseUrl = options.get("base-url");
+        if (baseUrl == null) {
+            embedded = startEmbedded();
+            baseUrl = "http://localhost:" + embedded.getEnvironment().getProperty("local.server.port");
+        }
+        int exitCode;
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            LoadTest test = new LoadTest(client, baseUrl.replaceAll("/+$", ""));
+            test.setUp(users, vehicles, seed);
+
+            OpenWorkload workload = new OpenWorkload(client, test.operations(mix, telemetryBatch), rate, maxInFlight, seed);
+            System.out.printf("Sending %.0f requests/s to %s for %d s after %d s of warmup%n",
+                    rate, baseUrl, durationSeconds, warmupSeconds);
+            long started = System.nanoTime();
+            workload.run(TimeUnit.SECONDS.toNanos(warmupSeconds), TimeUnit.SECONDS.toNanos(durationSeconds));
+            double elapsed = (System.nanoTime() - started) / 1e9 - warmupSeconds;
+
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("baseUrl", baseUrl);
+            settings.put("embedded", embedded != null);
+            settings.put("rate", rate);
+            settings.put("warmupSeconds", warmupSeconds);
+            settings.put("durationSeconds", durationSeconds);
+            settings.put("users", users);
+            settings.put("vehicles", test.vehicleIds.size());
+            settings.put("maxInFlight", maxInFlight);
+            settings.put("telemetryBatch", telemetryBatch);
+            settings.put("mix", mix);
+            settings.put("seed", seed);
+            LoadTestReport report = new LoadTestReport(settings, workload, elapsed, sloP99Ms, sloP999Ms, sloErrorRate);
+            report.write(out);
+            System.out.print(report.summary());
+            System.out.println("Report written to " + out.toAbsolutePath());
+            exitCode = report.passed() ? 0 : 1;
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+        System.exit(exitCode);
+    }
+
+    /**
+     * Boot the backend in this JVM on a random port with the in-memory local profile
+     */
+    private static ConfigurableApplicationContext startEmbedded() {
+        // The default secret is too short to sign tokens with
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        // As arguments, since default properties would lose to application.properties
+        return new SpringApplicationBuilder(NeuroFleetXApplication.class)
+                .profiles("local")
+                .run("--server.port=0", "--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+                        "--jwt.secret=" + HexFormat.of().formatHex(secret));
+    }
+
+    private void setUp(int users, int vehicles, long seed) throws IOException, InterruptedException {
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < users; i++) {
+            String username = "loadtest-" + run + "-" + i;
+            Map<String, Object> signup = new HashMap<>();
+            signup.put("username", username);
+            signup.put("email", username + "@loadtest.local");
+            signup.put("password", PASSWORD);
+            signup.put("role", "ADMIN");
+            call("POST", "/api/auth/register", signup, null);
+            usernames.add(username);
+            tokens.add(login(username).get("accessToken").asText());
+        }
+
+        JsonNode fleet = call("GET", "/api/vehicles", null, tokens.get(0));
+        for (JsonNode vehicle : fleet) {
+            if (vehicleIds.size() < vehicles) {
+                vehicleIds.add(vehicle.get("id").asLong());
+            }
+        }
+        Random random = new Random(seed);
+        while (vehicleIds.size() < vehicles) {
+            Map<String, Object> vehicle = new HashMap<>();
+            boolean electric = random.nextBoolean();
+            vehicle.put("vehicleNumber", "LT-" + run + "-" + vehicleIds.size());
+            vehicle.put("model", electric ? "Load EV" : "Load ICE");
+            vehicle.put("manufacturer", "LoadTest");
+            vehicle.put("type", electric ? "SEDAN" : "VAN");
+            vehicle.put("status", STATUSES[random.nextInt(STATUSES.length)]);
+            vehicle.put(electric ? "batteryLevel" : "fuelLevel", 20 + random.nextInt(80));
+            vehicle.put("latitude", 12.9 + random.nextDouble() * 0.1);
+            vehicle.put("longitude", 77.5 + random.nextDouble() * 0.1);
+            vehicle.put("healthScore", 50 + random.nextInt(50));
+            vehicle.put("speed", 0.0);
+            vehicle.put("mileage", random.nextInt(100_000));
+            vehicleIds.add(call("POST", "/api/vehicles", vehicle, tokens.get(0)).get("id").asLong());
+        }
+        System.out.printf("Set up %d users and %d vehicles%n", usernames.size(), vehicleIds.size());
+    }
+
+    private JsonNode login(String username) throws IOException, InterruptedException {
+        Map<String, Object> credentials = new HashMap<>();
+        credentials.put("username", username);
+        credentials.put("password", PASSWORD);
+        return call("POST", "/api/auth/login", credentials, null);
+    }
+
+    // A setup request that has to succeed
+    private JsonNode call(String method, String path, Object body, String token) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request(method, path, body, token), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException(method + " " + path + " failed with " + response.statusCode() + ": "
+                    + new String(response.body()));
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private HttpRequest request(String method, String path, Object body, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (body == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            try {
+                request.header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+
+    /**
+     * The operations named in the mix, e.g. {@code "login:1,telemetry:8"}
+     */
+    private List<Operation> operations(String mix, int telemetryBatch) {
+        List<Operation> operations = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected name:weight in the mix, got " + entry);
+            }
+            int weight = Integer.parseInt(parts[1]);
+            if (weight > 0) {
+                operations.add(new Operation(parts[0], weight, requestFactory(parts[0], telemetryBatch)));
+            }
+        }
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no operations");
+        }
+        return operations;
+    }
+
+    private Function<Random, HttpRequest> requestFactory(String name, int telemetryBatch) {
+        switch (name) {
+            case "login":
+                return random -> {
+                    Map<String, Object> credentials = new HashMap<>();
+                    credentials.put("username", usernames.get(random.nextInt(usernames.size())));
+                    credentials.put("password", PASSWORD);
+                    return request("POST", "/api/auth/login", credentials, null);
+                };
+            case "me":
+                return random -> request("GET", "/api/users/me", null, token(random));
+            case "vehicles":
+                return random -> request("GET", "/api/vehicles", null, token(random));
+            case "vehicles-by-status":
+                return random -> request("GET", "/api/vehicles/status/" + STATUSES[random.nextInt(STATUSES.length)],
+                        null, token(random));
+            case "predict":
+                return random -> request("POST", "/api/ai/predict/maintenance",
+                        Map.of("vehicleId", vehicle(random)), token(random));
+            case "predict-all":
+                return random -> request("GET", "/api/ai/predict/maintenance/all", null, token(random));
+            case "telemetry":
+                return random -> {
+                    List<Map<String, Object>> patches = new ArrayList<>();
+                    int size = 1 + random.nextInt(telemetryBatch);
+                    for (int i = 0; i < size; i++) {
+                        Map<String, Object> patch = new HashMap<>();
+                        patch.put("id", vehicle(random));
+                        patch.put("speed", Math.round(random.nextDouble() * 8000) / 100.0);
+                        patch.put("latitude", 12.9 + random.nextDouble() * 0.1);
+                        patch.put("longitude", 77.5 + random.nextDouble() * 0.1);
+                        patches.add(patch);
+                    }
+                    return request("PATCH", "/api/vehicles", patches, token(random));
+                };
+            default:
+                throw new IllegalArgumentException("Unknown operation " + name
+                        + ", expected login, me, vehicles, vehicles-by-status, predict, predict-all or telemetry");
+        }
+    }
+
+    private String token(Random random) {
+        return tokens.get(random.nextInt(tokens.size()));
+    }
+
+    private long vehicle(Random random) {
+        return vehicleIds.get(random.nextInt(vehicleIds.size()));
+    }
+}
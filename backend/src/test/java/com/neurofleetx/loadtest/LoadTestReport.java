@@ -0,0 +1,155 @@
+package com.neurofleetx.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks a finished run against the latency SLO and writes it out as
+ * {@code report.json} and {@code report.html}
+ */
+class LoadTestReport {
+
+    private final Map<String, Object> settings;
+    private final OpenWorkload workload;
+    private final double elapsedSeconds;
+    private final double sloP99Ms;
+    private final double sloP999Ms;
+    private final double sloErrorRate;
+
+    LoadTestReport(Map<String, Object> settings, OpenWorkload workload, double elapsedSeconds,
+                   double sloP99Ms, double sloP999Ms, double sloErrorRate) {
+        this.settings = settings;
+        this.workload = workload;
+        this.elapsedSeconds = elapsedSeconds;
+        this.sloP99Ms = sloP99Ms;
+        this.sloP999Ms = sloP999Ms;
+        this.sloErrorRate = sloErrorRate;
+    }
+
+    /**
+     * Reasons an endpoint misses the SLO, empty if it meets it
+     */
+    List<String> violations(EndpointStats stats) {
+        List<String> violations = new ArrayList<>();
+        double p99 = stats.getLatency().percentile(0.99);
+        double p999 = stats.getLatency().percentile(0.999);
+        if (p99 > sloP99Ms) {
+            violations.add(String.format("p99 %.1f ms > %.1f ms", p99, sloP99Ms));
+        }
+        if (p999 > sloP999Ms) {
+            violations.add(String.format("p99.9 %.1f ms > %.1f ms", p999, sloP999Ms));
+        }
+        if (stats.getErrorRate() > sloErrorRate) {
+            violations.add(String.format("error rate %.2f%% > %.2f%%", stats.getErrorRate() * 100, sloErrorRate * 100));
+        }
+        return violations;
+    }
+
+    boolean passed() {
+        return workload.getStats().values().stream().allMatch(stats -> violations(stats).isEmpty());
+    }
+
+    Map<String, Object> toMap() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("elapsedSeconds", elapsedSeconds);
+        run.put("scheduledRequests", workload.getScheduled());
+        run.put("achievedRequestsPerSecond", workload.getAll().getRequests() / elapsedSeconds);
+        run.put("maxDispatchLagMs", workload.getMaxDispatchLagMs());
+        report.put("run", run);
+        Map<String, Object> slo = new LinkedHashMap<>();
+        slo.put("p99Ms", sloP99Ms);
+        slo.put("p999Ms", sloP999Ms);
+        slo.put("errorRate", sloErrorRate);
+        slo.put("passed", passed());
+        report.put("slo", slo);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (EndpointStats stats : workload.getStats().values()) {
+            Map<String, Object> endpoint = stats.toMap();
+            endpoint.put("sloViolations", violations(stats));
+            endpoints.put(stats.getName(), endpoint);
+        }
+        endpoints.put("all", workload.getAll().toMap());
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    void write(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(dir.resolve("report.json").toFile(), toMap());
+        Files.write(dir.resolve("report.html"), html().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * One line per endpoint for the console
+     */
+    String summary() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-20s %9s %7s %9s %9s %9s %9s  %s%n",
+                "endpoint", "requests", "errors", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "SLO"));
+        for (EndpointStats stats : workload.getStats().values()) {
+            out.append(line(stats, violations(stats)));
+        }
+        out.append(line(workload.getAll(), null));
+        out.append(String.format("%.0f requests/s over %.1f s, dispatcher lag up to %.1f ms, SLO %s%n",
+                workload.getAll().getRequests() / elapsedSeconds, elapsedSeconds, workload.getMaxDispatchLagMs(),
+                passed() ? "met" : "missed"));
+        return out.toString();
+    }
+
+    private static String line(EndpointStats stats, List<String> violations) {
+        return String.format("%-20s %9d %7d %9.1f %9.1f %9.1f %9.1f  %s%n", stats.getName(), stats.getRequests(),
+                stats.getErrors(), stats.getLatency().percentile(0.5), stats.getLatency().percentile(0.99),
+                stats.getLatency().percentile(0.999), stats.getLatency().percentile(1.0),
+                violations == null ? "" : violations.isEmpty() ? "ok" : String.join(", ", violations));
+    }
+
+    private String html() {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>NeuroFleetX load test</title>")
+                .append("<style>body{font-family:sans-serif;margin:2em}table{border-collapse:collapse}")
+                .append("td,th{border:1px solid #ccc;padding:4px 10px;text-align:right}td:first-child{text-align:left}")
+                .append(".miss{background:#fdd}.ok{background:#dfd}</style></head><body>")
+                .append("<h1>NeuroFleetX load test</h1><p>");
+        html.append(String.format("%.0f requests/s over %.1f s; SLO p99 &le; %.0f ms, p99.9 &le; %.0f ms, errors &le; %.2f%%: <b>%s</b>",
+                workload.getAll().getRequests() / elapsedSeconds, elapsedSeconds, sloP99Ms, sloP999Ms,
+                sloErrorRate * 100, passed() ? "met" : "missed"));
+        html.append("</p><p>Latency is measured from each request's scheduled start; service time from when it was sent.</p>");
+        html.append("<table><tr><th>endpoint</th><th>requests</th><th>errors</th><th>p50 ms</th><th>p90 ms</th>")
+                .append("<th>p99 ms</th><th>p99.9 ms</th><th>max ms</th><th>service p99 ms</th><th>SLO</th></tr>");
+        for (EndpointStats stats : workload.getStats().values()) {
+            htmlRow(html, stats, violations(stats));
+        }
+        htmlRow(html, workload.getAll(), null);
+        html.append("</table><h2>Settings</h2><pre>").append(escape(settings.toString())).append("</pre></body></html>\n");
+        return html.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void htmlRow(StringBuilder html, EndpointStats stats, List<String> violations) {
+        Map<String, Object> service = (Map<String, Object>) stats.toMap().get("serviceTime");
+        String css = violations == null ? "" : violations.isEmpty() ? " class=\"ok\"" : " class=\"miss\"";
+        html.append("<tr").append(css).append("><td>").append(escape(stats.getName())).append("</td>")
+                .append(String.format("<td>%d</td><td>%d</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td>",
+                        stats.getRequests(), stats.getErrors(), stats.getLatency().percentile(0.5),
+                        stats.getLatency().percentile(0.9), stats.getLatency().percentile(0.99),
+                        stats.getLatency().percentile(0.999), stats.getLatency().percentile(1.0), service.get("p99Ms")))
+                .append("<td>").append(violations == null ? "" : violations.isEmpty() ? "ok" : escape(String.join(", ", violations)))
+                .append("</td></tr>");
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,130 @@
+package com.neurofleetx.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open workload: requests arrive on a fixed schedule at a constant rate,
+ * whether or not earlier ones have completed, the way independent users hit
+ * a server. A closed loop of workers that wait for each response would slow
+ * down with the server and hide its stalls.
+ *
+ * Latency is measured from each request's scheduled start. When the dispatcher
+ * or the in-flight limit holds a request back, that delay is part of its
+ * latency, which corrects for coordinated omission.
+ */
+class OpenWorkload {
+
+    private final HttpClient client;
+    private final List<Operation> operations;
+    private final int totalWeight;
+    private final double rate;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final Random random;
+
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final EndpointStats all = new EndpointStats("all");
+    private long scheduled;
+    private long maxDispatchLagNanos;
+
+    OpenWorkload(HttpClient client, List<Operation> operations, double rate, int maxInFlight, long seed) {
+        this.client = client;
+        this.operations = operations;
+        this.totalWeight = operations.stream().mapToInt(Operation::getWeight).sum();
+        this.rate = rate;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.random = new Random(seed);
+        for (Operation operation : operations) {
+            stats.put(operation.getName(), new EndpointStats(operation.getName()));
+        }
+    }
+
+    /**
+     * Run the schedule; requests scheduled during the warmup are sent but not recorded
+     */
+    void run(long warmupNanos, long durationNanos) throws InterruptedException {
+        long interval = (long) (1e9 / rate);
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = pick();
+            boolean measured = intended >= measureFrom;
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            if (measured) {
+                scheduled++;
+                maxDispatchLagNanos = Math.max(maxDispatchLagNanos, sent - intended);
+            }
+            client.sendAsync(operation.newRequest(random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        if (!measured) {
+                            return;
+                        }
+                        long done = System.nanoTime();
+                        String outcome = error != null ? rootCause(error).getClass().getSimpleName()
+                                : Integer.toString(response.statusCode());
+                        // 304 is a successful revalidation
+                        boolean failed = error != null || response.statusCode() >= 400;
+                        stats.get(operation.getName()).record(done - intended, done - sent, outcome, failed);
+                        all.record(done - intended, done - sent, outcome, failed);
+                    });
+        }
+        // Let the last requests finish, they are part of the measured window
+        if (!inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+            System.err.println("Requests still in flight after 60 s are not included in the report");
+        }
+    }
+
+    private Operation pick() {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.getWeight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        while (error.getCause() != null && error.getCause() != error) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    Map<String, EndpointStats> getStats() {
+        return stats;
+    }
+
+    EndpointStats getAll() {
+        return all;
+    }
+
+    long getScheduled() {
+        return scheduled;
+    }
+
+    double getMaxDispatchLagMs() {
+        return maxDispatchLagNanos / 1e6;
+    }
+}
@@ -0,0 +1,33 @@
+package com.neurofleetx.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * One kind of request in the traffic mix and its share of the arrivals
+ */
+class Operation {
+
+    private final String name;
+    private final int weight;
+    private final Function<Random, HttpRequest> request;
+
+    Operation(String name, int weight, Function<Random, HttpRequest> request) {
+        this.name = name;
+        this.weight = weight;
+        this.request = request;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getWeight() {
+        return weight;
+    }
+
+    HttpRequest newRequest(Random random) {
+        return request.apply(random);
+    }
+}
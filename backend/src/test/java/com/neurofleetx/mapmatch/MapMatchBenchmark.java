@@ -0,0 +1,181 @@
+package com.neurofleetx.mapmatch;
+
+import com.neurofleetx.road.EdgeIndex;
+import com.neurofleetx.road.RoadGraph;
+import com.neurofleetx.road.RoadNetwork;
+import com.neurofleetx.util.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accuracy and speed of the {@link MapMatcher} on the generated street grid:
+ * vehicles drive the grid with turns and stops, reporting noisy positions.
+ * A point counts as correct when its true position lies on the matched edge.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *   com.neurofleetx.mapmatch.MapMatchBenchmark --vehicles=200 --seconds=600 --noise-meters=8 --threads=4
+ * </pre>
+ */
+public class MapMatchBenchmark {
+
+    private static final double METERS_PER_DEGREE = 111_320;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int split = option.indexOf('=');
+            options.put(split < 0 ? option : option.substring(0, split), split < 0 ? "" : option.substring(split + 1));
+        }
+        int vehicles = Integer.parseInt(options.getOrDefault("vehicles", "200"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "600"));
+        double noise = Double.parseDouble(options.getOrDefault("noise-meters", "8"));
+        int interval = Integer.parseInt(options.getOrDefault("interval-seconds", "1"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", Integer.toString(Runtime.getRuntime().availableProcessors())));
+        double sigma = Double.parseDouble(options.getOrDefault("sigma-meters", Double.toString(Math.max(5, noise))));
+        double beta = Double.parseDouble(options.getOrDefault("beta-meters", "10"));
+        int window = Integer.parseInt(options.getOrDefault("window-points", "6"));
+        double block = 0.002;
+
+        RoadGraph graph = RoadNetwork.grid(12.9716, 77.5946, block, 0.12, 40);
+        EdgeIndex index = new EdgeIndex(graph, 0.005);
+        MapMatcher matcher = new MapMatcher(graph, index, sigma, beta, Math.max(50, 4 * sigma), 8, window,
+                60_000, 5000);
+        System.out.printf("Grid of %d nodes and %d edges%n", graph.nodeCount(), graph.edgeCount());
+
+        LongAdder points = new LongAdder();
+        LongAdder correct = new LongAdder();
+        LongAdder nearest = new LongAdder();
+        AtomicLong errorMillimeters = new AtomicLong();
+        LatencyHistogram latency = new LatencyHistogram();
+        long started = System.nanoTime();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int from = t * vehicles / threads;
+            int to = (t + 1) * vehicles / threads;
+            Thread worker = new Thread(() -> {
+                EdgeIndex.Candidates candidates = new EdgeIndex.Candidates();
+                for (int v = from; v < to; v++) {
+                    Random random = new Random(v);
+                    double[][] truth = drive(seconds, interval, block, random);
+                    Map<Long, double[]> truthByTime = new HashMap<>();
+                    MapMatcher.Session session = matcher.new Session(point -> {
+                        double[] actual = truthByTime.remove(point.getTime());
+                        points.increment();
+                        if (onEdge(graph, point.getEdge(), actual[0], actual[1])) {
+                            correct.increment();
+                        }
+                        errorMillimeters.addAndGet(Math.round(1000 * RoadGraph.distanceMeters(actual[0], actual[1],
+                                point.getLatitude(), point.getLongitude())));
+                    });
+                    for (int i = 0; i < truth.length; i++) {
+                        long time = i * interval * 1000L;
+                        double latitude = truth[i][0] + random.nextGaussian() * noise / METERS_PER_DEGREE;
+                        double longitude = truth[i][1] + random.nextGaussian() * noise
+                                / (METERS_PER_DEGREE * Math.cos(Math.toRadians(truth[i][0])));
+                        truthByTime.put(time, truth[i]);
+                        // Baseline: snapping each point to its nearest edge alone
+                        index.nearest(latitude, longitude, 4 * sigma, 1, candidates);
+                        if (candidates.size > 0 && onEdge(graph, candidates.edges[0], truth[i][0], truth[i][1])) {
+                            nearest.increment();
+                        }
+                        long begin = System.nanoTime();
+                        session.add(time, latitude, longitude);
+                        latency.record(System.nanoTime() - begin);
+                    }
+                    session.flush();
+                }
+            }, "mapmatch-bench-" + t);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = (System.nanoTime() - started) / 1e9;
+        long total = points.sum();
+        System.out.printf("%d points from %d vehicles, GPS noise %.0f m: %.1f%% on the right road (nearest edge alone %.1f%%), "
+                        + "mean error %.2f m%n", total, vehicles, noise, correct.sum() * 100.0 / total,
+                nearest.sum() * 100.0 / total, errorMillimeters.get() / 1000.0 / total);
+        System.out.printf("%d threads: %.0f points/s; per point p50 %.3f ms, p99 %.3f ms, max %.3f ms%n", threads,
+                total / elapsed, latency.percentile(0.5), latency.percentile(0.99), latency.percentile(1.0));
+    }
+
+    // True positions of one vehicle, on grid lines
+    private static double[][] drive(int seconds, int interval, double block, Random random) {
+        double latitude = Math.round((12.9716 + random.nextGaussian() * 0.03) / block) * block;
+        double longitude = Math.round((77.5946 + random.nextGaussian() * 0.03) / block) * block;
+        int direction = random.nextInt(4);
+        double speed = 0;
+        double cruise = 25 + random.nextDouble() * 35;
+        int stopped = 0;
+        double travelled = 0;
+        double[][] positions = new double[seconds / interval][];
+        for (int s = 0, p = 0; p < positions.length; s++) {
+            speed = stopped > 0 ? Math.max(0, speed - 15) : Math.min(cruise, speed + 8);
+            stopped = Math.max(0, stopped - 1);
+            double meters = speed / 3.6;
+            double blockMeters = block * METERS_PER_DEGREE;
+            if (travelled + meters >= blockMeters) {
+                // Stop exactly at the intersection, then maybe turn
+                meters = blockMeters - travelled;
+                travelled = 0;
+                double pick = random.nextDouble();
+                int next = pick < 0.6 ? direction : (pick < 0.8 ? (direction + 1) % 4 : (direction + 3) % 4);
+                double[] moved = move(latitude, longitude, direction, meters);
+                latitude = Math.round(moved[0] / block) * block;
+                longitude = Math.round(moved[1] / block) * block;
+                direction = next;
+                if (Math.abs(latitude - 12.9716) > 0.1) {
+                    direction = latitude > 12.9716 ? 2 : 0;
+                } else if (Math.abs(longitude - 77.5946) > 0.1) {
+                    direction = longitude > 77.5946 ? 3 : 1;
+                }
+                if (random.nextDouble() < 0.2) {
+                    stopped = 5 + random.nextInt(30);
+                }
+            } else {
+                travelled += meters;
+                double[] moved = move(latitude, longitude, direction, meters);
+                latitude = moved[0];
+                longitude = moved[1];
+            }
+            if (s % interval == 0) {
+                positions[p++] = new double[] {latitude, longitude};
+            }
+        }
+        return positions;
+    }
+
+    private static double[] move(double latitude, double longitude, int direction, double meters) {
+        double degrees = meters / METERS_PER_DEGREE;
+        switch (direction) {
+            case 0: return new double[] {latitude + degrees, longitude};
+            case 2: return new double[] {latitude - degrees, longitude};
+            case 1: return new double[] {latitude, longitude + degrees / Math.cos(Math.toRadians(latitude))};
+            default: return new double[] {latitude, longitude - degrees / Math.cos(Math.toRadians(latitude))};
+        }
+    }
+
+    private static boolean onEdge(RoadGraph graph, int edge, double latitude, double longitude) {
+        double lat1 = graph.nodeLatitude(graph.edgeFrom(edge));
+        double lon1 = graph.nodeLongitude(graph.edgeFrom(edge));
+        double lat2 = graph.nodeLatitude(graph.edgeTo(edge));
+        double lon2 = graph.nodeLongitude(graph.edgeTo(edge));
+        double scale = Math.cos(Math.toRadians(latitude)) * METERS_PER_DEGREE;
+        double bx = (lon2 - lon1) * scale;
+        double by = (lat2 - lat1) * METERS_PER_DEGREE;
+        double px = (longitude - lon1) * scale;
+        double py = (latitude - lat1) * METERS_PER_DEGREE;
+        double lengthSquared = bx * bx + by * by;
+        double t = lengthSquared > 0 ? Math.max(0, Math.min(1, (px * bx + py * by) / lengthSquared)) : 0;
+        return Math.hypot(px - t * bx, py - t * by) < 0.5;
+    }
+}
@@ -0,0 +1,131 @@
+package com.neurofleetx.mapmatch;
+
+import com.neurofleetx.road.EdgeIndex;
+import com.neurofleetx.road.RoadGraph;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MapMatcherTest {
+
+    private static final double MAIN = 12.97;
+    // 30 m north of the main road
+    private static final double SIDE = MAIN + 30 / 111_320.0;
+    private static final double STEP = 0.0005;
+
+    /**
+     * A main road east from 77.59 to 77.60 in 100 m pieces, a parallel side road
+     * 30 m north joined to it only at both ends, and a road north from the east end
+     */
+    private static RoadGraph graph() {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        for (int i = 0; i < 10; i++) {
+            builder.addRoad(MAIN, 77.59 + i * 0.001, MAIN, 77.59 + (i + 1) * 0.001, 50, false);
+            builder.addRoad(SIDE, 77.59 + i * 0.001, SIDE, 77.59 + (i + 1) * 0.001, 50, false);
+        }
+        builder.addRoad(MAIN, 77.59, SIDE, 77.59, 50, false);
+        builder.addRoad(MAIN, 77.60, SIDE, 77.60, 50, false);
+        builder.addRoad(SIDE, 77.60, MAIN + 0.01, 77.60, 50, false);
+        return builder.build();
+    }
+
+    private static MapMatcher matcher(RoadGraph graph, int windowPoints) {
+        return new MapMatcher(graph, new EdgeIndex(graph, 0.005), 5, 10, 50, 8, windowPoints, 60_000, 5000);
+    }
+
+    private static boolean onMainRoad(RoadGraph graph, MatchedPoint point) {
+        return graph.nodeLatitude(graph.edgeFrom(point.getEdge())) == MAIN
+                && graph.nodeLatitude(graph.edgeTo(point.getEdge())) == MAIN;
+    }
+
+    @Test
+    void noisyPointCloserToTheSideRoadStaysOnTheMainRoad() {
+        RoadGraph graph = graph();
+        int size = 12;
+        long[] times = new long[size];
+        double[] latitudes = new double[size];
+        double[] longitudes = new double[size];
+        for (int i = 0; i < size; i++) {
+            times[i] = i * 5000L;
+            latitudes[i] = MAIN;
+            longitudes[i] = 77.5915 + i * STEP;
+        }
+        // 22 m north: 8 m from the side road, but reaching it means a detour via an end
+        latitudes[6] = MAIN + 22 / 111_320.0;
+
+        List<MatchedPoint> matched = matcher(graph, 6).match(times, latitudes, longitudes, size);
+
+        assertEquals(size, matched.size());
+        for (MatchedPoint point : matched) {
+            assertTrue(onMainRoad(graph, point), "point at " + point.getTime());
+            assertEquals(MAIN, point.getLatitude(), 1e-7);
+        }
+        assertEquals(MAIN + 22 / 111_320.0, matched.get(6).getRawLatitude());
+        assertTrue(Double.isNaN(matched.get(0).getRouteMeters()));
+        for (int i = 1; i < size; i++) {
+            assertEquals(STEP * 111_320 * Math.cos(Math.toRadians(MAIN)), matched.get(i).getRouteMeters(), 1.0);
+        }
+    }
+
+    @Test
+    void routeAroundACornerIsLongerThanTheStraightLine() {
+        RoadGraph graph = graph();
+        // West of the east end on the main road, then north of it on the road going north
+        long[] times = {0, 10_000};
+        double[] latitudes = {MAIN, SIDE + 0.0005};
+        double[] longitudes = {77.5995, 77.60};
+
+        List<MatchedPoint> matched = matcher(graph, 6).match(times, latitudes, longitudes, 2);
+
+        double west = 0.0005 * 111_320 * Math.cos(Math.toRadians(MAIN));
+        double north = 30 + 0.0005 * 111_320;
+        assertEquals(west + north, matched.get(1).getRouteMeters(), 1.0);
+        assertTrue(matched.get(1).getRouteMeters() > Math.hypot(west, north) + 10);
+    }
+
+    @Test
+    void pointsAreDecidedWithinTheWindow() {
+        RoadGraph graph = graph();
+        List<MatchedPoint> committed = new ArrayList<>();
+        MapMatcher.Session session = matcher(graph, 3).new Session(committed::add);
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(session.add(i * 5000L, MAIN, 77.5915 + i * STEP));
+            assertTrue(session.getOpenPoints() <= 3);
+        }
+        assertTrue(committed.size() >= 7);
+        session.flush();
+
+        assertEquals(10, committed.size());
+        assertEquals(0, session.getOpenPoints());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i * 5000L, committed.get(i).getTime());
+        }
+    }
+
+    @Test
+    void gapBreaksTheMatchAndFarPointsAreUnmatched() {
+        RoadGraph graph = graph();
+        List<MatchedPoint> committed = new ArrayList<>();
+        MapMatcher.Session session = matcher(graph, 6).new Session(committed::add);
+
+        session.add(0, MAIN, 77.5915);
+        session.add(5_000, MAIN, 77.5920);
+        assertNull(session.add(10_000, MAIN + 0.005, 77.5920));
+        session.add(120_000, MAIN, 77.5950);
+
+        assertEquals(1, session.getUnmatched());
+        assertEquals(1, session.getBreaks());
+        // The points before the gap were settled by the break
+        assertEquals(2, committed.size());
+        session.flush();
+        // After a break, the route is the straight line between the matched points
+        assertEquals(0.003 * 111_320 * Math.cos(Math.toRadians(MAIN)), committed.get(2).getRouteMeters(), 1.0);
+    }
+}
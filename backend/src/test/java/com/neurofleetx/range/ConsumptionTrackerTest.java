@@ -0,0 +1,79 @@
+package com.neurofleetx.range;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ConsumptionTrackerTest {
+
+    private static final String BATTERY = ConsumptionTracker.BATTERY;
+    // About 1 km of latitude
+    private static final double KM = 0.009;
+
+    // Defaults of 0.4 and 0.2 %/km, 10 km of prior, no fading within the test
+    private final ConsumptionTracker tracker = new ConsumptionTracker(0.4, 0.2, 10, 1e9, 1e9, 2, 250);
+
+    // Drive north a km a minute, losing {@code perKm} percent per km
+    private double drive(long vehicleId, String type, int kms, double level, double perKm) {
+        for (int i = 0; i <= kms; i++) {
+            tracker.update(vehicleId, type, 12.0 + i * KM, 77.59, level - i * perKm, BATTERY, 1_000 + i * 60_000L);
+        }
+        return level - kms * perKm;
+    }
+
+    @Test
+    void newVehiclesGetTheDefaultOfTheirEnergyType() {
+        assertEquals(0.4, tracker.rate(1, "SEDAN", BATTERY));
+        assertEquals(0.2, tracker.rate(1, "SEDAN", ConsumptionTracker.FUEL));
+    }
+
+    @Test
+    void vehicleRateIsShrunkTowardItsTypeAndTheTypeTowardTheDefault() {
+        drive(1, "SEDAN", 100, 90, 0.25);
+
+        double km = tracker.historyKm(1);
+        double used = 100 * 0.25;
+        double typeRate = (used + 10 * 0.4) / (km + 10);
+        assertEquals(100, km, 0.5);
+        assertEquals((used + 10 * typeRate) / (km + 10), tracker.rate(1, "SEDAN", BATTERY), 1e-6);
+        // A vehicle of the type with no history of its own gets the type's rate
+        assertEquals(typeRate, tracker.rate(2, "SEDAN", BATTERY), 1e-6);
+        assertEquals(0.4, tracker.rate(2, "VAN", BATTERY));
+    }
+
+    @Test
+    void rechargeAndGpsJumpAddNothing() {
+        double level = drive(1, "SEDAN", 20, 90, 0.25);
+        double km = tracker.historyKm(1);
+        double rate = tracker.rate(1, "SEDAN", BATTERY);
+
+        // Charged to 100 in place, then a fix 50 km away a second later
+        tracker.update(1, "SEDAN", 12.0 + 20 * KM, 77.59, level + 20, BATTERY, 1_000 + 30 * 60_000L);
+        tracker.update(1, "SEDAN", 12.5, 77.59, level + 20, BATTERY, 1_000 + 30 * 60_000L + 1_000);
+
+        assertEquals(1, tracker.getRefills());
+        assertEquals(1, tracker.getJumps());
+        assertEquals(km, tracker.historyKm(1));
+        assertEquals(rate, tracker.rate(1, "SEDAN", BATTERY));
+    }
+
+    @Test
+    void changingTypeStartsTheVehicleAfresh() {
+        drive(1, "SEDAN", 50, 90, 0.25);
+
+        tracker.update(1, "VAN", 13.0, 77.59, 80, BATTERY, 10_000_000);
+
+        assertEquals(0, tracker.historyKm(1));
+        assertEquals(0.4, tracker.rate(1, "VAN", BATTERY), 1e-9);
+        assertEquals(0L, tracker.getTypeRates().get("SEDAN/BATTERY").get("vehicles"));
+        assertEquals(1L, tracker.getTypeRates().get("VAN/BATTERY").get("vehicles"));
+    }
+
+    @Test
+    void updatesWithoutALevelAreIgnored() {
+        tracker.update(1, "SEDAN", 12.0, 77.59, Double.NaN, BATTERY, 1_000);
+
+        assertEquals(0, tracker.getUpdates());
+        assertEquals(0, tracker.getTrackedVehicles());
+    }
+}
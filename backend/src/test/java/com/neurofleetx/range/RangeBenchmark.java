@@ -0,0 +1,107 @@
+package com.neurofleetx.range;
+
+import com.neurofleetx.road.EdgeIndex;
+import com.neurofleetx.road.RoadGraph;
+import com.neurofleetx.road.RoadNetwork;
+import com.neurofleetx.util.LatencyHistogram;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Latency of scoring a whole fleet against one destination on the generated
+ * street grid, with one thread and with a thread per core, and how far the
+ * road distances are from the straight lines.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *   com.neurofleetx.range.RangeBenchmark --vehicles=10000 --queries=500
+ * </pre>
+ */
+public class RangeBenchmark {
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int split = option.indexOf('=');
+            options.put(split < 0 ? option : option.substring(0, split), split < 0 ? "" : option.substring(split + 1));
+        }
+        int vehicles = Integer.parseInt(options.getOrDefault("vehicles", "10000"));
+        int queries = Integer.parseInt(options.getOrDefault("queries", "500"));
+        int chunkSize = Integer.parseInt(options.getOrDefault("chunk-size", "1024"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        RoadGraph graph = RoadNetwork.grid(12.9716, 77.5946, 0.002, 0.12, 40);
+        EdgeIndex index = new EdgeIndex(graph, 0.005);
+        RangeEstimator estimator = new RangeEstimator(graph, index, 500, 1.3, chunkSize);
+        System.out.printf("Grid of %d nodes and %d edges, %d vehicles%n", graph.nodeCount(), graph.edgeCount(), vehicles);
+
+        // EVs at 0.3 to 0.5 %/km, fuel vehicles at 0.15 to 0.25, at random levels on random roads with 10 m of GPS noise
+        Random random = new Random(11);
+        RangeEstimator.Batch batch = new RangeEstimator.Batch(vehicles);
+        for (int i = 0; i < vehicles; i++) {
+            int edge = random.nextInt(graph.edgeCount());
+            double t = random.nextDouble();
+            double latitude = graph.nodeLatitude(graph.edgeFrom(edge)) * (1 - t) + graph.nodeLatitude(graph.edgeTo(edge)) * t;
+            double longitude = graph.nodeLongitude(graph.edgeFrom(edge)) * (1 - t) + graph.nodeLongitude(graph.edgeTo(edge)) * t;
+            boolean electric = random.nextBoolean();
+            batch.set(i, latitude + random.nextGaussian() * 10 / 111_320,
+                    longitude + random.nextGaussian() * 10 / 111_320, 5 + random.nextDouble() * 95,
+                    electric ? 0.3 + random.nextDouble() * 0.2 : 0.15 + random.nextDouble() * 0.1);
+        }
+
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            run("1 thread", estimator, batch, single, queries, random);
+            run(threads + " threads", estimator, batch, pool, queries, random);
+        } finally {
+            single.shutdown();
+            pool.shutdown();
+        }
+    }
+
+    private static void run(String label, RangeEstimator estimator, RangeEstimator.Batch batch, ExecutorService executor,
+                            int queries, Random random) {
+        LatencyHistogram latency = new LatencyHistogram();
+        double detour = 0;
+        long onRoad = 0;
+        long reachable = 0;
+        long measured = 0;
+        for (int q = 0; q < queries; q++) {
+            double latitude = 12.9716 + (random.nextDouble() - 0.5) * 0.1;
+            double longitude = 77.5946 + (random.nextDouble() - 0.5) * 0.1;
+            long started = System.nanoTime();
+            estimator.estimate(batch, latitude, longitude, executor);
+            // The first queries warm up the JIT
+            if (q < queries / 10) {
+                continue;
+            }
+            latency.record(System.nanoTime() - started);
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.isOnRoad(i)) {
+                    double straight = RoadGraph.distanceMeters(batch.latitudes[i], batch.longitudes[i], latitude, longitude);
+                    if (straight > 1000) {
+                        detour += batch.distanceMeters[i] / straight;
+                        measured++;
+                    }
+                    onRoad++;
+                }
+                if (batch.reachable(i, 10)) {
+                    reachable++;
+                }
+            }
+        }
+        int timed = queries - queries / 10;
+        System.out.printf("%s: per fleet p50 %.3f ms, p99 %.3f ms (%.0f ns per vehicle); %.1f%% on road, "
+                        + "%.1f%% reachable, mean road/straight %.3f%n", label, latency.percentile(0.5),
+                latency.percentile(0.99), latency.percentile(0.5) * 1e6 / batch.size(),
+                100.0 * onRoad / ((long) timed * batch.size()), 100.0 * reachable / ((long) timed * batch.size()),
+                measured > 0 ? detour / measured : Double.NaN);
+    }
+}
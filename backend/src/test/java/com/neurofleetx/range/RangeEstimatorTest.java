@@ -0,0 +1,94 @@
+package com.neurofleetx.range;
+
+import com.neurofleetx.road.EdgeIndex;
+import com.neurofleetx.road.RoadGraph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RangeEstimatorTest {
+
+    private static final double MAIN = 12.97;
+    // A road 222 m south of the main road that nothing connects to
+    private static final double ISLAND = MAIN - 0.002;
+
+    /**
+     * A two-way road east from 77.59 to 77.60, turning north there for about 1.1 km
+     */
+    private static RoadGraph graph() {
+        RoadGraph.Builder builder = new RoadGraph.Builder();
+        for (int i = 0; i < 10; i++) {
+            builder.addRoad(MAIN, 77.59 + i * 0.001, MAIN, 77.59 + (i + 1) * 0.001, 50, false);
+        }
+        builder.addRoad(MAIN, 77.60, MAIN + 0.01, 77.60, 50, false);
+        builder.addRoad(ISLAND, 77.59, ISLAND, 77.60, 50, false);
+        return builder.build();
+    }
+
+    private final RoadGraph graph = graph();
+    private final RangeEstimator estimator = new RangeEstimator(graph, new EdgeIndex(graph, 0.005), 500, 1.3, 2);
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void distancesFollowTheRoadsOrFallBackToADetourFactor() {
+        RangeEstimator.Batch batch = new RangeEstimator.Batch(4);
+        batch.set(0, MAIN, 77.59, 50, 0.5);
+        batch.set(1, MAIN + 0.005, 77.60, 50, 0.5);
+        batch.set(2, MAIN - 0.1, 77.59, 50, 0.5);
+        batch.set(3, ISLAND, 77.595, 50, 0.5);
+
+        estimator.estimate(batch, MAIN + 0.01, 77.60, executor);
+
+        double east = RoadGraph.distanceMeters(MAIN, 77.59, MAIN, 77.60);
+        double north = RoadGraph.distanceMeters(MAIN, 77.60, MAIN + 0.01, 77.60);
+        assertTrue(batch.isOnRoad(0));
+        assertEquals((east + north) / 1000, batch.distanceKm(0), 0.01);
+        assertEquals(north / 2000, batch.distanceKm(1), 0.01);
+        assertFalse(batch.isOnRoad(2));
+        assertEquals(RoadGraph.distanceMeters(MAIN - 0.1, 77.59, MAIN + 0.01, 77.60) * 1.3 / 1000,
+                batch.distanceKm(2), 1e-9);
+        // On a road that does not lead there: out of range, whatever the straight line says
+        assertFalse(batch.isOnRoad(3));
+        assertTrue(batch.distanceKm(3) >= 100);
+        assertFalse(batch.reachable(3, 10));
+    }
+
+    @Test
+    void energyAndRangeFollowFromDistanceAndRate() {
+        RangeEstimator.Batch batch = new RangeEstimator.Batch(1);
+        batch.set(0, MAIN, 77.59, 30, 0.4);
+
+        estimator.estimate(batch, MAIN + 0.01, 77.60, executor);
+
+        double km = batch.distanceKm(0);
+        assertEquals(km * 0.4, batch.energyNeeded(0), 1e-9);
+        assertEquals(30 - km * 0.4, batch.levelAtArrival(0), 1e-9);
+        assertEquals(50, batch.rangeKm(0, 10), 1e-9);
+        assertTrue(batch.reachable(0, 10));
+        assertFalse(batch.reachable(0, 30));
+        assertEquals(0, batch.rangeKm(0, 40));
+    }
+
+    @Test
+    void keptDestinationAnswersSingleQueries() {
+        RangeEstimator.Destination destination = estimator.destination(MAIN + 0.01, 77.60, 50_000);
+        EdgeIndex.Candidates scratch = new EdgeIndex.Candidates();
+
+        double east = RoadGraph.distanceMeters(MAIN, 77.595, MAIN, 77.60);
+        double north = RoadGraph.distanceMeters(MAIN, 77.60, MAIN + 0.01, 77.60);
+        assertEquals(east + north, estimator.distanceMeters(destination, MAIN, 77.595, scratch), 10);
+        assertEquals(RoadGraph.distanceMeters(ISLAND, 77.595, MAIN + 0.01, 77.60) * 1.3,
+                estimator.distanceMeters(destination, ISLAND, 77.595, scratch), 1e-9);
+    }
+}
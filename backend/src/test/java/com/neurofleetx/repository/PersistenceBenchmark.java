@@ -0,0 +1,192 @@
+package com.neurofleetx.repository;
+
+import com.neurofleetx.model.Vehicle;
+import com.neurofleetx.util.LatencyHistogram;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Vehicle inserts and reads with the prod persistence settings against the
+ * defaults, both on an in-memory H2 database as in the local profile.
+ *
+ * The prod run takes its JPA properties and mapping overrides straight from
+ * {@code application-prod.properties}: pooled table ids, JDBC batching and the
+ * Ehcache second-level and query caches. The default run keeps IDENTITY ids
+ * and no caches. Each run inserts the fleet in chunked transactions, then
+ * reads random vehicles by id, each in its own entity manager as a request
+ * would, and finally repeats a cacheable status query.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *   com.neurofleetx.repository.PersistenceBenchmark --vehicles=100000 --reads=200000 --queries=20
+ * </pre>
+ */
+public class PersistenceBenchmark {
+
+    private static final String[] STATUSES = {"AVAILABLE", "IN_USE", "MAINTENANCE", "OFFLINE"};
+    private static final String JPA_PREFIX = "spring.jpa.properties.";
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int split = option.indexOf('=');
+            options.put(split < 0 ? option : option.substring(0, split), split < 0 ? "" : option.substring(split + 1));
+        }
+        int vehicles = Integer.parseInt(options.getOrDefault("vehicles", "100000"));
+        int chunk = Integer.parseInt(options.getOrDefault("chunk", "1000"));
+        int reads = Integer.parseInt(options.getOrDefault("reads", "200000"));
+        int queries = Integer.parseInt(options.getOrDefault("queries", "20"));
+        String mode = options.getOrDefault("mode", "both");
+        // Statistics are on for the counts below; keep Hibernate's per-session reports out of the output
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        System.out.printf("%d vehicles inserted %d per transaction, %d reads by id, %d status queries%n",
+                vehicles, chunk, reads, queries);
+        if (!"prod".equals(mode)) {
+            Map<String, Object> defaults = new HashMap<>();
+            defaults.put("hibernate.cache.use_second_level_cache", "false");
+            defaults.put("hibernate.cache.use_query_cache", "false");
+            run("Default", defaults, new String[0], vehicles, chunk, reads, queries);
+        }
+        if (!"default".equals(mode)) {
+            Properties prod = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application-prod.properties"));
+            Map<String, Object> properties = new HashMap<>();
+            for (String name : prod.stringPropertyNames()) {
+                if (name.startsWith(JPA_PREFIX)) {
+                    String value = prod.getProperty(name);
+                    // Resolved here, as Spring Boot's resource handling does for the application
+                    if (value.startsWith("classpath:")) {
+                        value = new ClassPathResource(value.substring("classpath:".length())).getURL().toString();
+                    }
+                    properties.put(name.substring(JPA_PREFIX.length()), value);
+                }
+            }
+            String[] mappings = prod.getProperty("spring.jpa.mapping-resources", "").split(",");
+            run("Prod", properties, mappings, vehicles, chunk, reads, queries);
+        }
+    }
+
+    private static void run(String name, Map<String, Object> properties, String[] mappings, int vehicles, int chunk,
+                            int reads, int queries) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name.toLowerCase() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(4);
+
+        Map<String, Object> jpa = new HashMap<>(properties);
+        jpa.put("hibernate.hbm2ddl.auto", "create");
+        jpa.put("hibernate.generate_statistics", "true");
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.neurofleetx.model");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        if (mappings.length > 0 && !mappings[0].isBlank()) {
+            factory.setMappingResources(mappings);
+        }
+        factory.setJpaPropertyMap(jpa);
+        factory.afterPropertiesSet();
+        EntityManagerFactory entityManagerFactory = factory.getObject();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        try {
+            long insertStarted = System.nanoTime();
+            long[] ids = insert(entityManagerFactory, vehicles, chunk);
+            double insertSeconds = (System.nanoTime() - insertStarted) / 1e9;
+            long statements = statistics.getPrepareStatementCount();
+            statistics.clear();
+
+            Random random = new Random(7);
+            LatencyHistogram latency = new LatencyHistogram();
+            // One pass to warm the JIT and, with the prod settings, the entity cache
+            readById(entityManagerFactory, ids, Math.min(reads, ids.length), random, new LatencyHistogram());
+            statistics.clear();
+            long started = System.nanoTime();
+            readById(entityManagerFactory, ids, reads, random, latency);
+            double readSeconds = (System.nanoTime() - started) / 1e9;
+            long readStatements = statistics.getPrepareStatementCount();
+            long hits = statistics.getSecondLevelCacheHitCount();
+
+            statistics.clear();
+            LatencyHistogram queryLatency = new LatencyHistogram();
+            for (int q = 0; q < queries; q++) {
+                long queryStarted = System.nanoTime();
+                try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+                    entityManager.createQuery("select v from Vehicle v where v.status = :status", Vehicle.class)
+                            .setParameter("status", STATUSES[q % STATUSES.length])
+                            .setHint("org.hibernate.cacheable", true)
+                            .getResultList();
+                }
+                queryLatency.record(System.nanoTime() - queryStarted);
+            }
+
+            System.out.printf("%s: insert %.0f vehicles/s with %d prepared statements; read by id %.0f/s, p50 %.3f ms, "
+                            + "p99 %.3f ms, %d statements, %d cache hits; status query p50 %.1f ms, %d query cache hits%n",
+                    name, vehicles / insertSeconds, statements, reads / readSeconds, latency.percentile(0.5),
+                    latency.percentile(0.99), readStatements, hits, queryLatency.percentile(0.5),
+                    statistics.getQueryCacheHitCount());
+        } finally {
+            entityManagerFactory.close();
+            dataSource.close();
+        }
+    }
+
+    private static long[] insert(EntityManagerFactory entityManagerFactory, int vehicles, int chunk) {
+        long[] ids = new long[vehicles];
+        Random random = new Random(3);
+        for (int from = 0; from < vehicles; from += chunk) {
+            try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+                entityManager.getTransaction().begin();
+                int to = Math.min(vehicles, from + chunk);
+                Vehicle[] batch = new Vehicle[to - from];
+                for (int i = from; i < to; i++) {
+                    Vehicle vehicle = new Vehicle(String.format("NF-%06d", i), "Model " + (i % 12), "Maker " + (i % 5),
+                            i % 3 == 0 ? "VAN" : "SEDAN", STATUSES[i % STATUSES.length]);
+                    vehicle.setBatteryLevel(20 + random.nextDouble() * 80);
+                    vehicle.setLatitude(12.9716 + (random.nextDouble() - 0.5) * 0.2);
+                    vehicle.setLongitude(77.5946 + (random.nextDouble() - 0.5) * 0.2);
+                    vehicle.setHealthScore(60 + random.nextInt(40));
+                    vehicle.setSpeed(0.0);
+                    vehicle.setMileage((long) random.nextInt(200_000));
+                    entityManager.persist(vehicle);
+                    batch[i - from] = vehicle;
+                }
+                entityManager.getTransaction().commit();
+                for (int i = from; i < to; i++) {
+                    ids[i] = batch[i - from].getId();
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void readById(EntityManagerFactory entityManagerFactory, long[] ids, int reads, Random random,
+                                 LatencyHistogram latency) {
+        for (int r = 0; r < reads; r++) {
+            long id = ids[random.nextInt(ids.length)];
+            long started = System.nanoTime();
+            try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+                if (entityManager.find(Vehicle.class, id) == null) {
+                    throw new IllegalStateException("Vehicle " + id + " was not found");
+                }
+            }
+            latency.record(System.nanoTime() - started);
+        }
+    }
+}
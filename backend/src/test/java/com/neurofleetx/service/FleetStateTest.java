@@ -0,0 +1,76 @@
+package com.neurofleetx.service;
+
+import com.neurofleetx.model.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FleetStateTest {
+
+    private static Vehicle vehicle(long version, double latitude, Double fuel) {
+        Vehicle vehicle = new Vehicle("NF-001", "Model 3", "Tesla", "SEDAN", "AVAILABLE");
+        vehicle.setId(1L);
+        vehicle.setVersion(version);
+        vehicle.setLatitude(latitude);
+        vehicle.setLongitude(77.59);
+        vehicle.setFuelLevel(fuel);
+        return vehicle;
+    }
+
+    @Test
+    void tracksTheVersionOfEachFieldsLastChange() {
+        FleetState state = new FleetState();
+        state.put(vehicle(1, 12.97, 40.0));
+        long created = state.getVersion();
+        state.put(vehicle(2, 12.98, 40.0));
+        long moved = state.getVersion();
+        state.put(vehicle(3, 12.98, null));
+
+        assertTrue(state.isFieldChangedSince(1L, "latitude", created));
+        assertFalse(state.isFieldChangedSince(1L, "latitude", moved));
+        assertTrue(state.isFieldChangedSince(1L, "fuelLevel", moved));
+        assertFalse(state.isFieldChangedSince(1L, "vehicleNumber", created));
+        assertTrue(state.isFieldChangedSince(1L, "vehicleNumber", created - 1));
+        // Unknown vehicles and untracked fields count as changed
+        assertTrue(state.isFieldChangedSince(2L, "latitude", moved));
+        assertTrue(state.isFieldChangedSince(1L, "version", moved));
+    }
+
+    @Test
+    void changesSinceAVersionListOnlyLaterChanges() {
+        FleetState state = new FleetState();
+        state.put(vehicle(1, 12.97, 40.0));
+        long seen = state.getVersion();
+        Vehicle other = vehicle(1, 1.0, null);
+        other.setId(2L);
+        state.put(other);
+        state.remove(1L);
+
+        FleetState.Changes changes = state.getChangesSince(seen);
+
+        assertFalse(changes.isFull());
+        assertEquals(1, changes.getVehicles().size());
+        assertEquals(2L, changes.getVehicles().get(0).getId());
+        assertEquals(List.of(1L), changes.getDeleted());
+        assertNull(state.get(1L));
+    }
+
+    @Test
+    void keepsTheHigherRowVersion() {
+        FleetState state = new FleetState();
+        state.put(vehicle(5, 12.97, 40.0));
+
+        assertFalse(state.put(vehicle(4, 13.0, 40.0)));
+        assertEquals(12.97, state.get(1L).getLatitude());
+        assertEquals(12.99, state.merge(1L, 6, vehicle -> {
+            vehicle.setLatitude(12.99);
+            return vehicle;
+        }).getLatitude());
+        assertNull(state.merge(1L, 8, vehicle -> vehicle));
+    }
+}
@@ -0,0 +1,54 @@
+package com.neurofleetx.track;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LttbTest {
+
+    @Test
+    void keepsEverythingUpToTheThreshold() {
+        double[] x = {0, 1, 2};
+        double[] y = {5, 6, 7};
+
+        assertArrayEquals(new int[] {0, 1, 2}, Lttb.select(x, y, 3, 3));
+        assertArrayEquals(new int[] {0, 1, 2}, Lttb.select(x, y, 3, 10));
+    }
+
+    @Test
+    void belowThreeKeepsTheEnds() {
+        double[] x = {0, 1, 2, 3};
+        double[] y = {0, 9, 0, 1};
+
+        assertArrayEquals(new int[] {0, 3}, Lttb.select(x, y, 4, 2));
+        assertArrayEquals(new int[] {0}, Lttb.select(new double[] {4}, new double[] {2}, 1, 0));
+    }
+
+    @Test
+    void keepsPeaksAndEndsInAscendingOrder() {
+        int size = 1000;
+        double[] x = new double[size];
+        double[] y = new double[size];
+        for (int i = 0; i < size; i++) {
+            x[i] = i;
+            y[i] = Math.sin(i / 50.0);
+        }
+        y[333] = 25;
+        y[777] = -25;
+
+        int[] selected = Lttb.select(x, y, size, 50);
+
+        assertEquals(50, selected.length);
+        assertEquals(0, selected[0]);
+        assertEquals(size - 1, selected[49]);
+        for (int i = 1; i < selected.length; i++) {
+            assertTrue(selected[i] > selected[i - 1]);
+        }
+        assertTrue(Arrays.stream(selected).anyMatch(i -> i == 333));
+        assertTrue(Arrays.stream(selected).anyMatch(i -> i == 777));
+    }
+}
@@ -0,0 +1,100 @@
+package com.neurofleetx.track;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrackCodecTest {
+
+    private static double micro(double degrees) {
+        return Math.round(degrees * 1_000_000.0) / 1_000_000.0;
+    }
+
+    private static TrackPoints roundTrip(TrackPoints points) {
+        TrackCodec.Encoder encoder = new TrackCodec.Encoder();
+        for (int i = 0; i < points.size(); i++) {
+            encoder.add(points.time(i), points.latitude(i), points.longitude(i), points.speed(i), points.energy(i));
+        }
+        assertEquals(points.size(), encoder.size());
+        return TrackCodec.decode(encoder.toByteArray(), encoder.size());
+    }
+
+    private static void assertSame(TrackPoints expected, TrackPoints actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.time(i), actual.time(i), "time " + i);
+            assertEquals(micro(expected.latitude(i)), actual.latitude(i), "latitude " + i);
+            assertEquals(micro(expected.longitude(i)), actual.longitude(i), "longitude " + i);
+            // Bit for bit, NaN included
+            assertEquals(Double.doubleToRawLongBits(expected.speed(i)), Double.doubleToRawLongBits(actual.speed(i)),
+                    "speed " + i);
+            assertEquals(Double.doubleToRawLongBits(expected.energy(i)), Double.doubleToRawLongBits(actual.energy(i)),
+                    "energy " + i);
+        }
+    }
+
+    @Test
+    void emptyAndSinglePointChunks() {
+        assertEquals(0, TrackCodec.decode(new byte[0], 0).size());
+
+        TrackPoints one = new TrackPoints(1);
+        one.add(1_700_000_000_123L, -33.868820, 151.209296, Double.NaN, 55.5);
+        assertSame(one, roundTrip(one));
+    }
+
+    @Test
+    void regularDriveRoundTrips() {
+        TrackPoints points = new TrackPoints(600);
+        for (int i = 0; i < 600; i++) {
+            points.add(1_700_000_000_000L + i * 1000L, 12.9716 + i * 0.0001, 77.5946 - i * 0.00005,
+                    i % 60 < 50 ? 36.0 : 0.0, 80 - i * 0.01);
+        }
+        TrackCodec.Encoder encoder = new TrackCodec.Encoder();
+        for (int i = 0; i < points.size(); i++) {
+            encoder.add(points.time(i), points.latitude(i), points.longitude(i), points.speed(i), points.energy(i));
+        }
+
+        assertSame(points, TrackCodec.decode(encoder.toByteArray(), encoder.size()));
+        assertEquals(1_700_000_000_000L, encoder.getFirstTime());
+        assertEquals(1_700_000_599_000L, encoder.getLastTime());
+        // Constant steps cost a few bits per coordinate
+        assertTrue(encoder.byteSize() < 600 * 12, "size " + encoder.byteSize());
+    }
+
+    @Test
+    void irregularTracksRoundTripThroughEveryEncodingWidth() {
+        Random random = new Random(7);
+        TrackPoints points = new TrackPoints(2000);
+        long time = 1_700_000_000_000L;
+        double latitude = 45.0;
+        double longitude = -120.0;
+        for (int i = 0; i < 2000; i++) {
+            // Mostly jitter, sometimes long gaps and jumps across the range of each dod width
+            int scale = random.nextInt(5);
+            time += 1000 + (long) (random.nextGaussian() * Math.pow(30, scale));
+            latitude += random.nextGaussian() * Math.pow(10, scale - 5);
+            longitude += random.nextGaussian() * Math.pow(10, scale - 5);
+            latitude = Math.max(-89, Math.min(89, latitude));
+            longitude = Math.max(-179, Math.min(179, longitude));
+            double speed = random.nextInt(4) == 0 ? Double.NaN : random.nextDouble() * 120;
+            double energy = random.nextInt(3) == 0 ? 42.0 : random.nextDouble() * 100;
+            points.add(time, latitude, longitude, speed, energy);
+        }
+
+        assertSame(points, roundTrip(points));
+    }
+
+    @Test
+    void extremeValuesRoundTrip() {
+        TrackPoints points = new TrackPoints(4);
+        points.add(0L, -90, -180, -0.0, Double.MAX_VALUE);
+        points.add(Long.MAX_VALUE / 2, 90, 180, Double.POSITIVE_INFINITY, Double.MIN_VALUE);
+        points.add(1L, -90, -180, 0.0, Double.NaN);
+        points.add(1L, 0, 0, 1e-300, -1e300);
+
+        assertSame(points, roundTrip(points));
+    }
+}
@@ -0,0 +1,165 @@
+package com.neurofleetx.track;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compression ratio, error and throughput of {@link TrackSimplifier} and
+ * {@link TrackCodec} on synthetic 1 Hz tracks: vehicles driving a street grid
+ * with turns, stops at lights, speed noise, GPS noise and a draining battery.
+ *
+ * The position error of each raw point is its distance from the stored
+ * segment covering its time, so it includes the GPS noise the simplifier
+ * smoothed away.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes com.neurofleetx.track.TrackCompressionBenchmark \
+ *   --vehicles=1000 --seconds=3600 --tolerance-meters=10 --gps-noise-meters=3
+ * </pre>
+ */
+public class TrackCompressionBenchmark {
+
+    private static final double METERS_PER_DEGREE = 111_320;
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int split = option.indexOf('=');
+            options.put(split < 0 ? option : option.substring(0, split), split < 0 ? "" : option.substring(split + 1));
+        }
+        int vehicles = Integer.parseInt(options.getOrDefault("vehicles", "1000"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "3600"));
+        double tolerance = Double.parseDouble(options.getOrDefault("tolerance-meters", "10"));
+        double speedTolerance = Double.parseDouble(options.getOrDefault("speed-tolerance-kmh", "5"));
+        double energyTolerance = Double.parseDouble(options.getOrDefault("energy-tolerance", "1"));
+        int maxInterval = Integer.parseInt(options.getOrDefault("max-interval-seconds", "120"));
+        int window = Integer.parseInt(options.getOrDefault("window-points", "32"));
+        int chunkPoints = Integer.parseInt(options.getOrDefault("chunk-points", "512"));
+        double noise = Double.parseDouble(options.getOrDefault("gps-noise-meters", "3"));
+
+        Random random = new Random(1);
+        long rawPoints = 0;
+        long keptPoints = 0;
+        long bytes = 0;
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        double maxError = 0;
+        double errorSum = 0;
+        double maxSpeedError = 0;
+        for (int v = 0; v < vehicles; v++) {
+            TrackPoints raw = drive(seconds, noise, random);
+            long started = System.nanoTime();
+            TrackSimplifier simplifier = new TrackSimplifier(tolerance, speedTolerance, energyTolerance,
+                    maxInterval * 1000L, window);
+            List<TrackCodec.Encoder> chunks = new ArrayList<>();
+            TrackCodec.Encoder chunk = new TrackCodec.Encoder();
+            for (int i = 0; i < raw.size(); i++) {
+                simplifier.offer(raw.time(i), raw.latitude(i), raw.longitude(i), raw.speed(i), raw.energy(i), chunk);
+                if (chunk.size() >= chunkPoints) {
+                    chunks.add(chunk);
+                    chunk = new TrackCodec.Encoder();
+                }
+            }
+            TrackPoints pending = simplifier.pending();
+            if (pending != null) {
+                chunk.add(pending.time(0), pending.latitude(0), pending.longitude(0), pending.speed(0), pending.energy(0));
+            }
+            chunks.add(chunk);
+            List<byte[]> encoded = new ArrayList<>();
+            for (TrackCodec.Encoder c : chunks) {
+                encoded.add(c.toByteArray());
+            }
+            encodeNanos += System.nanoTime() - started;
+
+            started = System.nanoTime();
+            TrackPoints stored = new TrackPoints(256);
+            for (int c = 0; c < chunks.size(); c++) {
+                stored.addAll(TrackCodec.decode(encoded.get(c), chunks.get(c).size()));
+                bytes += encoded.get(c).length;
+            }
+            decodeNanos += System.nanoTime() - started;
+            rawPoints += raw.size();
+            keptPoints += stored.size();
+
+            int segment = 0;
+            for (int i = 0; i < raw.size(); i++) {
+                while (segment < stored.size() - 2 && stored.time(segment + 1) < raw.time(i)) {
+                    segment++;
+                }
+                double error = distanceToSegment(raw.latitude(i), raw.longitude(i), stored, segment);
+                maxError = Math.max(maxError, error);
+                errorSum += error;
+                int before = stored.time(segment + 1) <= raw.time(i) ? segment + 1 : segment;
+                maxSpeedError = Math.max(maxSpeedError, Math.abs(raw.speed(i) - stored.speed(before)));
+            }
+        }
+        System.out.printf("%d vehicles x %d s: %d raw points (%d bytes at %d bytes each), %d kept (%.1f%%)%n",
+                vehicles, seconds, rawPoints, rawPoints * TrackStore.RAW_POINT_BYTES, TrackStore.RAW_POINT_BYTES,
+                keptPoints, keptPoints * 100.0 / rawPoints);
+        System.out.printf("Encoded %d bytes, %.2f bytes per kept point, %.1fx smaller%n",
+                bytes, (double) bytes / keptPoints, rawPoints * (double) TrackStore.RAW_POINT_BYTES / bytes);
+        System.out.printf("Position error: max %.2f m, mean %.2f m (tolerance %.0f m, GPS noise %.0f m); max speed error %.2f km/h%n",
+                maxError, errorSum / rawPoints, tolerance, noise, maxSpeedError);
+        System.out.printf("Simplify and encode %.0f points/s, decode %.0f points/s%n",
+                rawPoints / (encodeNanos / 1e9), keptPoints / (decodeNanos / 1e9));
+    }
+
+    // One vehicle on a street grid, reporting every second
+    private static TrackPoints drive(int seconds, double noise, Random random) {
+        double block = 0.002;
+        double latitude = 12.9716 + Math.round(random.nextGaussian() * 20) * block;
+        double longitude = 77.5946 + Math.round(random.nextGaussian() * 20) * block;
+        int direction = random.nextInt(4);
+        double cruise = 25 + random.nextDouble() * 35;
+        double speed = 0;
+        double battery = 40 + random.nextDouble() * 60;
+        int stopped = 0;
+        double travelled = 0;
+        long time = 1_700_000_000_000L + random.nextInt(1000);
+        TrackPoints points = new TrackPoints(seconds);
+        for (int s = 0; s < seconds; s++) {
+            double target = stopped > 0 ? 0 : cruise;
+            speed = Math.max(0, speed + Math.max(-15, Math.min(8, target - speed)) + (target > 0 ? random.nextGaussian() * 0.5 : 0));
+            stopped = Math.max(0, stopped - 1);
+            double meters = speed / 3.6;
+            travelled += meters;
+            double degrees = meters / METERS_PER_DEGREE;
+            if (direction % 2 == 0) {
+                latitude += direction == 0 ? degrees : -degrees;
+            } else {
+                longitude += (direction == 1 ? degrees : -degrees) / Math.cos(Math.toRadians(latitude));
+            }
+            if (travelled >= block * METERS_PER_DEGREE) {
+                travelled = 0;
+                double pick = random.nextDouble();
+                direction = pick < 0.6 ? direction : (pick < 0.8 ? (direction + 1) % 4 : (direction + 3) % 4);
+                if (random.nextDouble() < 0.2) {
+                    stopped = 5 + random.nextInt(35);
+                }
+            }
+            battery = Math.max(0, battery - meters * 0.00025 - 0.0003);
+            double noisyLatitude = latitude + random.nextGaussian() * noise / METERS_PER_DEGREE;
+            double noisyLongitude = longitude + random.nextGaussian() * noise / METERS_PER_DEGREE;
+            points.add(time, Math.round(noisyLatitude * 1e6) / 1e6, Math.round(noisyLongitude * 1e6) / 1e6,
+                    Math.round(speed * 100) / 100.0, Math.round(battery * 100) / 100.0);
+            time += 1000 + random.nextInt(21) - 10;
+        }
+        return points;
+    }
+
+    private static double distanceToSegment(double latitude, double longitude, TrackPoints track, int segment) {
+        int end = Math.min(segment + 1, track.size() - 1);
+        double scale = Math.cos(Math.toRadians(track.latitude(segment))) * METERS_PER_DEGREE;
+        double bx = (track.longitude(end) - track.longitude(segment)) * scale;
+        double by = (track.latitude(end) - track.latitude(segment)) * METERS_PER_DEGREE;
+        double px = (longitude - track.longitude(segment)) * scale;
+        double py = (latitude - track.latitude(segment)) * METERS_PER_DEGREE;
+        double lengthSquared = bx * bx + by * by;
+        double t = lengthSquared > 0 ? Math.max(0, Math.min(1, (px * bx + py * by) / lengthSquared)) : 0;
+        return Math.hypot(px - t * bx, py - t * by);
+    }
+}
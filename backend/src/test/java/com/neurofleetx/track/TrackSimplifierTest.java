@@ -0,0 +1,97 @@
+package com.neurofleetx.track;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrackSimplifierTest {
+
+    private static final double METERS_PER_DEGREE = 111_320;
+
+    private static double offsetMeters(double latitude, double longitude, double fromLatitude, double fromLongitude,
+                                       double toLatitude, double toLongitude) {
+        double scale = Math.cos(Math.toRadians(fromLatitude)) * METERS_PER_DEGREE;
+        double bx = (toLongitude - fromLongitude) * scale;
+        double by = (toLatitude - fromLatitude) * METERS_PER_DEGREE;
+        double px = (longitude - fromLongitude) * scale;
+        double py = (latitude - fromLatitude) * METERS_PER_DEGREE;
+        double lengthSquared = bx * bx + by * by;
+        double t = lengthSquared > 0 ? Math.max(0, Math.min(1, (px * bx + py * by) / lengthSquared)) : 0;
+        return Math.hypot(px - t * bx, py - t * by);
+    }
+
+    @Test
+    void straightConstantDriveKeepsOnlyTheFirstPoint() {
+        TrackSimplifier simplifier = new TrackSimplifier(5, 5, 1, 600_000, 1000);
+        TrackCodec.Encoder out = new TrackCodec.Encoder();
+        for (int i = 0; i < 100; i++) {
+            simplifier.offer(i * 1000L, 12.97 + i * 0.0001, 77.59, 40, 80, out);
+        }
+
+        assertEquals(1, out.size());
+        assertEquals(99_000L, simplifier.pending().time(0));
+    }
+
+    @Test
+    void firstPointIsKeptAndNothingIsPendingBeforeTheSecond() {
+        TrackSimplifier simplifier = new TrackSimplifier(5, 5, 1, 600_000, 1000);
+        TrackCodec.Encoder out = new TrackCodec.Encoder();
+
+        assertEquals(1, simplifier.offer(0, 12.97, 77.59, 40, 80, out));
+        assertNull(simplifier.pending());
+    }
+
+    @Test
+    void speedChangeAndMaxIntervalForceAPoint() {
+        TrackSimplifier simplifier = new TrackSimplifier(5, 5, 1, 60_000, 1000);
+        TrackCodec.Encoder out = new TrackCodec.Encoder();
+        simplifier.offer(0, 12.97, 77.59, 40, 80, out);
+        simplifier.offer(1_000, 12.9701, 77.59, 41, 80, out);
+
+        assertEquals(1, simplifier.offer(2_000, 12.9702, 77.59, 50, 80, out));
+        assertEquals(2, out.size());
+        // Past the max interval the held point is kept, and anchors the next interval
+        simplifier.offer(30_000, 12.9703, 77.59, 50, 80, out);
+        assertEquals(1, simplifier.offer(70_000, 12.9704, 77.59, 50, 80, out));
+        assertEquals(30_000L, out.getLastTime());
+        assertEquals(70_000L, simplifier.pending().time(0));
+    }
+
+    @Test
+    void everyDroppedPointIsWithinTheToleranceOfTheKeptTrack() {
+        double tolerance = 10;
+        TrackSimplifier simplifier = new TrackSimplifier(tolerance, Double.POSITIVE_INFINITY,
+                Double.POSITIVE_INFINITY, Long.MAX_VALUE, 1000);
+        TrackCodec.Encoder out = new TrackCodec.Encoder();
+        Random random = new Random(3);
+        TrackPoints track = new TrackPoints(5000);
+        double latitude = 12.97;
+        double longitude = 77.59;
+        double heading = 0;
+        for (int i = 0; i < 5000; i++) {
+            heading += random.nextGaussian() * 0.2;
+            latitude += Math.cos(heading) * 10 / METERS_PER_DEGREE + random.nextGaussian() * 1e-6;
+            longitude += Math.sin(heading) * 10 / METERS_PER_DEGREE + random.nextGaussian() * 1e-6;
+            track.add(i * 1000L, latitude, longitude, Double.NaN, Double.NaN);
+            simplifier.offer(i * 1000L, latitude, longitude, Double.NaN, Double.NaN, out);
+        }
+        TrackPoints kept = TrackCodec.decode(out.toByteArray(), out.size());
+        kept.addAll(simplifier.pending());
+
+        assertTrue(kept.size() < track.size() / 2, "kept " + kept.size());
+        int segment = 0;
+        for (int i = 0; i < track.size(); i++) {
+            while (kept.time(segment + 1) < track.time(i)) {
+                segment++;
+            }
+            double offset = offsetMeters(track.latitude(i), track.longitude(i), kept.latitude(segment),
+                    kept.longitude(segment), kept.latitude(segment + 1), kept.longitude(segment + 1));
+            // Plus the rounding of kept coordinates to 1e-6 degrees
+            assertTrue(offset <= tolerance + 0.2, "point " + i + " is " + offset + " m off");
+        }
+    }
+}
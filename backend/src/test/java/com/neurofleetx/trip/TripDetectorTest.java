@@ -0,0 +1,122 @@
+package com.neurofleetx.trip;
+
+import com.neurofleetx.model.Trip;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TripDetectorTest {
+
+    private static final long T0 = 1_700_000_000_000L;
+    // 0.001 degrees of latitude
+    private static final double STEP_KM = 0.1112;
+
+    private final List<Trip> trips = new ArrayList<>();
+
+    // Moving from 5 km/h, trips end after a 2 minute stop or 5 minutes of silence and need 200 m
+    private final TripDetector detector = new TripDetector(5, 120_000, 300_000, 200, 250, trips::add);
+
+    private void update(double latitude, double speed, double battery, long seconds) {
+        detector.update(1, latitude, 77.59, speed, battery, "BATTERY", T0 + seconds * 1000);
+    }
+
+    private static LocalDateTime at(long seconds) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(T0 + seconds * 1000), ZoneId.systemDefault());
+    }
+
+    @Test
+    void shortStopIsIdleTimeAndLongStopEndsTheTripWhereItBegan() {
+        update(12.900, 0, 80, 0);
+        update(12.901, 40, 80, 10);
+        update(12.902, 40, 80, 20);
+        update(12.903, 40, 80, 30);
+        update(12.903, 0, 80, 40);
+        update(12.903, 0, 80, 70);
+        update(12.904, 40, 79.5, 100);
+        update(12.905, 40, 79, 110);
+        update(12.905, 0, 79, 120);
+        update(12.905, 0, 79, 200);
+        assertTrue(trips.isEmpty());
+
+        update(12.905, 0, 79, 240);
+
+        assertEquals(1, trips.size());
+        Trip trip = trips.get(0);
+        assertEquals(at(0), trip.getStartedAt());
+        assertEquals(at(120), trip.getEndedAt());
+        assertEquals(12.900, trip.getStartLatitude());
+        assertEquals(12.905, trip.getEndLatitude());
+        assertEquals(5 * STEP_KM, trip.getDistanceKm(), 0.001);
+        assertEquals(120, trip.getDurationSeconds());
+        assertEquals(60, trip.getIdleSeconds());
+        assertEquals(-1.0, trip.getEnergyDelta());
+        assertEquals(1 / trip.getDistanceKm(), trip.getEnergyPerKm(), 0.001);
+        assertNull(detector.current(1));
+    }
+
+    @Test
+    void gapEndsTheTripAtTheLastUpdateAndTheNextStartsFresh() {
+        update(12.900, 0, 80, 0);
+        update(12.901, 40, 80, 10);
+        update(12.902, 40, 80, 20);
+
+        update(12.950, 40, 75, 420);
+
+        assertEquals(1, trips.size());
+        assertEquals(at(20), trips.get(0).getEndedAt());
+        assertEquals(12.902, trips.get(0).getEndLatitude());
+        assertEquals(2 * STEP_KM, trips.get(0).getDistanceKm(), 0.001);
+        Trip current = detector.current(1);
+        assertEquals(at(420), current.getStartedAt());
+        assertEquals(12.950, current.getStartLatitude());
+        assertEquals(0.0, current.getDistanceKm());
+    }
+
+    @Test
+    void gpsJumpIsDropped() {
+        update(12.900, 0, 80, 0);
+        update(12.901, 40, 80, 10);
+        update(13.500, 40, 80, 20);
+        update(12.902, 40, 80, 30);
+
+        assertEquals(1, detector.getJumps());
+        assertEquals(2 * STEP_KM, detector.current(1).getDistanceKm(), 0.001);
+    }
+
+    @Test
+    void sweepEndsASilentTripAndDiscardsOneTooShort() {
+        update(12.900, 0, 80, 0);
+        update(12.9005, 40, 80, 10);
+
+        detector.sweep(T0 + 200_000);
+        assertEquals(0, detector.getDiscarded());
+        detector.sweep(T0 + 400_000);
+
+        assertTrue(trips.isEmpty());
+        assertEquals(1, detector.getDiscarded());
+        assertNull(detector.current(1));
+    }
+
+    @Test
+    void sweepEndsAPausedTripAfterTheStopThreshold() {
+        update(12.900, 0, 80, 0);
+        update(12.902, 40, 80, 20);
+        update(12.903, 40, 80, 30);
+        update(12.903, 0, 80, 40);
+
+        detector.sweep(T0 + 100_000);
+        assertTrue(trips.isEmpty());
+        detector.sweep(T0 + 160_000);
+
+        assertEquals(1, trips.size());
+        assertEquals(at(40), trips.get(0).getEndedAt());
+    }
+}
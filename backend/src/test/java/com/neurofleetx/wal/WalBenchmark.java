@@ -0,0 +1,128 @@
+package com.neurofleetx.wal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Sustained append throughput of the {@link WriteAheadLog}. Each thread keeps
+ * up to {@code inflight} appends uncommitted; 1 models a writer that waits for
+ * every commit, larger values a pipelined producer such as the gateway.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *   com.neurofleetx.wal.WalBenchmark --dir=/tmp/wal-bench --durability=GROUP --threads=8 --inflight=64 --seconds=10 --size=512
+ * </pre>
+ */
+public class WalBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            int split = option.indexOf('=');
+            options.put(split < 0 ? option : option.substring(0, split), split < 0 ? "" : option.substring(split + 1));
+        }
+        Path dir = Paths.get(options.getOrDefault("dir", "data/wal-bench"));
+        WalDurability durability = WalDurability.valueOf(options.getOrDefault("durability", "GROUP"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "8"));
+        int inflight = Integer.parseInt(options.getOrDefault("inflight", "1"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "10"));
+        int size = Integer.parseInt(options.getOrDefault("size", "512"));
+        long groupCommitMs = Long.parseLong(options.getOrDefault("group-commit-ms", "5"));
+        int groupCommitBytes = Integer.parseInt(options.getOrDefault("group-commit-bytes", "1048576"));
+        long segmentBytes = Long.parseLong(options.getOrDefault("segment-bytes", "67108864"));
+
+        deleteDirectory(dir);
+        WriteAheadLog wal = new WriteAheadLog(dir, durability, groupCommitMs, groupCommitBytes, segmentBytes, 1000);
+        wal.open(record -> { });
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        List<long[]> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            latencies.add(null);
+            int index = t;
+            Thread worker = new Thread(() -> latencies.set(index, run(wal, size, inflight, deadline, index)),
+                    "wal-bench-" + t);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        // Everything is committed, mark it flushed so the benchmark also exercises segment deletion
+        Map<String, Object> before = wal.getStats();
+        wal.markFlushed((Long) before.get("committedSequence"));
+        wal.close();
+        Map<String, Object> stats = wal.getStats();
+
+        long appends = (Long) stats.get("appends");
+        long bytes = (Long) stats.get("bytesWritten");
+        long groups = (Long) stats.get("groups");
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%s, %d threads x %d in flight, %d byte records, %.1f s%n", durability, threads, inflight, size, elapsed);
+        System.out.printf("%.0f appends/s, %.1f MB/s, %d groups (%.1f records/group), %d fsyncs, %d segments left%n",
+                appends / elapsed, bytes / elapsed / 1e6, groups, groups == 0 ? 0.0 : (double) appends / groups,
+                (Long) stats.get("fsyncs"), (Integer) stats.get("segments"));
+        if (all.length > 0) {
+            System.out.printf("commit latency ms: p50 %.2f, p99 %.2f, p99.9 %.2f, max %.2f%n",
+                    percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999), all[all.length - 1] / 1e6);
+        }
+        deleteDirectory(dir);
+    }
+
+    private static long[] run(WriteAheadLog wal, int size, int inflight, long deadline, int seed) {
+        Random random = new Random(seed);
+        ArrayDeque<Long> appendedAt = new ArrayDeque<>();
+        ArrayDeque<WriteAheadLog.Append> appends = new ArrayDeque<>();
+        long[] latencies = new long[1 << 16];
+        int count = 0;
+        while (System.nanoTime() < deadline || !appends.isEmpty()) {
+            if (appends.size() >= inflight || (System.nanoTime() >= deadline && !appends.isEmpty())) {
+                appends.poll().committed().join();
+                long latency = System.nanoTime() - appendedAt.poll();
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = latency;
+                continue;
+            }
+            byte[] payload = new byte[size];
+            random.nextBytes(payload);
+            appendedAt.add(System.nanoTime());
+            appends.add(wal.append(payload));
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(quantile * sorted.length))] / 1e6;
+    }
+
+    private static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
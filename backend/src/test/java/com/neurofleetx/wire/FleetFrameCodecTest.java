@@ -0,0 +1,226 @@
+package com.neurofleetx.wire;
+
+import com.neurofleetx.model.Vehicle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FleetFrameCodecTest {
+
+    private static Vehicle vehicle(long id, String number, String status, Double battery, Double latitude,
+                                   Double longitude) {
+        Vehicle vehicle = new Vehicle(number, "Model 3", "Tesla", "SEDAN", status);
+        vehicle.setId(id);
+        vehicle.setBatteryLevel(battery);
+        vehicle.setLatitude(latitude);
+        vehicle.setLongitude(longitude);
+        vehicle.setHealthScore(87);
+        vehicle.setSpeed(42.5);
+        vehicle.setMileage(123_456L);
+        vehicle.setVersion(3L);
+        return vehicle;
+    }
+
+    private static FleetFrame roundTrip(FleetFrame frame) {
+        return FleetFrameCodec.decode(FleetFrameCodec.encode(frame));
+    }
+
+    @Test
+    void snapshotRoundTrip() {
+        List<VehicleRecord> records = new ArrayList<>();
+        records.add(VehicleRecord.of(vehicle(1, "NF-001", "AVAILABLE", 80.25, 12.9716, 77.5946)));
+        records.add(VehicleRecord.of(vehicle(2, "NF-002", "AVAILABLE", 15.0, 12.9816, 77.6046)));
+        records.add(VehicleRecord.of(vehicle(40, "NF-040", "IN_USE", 55.5, 12.9616, 77.5846)));
+        FleetFrame frame = new FleetFrame(FleetFrame.Kind.SNAPSHOT, 1_000_002L, 0, records, new ArrayList<>());
+
+        FleetFrame decoded = roundTrip(frame);
+
+        assertEquals(FleetFrame.Kind.SNAPSHOT, decoded.getKind());
+        assertEquals(1_000_002L, decoded.getVersion());
+        assertEquals(0, decoded.getBaseVersion());
+        assertEquals(3, decoded.getRecords().size());
+        for (int i = 0; i < records.size(); i++) {
+            Vehicle expected = records.get(i).toVehicle();
+            Vehicle actual = decoded.getRecords().get(i).toVehicle();
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getVehicleNumber(), actual.getVehicleNumber());
+            assertEquals(expected.getModel(), actual.getModel());
+            assertEquals(expected.getManufacturer(), actual.getManufacturer());
+            assertEquals(expected.getType(), actual.getType());
+            assertEquals(expected.getStatus(), actual.getStatus());
+            assertEquals(expected.getBatteryLevel(), actual.getBatteryLevel());
+            assertEquals(expected.getLatitude(), actual.getLatitude());
+            assertEquals(expected.getLongitude(), actual.getLongitude());
+            assertEquals(expected.getHealthScore(), actual.getHealthScore());
+            assertEquals(expected.getSpeed(), actual.getSpeed());
+            assertEquals(expected.getMileage(), actual.getMileage());
+            assertEquals(expected.getVersion(), actual.getVersion());
+        }
+        assertTrue(decoded.getDeleted().isEmpty());
+    }
+
+    @Test
+    void changesRoundTripKeepsDeletedIds() {
+        FleetFrame frame = new FleetFrame(FleetFrame.Kind.CHANGES, 20, 10,
+                List.of(VehicleRecord.of(vehicle(7, "NF-007", "MAINTENANCE", 60.0, 12.97, 77.59))),
+                new ArrayList<>(Arrays.asList(900L, 3L, 41L)));
+
+        FleetFrame decoded = roundTrip(frame);
+
+        assertEquals(FleetFrame.Kind.CHANGES, decoded.getKind());
+        assertEquals(10, decoded.getBaseVersion());
+        assertEquals(List.of(3L, 41L, 900L), decoded.getDeleted());
+    }
+
+    @Test
+    void changesCarryOnlyChangedAndClearedFields() {
+        Vehicle vehicle = vehicle(7, "NF-007", "IN_USE", 60.0, 12.97, 77.59);
+        vehicle.setFuelLevel(null);
+        VehicleRecord record = VehicleRecord.changes(vehicle,
+                field -> field.equals("latitude") || field.equals("longitude") || field.equals("fuelLevel"));
+
+        VehicleRecord decoded = roundTrip(new FleetFrame(FleetFrame.Kind.CHANGES, 20, 10, List.of(record),
+                new ArrayList<>())).getRecords().get(0);
+
+        assertEquals(12.97, decoded.get(WireField.LATITUDE));
+        assertEquals(77.59, decoded.get(WireField.LONGITUDE));
+        assertEquals(3L, decoded.get(WireField.VERSION));
+        assertNull(decoded.get(WireField.VEHICLE_NUMBER));
+        assertNull(decoded.get(WireField.MODEL));
+        assertNull(decoded.get(WireField.SPEED));
+        assertTrue(decoded.isCleared(WireField.FUEL_LEVEL));
+        assertFalse(decoded.isCleared(WireField.BATTERY_LEVEL));
+        assertEquals(List.of("id", "latitude", "longitude", "version", "fuelLevel"),
+                new ArrayList<>(decoded.toPatch().keySet()));
+    }
+
+    @Test
+    void nullFieldsStayAbsent() {
+        Vehicle vehicle = vehicle(5, "NF-005", "AVAILABLE", null, null, null);
+        vehicle.setModel(null);
+        vehicle.setMileage(null);
+
+        Vehicle decoded = roundTrip(new FleetFrame(FleetFrame.Kind.SNAPSHOT, 1, 0,
+                List.of(VehicleRecord.of(vehicle)), new ArrayList<>())).getRecords().get(0).toVehicle();
+
+        assertNull(decoded.getModel());
+        assertNull(decoded.getBatteryLevel());
+        assertNull(decoded.getFuelLevel());
+        assertNull(decoded.getLatitude());
+        assertNull(decoded.getLongitude());
+        assertNull(decoded.getMileage());
+        assertEquals("NF-005", decoded.getVehicleNumber());
+        assertEquals(87, decoded.getHealthScore());
+    }
+
+    @Test
+    void telemetryRoundTripCarriesOnlyPresentFields() {
+        List<VehicleRecord> records = List.of(
+                new VehicleRecord(12).set(WireField.SPEED, 31.0).set(WireField.VERSION, 4L),
+                new VehicleRecord(9).set(WireField.LATITUDE, -33.86882).set(WireField.LONGITUDE, -70.648291),
+                new VehicleRecord(9).set(WireField.LATITUDE, -33.86901).set(WireField.LONGITUDE, 151.209296),
+                new VehicleRecord(3).set(WireField.STATUS, "IN_USE").set(WireField.MILEAGE, -5L));
+
+        FleetFrame decoded = roundTrip(FleetFrame.telemetry(records));
+
+        assertEquals(FleetFrame.Kind.TELEMETRY, decoded.getKind());
+        assertEquals(4, decoded.getRecords().size());
+        VehicleRecord first = decoded.getRecords().get(0);
+        assertEquals(12, first.getId());
+        assertEquals(31.0, first.get(WireField.SPEED));
+        assertEquals(4L, first.get(WireField.VERSION));
+        assertNull(first.get(WireField.LATITUDE));
+        assertEquals(-33.86882, decoded.getRecords().get(1).get(WireField.LATITUDE));
+        assertEquals(-70.648291, decoded.getRecords().get(1).get(WireField.LONGITUDE));
+        assertEquals(-33.86901, decoded.getRecords().get(2).get(WireField.LATITUDE));
+        assertEquals(151.209296, decoded.getRecords().get(2).get(WireField.LONGITUDE));
+        VehicleRecord last = decoded.getRecords().get(3);
+        assertEquals(3, last.getId());
+        assertEquals("IN_USE", last.get(WireField.STATUS));
+        assertEquals(-5L, last.get(WireField.MILEAGE));
+        assertEquals(List.of("id", "status", "mileage"), new ArrayList<>(last.toPatch().keySet()));
+    }
+
+    @Test
+    void roundsToFieldResolution() {
+        VehicleRecord record = new VehicleRecord(1)
+                .set(WireField.BATTERY_LEVEL, 47.126)
+                .set(WireField.FUEL_LEVEL, 0.004)
+                .set(WireField.SPEED, -12.3449)
+                .set(WireField.LATITUDE, 12.97160049)
+                .set(WireField.LONGITUDE, -77.5946006);
+
+        VehicleRecord decoded = roundTrip(FleetFrame.telemetry(List.of(record))).getRecords().get(0);
+
+        assertEquals(47.13, decoded.get(WireField.BATTERY_LEVEL));
+        assertEquals(0.0, decoded.get(WireField.FUEL_LEVEL));
+        assertEquals(-12.34, decoded.get(WireField.SPEED));
+        assertEquals(12.9716, decoded.get(WireField.LATITUDE));
+        assertEquals(-77.594601, decoded.get(WireField.LONGITUDE));
+    }
+
+    @Test
+    void rejectsTruncatedFrames() {
+        byte[] bytes = FleetFrameCodec.encode(new FleetFrame(FleetFrame.Kind.SNAPSHOT, 5, 0,
+                List.of(VehicleRecord.of(vehicle(1, "NF-001", "AVAILABLE", 80.0, 12.97, 77.59))),
+                new ArrayList<>(List.of(2L))));
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(WireFormatException.class, () -> FleetFrameCodec.decode(truncated),
+                    "decoding the first " + length + " bytes");
+        }
+    }
+
+    @Test
+    void rejectsTrailingBytes() {
+        byte[] bytes = FleetFrameCodec.encode(FleetFrame.telemetry(
+                List.of(new VehicleRecord(1).set(WireField.SPEED, 10.0))));
+        byte[] padded = Arrays.copyOf(bytes, bytes.length + 1);
+
+        WireFormatException e = assertThrows(WireFormatException.class, () -> FleetFrameCodec.decode(padded));
+        assertTrue(e.getMessage().contains("trailing"));
+    }
+
+    @Test
+    void rejectsDictionaryIndexOutsideTheDictionary() {
+        WireOutput out = new WireOutput(32);
+        out.writeInt(FleetFrameCodec.MAGIC);
+        out.writeByte(FleetFrameCodec.FORMAT_VERSION);
+        out.writeByte(FleetFrame.Kind.TELEMETRY.ordinal());
+        out.writeVarint(0);
+        out.writeVarint(0);
+        out.writeVarint(1);
+        out.writeString("AVAILABLE");
+        out.writeVarint(1);
+        out.writeZigzag(1);
+        out.writeVarint(1L << WireField.STATUS.ordinal());
+        out.writeVarint(1);
+        out.writeVarint(0);
+
+        WireFormatException e = assertThrows(WireFormatException.class,
+                () -> FleetFrameCodec.decode(out.toByteArray()));
+        assertTrue(e.getMessage().contains("dictionary"));
+    }
+
+    @Test
+    void rejectsWrongMagicAndVersion() {
+        byte[] bytes = FleetFrameCodec.encode(FleetFrame.telemetry(new ArrayList<>()));
+        byte[] badMagic = bytes.clone();
+        badMagic[0] ^= 1;
+        byte[] badVersion = bytes.clone();
+        badVersion[4] = (byte) (FleetFrameCodec.FORMAT_VERSION + 1);
+
+        assertThrows(WireFormatException.class, () -> FleetFrameCodec.decode(badMagic));
+        assertThrows(WireFormatException.class, () -> FleetFrameCodec.decode(badVersion));
+        assertArrayEquals(bytes, FleetFrameCodec.encode(FleetFrameCodec.decode(bytes)));
+    }
+}
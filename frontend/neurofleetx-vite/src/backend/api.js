@@ -75,6 +75,27 @@ export const aiModelService = {
   trainModel: () => api.post('/ai/train')
 };
 
+// Fleet simulator API endpoints
+export const simulationService = {
+  // Start a simulation run, e.g. { source: 'SYNTHETIC', vehicles: 10000, sink: 'SERVICE' }
+  start: (plan) => api.post('/simulation/start', plan),
+  
+  // Stop the current run
+  stop: () => api.post('/simulation/stop'),
+  
+  // Progress, throughput and latency of the current or last run
+  getStatus: () => api.get('/simulation/status')
+};
+
+// ETA prediction API endpoints
+export const etaService = {
+  // Predict candidate routes in one batch, e.g. { routes: [{ id: 'a', waypoints: [[12.97, 77.59], [12.93, 77.62]] }] }
+  predictRoutes: (request) => api.post('/eta/routes', request),
+  
+  // Serving model weights and training progress
+  getModel: () => api.get('/eta/model')
+};
+
 // User API endpoints
 export const userService = {
   // User signup
@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react';
-import { vehicleService } from '../backend/api';
+import { vehicleService, etaService } from '../backend/api';
 
 const RouteOptimization = () => {
   // State for vehicles data from backend
@@ -56,9 +56,9 @@ const RouteOptimization = () => {
     fetchVehicles();
   }, []);
 
-  // Mock route data with more detailed information
+  // Mock route data with more detailed information; ETAs and distances come from the ETA service
   useEffect(() => {
-    // Mock routes data
+    // Mock routes data, with waypoints on the road network as [latitude, longitude]
     const mockRoutes = [
       {
         id: 1,
@@ -66,15 +66,18 @@ const RouteOptimization = () => {
         vehicle: 'NF-001',
         startTime: '09:00 AM',
         endTime: '11:30 AM',
-        distance: '12.5 miles',
-        eta: '25 min',
+        distance: '—',
+        eta: 'Calculating…',
         stops: 5,
         status: 'ACTIVE',
-        startLocation: 'Manhattan, NY',
-        endLocation: 'Midtown, NY',
+        startLocation: 'MG Road',
+        endLocation: 'Koramangala',
+        waypoints: [[12.9756, 77.6066], [12.9600, 77.6100], [12.9352, 77.6245]],
         alternateRoutes: [
-          { id: 1, name: 'Via FDR Drive', eta: '30 min', distance: '15.2 miles', traffic: 'low' },
-          { id: 2, name: 'Via West Side Hwy', eta: '35 min', distance: '16.8 miles', traffic: 'medium' }
+          { id: 1, name: 'Via Richmond Road', eta: 'Calculating…', distance: '—', traffic: 'low',
+            waypoints: [[12.9756, 77.6066], [12.9650, 77.6000], [12.9352, 77.6245]] },
+          { id: 2, name: 'Via Old Airport Road', eta: 'Calculating…', distance: '—', traffic: 'medium',
+            waypoints: [[12.9756, 77.6066], [12.9600, 77.6450], [12.9352, 77.6245]] }
         ]
       },
       {
@@ -83,20 +86,24 @@ const RouteOptimization = () => {
         vehicle: 'NF-002',
         startTime: '10:15 AM',
         endTime: '01:45 PM',
-        distance: '28.3 miles',
-        eta: '42 min',
+        distance: '—',
+        eta: 'Calculating…',
         stops: 8,
         status: 'PLANNED',
-        startLocation: 'Downtown, NY',
-        endLocation: 'JFK Airport',
+        startLocation: 'Majestic',
+        endLocation: 'Hebbal',
+        waypoints: [[12.9767, 77.5713], [13.0000, 77.5800], [13.0358, 77.5970]],
         alternateRoutes: [
-          { id: 1, name: 'Via Queens Blvd', eta: '50 min', distance: '32.1 miles', traffic: 'heavy' },
-          { id: 2, name: 'Via Belt Pkwy', eta: '45 min', distance: '30.5 miles', traffic: 'medium' }
+          { id: 1, name: 'Via Bellary Road', eta: 'Calculating…', distance: '—', traffic: 'heavy',
+            waypoints: [[12.9767, 77.5713], [13.0100, 77.5950], [13.0358, 77.5970]] },
+          { id: 2, name: 'Via Malleshwaram', eta: 'Calculating…', distance: '—', traffic: 'medium',
+            waypoints: [[12.9767, 77.5713], [13.0030, 77.5700], [13.0358, 77.5970]] }
         ]
       }
     ];
     
     setRoutes(mockRoutes);
+    predictEtas(mockRoutes);
     
     // Update map data with routes
     setMapData(prev => ({
@@ -128,6 +135,46 @@ const RouteOptimization = () => {
     }));
   }, []);
 
+  const formatDuration = (seconds) => {
+    const minutes = Math.max(1, Math.round(seconds / 60));
+    return minutes < 60 ? `${minutes} min` : `${Math.floor(minutes / 60)} h ${minutes % 60} min`;
+  };
+
+  // Predict every route and alternate in one batch and fill in their ETAs and distances
+  const predictEtas = async (routeList) => {
+    const candidates = [];
+    routeList.forEach(route => {
+      candidates.push({ id: `${route.id}`, waypoints: route.waypoints });
+      (route.alternateRoutes || []).forEach(alternate => {
+        candidates.push({ id: `${route.id}-${alternate.id}`, waypoints: alternate.waypoints });
+      });
+    });
+    const withEta = (item, predicted) => {
+      if (!predicted || predicted.status !== 'OK') {
+        return { ...item, eta: '—' };
+      }
+      return { ...item, eta: formatDuration(predicted.etaSeconds), distance: `${predicted.distanceKm.toFixed(1)} km` };
+    };
+    try {
+      const response = await etaService.predictRoutes({ routes: candidates });
+      const predictions = {};
+      response.data.routes.forEach(predicted => {
+        predictions[predicted.id] = predicted;
+      });
+      setRoutes(routeList.map(route => ({
+        ...withEta(route, predictions[`${route.id}`]),
+        alternateRoutes: (route.alternateRoutes || []).map(alternate =>
+          withEta(alternate, predictions[`${route.id}-${alternate.id}`]))
+      })));
+    } catch (err) {
+      console.error('Error predicting ETAs:', err);
+      setRoutes(routeList.map(route => ({
+        ...withEta(route, null),
+        alternateRoutes: (route.alternateRoutes || []).map(alternate => withEta(alternate, null))
+      })));
+    }
+  };
+
   const getStatusColor = (status) => {
     switch(status) {
       case 'ACTIVE': return 'bg-gradient-to-r from-cyan-500 to-blue-600';
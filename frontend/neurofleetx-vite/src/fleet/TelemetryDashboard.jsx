@@ -7,11 +7,15 @@ const TelemetryDashboard = () => {
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
 
-  // Fetch vehicles data from backend
+  // Poll the backend for telemetry; the server-side fleet simulator or real
+  // devices keep it moving, and unchanged polls are cheap ETag revalidations
   useEffect(() => {
+    let firstLoad = true;
     const fetchVehicles = async () => {
       try {
-        setLoading(true);
+        if (firstLoad) {
+          setLoading(true);
+        }
         const response = await vehicleService.getAllVehicles();
         
         // Transform the data to match the expected structure
@@ -26,56 +30,15 @@ const TelemetryDashboard = () => {
         console.error('Error fetching vehicles:', err);
         setError('Failed to fetch vehicles data from the backend.');
       } finally {
-        setLoading(false);
+        if (firstLoad) {
+          setLoading(false);
+          firstLoad = false;
+        }
       }
     };
 
     fetchVehicles();
-  }, []);
-
-  // Simulate real-time telemetry updates
-  useEffect(() => {
-    const interval = setInterval(() => {
-      setVehicles(prevVehicles => {
-        return prevVehicles.map(vehicle => {
-          // Only update vehicles that are in use
-          if (vehicle.status === 'IN_USE') {
-            // Simulate speed changes
-            const speedChange = Math.random() * 10 - 5; // -5 to +5 mph
-            const newSpeed = Math.max(0, Math.min(80, vehicle.speed + speedChange));
-            
-            // Simulate battery/fuel consumption
-            let newBatteryLevel = vehicle.batteryLevel;
-            let newFuelLevel = vehicle.fuelLevel;
-            
-            if (vehicle.batteryLevel !== null) {
-              // Electric vehicle - consume battery based on speed
-              const batteryConsumption = (newSpeed * 0.02) + (Math.random() * 0.1);
-              newBatteryLevel = Math.max(0, vehicle.batteryLevel - batteryConsumption);
-            } else {
-              // Fuel vehicle - consume fuel based on speed
-              const fuelConsumption = (newSpeed * 0.015) + (Math.random() * 0.05);
-              newFuelLevel = Math.max(0, vehicle.fuelLevel - fuelConsumption);
-            }
-            
-            // Simulate location changes (very simplified)
-            const latChange = (Math.random() - 0.5) * 0.001;
-            const lngChange = (Math.random() - 0.5) * 0.001;
-            
-            return {
-              ...vehicle,
-              speed: parseFloat(newSpeed.toFixed(1)),
-              batteryLevel: newBatteryLevel !== undefined ? parseFloat(newBatteryLevel.toFixed(1)) : vehicle.batteryLevel,
-              fuelLevel: newFuelLevel !== undefined ? parseFloat(newFuelLevel.toFixed(1)) : vehicle.fuelLevel,
-              latitude: parseFloat((vehicle.latitude + latChange).toFixed(4)),
-              longitude: parseFloat((vehicle.longitude + lngChange).toFixed(4)),
-              lastUpdate: new Date()
-            };
-          }
-          return vehicle;
-        });
-      });
-    }, 5000); // Update every 5 seconds
+    const interval = setInterval(fetchVehicles, 5000); // Refresh every 5 seconds
 
     return () => clearInterval(interval);
   }, []);